@@ -19,11 +19,15 @@ import de.galacticfy.core.listener.*;
 import de.galacticfy.core.motd.GalacticfyMotdProvider;
 import de.galacticfy.core.permission.GalacticfyPermissionService;
 import de.galacticfy.core.service.*;
+import de.galacticfy.core.sync.DatabaseChangeLogTransport;
+import de.galacticfy.core.sync.InvalidationBus;
+import de.galacticfy.core.sync.InvalidationEvent;
 import de.galacticfy.core.util.DiscordWebhookNotifier;
 import org.slf4j.Logger;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Locale;
 import java.util.UUID;
 import java.util.function.BiConsumer;
 
@@ -52,17 +56,28 @@ public class GalacticfyCore {
     private PunishmentService punishmentService;
     private ReportService reportService;
     private EconomyService economyService;
+    private EconomyLedger economyLedger;
     private DailyRewardService dailyRewardService;
     private QuestService questService;
     private MessageService messageService;
     private AutoBroadcastService autoBroadcastService;
+    private RankExpiryService rankExpiryService;
+    private InvalidationBus invalidationBus;
 
     // Identity Cache (Name<->UUID)
     private PlayerIdentityCacheService identityCacheService;
+    // Namen für Tab-Completion (gemeinsam für alle Commands)
+    private KnownNameIndex knownNameIndex;
+
+    // IP-Historie / Alt-Erkennung
+    private IpHistoryService ipHistoryService;
 
     // Report Cooldown
     private ReportCooldownService reportCooldownService;
 
+    // Team-Alerts (Empfänger-Mengen + Zusammenfassen)
+    private StaffAlertService staffAlertService;
+
     // Plugin-Message-Channel für Quest-GUI (Proxy -> Spigot UND CLAIM zurück)
     private static final ChannelIdentifier QUESTS_CHANNEL =
             MinecraftChannelIdentifier.create("galacticfy", "quests");
@@ -96,19 +111,57 @@ public class GalacticfyCore {
         this.databaseManager.init(config);
         new DatabaseMigrationService(databaseManager, logger).runMigrations();
 
+        // ==============================
+        // Cross-Proxy-Invalidierung (gf_change_log)
+        // ==============================
+        String proxyId = config.getString("sync.proxyId", "");
+        if (proxyId == null || proxyId.isBlank()) {
+            proxyId = UUID.randomUUID().toString();
+        }
+        this.invalidationBus = new InvalidationBus(proxyId, new DatabaseChangeLogTransport(
+                proxy, this, databaseManager, logger,
+                Duration.ofMillis(Math.max(100, config.getInt("sync.pollIntervalMillis", 1000))),
+                Duration.ofMinutes(Math.max(1, config.getInt("sync.retentionMinutes", 60)))
+        ), logger);
+
+        this.knownNameIndex = new KnownNameIndex(databaseManager, logger);
+
         this.sessionService = new SessionService(databaseManager, logger);
-        this.economyService = new EconomyService(databaseManager, logger);
+        this.economyLedger = new EconomyLedger(databaseManager, logger,
+                config.getInt("economy.ledger.maxQueueSize", EconomyLedger.DEFAULT_MAX_QUEUE_SIZE));
+        int ledgerFlushSeconds = Math.max(1, config.getInt("economy.ledger.flushIntervalSeconds", 2));
+        proxy.getScheduler()
+                .buildTask(this, () -> databaseManager.runAsync("economy.ledger", economyLedger::flush))
+                .delay(Duration.ofSeconds(ledgerFlushSeconds))
+                .repeat(Duration.ofSeconds(ledgerFlushSeconds))
+                .schedule();
+        this.economyService = new EconomyService(databaseManager, logger, economyDurability(), economyLedger);
+        if (economyService.getDurability() == EconomyService.Durability.WRITE_BEHIND) {
+            int economyFlushSeconds = Math.max(1, config.getInt("economy.cache.flushIntervalSeconds", 2));
+            proxy.getScheduler()
+                    .buildTask(this, () -> databaseManager.runAsync("economy.flush", economyService::flushPending))
+                    .delay(Duration.ofSeconds(economyFlushSeconds))
+                    .repeat(Duration.ofSeconds(economyFlushSeconds))
+                    .schedule();
+        }
+        int leaderboardResyncSeconds = Math.max(30, config.getInt("economy.leaderboard.resyncSeconds", 300));
+        proxy.getScheduler()
+                .buildTask(this, () -> databaseManager.runAsync("economy.leaderboard", economyService::resyncLeaderboard))
+                .repeat(Duration.ofSeconds(leaderboardResyncSeconds))
+                .schedule();
         this.dailyRewardService = new DailyRewardService(databaseManager, economyService, logger);
 
         // ==============================
         // Services
         // ==============================
         this.teleportService = new ServerTeleportService(proxy, logger);
-        this.maintenanceService = new MaintenanceService(logger, databaseManager);
+        this.maintenanceService = new MaintenanceService(logger, databaseManager, invalidationBus);
         this.freezeService = new FreezeService(proxy);
         this.chatFilterService = new ChatFilterService();
-        this.permissionService = new GalacticfyPermissionService(databaseManager, logger);
-        this.punishmentService = new PunishmentService(databaseManager, logger);
+        this.permissionService = new GalacticfyPermissionService(databaseManager, logger, invalidationBus);
+        permissionService.setOnlineCheck(uuid -> proxy.getPlayer(uuid).isPresent());
+        this.punishmentService = new PunishmentService(databaseManager, logger, invalidationBus, knownNameIndex,
+                WarnEscalation.fromConfig(config.get("punishments.warnEscalation"), logger));
         this.reportService = new ReportService(databaseManager, logger);
         this.messageService = new MessageService(proxy, logger);
 
@@ -118,9 +171,39 @@ public class GalacticfyCore {
         // ==============================
         // Identity Cache + Report Cooldown
         // ==============================
-        this.identityCacheService = new PlayerIdentityCacheService(databaseManager, logger);
+        this.identityCacheService = new PlayerIdentityCacheService(databaseManager, logger, knownNameIndex);
+        knownNameIndex.loadAsync(); // erst nach ensureTable von gf_identity_cache
+        this.ipHistoryService = new IpHistoryService(databaseManager, logger,
+                config.getInt("ipHistory.maxAgeDays", 180));
+        ipHistoryService.loadAsync();
+
+        // Logins gesammelt schreiben und Logins anderer Proxys übernehmen
+        int ipHistoryFlushSeconds = Math.max(1, config.getInt("ipHistory.flushIntervalSeconds", 5));
+        proxy.getScheduler()
+                .buildTask(this, () -> databaseManager.runAsync("iphistory.flush", () -> {
+                    ipHistoryService.flush();
+                    ipHistoryService.syncFromDatabase();
+                }))
+                .delay(Duration.ofSeconds(ipHistoryFlushSeconds))
+                .repeat(Duration.ofSeconds(ipHistoryFlushSeconds))
+                .schedule();
+        proxy.getScheduler()
+                .buildTask(this, ipHistoryService::pruneMemory)
+                .delay(Duration.ofHours(1))
+                .repeat(Duration.ofHours(1))
+                .schedule();
         this.reportCooldownService = new ReportCooldownService(logger);
 
+        this.staffAlertService = new StaffAlertService(proxy, this, permissionService, logger,
+                Duration.ofSeconds(Math.max(1, config.getInt("alerts.coalesceSeconds", 5))));
+        // Sicherheitsnetz für Rang-Änderungen auf diesem Proxy (die anderer Proxys kommen über den Bus)
+        int alertResyncSeconds = Math.max(5, config.getInt("alerts.recipientResyncSeconds", 30));
+        proxy.getScheduler()
+                .buildTask(this, staffAlertService::refreshAll)
+                .delay(Duration.ofSeconds(alertResyncSeconds))
+                .repeat(Duration.ofSeconds(alertResyncSeconds))
+                .schedule();
+
         // ==============================
         // Quests + GUI (OHNE Community)
         // ==============================
@@ -140,12 +223,41 @@ public class GalacticfyCore {
                                 (u, comp) -> proxy.getPlayer(u).ifPresent(p -> p.sendMessage(comp));
 
                         // 1 Minute Spielzeit hinzufügen → triggert Daily/Weekly/Monthly-Quests
-                        questService.handlePlaytime(uuid, name, 1L, sender);
+                        databaseManager.runAsync("quest.playtime",
+                                () -> questService.handlePlaytime(uuid, name, 1L, sender));
                     });
                 })
                 .repeat(Duration.ofMinutes(1))
                 .schedule();
 
+        // Quest-GUI: UPDATEs pro Spieler sammeln und höchstens alle N ms senden
+        int questGuiMillis = Math.max(50, config.getInt("quests.gui.updateIntervalMillis", 250));
+        proxy.getScheduler()
+                .buildTask(this, () -> {
+                    if (questGuiMessenger.hasPendingUpdates()) {
+                        databaseManager.runAsync("quest.gui", questGuiMessenger::flushUpdates);
+                    }
+                })
+                .repeat(Duration.ofMillis(questGuiMillis))
+                .schedule();
+
+        // Quest-Progress-Cache: offline Spieler nach Grace-Period entfernen, Obergrenze durchsetzen
+        questService.configureCache(
+                Duration.ofSeconds(Math.max(0, config.getInt("quests.cache.graceSeconds", 300))),
+                config.getInt("quests.cache.maxPlayers", 5000)
+        );
+        proxy.getScheduler()
+                .buildTask(this, () -> databaseManager.runAsync("quest.evict", questService::evictIdlePlayers))
+                .repeat(Duration.ofSeconds(30))
+                .schedule();
+
+        // Quest-Write-Behind: dirty Progress-Einträge gesammelt nach gf_quest_progress schreiben
+        int questFlushSeconds = Math.max(1, config.getInt("quests.writeBehind.flushIntervalSeconds", 5));
+        proxy.getScheduler()
+                .buildTask(this, () -> databaseManager.runAsync("quest.flush", questService::flushDirtyProgress))
+                .repeat(Duration.ofSeconds(questFlushSeconds))
+                .schedule();
+
         String webhookUrl = "https://discord.com/api/webhooks/1443274192542765168/aHgrQP2ADryVWfhdoW5dcP7Vd8J_YU9aOkjEVkYNlVc-4wLEnAs-E5e-IfJg0fBwN8dJ";
         this.discordNotifier = new DiscordWebhookNotifier(logger, webhookUrl);
 
@@ -162,7 +274,7 @@ public class GalacticfyCore {
         // Quest-Command
         // ==============================
         CommandMeta questsMeta = commandManager.metaBuilder("quests").build();
-        commandManager.register(questsMeta, new QuestCommand(questService, questGuiMessenger, proxy));
+        commandManager.register(questsMeta, AsyncDatabaseCommand.wrap(databaseManager, "quests", new QuestCommand(questService, questGuiMessenger, proxy)));
 
         // ==============================
         // Teleport- & Utility-Commands
@@ -197,75 +309,77 @@ public class GalacticfyCore {
         CommandMeta maintenanceMeta = commandManager.metaBuilder("maintenance").build();
         commandManager.register(
                 maintenanceMeta,
-                new MaintenanceCommand(maintenanceService, proxy, discordNotifier, false, permissionService)
+                AsyncDatabaseCommand.wrap(databaseManager, "maintenance",
+                        new MaintenanceCommand(maintenanceService, proxy, discordNotifier, false, permissionService))
         );
 
         CommandMeta wartungMeta = commandManager.metaBuilder("wartung").build();
         commandManager.register(
                 wartungMeta,
-                new MaintenanceCommand(maintenanceService, proxy, discordNotifier, true, permissionService)
+                AsyncDatabaseCommand.wrap(databaseManager, "wartung",
+                        new MaintenanceCommand(maintenanceService, proxy, discordNotifier, true, permissionService))
         );
 
         // ==============================
         // Rank / Rollen-Verwaltung
         // ==============================
         CommandMeta rankMeta = commandManager.metaBuilder("rank").build();
-        commandManager.register(rankMeta, new RankCommand(permissionService, proxy));
+        commandManager.register(rankMeta, AsyncDatabaseCommand.wrap(databaseManager, "rank", new RankCommand(permissionService, proxy, staffAlertService)));
 
         CommandMeta proxyInfoMeta = commandManager.metaBuilder("proxyinfo")
                 .aliases("tps")
                 .build();
-        commandManager.register(proxyInfoMeta, new ProxyInfoCommand(proxy));
+        commandManager.register(proxyInfoMeta, new ProxyInfoCommand(proxy, databaseManager, questService, permissionService));
 
         // Reports GUI/Staff Command (dein /reports)
         CommandMeta reportsMeta = commandManager.metaBuilder("reports").build();
-        commandManager.register(reportsMeta, new ReportsCommand(proxy, permissionService, reportService, teleportService));
+        commandManager.register(reportsMeta, AsyncDatabaseCommand.wrap(databaseManager, "reports", new ReportsCommand(proxy, permissionService, reportService, teleportService)));
 
         // UPDATED: /seen kann jetzt offline
         CommandMeta seenMeta = commandManager.metaBuilder("seen").build();
-        commandManager.register(seenMeta, new SeenCommand(proxy, permissionService, sessionService, identityCacheService));
+        commandManager.register(seenMeta, AsyncDatabaseCommand.wrap(databaseManager, "seen", new SeenCommand(proxy, permissionService, sessionService, identityCacheService)));
 
         // ==============================
         // Punishment-Commands
         // ==============================
         CommandMeta banMeta = commandManager.metaBuilder("ban").build();
-        commandManager.register(banMeta, new BanCommand(proxy, permissionService, punishmentService, discordNotifier, identityCacheService));
+        commandManager.register(banMeta, AsyncDatabaseCommand.wrap(databaseManager, "ban", new BanCommand(proxy, permissionService, punishmentService, discordNotifier, identityCacheService)));
 
         CommandMeta banIpMeta = commandManager.metaBuilder("banip").build();
-        commandManager.register(banIpMeta, new BanIpCommand(proxy, permissionService, punishmentService, discordNotifier, identityCacheService));
+        commandManager.register(banIpMeta, AsyncDatabaseCommand.wrap(databaseManager, "banip", new BanIpCommand(proxy, permissionService, punishmentService, discordNotifier, identityCacheService)));
 
         CommandMeta unbanMeta = commandManager.metaBuilder("unban").build();
-        commandManager.register(unbanMeta, new UnbanCommand(punishmentService, permissionService, proxy, identityCacheService));
+        commandManager.register(unbanMeta, AsyncDatabaseCommand.wrap(databaseManager, "unban", new UnbanCommand(punishmentService, permissionService, proxy, identityCacheService)));
 
         CommandMeta muteMeta = commandManager.metaBuilder("mute").build();
-        commandManager.register(muteMeta, new MuteCommand(proxy, permissionService, punishmentService, discordNotifier, identityCacheService));
+        commandManager.register(muteMeta, AsyncDatabaseCommand.wrap(databaseManager, "mute", new MuteCommand(proxy, permissionService, punishmentService, discordNotifier, identityCacheService)));
 
         CommandMeta unmuteMeta = commandManager.metaBuilder("unmute").build();
-        commandManager.register(unmuteMeta, new UnmuteCommand(punishmentService, permissionService, proxy, identityCacheService));
+        commandManager.register(unmuteMeta, AsyncDatabaseCommand.wrap(databaseManager, "unmute", new UnmuteCommand(punishmentService, permissionService, proxy, identityCacheService)));
 
         CommandMeta kickMeta = commandManager.metaBuilder("kick").build();
-        commandManager.register(kickMeta, new KickCommand(proxy, permissionService, punishmentService, discordNotifier));
+        commandManager.register(kickMeta, AsyncDatabaseCommand.wrap(databaseManager, "kick", new KickCommand(proxy, permissionService, punishmentService, discordNotifier)));
 
         CommandMeta historyMeta = commandManager.metaBuilder("history").build();
-        commandManager.register(historyMeta, new HistoryCommand(proxy, punishmentService, permissionService, identityCacheService));
+        commandManager.register(historyMeta, AsyncDatabaseCommand.wrap(databaseManager, "history", new HistoryCommand(proxy, punishmentService, permissionService, identityCacheService)));
 
         CommandMeta checkMeta = commandManager.metaBuilder("check").build();
-        commandManager.register(checkMeta, new CheckCommand(proxy, permissionService, punishmentService, identityCacheService));
+        commandManager.register(checkMeta, AsyncDatabaseCommand.wrap(databaseManager, "check", new CheckCommand(proxy, permissionService, punishmentService, identityCacheService, ipHistoryService)));
 
         CommandMeta warningsMeta = commandManager.metaBuilder("warnings").build();
-        commandManager.register(warningsMeta, new WarningsCommand(proxy, punishmentService, permissionService, identityCacheService));
+        commandManager.register(warningsMeta, AsyncDatabaseCommand.wrap(databaseManager, "warnings", new WarningsCommand(proxy, punishmentService, permissionService, identityCacheService)));
 
         CommandMeta warnMeta = commandManager.metaBuilder("warn").build();
-        commandManager.register(warnMeta, new WarnCommand(proxy, permissionService, punishmentService, discordNotifier, identityCacheService));
+        commandManager.register(warnMeta, AsyncDatabaseCommand.wrap(databaseManager, "warn", new WarnCommand(proxy, permissionService, punishmentService, discordNotifier, identityCacheService)));
 
         // ==============================
         // Report Command (/report) – mit Cache + Cooldown
         // ==============================
         CommandMeta reportMeta = commandManager.metaBuilder("report").build();
-        commandManager.register(reportMeta, new ReportCommand(proxy, permissionService, reportService, identityCacheService, reportCooldownService));
+        commandManager.register(reportMeta, AsyncDatabaseCommand.wrap(databaseManager, "report", new ReportCommand(proxy, permissionService, reportService, identityCacheService, reportCooldownService, staffAlertService)));
 
         CommandMeta unwarnMeta = commandManager.metaBuilder("unwarn").build();
-        commandManager.register(unwarnMeta, new UnwarnCommand(proxy, punishmentService, permissionService, identityCacheService));
+        commandManager.register(unwarnMeta, AsyncDatabaseCommand.wrap(databaseManager, "unwarn", new UnwarnCommand(proxy, punishmentService, permissionService, identityCacheService)));
 
         // ==============================
         // Broadcast / Alert / Announce
@@ -309,16 +423,16 @@ public class GalacticfyCore {
         // Economy-Commands
         // ==============================
         CommandMeta moneyMeta = commandManager.metaBuilder("money").build();
-        commandManager.register(moneyMeta, new MoneyCommand(proxy, economyService, permissionService));
+        commandManager.register(moneyMeta, AsyncDatabaseCommand.wrap(databaseManager, "money", new MoneyCommand(proxy, economyService, permissionService)));
 
         CommandMeta payMeta = commandManager.metaBuilder("pay").build();
-        commandManager.register(payMeta, new PayCommand(proxy, economyService, permissionService));
+        commandManager.register(payMeta, AsyncDatabaseCommand.wrap(databaseManager, "pay", new PayCommand(proxy, economyService, permissionService)));
 
         CommandMeta ecoMeta = commandManager.metaBuilder("eco").build();
-        commandManager.register(ecoMeta, new EcoCommand(proxy, economyService, permissionService));
+        commandManager.register(ecoMeta, AsyncDatabaseCommand.wrap(databaseManager, "eco", new EcoCommand(proxy, economyService, permissionService)));
 
         CommandMeta baltopMeta = commandManager.metaBuilder("baltop").build();
-        commandManager.register(baltopMeta, new BaltopCommand(economyService));
+        commandManager.register(baltopMeta, AsyncDatabaseCommand.wrap(databaseManager, "baltop", new BaltopCommand(economyService)));
 
         // ==============================
         // Daily-Reward-Command
@@ -326,7 +440,7 @@ public class GalacticfyCore {
         CommandMeta dailyMeta = commandManager.metaBuilder("daily")
                 .aliases("dailyreward")
                 .build();
-        commandManager.register(dailyMeta, new DailyCommand(dailyRewardService, permissionService, proxy));
+        commandManager.register(dailyMeta, AsyncDatabaseCommand.wrap(databaseManager, "daily", new DailyCommand(dailyRewardService, permissionService, proxy)));
 
         // ==============================
         // Listener
@@ -337,27 +451,86 @@ public class GalacticfyCore {
         proxy.getEventManager().register(this, new FreezeListener(freezeService));
         proxy.getEventManager().register(this, new MaintenanceListener(maintenanceService, logger, permissionService));
         proxy.getEventManager().register(this, new PermissionsSetupListener(permissionService, logger));
-        proxy.getEventManager().register(this, new TablistPrefixListener(proxy, permissionService, logger));
-        proxy.getEventManager().register(this, new PunishmentLoginListener(punishmentService, logger, proxy, permissionService));
+        TablistPrefixListener tablistPrefixListener = new TablistPrefixListener(proxy, permissionService, logger);
+        proxy.getEventManager().register(this, tablistPrefixListener);
+        proxy.getEventManager().register(this, new PunishmentLoginListener(punishmentService, logger, staffAlertService, ipHistoryService));
+        proxy.getEventManager().register(this, new StaffAlertListener(staffAlertService));
         proxy.getEventManager().register(this, new ChatFilterListener(chatFilterService));
+        proxy.getEventManager().register(this, new MuteListener(punishmentService, logger));
         proxy.getEventManager().register(this, new ReportJoinNotifyListener(reportService, permissionService));
 
         // UPDATED: SessionListener braucht identityCacheService
-        proxy.getEventManager().register(this, new SessionListener(sessionService, questService, identityCacheService, logger));
+        proxy.getEventManager().register(this, new SessionListener(sessionService, questService, identityCacheService, databaseManager, logger));
 
         // Quest-Stat-Listener (für Fischen, Blöcke, etc.)
-        proxy.getEventManager().register(this, new QuestEventListener(questService, QUESTS_STATS_CHANNEL, proxy, logger));
+        proxy.getEventManager().register(this, new QuestGuiListener(QUESTS_CHANNEL, questGuiMessenger));
+        proxy.getEventManager().register(this, new QuestEventListener(questService, QUESTS_STATS_CHANNEL, proxy, databaseManager, logger));
+
+        // Punishment-Sweeper: abgelaufene Bans/Mutes in Batches deaktivieren
+        int punishSweepSeconds = Math.max(5, config.getInt("punishments.sweeper.intervalSeconds", 60));
+        int punishSweepBatch = Math.max(1, config.getInt("punishments.sweeper.batchSize", 500));
+        int punishSweepMaxBatches = Math.max(1, config.getInt("punishments.sweeper.maxBatchesPerRun", 20));
+        proxy.getScheduler()
+                .buildTask(this, () -> databaseManager.runAsync("punish.sweep",
+                        () -> punishmentService.sweepExpired(punishSweepBatch, punishSweepMaxBatches)))
+                .delay(Duration.ofSeconds(punishSweepSeconds))
+                .repeat(Duration.ofSeconds(punishSweepSeconds))
+                .schedule();
+
+        // Rang-Ablauf: exakt zum Zeitpunkt zurücksetzen, danach Tablist neu aufbauen
+        this.rankExpiryService = new RankExpiryService(
+                proxy, this, databaseManager, permissionService, logger, () -> {
+                    tablistPrefixListener.refreshAll();
+                    staffAlertService.refreshAll();
+                }
+        );
+        rankExpiryService.loadAsync();
+        int rankExpiryResyncMinutes = Math.max(1, config.getInt("ranks.expiry.resyncMinutes", 10));
+        proxy.getScheduler()
+                .buildTask(this, rankExpiryService::loadAsync)
+                .delay(Duration.ofMinutes(rankExpiryResyncMinutes))
+                .repeat(Duration.ofMinutes(rankExpiryResyncMinutes))
+                .schedule();
+
+        // Rang-Änderungen anderer Proxys → Tablist + Alert-Empfänger (nach dem Reload im PermissionService)
+        invalidationBus.subscribe(InvalidationEvent.Type.USER_ROLE_CHANGED, e -> {
+            tablistPrefixListener.refreshAll();
+            staffAlertService.refreshAll();
+        });
+        invalidationBus.subscribe(InvalidationEvent.Type.ROLE_DEFINITION_CHANGED, e -> {
+            tablistPrefixListener.refreshAll();
+            staffAlertService.refreshAll();
+        });
+        invalidationBus.start();
 
         logger.info("GalacticfyCore: Commands, Listener, Punishment-, Report-, Economy-, Daily- & Questsystem registriert (ohne Community-Quests).");
     }
 
+    private EconomyService.Durability economyDurability() {
+        String mode = config.getString("economy.cache.durability", "WRITE_THROUGH");
+        try {
+            return EconomyService.Durability.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Unbekannter economy.cache.durability '{}', nutze WRITE_THROUGH.", mode);
+            return EconomyService.Durability.WRITE_THROUGH;
+        }
+    }
+
     @Subscribe
     public void onProxyShutdown(ProxyShutdownEvent event) {
         logger.info("GalacticfyCore fährt herunter, schließe Ressourcen...");
 
         if (autoBroadcastService != null) autoBroadcastService.shutdown();
+        if (rankExpiryService != null) rankExpiryService.shutdown();
+        if (invalidationBus != null) invalidationBus.stop();
         if (maintenanceService != null) maintenanceService.shutdown();
         if (discordNotifier != null) discordNotifier.shutdown();
+        // erst DB-Tasks abarbeiten, dann den restlichen Quest-Progress schreiben, dann Pool schließen
+        if (databaseManager != null) databaseManager.shutdownExecutor();
+        if (questService != null) questService.flushDirtyProgress();
+        if (economyService != null) economyService.flushPending(); // nach den Quest-Rewards
+        if (economyLedger != null) economyLedger.flush();
+        if (ipHistoryService != null) ipHistoryService.flush();
         if (databaseManager != null) databaseManager.shutdown();
         if (punishmentService != null) punishmentService.shutdown();
 
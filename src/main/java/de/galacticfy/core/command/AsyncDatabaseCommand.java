@@ -0,0 +1,73 @@
+package de.galacticfy.core.command;
+
+import com.velocitypowered.api.command.SimpleCommand;
+import de.galacticfy.core.database.DatabaseManager;
+import net.kyori.adventure.text.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Wrapper für Commands, die in {@code execute} auf die Datenbank zugreifen.
+ *
+ * Velocity ruft {@code execute} auf seinen Command-Threads auf. Damit dort nie
+ * ein JDBC-Roundtrip hängt, wird die eigentliche Ausführung auf den DB-Executor
+ * des {@link DatabaseManager} verlagert (Query-Typ {@code cmd.<name>}).
+ *
+ * Tab-Completion: nur der DB-Teil ({@link SharedSuggestions}) läuft auf dem DB-Executor
+ * (Query-Typ {@code suggest.<name>}) und wird für alle Quellen gemeinsam kurz gecacht,
+ * siehe {@link SuggestionCache}. Permission-Filter und Online-Spieler laufen inline.
+ */
+public final class AsyncDatabaseCommand implements SimpleCommand {
+
+    private final DatabaseManager db;
+    private final String queryType;
+    private final SimpleCommand delegate;
+    private final SuggestionCache suggestions;
+
+    private AsyncDatabaseCommand(DatabaseManager db, String name, SimpleCommand delegate) {
+        this.db = db;
+        this.queryType = "cmd." + name;
+        this.delegate = delegate;
+        this.suggestions = new SuggestionCache(db, name, delegate);
+    }
+
+    public static SimpleCommand wrap(DatabaseManager db, String name, SimpleCommand delegate) {
+        return new AsyncDatabaseCommand(db, name, delegate);
+    }
+
+    @Override
+    public void execute(Invocation invocation) {
+        db.runAsync(queryType, () -> delegate.execute(invocation))
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof RejectedExecutionException) {
+                        invocation.source().sendMessage(Component.text(
+                                "§cDie Datenbank ist gerade ausgelastet. Bitte versuche es gleich erneut."
+                        ));
+                    } else {
+                        invocation.source().sendMessage(Component.text(
+                                "§cBeim Ausführen des Befehls ist ein Fehler aufgetreten."
+                        ));
+                    }
+                    return null;
+                });
+    }
+
+    @Override
+    public boolean hasPermission(Invocation invocation) {
+        return delegate.hasPermission(invocation);
+    }
+
+    @Override
+    public List<String> suggest(Invocation invocation) {
+        return delegate.suggest(invocation);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> suggestAsync(Invocation invocation) {
+        return suggestions.suggest(invocation);
+    }
+}
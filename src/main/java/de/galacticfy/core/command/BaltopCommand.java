@@ -1,12 +1,15 @@
 package de.galacticfy.core.command;
 
 import com.velocitypowered.api.command.SimpleCommand;
+import com.velocitypowered.api.proxy.Player;
+import de.galacticfy.core.service.EconomyLedger.Currency;
 import de.galacticfy.core.service.EconomyService;
 import de.galacticfy.core.service.EconomyService.Account;
 import net.kyori.adventure.text.Component;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.OptionalInt;
 import java.util.stream.Stream;
 
 public class BaltopCommand implements SimpleCommand {
@@ -63,11 +66,16 @@ public class BaltopCommand implements SimpleCommand {
         // ========================
         // Header
         // ========================
+        int total = economy.getRankedAccountCount();
+        String pageInfo = total > 0
+                ? "§7(Seite §b" + page + "§7/§b" + Math.max(1, (total + perPage - 1) / perPage) + "§7)"
+                : "§7(Seite §b" + page + "§7)";
+
         src.sendMessage(Component.text(" "));
         src.sendMessage(prefix().append(Component.text(
                 stardustMode
-                        ? "§dTop Stardust ✧ §7(Seite §b" + page + "§7)"
-                        : "§eTop Galas ⛃ §7(Seite §b" + page + "§7)"
+                        ? "§dTop Stardust ✧ " + pageInfo
+                        : "§eTop Galas ⛃ " + pageInfo
         )));
         src.sendMessage(Component.text(" "));
 
@@ -98,6 +106,20 @@ public class BaltopCommand implements SimpleCommand {
             position++;
         }
 
+        // ========================
+        // Eigener Platz
+        // ========================
+        if (src instanceof Player player) {
+            OptionalInt rank = economy.getRank(player.getUniqueId(),
+                    stardustMode ? Currency.STARDUST : Currency.GALAS);
+            if (rank.isPresent()) {
+                src.sendMessage(Component.text(" "));
+                src.sendMessage(Component.text(
+                        (stardustMode ? "§7Dein Platz: §d#" : "§7Dein Platz: §e#") + rank.getAsInt()
+                ));
+            }
+        }
+
         src.sendMessage(Component.text(" "));
     }
 
@@ -5,6 +5,7 @@ import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.galacticfy.core.permission.GalacticfyPermissionService;
+import de.galacticfy.core.service.IpHistoryService;
 import de.galacticfy.core.service.PlayerIdentityCacheService;
 import de.galacticfy.core.service.PunishmentService;
 import de.galacticfy.core.service.PunishmentService.Punishment;
@@ -21,20 +22,24 @@ public class CheckCommand implements SimpleCommand {
 
     private static final String PERM_CHECK = "galacticfy.punish.check";
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    private static final int ALTS_PER_PAGE = 10;
 
     private final ProxyServer proxy;
     private final GalacticfyPermissionService perms;
     private final PunishmentService punishmentService;
     private final PlayerIdentityCacheService identityCache;
+    private final IpHistoryService ipHistory;
 
     public CheckCommand(ProxyServer proxy,
                         GalacticfyPermissionService perms,
                         PunishmentService punishmentService,
-                        PlayerIdentityCacheService identityCache) {
+                        PlayerIdentityCacheService identityCache,
+                        IpHistoryService ipHistory) {
         this.proxy = proxy;
         this.perms = perms;
         this.punishmentService = punishmentService;
         this.identityCache = identityCache;
+        this.ipHistory = ipHistory;
     }
 
     private Component prefix() {
@@ -62,12 +67,22 @@ public class CheckCommand implements SimpleCommand {
         }
 
         if (args.length < 1) {
-            src.sendMessage(prefix().append(Component.text("§eBenutzung: §b/check <spieler>")));
+            src.sendMessage(prefix().append(Component.text("§eBenutzung: §b/check <spieler> [alt-seite]")));
             return;
         }
 
         String targetName = args[0];
 
+        int altPage = 1;
+        if (args.length >= 2) {
+            try {
+                altPage = Math.max(1, Integer.parseInt(args[1]));
+            } catch (NumberFormatException ignored) {
+                src.sendMessage(prefix().append(Component.text("§cUngültige Seite: §f" + args[1])));
+                return;
+            }
+        }
+
         Player online = proxy.getPlayer(targetName).orElse(null);
 
         UUID uuid = null;
@@ -97,8 +112,11 @@ public class CheckCommand implements SimpleCommand {
                 ip = isa.getAddress().getHostAddress();
             }
         } else {
-            // offline: wenn uuid da ist -> genauer
-            ip = punishmentService.getLastKnownIp(uuid, storedName);
+            // offline: zuerst IP-Historie (alle Logins), sonst IPs aus Punishments
+            ip = ipHistory.getLastKnownIp(uuid);
+            if (ip == null) {
+                ip = punishmentService.getLastKnownIp(uuid, storedName);
+            }
         }
 
         String ipText = (ip != null) ? ip : "Unbekannt";
@@ -149,8 +167,10 @@ public class CheckCommand implements SimpleCommand {
             src.sendMessage(Component.text("§7Online-ALTs: §8Keine IP bekannt"));
         }
 
-        if (ip != null) {
-            List<String> altsHistory = punishmentService.findAltsByIp(ip, uuid, 25);
+        if (uuid != null) {
+            sendHistoryAlts(src, storedName, uuid, altPage);
+        } else if (ip != null) {
+            List<String> altsHistory = punishmentService.findAltsByIp(ip, null, 25);
             if (altsHistory.isEmpty()) {
                 src.sendMessage(Component.text("§7IP-ALTs (History): §aKeine gefunden"));
             } else {
@@ -228,6 +248,32 @@ public class CheckCommand implements SimpleCommand {
         src.sendMessage(Component.text(" "));
     }
 
+    /**
+     * Accounts mit gleicher IP (§c) oder gleichem Subnetz (§6) aus der IP-Historie, seitenweise.
+     */
+    private void sendHistoryAlts(CommandSource src, String targetName, UUID uuid, int page) {
+        IpHistoryService.AltPage alts = ipHistory.findAlts(uuid, true, page, ALTS_PER_PAGE);
+        if (alts.total == 0) {
+            src.sendMessage(Component.text("§7IP-ALTs (History): §aKeine gefunden"));
+            return;
+        }
+
+        String joined = alts.entries.stream()
+                .map(a -> (a.subnetOnly ? "§6" : "§c") + (a.name != null ? a.name : a.uuid.toString()))
+                .collect(Collectors.joining("§7, "));
+        String count = alts.total + (alts.truncated ? "+" : "");
+
+        src.sendMessage(Component.text(
+                "§7IP-ALTs (History, " + count + ", Seite " + alts.page + "/" + alts.pages + "): " + joined
+        ));
+        if (alts.page < alts.pages) {
+            src.sendMessage(Component.text(
+                    "§8» §7Weitere: §b/check " + targetName + " " + (alts.page + 1)
+                            + " §8(§c■ §7gleiche IP, §6■ §7gleiches Subnetz§8)"
+            ));
+        }
+    }
+
     @Override
     public boolean hasPermission(Invocation invocation) {
         return hasCheckPermission(invocation.source());
@@ -5,6 +5,8 @@ import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.galacticfy.core.permission.GalacticfyPermissionService;
+import de.galacticfy.core.service.EconomyLedger;
+import de.galacticfy.core.service.EconomyLedger.Reason;
 import de.galacticfy.core.service.EconomyService;
 import net.kyori.adventure.text.Component;
 import org.slf4j.Logger;
@@ -14,6 +16,7 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Locale;
 import java.util.OptionalLong;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class EcoCommand implements SimpleCommand {
@@ -88,6 +91,11 @@ public class EcoCommand implements SimpleCommand {
             return;
         }
 
+        if (args.length >= 1 && args[0].equalsIgnoreCase("verify")) {
+            handleVerify(src, args.length >= 2 ? args[1] : null);
+            return;
+        }
+
         if (args.length < 3) {
             sendUsage(src);
             return;
@@ -132,7 +140,7 @@ public class EcoCommand implements SimpleCommand {
     private void handleSet(CommandSource src, Player target, long amount) {
         // Falls setBalance SQLException wirft: ebenfalls SQL-safe ausführen
         boolean ok = runSql(src, "setBalance(" + target.getUsername() + ")", () -> {
-            boolean res = economy.setBalance(target.getUniqueId(), amount);
+            boolean res = economy.setBalance(target.getUniqueId(), amount, Reason.ADMIN, staffName(src));
             if (!res) throw new SQLException("setBalance returned false");
         });
         if (!ok) return;
@@ -153,7 +161,7 @@ public class EcoCommand implements SimpleCommand {
         }
 
         boolean ok = runSql(src, "deposit(" + target.getUsername() + ")", () -> {
-            boolean res = economy.deposit(target.getUniqueId(), amount);
+            boolean res = economy.deposit(target.getUniqueId(), amount, Reason.ADMIN, null, staffName(src));
             if (!res) throw new SQLException("deposit returned false");
         });
         if (!ok) return;
@@ -194,7 +202,7 @@ public class EcoCommand implements SimpleCommand {
         }
 
         boolean ok = runSql(src, "withdraw(" + target.getUsername() + ")", () -> {
-            boolean res = economy.withdraw(target.getUniqueId(), amount);
+            boolean res = economy.withdraw(target.getUniqueId(), amount, Reason.ADMIN, null, staffName(src));
             if (!res) throw new SQLException("withdraw returned false");
         });
         if (!ok) return;
@@ -215,6 +223,59 @@ public class EcoCommand implements SimpleCommand {
         )));
     }
 
+    private static String staffName(CommandSource src) {
+        return (src instanceof Player p) ? p.getUsername() : "Konsole";
+    }
+
+    /**
+     * /eco verify [Spieler] – Kontostände aus gf_economy_ledger neu aufbauen und mit gf_economy vergleichen.
+     */
+    private void handleVerify(CommandSource src, String targetName) {
+        UUID uuid = null;
+        if (targetName != null) {
+            Player target = proxy.getPlayer(targetName).orElse(null);
+            if (target == null) {
+                src.sendMessage(prefix().append(Component.text("§cSpieler ist nicht online.")));
+                return;
+            }
+            uuid = target.getUniqueId();
+        }
+
+        economy.flushPending(); // WRITE_BEHIND: erst alle Differenzen schreiben
+
+        List<EconomyLedger.Mismatch> mismatches;
+        try {
+            mismatches = economy.getLedger().verify(uuid);
+        } catch (SQLException e) {
+            LOGGER.error("EcoCommand SQL error (verify): {}", e.getMessage(), e);
+            src.sendMessage(prefix().append(Component.text("§cDatenbankfehler. Bitte später erneut versuchen.")));
+            return;
+        }
+
+        if (mismatches.isEmpty()) {
+            src.sendMessage(prefix().append(Component.text("§aLedger und Kontostände stimmen überein.")));
+            return;
+        }
+
+        src.sendMessage(prefix().append(Component.text(
+                "§c" + mismatches.size() + " Abweichung(en) zwischen Ledger und gf_economy:"
+        )));
+        for (EconomyLedger.Mismatch m : mismatches.subList(0, Math.min(10, mismatches.size()))) {
+            src.sendMessage(Component.text(
+                    "§8» §e" + (m.name() != null ? m.name() : m.uuid()) +
+                            " §7Galas: §f" + m.galas() + " §8(§7Ledger §f" + m.ledgerGalas() + "§8)" +
+                            " §7Stardust: §f" + m.stardust() + " §8(§7Ledger §f" + m.ledgerStardust() + "§8)"
+            ));
+        }
+        long dropped = economy.getLedger().getDroppedCount();
+        if (dropped > 0) {
+            src.sendMessage(Component.text(
+                    "§8» §7" + dropped + " Ledger-Einträge wurden verworfen (siehe Log: DEAD-LETTER)."
+            ));
+        }
+        LOGGER.warn("Economy-Ledger: {} Abweichungen gefunden", mismatches.size());
+    }
+
     private void sendUsage(CommandSource src) {
         src.sendMessage(Component.text(" "));
         src.sendMessage(prefix().append(Component.text("§6Eco §7| §6Admin-Befehle")));
@@ -225,6 +286,8 @@ public class EcoCommand implements SimpleCommand {
         src.sendMessage(Component.text("§7    Fügt dem Konto Guthaben hinzu."));
         src.sendMessage(Component.text("§8» §e/eco remove <Spieler> <Betrag>"));
         src.sendMessage(Component.text("§7    Entfernt Guthaben vom Konto."));
+        src.sendMessage(Component.text("§8» §e/eco verify [Spieler]"));
+        src.sendMessage(Component.text("§7    Gleicht Kontostände mit dem Ledger ab."));
         src.sendMessage(Component.text(" "));
     }
 
@@ -238,12 +301,12 @@ public class EcoCommand implements SimpleCommand {
         if (!admin) return List.of();
 
         if (args.length == 0) {
-            return List.of("set", "add", "remove");
+            return List.of("set", "add", "remove", "verify");
         }
 
         if (args.length == 1) {
             String prefix = args[0].toLowerCase(Locale.ROOT);
-            return List.of("set", "add", "remove").stream()
+            return List.of("set", "add", "remove", "verify").stream()
                     .filter(s -> s.startsWith(prefix))
                     .collect(Collectors.toList());
         }
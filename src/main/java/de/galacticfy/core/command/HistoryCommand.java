@@ -68,16 +68,6 @@ public class HistoryCommand implements SimpleCommand {
 
         String targetName = args[0];
 
-        int page = 1;
-        if (args.length >= 2) {
-            try {
-                page = Integer.parseInt(args[1]);
-                if (page <= 0) page = 1;
-            } catch (NumberFormatException ignored) {
-                page = 1;
-            }
-        }
-
         Player online = proxy.getPlayer(targetName).orElse(null);
 
         UUID uuid = null;
@@ -96,30 +86,27 @@ public class HistoryCommand implements SimpleCommand {
             }
         }
 
-        List list = punishmentService.getHistory(uuid, storedName, 200);
-        list = (List<Punishment>) list.stream()
-                .sorted(Comparator.comparing((Punishment p) -> p.createdAt).reversed())
-                .collect(Collectors.toList());
-
-        int perPage = 8;
-        int totalPages = Math.max(1, (int) Math.ceil(list.size() / (double) perPage));
-        if (page > totalPages) page = totalPages;
-
-        int start = (page - 1) * perPage;
-        int end = Math.min(start + perPage, list.size());
+        HistoryPaging paging = HistoryPaging.resolve(args.length >= 2 ? args[1] : null,
+                punishmentService, uuid, storedName, null);
+        if (paging == null) {
+            src.sendMessage(prefix().append(Component.text("§cDiese Seite gibt es nicht.")));
+            return;
+        }
 
-        List pageList = list.subList(start, end);
+        PunishmentService.HistoryPage result = punishmentService.getHistoryPage(
+                uuid, storedName, null, paging.beforeId, HistoryPaging.PER_PAGE);
+        List<Punishment> pageList = result.entries;
 
         src.sendMessage(Component.text(" "));
         src.sendMessage(prefix().append(Component.text(
-                "§bHistory für §f" + storedName + " §7(Seite " + page + "§7/§3" + totalPages + "§7)"
+                "§bHistory für §f" + storedName + " §7(Seite " + paging.page + "§7)"
         )));
         src.sendMessage(Component.text("§8§m────────────────────────────────"));
 
         if (pageList.isEmpty()) {
             src.sendMessage(Component.text("§7Keine Einträge gefunden."));
         } else {
-            for (Punishment p : (List<Punishment>) pageList) {
+            for (Punishment p : pageList) {
                 String icon;
                 String color;
 
@@ -161,7 +148,7 @@ public class HistoryCommand implements SimpleCommand {
         }
 
         src.sendMessage(Component.text("§8§m────────────────────────────────"));
-        src.sendMessage(Component.text("§7Seiten: §f/history " + storedName + " <1-" + totalPages + ">"));
+        src.sendMessage(HistoryPaging.footer("history", storedName, paging.page, result));
         src.sendMessage(Component.text(" "));
     }
 
@@ -177,18 +164,9 @@ public class HistoryCommand implements SimpleCommand {
 
         if (!hasHistoryPermission(src)) return List.of();
 
-        if (args.length == 0) {
-            return punishmentService.getAllPunishedNames().stream()
-                    .sorted(String.CASE_INSENSITIVE_ORDER)
-                    .collect(Collectors.toList());
-        }
-
-        if (args.length == 1) {
-            String prefix = args[0].toLowerCase(Locale.ROOT);
-            return punishmentService.getAllPunishedNames().stream()
-                    .filter(n -> prefix.isEmpty() || n.toLowerCase(Locale.ROOT).startsWith(prefix))
-                    .sorted(String.CASE_INSENSITIVE_ORDER)
-                    .collect(Collectors.toList());
+        if (args.length <= 1) {
+            String prefix = (args.length == 0) ? "" : args[0];
+            return punishmentService.findKnownNames(prefix, 50);
         }
 
         if (args.length == 2) {
@@ -0,0 +1,74 @@
+package de.galacticfy.core.command;
+
+import de.galacticfy.core.service.PunishmentService;
+import de.galacticfy.core.service.PunishmentService.PunishmentType;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+
+import java.util.UUID;
+
+/**
+ * Seiten-Argument für /history und /warnings.
+ *
+ *  - "3"       → Seitenzahl (manuell eingegeben, Token wird über den Index bestimmt);
+ *                höchstens {@link PunishmentService#MAX_DIRECT_PAGE}, größere Zahlen landen dort
+ *  - "3@1234"  → Page-Token aus dem Klick-Event: Seite 3 beginnt bei id < 1234
+ */
+final class HistoryPaging {
+
+    static final int PER_PAGE = 8;
+
+    final int page;
+    final int beforeId;
+
+    private HistoryPaging(int page, int beforeId) {
+        this.page = page;
+        this.beforeId = beforeId;
+    }
+
+    /**
+     * @return die Seite oder null, wenn sie nicht existiert
+     */
+    static HistoryPaging resolve(String arg, PunishmentService service,
+                                 UUID uuid, String name, PunishmentType type) {
+        if (arg == null || arg.isBlank()) {
+            return new HistoryPaging(1, 0);
+        }
+
+        int at = arg.indexOf('@');
+        try {
+            if (at > 0) {
+                int page = Math.max(1, Integer.parseInt(arg.substring(0, at)));
+                int beforeId = Math.max(0, Integer.parseInt(arg.substring(at + 1)));
+                return new HistoryPaging(page, beforeId);
+            }
+
+            int page = Math.min(PunishmentService.MAX_DIRECT_PAGE, Math.max(1, Integer.parseInt(arg)));
+            int token = service.findHistoryPageToken(uuid, name, type, page, PER_PAGE);
+            return (token < 0) ? null : new HistoryPaging(page, token);
+        } catch (NumberFormatException ex) {
+            return new HistoryPaging(1, 0);
+        }
+    }
+
+    /**
+     * Footer mit klickbaren Buttons "« Erste Seite" / "Nächste Seite »".
+     */
+    static Component footer(String command, String targetName, int page, PunishmentService.HistoryPage result) {
+        Component line = Component.text("§7Seite §f" + page + " ");
+
+        if (page > 1) {
+            line = line.append(Component.text("§8[§b« Erste Seite§8] ")
+                    .clickEvent(ClickEvent.runCommand("/" + command + " " + targetName))
+                    .hoverEvent(HoverEvent.showText(Component.text("§7Zurück zur neuesten Seite"))));
+        }
+        if (result.hasNext()) {
+            String token = (page + 1) + "@" + result.nextToken;
+            line = line.append(Component.text("§8[§bNächste Seite »§8]")
+                    .clickEvent(ClickEvent.runCommand("/" + command + " " + targetName + " " + token))
+                    .hoverEvent(HoverEvent.showText(Component.text("§7Seite " + (page + 1) + " anzeigen"))));
+        }
+        return line;
+    }
+}
@@ -4,6 +4,7 @@ import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.galacticfy.core.permission.GalacticfyPermissionService;
+import de.galacticfy.core.service.EconomyLedger.Reason;
 import de.galacticfy.core.service.EconomyService;
 import net.kyori.adventure.text.Component;
 
@@ -91,10 +92,10 @@ public class PayCommand implements SimpleCommand {
             return;
         }
 
-        boolean okWithdraw = economy.withdraw(sender.getUniqueId(), amount);
-        boolean okDeposit = economy.deposit(target.getUniqueId(), amount);
+        // Abbuchen + Gutschreiben zusammen (inkl. Ledger-Einträgen für beide Seiten)
+        boolean ok = economy.transfer(sender.getUniqueId(), target.getUniqueId(), amount, Reason.PAY, null);
 
-        if (!okWithdraw || !okDeposit) {
+        if (!ok) {
             sender.sendMessage(prefix().append(Component.text("§cEs ist ein Fehler beim Transfer aufgetreten.")));
             return;
         }
@@ -129,7 +130,7 @@ public class PayCommand implements SimpleCommand {
             return;
         }
 
-        boolean okWithdraw = economy.withdraw(sender.getUniqueId(), needed);
+        boolean okWithdraw = economy.withdraw(sender.getUniqueId(), needed, Reason.PAY, null, "pay *");
         if (!okWithdraw) {
             sender.sendMessage(prefix().append(Component.text(
                     "§cBeim Abbuchen deines Guthabens ist ein Fehler aufgetreten."
@@ -138,7 +139,7 @@ public class PayCommand implements SimpleCommand {
         }
 
         for (Player target : targets) {
-            economy.deposit(target.getUniqueId(), amount);
+            economy.deposit(target.getUniqueId(), amount, Reason.PAY, sender.getUniqueId(), "pay *");
             target.sendMessage(prefix().append(Component.text(
                     "§7Du hast §e" + amount + "⛃ §7von §e" + sender.getUsername() + " §7erhalten."
             )));
@@ -3,19 +3,30 @@ package de.galacticfy.core.command;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.ProxyServer;
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.permission.GalacticfyPermissionService;
+import de.galacticfy.core.service.QuestService;
 import net.kyori.adventure.text.Component;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class ProxyInfoCommand implements SimpleCommand {
 
     private static final String PERM_PROXYINFO = "galacticfy.core.proxyinfo";
 
     private final ProxyServer proxy;
+    private final DatabaseManager db;
+    private final QuestService quests;
+    private final GalacticfyPermissionService perms;
 
-    public ProxyInfoCommand(ProxyServer proxy) {
+    public ProxyInfoCommand(ProxyServer proxy, DatabaseManager db, QuestService quests,
+                            GalacticfyPermissionService perms) {
         this.proxy = proxy;
+        this.db = db;
+        this.quests = quests;
+        this.perms = perms;
     }
 
     private Component prefix() {
@@ -32,6 +43,21 @@ public class ProxyInfoCommand implements SimpleCommand {
             return;
         }
 
+        if (args.length > 0 && args[0].equalsIgnoreCase("db")) {
+            sendDatabaseStats(source);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("quests")) {
+            sendQuestStats(source);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("perms")) {
+            sendPermissionStats(source);
+            return;
+        }
+
         boolean verbose = args.length > 0 && args[0].equalsIgnoreCase("full");
 
         int playerCount = proxy.getPlayerCount();
@@ -57,6 +83,75 @@ public class ProxyInfoCommand implements SimpleCommand {
         }
     }
 
+    // ============================================================
+    // DB-EXECUTOR
+    // ============================================================
+
+    private void sendDatabaseStats(CommandSource source) {
+        source.sendMessage(prefix().append(Component.text("§7Datenbank-Executor:")));
+        source.sendMessage(Component.text("§8» §7Threads: §b" + db.getExecutorActiveCount() + " §7aktiv"
+                + (db.isVirtualThreadExecutor() ? " §8(§7virtuell§8)" : "")));
+        source.sendMessage(Component.text("§8» §7Warteschlange: §b" + db.getExecutorQueueSize()));
+
+        Map<String, DatabaseManager.QueryStats> stats = db.getQueryStats();
+        if (stats.isEmpty()) {
+            source.sendMessage(Component.text("§8» §7Noch keine Queries ausgeführt."));
+            return;
+        }
+
+        for (Map.Entry<String, DatabaseManager.QueryStats> e : stats.entrySet()) {
+            DatabaseManager.QueryStats s = e.getValue();
+            source.sendMessage(Component.text(String.format(Locale.ROOT,
+                    "§8» §b%s §8| §7Queue §f%d §8| §7Aktiv §f%d §8| §7OK §f%d §8| §7Fehler §c%d §8| §7Abgelehnt §c%d"
+                            + " §8| §7Warten §f%.1fms §8| §7Dauer §f%.1fms §8(§7max §f%.1fms§8)",
+                    e.getKey(), s.getQueueDepth(), s.getInFlight(), s.getCompleted(), s.getFailed(),
+                    s.getRejected(), s.getAvgWaitMillis(), s.getAvgExecMillis(), s.getMaxExecMillis())));
+        }
+    }
+
+    // ============================================================
+    // QUEST WRITE-BEHIND
+    // ============================================================
+
+    private void sendQuestStats(CommandSource source) {
+        source.sendMessage(prefix().append(Component.text("§7Quest-Progress (Write-Behind):")));
+        source.sendMessage(Component.text("§8» §7Dirty-Einträge: §b" + quests.getDirtyQueueDepth()));
+        source.sendMessage(Component.text("§8» §7Flushes: §b" + quests.getFlushCount()));
+        source.sendMessage(Component.text(String.format(Locale.ROOT,
+                "§8» §7Batch-Größe: §b%d §7(Ø §b%.1f§7)",
+                quests.getLastFlushBatchSize(), quests.getAvgFlushBatchSize())));
+        source.sendMessage(Component.text(String.format(Locale.ROOT,
+                "§8» §7Flush-Dauer: §b%.1fms §7(Ø §b%.1fms§7, max §b%.1fms§7)",
+                quests.getLastFlushMillis(), quests.getAvgFlushMillis(), quests.getMaxFlushMillis())));
+
+        source.sendMessage(prefix().append(Component.text("§7Quest-Progress-Cache:")));
+        source.sendMessage(Component.text("§8» §7Spieler im Cache: §b" + quests.getCachedPlayerCount()));
+        source.sendMessage(Component.text("§8» §7Treffer: §b" + quests.getCacheHits()
+                + " §8| §7Fehlgriffe: §b" + quests.getCacheMisses()));
+        source.sendMessage(Component.text("§8» §7Entfernt: §b" + quests.getIdleEvictions()
+                + " §7(Grace) §8| §b" + quests.getSizeEvictions() + " §7(LRU)"));
+    }
+
+    // ============================================================
+    // PERMISSION-CACHE
+    // ============================================================
+
+    private void sendPermissionStats(CommandSource source) {
+        long hits = perms.getDecisionCacheHits();
+        long misses = perms.getDecisionCacheMisses();
+        long total = hits + misses;
+        double hitRate = total == 0 ? 0.0 : (hits * 100.0) / total;
+
+        source.sendMessage(prefix().append(Component.text("§7Permission-Entscheidungs-Cache:")));
+        source.sendMessage(Component.text("§8» §7Spieler im Cache: §b" + perms.getDecisionCachePlayerCount()
+                + " §8| §7Rollen im Cache: §b" + perms.getUserRoleCacheSize()));
+        source.sendMessage(Component.text(String.format(Locale.ROOT,
+                "§8» §7Treffer: §b%d §8| §7Fehlgriffe: §b%d §8| §7Trefferquote: §b%.1f%%",
+                hits, misses, hitRate)));
+        source.sendMessage(Component.text("§8» §7Generation: §b" + perms.getPermissionGeneration()));
+        source.sendMessage(Component.text("§8» §7Checks ohne vorgeladene Rolle: §b" + perms.getRoleCacheMisses()));
+    }
+
     @Override
     public boolean hasPermission(Invocation invocation) {
         return invocation.source().hasPermission(PERM_PROXYINFO);
@@ -68,14 +163,14 @@ public class ProxyInfoCommand implements SimpleCommand {
 
         // /proxyinfo <TAB>  → args kann [] oder [""] sein
         if (args.length == 0) {
-            return List.of("full");
+            return List.of("full", "db", "quests", "perms");
         }
 
         if (args.length == 1) {
             String prefix = args[0] == null ? "" : args[0].toLowerCase(Locale.ROOT);
-            if ("full".startsWith(prefix)) {
-                return List.of("full");
-            }
+            return List.of("full", "db", "quests", "perms").stream()
+                    .filter(s -> s.startsWith(prefix))
+                    .toList();
         }
 
         return List.of();
@@ -1,32 +1,46 @@
 package de.galacticfy.core.command;
 
 import com.velocitypowered.api.command.CommandSource;
-import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.proxy.player.TabListEntry;
 import de.galacticfy.core.permission.GalacticfyPermissionService;
+import de.galacticfy.core.service.StaffAlertService;
 import net.kyori.adventure.text.Component;
 
 import java.util.*;
 import java.util.Locale;
 
-public class RankCommand implements SimpleCommand {
+public class RankCommand implements SharedSuggestions {
 
     private static final String ADMIN_PERMISSION = "galacticfy.rank.admin";
 
     private final GalacticfyPermissionService perms;
     private final ProxyServer proxy;
+    private final StaffAlertService staffAlerts;
 
-    public RankCommand(GalacticfyPermissionService perms, ProxyServer proxy) {
+    public RankCommand(GalacticfyPermissionService perms, ProxyServer proxy, StaffAlertService staffAlerts) {
         this.perms = perms;
         this.proxy = proxy;
+        this.staffAlerts = staffAlerts;
     }
 
     private Component prefix() {
         return Component.text("§8[§bGalacticfy§8] §r");
     }
 
+    /**
+     * Alert-Empfänger sofort nachziehen: eigene Änderungen kommen nicht über den Bus zurück,
+     * sonst erst beim periodischen Abgleich.
+     */
+    private void refreshAlerts(Player targetOrNull) {
+        if (staffAlerts != null && targetOrNull != null) staffAlerts.refresh(targetOrNull);
+    }
+
+    private void refreshAllAlerts() {
+        if (staffAlerts != null) staffAlerts.refreshAll();
+    }
+
     private boolean isRankAdmin(CommandSource src) {
         if (perms == null) {
             if (src instanceof Player player) {
@@ -85,6 +99,7 @@ public class RankCommand implements SimpleCommand {
 
         // Ränge + Permissions neu laden
         perms.reloadAllCaches();
+        refreshAllAlerts();
 
         // Für JEDEN Viewer die Tablist so bauen,
         // dass er nur Spieler vom eigenen Server sieht.
@@ -260,6 +275,7 @@ public class RankCommand implements SimpleCommand {
         String name = args[2];
         boolean ok = perms.deleteRole(name);
         if (ok) {
+            refreshAllAlerts();
             src.sendMessage(prefix().append(Component.text("§aGruppe §b" + name + " §agelöscht.")));
         } else {
             src.sendMessage(prefix().append(Component.text("§cKonnte Gruppe nicht löschen (existiert sie?).")));
@@ -350,6 +366,7 @@ public class RankCommand implements SimpleCommand {
         String node = args[4];
         boolean ok = perms.addPermissionToRole(groupName, node);
         if (ok) {
+            refreshAllAlerts();
             src.sendMessage(prefix().append(Component.text(
                     "§aPermission §b" + node + " §azu Gruppe §b" + groupName + " §ahinzugefügt."
             )));
@@ -371,6 +388,7 @@ public class RankCommand implements SimpleCommand {
         String node = args[4];
         boolean ok = perms.removePermissionFromRole(groupName, node);
         if (ok) {
+            refreshAllAlerts();
             src.sendMessage(prefix().append(Component.text(
                     "§aPermission §b" + node + " §awurde von Gruppe §b" + groupName + " §aentfernt."
             )));
@@ -468,6 +486,7 @@ public class RankCommand implements SimpleCommand {
                 String parent = args[4];
                 boolean ok = perms.addInheritedRole(group, parent);
                 if (ok) {
+                    refreshAllAlerts();
                     src.sendMessage(prefix().append(Component.text(
                             "§aGruppe §b" + parent + " §awird nun von §b" + group + " §aererbt."
                     )));
@@ -489,6 +508,7 @@ public class RankCommand implements SimpleCommand {
                 String parent = args[4];
                 boolean ok = perms.removeInheritedRole(group, parent);
                 if (ok) {
+                    refreshAllAlerts();
                     src.sendMessage(prefix().append(Component.text(
                             "§aInherit §b" + group + " §7-> §b" + parent + " §awurde entfernt."
                     )));
@@ -578,6 +598,7 @@ public class RankCommand implements SimpleCommand {
         }
 
         if (ok) {
+            refreshAlerts(targetOrNull);
             if (durationMs != null) {
                 src.sendMessage(prefix().append(Component.text(
                         "§aSpieler §b" + storedName +
@@ -624,6 +645,7 @@ public class RankCommand implements SimpleCommand {
 
         boolean ok = perms.setRoleToDefault(uuid, storedName);
         if (ok) {
+            refreshAlerts(targetOrNull);
             String defName = perms.getDefaultRoleName();
             src.sendMessage(prefix().append(Component.text(
                     "§aSpieler §b" + storedName + " §awurde auf Standard-Gruppe §b" + defName + " §azurückgesetzt."
@@ -782,15 +804,25 @@ public class RankCommand implements SimpleCommand {
     // ============================================================
 
     @Override
-    public List<String> suggest(Invocation invocation) {
-        CommandSource src = invocation.source();
+    public boolean needsSharedSuggestions(String[] args) {
+        if (args.length < 2) return false;
+        // Rollennamen kommen aus der DB: /rank group ... und /rank user <name> set group <rolle>
+        if (args[0].equalsIgnoreCase("group")) return true;
+        return args[0].equalsIgnoreCase("user") && args.length == 5
+                && args[2].equalsIgnoreCase("set") && args[3].equalsIgnoreCase("group");
+    }
 
+    @Override
+    public List<String> suggestShared(String[] args) {
+        return perms.getAllRoleNames();
+    }
+
+    @Override
+    public List<String> suggestFor(CommandSource src, String[] args, List<String> roles) {
         if (!isRankAdmin(src)) {
             return List.of();
         }
 
-        String[] args = invocation.arguments();
-
         if (args.length == 0) {
             return List.of("help", "reload", "group", "user");
         }
@@ -825,7 +857,7 @@ public class RankCommand implements SimpleCommand {
                 options.add("permissions");
                 options.add("inherit");
                 options.add("set");
-                options.addAll(perms.getAllRoleNames());
+                options.addAll(roles);
 
                 if (second.isEmpty()) return options;
 
@@ -841,7 +873,6 @@ public class RankCommand implements SimpleCommand {
                 String thirdPrefix = args[2].toLowerCase(Locale.ROOT);
 
                 if (second.equals("delete") || second.equals("info") || second.equals("permissions")) {
-                    List<String> roles = perms.getAllRoleNames();
                     if (thirdPrefix.isEmpty()) return roles;
                     List<String> out = new ArrayList<>();
                     for (String r : roles) {
@@ -880,7 +911,6 @@ public class RankCommand implements SimpleCommand {
                 String mode = args[2].toLowerCase(Locale.ROOT);
                 String pfx = args[3].toLowerCase(Locale.ROOT);
                 if (mode.equals("list") || mode.equals("add") || mode.equals("remove")) {
-                    List<String> roles = perms.getAllRoleNames();
                     if (pfx.isEmpty()) return roles;
                     List<String> out = new ArrayList<>();
                     for (String r : roles) {
@@ -894,7 +924,6 @@ public class RankCommand implements SimpleCommand {
                 String mode = args[2].toLowerCase(Locale.ROOT);
                 if (mode.equals("add") || mode.equals("remove")) {
                     String pfx = args[4].toLowerCase(Locale.ROOT);
-                    List<String> roles = perms.getAllRoleNames();
                     if (pfx.isEmpty()) return roles;
                     List<String> out = new ArrayList<>();
                     for (String r : roles) {
@@ -908,7 +937,6 @@ public class RankCommand implements SimpleCommand {
                 String type = args[2].toLowerCase(Locale.ROOT);
                 if (type.equals("prefix") || type.equals("suffix")) {
                     String pfx = args[3].toLowerCase(Locale.ROOT);
-                    List<String> roles = perms.getAllRoleNames();
                     if (pfx.isEmpty()) return roles;
                     List<String> out = new ArrayList<>();
                     for (String r : roles) {
@@ -954,7 +982,6 @@ public class RankCommand implements SimpleCommand {
                 }
                 if (args.length == 5 && "group".equalsIgnoreCase(args[3])) {
                     String pfx = args[4].toLowerCase(Locale.ROOT);
-                    List<String> roles = perms.getAllRoleNames();
                     if (pfx.isEmpty()) return roles;
                     List<String> out = new ArrayList<>();
                     for (String r : roles) {
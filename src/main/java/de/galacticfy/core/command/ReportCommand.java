@@ -1,7 +1,6 @@
 package de.galacticfy.core.command;
 
 import com.velocitypowered.api.command.CommandSource;
-import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.galacticfy.core.permission.GalacticfyPermissionService;
@@ -12,6 +11,7 @@ import de.galacticfy.core.service.PlayerIdentityCacheService;
 import de.galacticfy.core.service.ReportCooldownService;
 import de.galacticfy.core.service.ReportService;
 import de.galacticfy.core.service.ReportService.ReportEntry;
+import de.galacticfy.core.service.StaffAlertService;
 import net.kyori.adventure.text.Component;
 
 import java.lang.reflect.Method;
@@ -19,7 +19,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
-public class ReportCommand implements SimpleCommand {
+public class ReportCommand implements SharedSuggestions {
 
     private static final String PERM_REPORT_VIEW  = "galacticfy.report.view";   // check/list + Join-Info
     private static final String PERM_REPORT_CLEAR = "galacticfy.report.clear";  // clear/all + handle
@@ -31,6 +31,7 @@ public class ReportCommand implements SimpleCommand {
     // WICHTIG: fehlte in deinem Code (sonst kompiliert es nicht)
     private final PlayerIdentityCacheService identityCache;
     private final ReportCooldownService cooldown;
+    private final StaffAlertService alerts;
 
     private static final DateTimeFormatter DATE_FORMAT =
             DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
@@ -39,13 +40,15 @@ public class ReportCommand implements SimpleCommand {
                          GalacticfyPermissionService perms,
                          ReportService reportService,
                          PlayerIdentityCacheService identityCache,
-                         ReportCooldownService cooldown) {
+                         ReportCooldownService cooldown,
+                         StaffAlertService alerts) {
 
         this.proxy = proxy;
         this.perms = perms;
         this.reportService = reportService;
         this.identityCache = identityCache;
         this.cooldown = cooldown;
+        this.alerts = alerts;
     }
 
     private Component prefix() {
@@ -222,13 +225,7 @@ public class ReportCommand implements SimpleCommand {
                         "§7Grund: §f" + reason
         );
 
-        proxy.getAllPlayers().forEach(player -> {
-            boolean view = (perms != null)
-                    ? perms.hasPluginPermission(player, PERM_REPORT_VIEW)
-                    : player.hasPermission(PERM_REPORT_VIEW);
-
-            if (view) player.sendMessage(msg);
-        });
+        alerts.broadcast(PERM_REPORT_VIEW, msg);
     }
 
     // =====================================================================================
@@ -415,11 +412,28 @@ public class ReportCommand implements SimpleCommand {
     // TAB-COMPLETE
     // =====================================================================================
 
+    @Override
+    public boolean needsSharedSuggestions(String[] args) {
+        // Report-Zielnamen (check/clear) und offene IDs (handle) kommen aus der DB
+        return args.length == 2 && (args[0].equalsIgnoreCase("check")
+                || args[0].equalsIgnoreCase("clear")
+                || args[0].equalsIgnoreCase("handle"));
+    }
+
     @SuppressWarnings("unchecked")
     @Override
-    public List<String> suggest(Invocation invocation) {
-        CommandSource src = invocation.source();
-        String[] args = invocation.arguments();
+    public List<String> suggestShared(String[] args) {
+        if (args[0].equalsIgnoreCase("handle")) {
+            List<ReportEntry> open = (List<ReportEntry>) (List<?>) reportService.getOpenReports();
+            return open.stream()
+                    .map(e -> String.valueOf(e.id()))
+                    .collect(Collectors.toList());
+        }
+        return (List<String>) (List<?>) reportService.getReportedTargetNames();
+    }
+
+    @Override
+    public List<String> suggestFor(CommandSource src, String[] args, List<String> shared) {
 
         boolean staffView = canViewReports(src);
         boolean staffClear = canClearReports(src);
@@ -475,8 +489,7 @@ public class ReportCommand implements SimpleCommand {
             String pfx = (args[1] == null ? "" : args[1]).toLowerCase(Locale.ROOT);
             Set<String> out = new LinkedHashSet<>();
 
-            List<String> reported = (List<String>) (List<?>) reportService.getReportedTargetNames();
-            for (String name : reported) {
+            for (String name : shared) {
                 if (name != null && name.toLowerCase(Locale.ROOT).startsWith(pfx)) out.add(name);
             }
 
@@ -497,7 +510,7 @@ public class ReportCommand implements SimpleCommand {
 
             List<String> base = new ArrayList<>();
             base.add("all");
-            base.addAll((List<String>) (List<?>) reportService.getReportedTargetNames());
+            base.addAll(shared);
 
             // OFFLINE Namen aus IdentityCache
             base.addAll(identityCacheKnownNames(pfx, 20));
@@ -512,9 +525,7 @@ public class ReportCommand implements SimpleCommand {
         // /report handle <id> → offene IDs vorschlagen
         if (args.length == 2 && args[0].equalsIgnoreCase("handle") && staffClear) {
             String pfx = (args[1] == null ? "" : args[1]);
-            List<ReportEntry> open = (List<ReportEntry>) (List<?>) reportService.getOpenReports();
-            return open.stream()
-                    .map(e -> String.valueOf(e.id()))
+            return shared.stream()
                     .filter(id -> id.startsWith(pfx))
                     .distinct()
                     .sorted()
@@ -1,7 +1,6 @@
 package de.galacticfy.core.command;
 
 import com.velocitypowered.api.command.CommandSource;
-import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.galacticfy.core.permission.GalacticfyPermissionService;
@@ -16,7 +15,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
-public class ReportsCommand implements SimpleCommand {
+public class ReportsCommand implements SharedSuggestions {
 
     private static final String PERM_REPORTS = "galacticfy.report.staff";
     private static final String PERM_REPORTS_ADMIN = "galacticfy.report.admin";
@@ -24,6 +23,11 @@ public class ReportsCommand implements SimpleCommand {
     private static final DateTimeFormatter DATE =
             DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
 
+    // Subcommands mit Report-ID als 2. Argument
+    private static final Set<String> ID_SUBS = Set.of(
+            "info", "claim", "claiminfo", "unclaim", "close", "tp", "take"
+    );
+
     private final ProxyServer proxy;
     private final GalacticfyPermissionService perms;
     private final ReportService reportService;
@@ -512,10 +516,21 @@ public class ReportsCommand implements SimpleCommand {
     }
 
     @Override
-    public List<String> suggest(Invocation invocation) {
-        if (!hasPerm(invocation.source())) return List.of();
+    public boolean needsSharedSuggestions(String[] args) {
+        // Report-IDs kommen aus der DB
+        return args.length == 2 && ID_SUBS.contains((args[0] == null ? "" : args[0]).toLowerCase(Locale.ROOT));
+    }
 
-        String[] args = invocation.arguments();
+    @Override
+    public List<String> suggestShared(String[] args) {
+        return reportService.getOpenReports().stream()
+                .map(r -> String.valueOf(r.id()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> suggestFor(CommandSource source, String[] args, List<String> openIds) {
+        if (!hasPerm(source)) return List.of();
 
         List<String> subs = List.of(
                 "open", "openall", "claimed", "mine", "all", "info",
@@ -534,11 +549,9 @@ public class ReportsCommand implements SimpleCommand {
         if (args.length == 2) {
             String sub = (args[0] == null ? "" : args[0]).toLowerCase(Locale.ROOT);
 
-            if (sub.equals("info") || sub.equals("claim") || sub.equals("claiminfo")
-                    || sub.equals("unclaim") || sub.equals("close") || sub.equals("tp") || sub.equals("take")) {
+            if (ID_SUBS.contains(sub)) {
                 String p = (args[1] == null ? "" : args[1]).toLowerCase(Locale.ROOT);
-                return reportService.getOpenReports().stream()
-                        .map(r -> String.valueOf(r.id()))
+                return openIds.stream()
                         .filter(id -> id.startsWith(p))
                         .limit(50)
                         .collect(Collectors.toList());
@@ -0,0 +1,35 @@
+package de.galacticfy.core.command;
+
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+
+import java.util.List;
+
+/**
+ * Tab-Completion, deren DB-Teil nicht von der Quelle abhängt.
+ *
+ *  - {@link #suggestShared} liefert die Daten aus der DB (Rollen, offene Reports, ...);
+ *    {@link SuggestionCache} cacht sie pro Command + Argument-Index + Präfix für alle Quellen
+ *  - {@link #suggestFor} prüft danach die Permissions der Quelle und ergänzt, was im
+ *    Speicher liegt (Unterbefehle, Online-Spieler) – läuft inline, ohne DB
+ *
+ * Commands ohne dieses Interface haben keine DB-Vorschläge und laufen komplett inline.
+ */
+interface SharedSuggestions extends SimpleCommand {
+
+    /** Braucht die Completion an dieser Stelle Daten aus der DB? */
+    boolean needsSharedSuggestions(String[] args);
+
+    /** DB-Teil der Vorschläge, ohne Quelle. Läuft auf dem DB-Executor. */
+    List<String> suggestShared(String[] args);
+
+    /** Fertige Vorschläge für diese Quelle; {@code shared} ist leer, wenn nichts aus der DB gebraucht wurde. */
+    List<String> suggestFor(CommandSource source, String[] args, List<String> shared);
+
+    @Override
+    default List<String> suggest(Invocation invocation) {
+        String[] args = invocation.arguments();
+        List<String> shared = needsSharedSuggestions(args) ? suggestShared(args) : List.of();
+        return suggestFor(invocation.source(), args, shared);
+    }
+}
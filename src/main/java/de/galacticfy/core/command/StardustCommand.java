@@ -5,6 +5,7 @@ import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.galacticfy.core.permission.GalacticfyPermissionService;
+import de.galacticfy.core.service.EconomyLedger.Reason;
 import de.galacticfy.core.service.EconomyService;
 import de.galacticfy.core.service.EconomyService.Account;
 import net.kyori.adventure.text.Component;
@@ -102,7 +103,7 @@ public class StardustCommand implements SimpleCommand {
             return;
         }
 
-        boolean ok = economy.addStardust(target.getUniqueId(), amount);
+        boolean ok = economy.addStardust(target.getUniqueId(), amount, Reason.ADMIN, staffName(src));
         if (!ok) {
             src.sendMessage(prefix().append(Component.text("§cFehler beim Hinzufügen von Stardust.")));
             return;
@@ -141,7 +142,7 @@ public class StardustCommand implements SimpleCommand {
             return;
         }
 
-        boolean ok = economy.removeStardust(target.getUniqueId(), amount);
+        boolean ok = economy.removeStardust(target.getUniqueId(), amount, Reason.ADMIN, staffName(src));
         if (!ok) {
             src.sendMessage(prefix().append(Component.text(
                     "§cSpieler hat nicht genug Stardust oder Fehler aufgetreten."
@@ -182,7 +183,7 @@ public class StardustCommand implements SimpleCommand {
             return;
         }
 
-        boolean ok = economy.setStardust(target.getUniqueId(), amount);
+        boolean ok = economy.setStardust(target.getUniqueId(), amount, Reason.ADMIN, staffName(src));
         if (!ok) {
             src.sendMessage(prefix().append(Component.text(
                     "§cFehler beim Setzen von Stardust."
@@ -223,6 +224,10 @@ public class StardustCommand implements SimpleCommand {
         src.sendMessage(Component.text(" "));
     }
 
+    private static String staffName(CommandSource src) {
+        return (src instanceof Player p) ? p.getUsername() : "Konsole";
+    }
+
     private long parseAmount(String raw) {
         try {
             return Long.parseLong(raw);
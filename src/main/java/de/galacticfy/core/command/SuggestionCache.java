@@ -0,0 +1,86 @@
+package de.galacticfy.core.command;
+
+import com.velocitypowered.api.command.SimpleCommand;
+import de.galacticfy.core.database.DatabaseManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tab-Completion eines Commands, DB-Teil auf dem DB-Executor mit kurzem TTL-Cache.
+ *
+ *  - Commands ohne {@link SharedSuggestions} (nur Online-Spieler, feste Listen) laufen inline
+ *  - Schlüssel: Command + Argument-Index + bisher getippte Argumente (lower-case), ohne Quelle –
+ *    alle Spieler teilen sich einen Eintrag, die Permissions prüft {@link SharedSuggestions#suggestFor}
+ *  - gleichzeitige identische Anfragen teilen sich einen Future (kein doppelter Aufruf)
+ *  - ist der Executor ausgelastet, gibt es einfach keine Vorschläge aus der DB
+ */
+final class SuggestionCache {
+
+    private static final long TTL_MS = 3_000L;
+    private static final int MAX_ENTRIES = 512;
+
+    private static final class Cached {
+        final CompletableFuture<List<String>> future;
+        final long expiresAt;
+
+        Cached(CompletableFuture<List<String>> future, long expiresAt) {
+            this.future = future;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final DatabaseManager db;
+    private final String name;
+    private final String queryType;
+    private final SimpleCommand delegate;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    SuggestionCache(DatabaseManager db, String name, SimpleCommand delegate) {
+        this.db = db;
+        this.name = name;
+        this.queryType = "suggest." + name;
+        this.delegate = delegate;
+    }
+
+    CompletableFuture<List<String>> suggest(SimpleCommand.Invocation invocation) {
+        String[] args = invocation.arguments();
+        if (!(delegate instanceof SharedSuggestions shared) || !shared.needsSharedSuggestions(args)) {
+            return CompletableFuture.completedFuture(delegate.suggest(invocation));
+        }
+        return lookup(shared, args).thenApply(list -> shared.suggestFor(invocation.source(), args, list));
+    }
+
+    private CompletableFuture<List<String>> lookup(SharedSuggestions shared, String[] args) {
+        long now = System.currentTimeMillis();
+        String key = key(args);
+
+        Cached cached = cache.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.future;
+        }
+
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.values().removeIf(c -> c.expiresAt <= now);
+            if (cache.size() >= MAX_ENTRIES) cache.clear();
+        }
+
+        String[] snapshot = args.clone();
+        CompletableFuture<List<String>> raw = db.supplyAsync(queryType, () -> List.copyOf(shared.suggestShared(snapshot)));
+        Cached entry = new Cached(raw.exceptionally(ex -> List.of()), now + TTL_MS);
+        cache.put(key, entry);
+        // Fehler / Executor ausgelastet → nicht cachen
+        raw.whenComplete((result, ex) -> {
+            if (ex != null) cache.remove(key, entry);
+        });
+        return entry.future;
+    }
+
+    private String key(String[] args) {
+        return name + '|' + args.length + '|' + String.join(" ", args).toLowerCase(Locale.ROOT);
+    }
+}
@@ -11,6 +11,8 @@ import de.galacticfy.core.punish.ReasonPresets.Preset;
 import de.galacticfy.core.service.PlayerIdentityCacheService;
 import de.galacticfy.core.service.PunishmentService;
 import de.galacticfy.core.service.PunishmentService.Punishment;
+import de.galacticfy.core.service.PunishmentService.PunishmentType;
+import de.galacticfy.core.service.PunishmentService.WarnResult;
 import de.galacticfy.core.util.DiscordWebhookNotifier;
 import net.kyori.adventure.text.Component;
 
@@ -126,11 +128,13 @@ public class WarnCommand implements SimpleCommand {
             ip = null;
         }
 
-        Punishment warn = punishmentService.warnPlayer(uuid, storedName, ip, reason, staffName);
-        if (warn == null) {
+        WarnResult result = punishmentService.warnWithEscalation(uuid, storedName, ip, reason, staffName);
+        if (result == null) {
             src.sendMessage(prefix().append(Component.text("§cKonnte Warn nicht speichern (DB-Fehler).")));
             return;
         }
+        Punishment warn = result.warn;
+        Punishment escalation = result.escalation;
 
         src.sendMessage(Component.text(" "));
         src.sendMessage(Component.text(PunishDesign.BIG_HEADER_WARN));
@@ -138,6 +142,10 @@ public class WarnCommand implements SimpleCommand {
         src.sendMessage(Component.text("§7Spieler: §f" + storedName));
         src.sendMessage(Component.text("§7Grund: §f" + reason));
         src.sendMessage(Component.text("§7Von: §f" + staffName));
+        src.sendMessage(Component.text("§7Aktive Warns: §e" + result.activeWarns));
+        if (escalation != null) {
+            src.sendMessage(Component.text("§7Eskalation: §c" + escalationText(escalation)));
+        }
         src.sendMessage(Component.text(PunishDesign.LINE));
         src.sendMessage(Component.text(" "));
 
@@ -147,6 +155,9 @@ public class WarnCommand implements SimpleCommand {
                             "§7Grund: §f" + reason + "\n" +
                             "§7Von: §b" + staffName
             ));
+            if (escalation != null) {
+                notifyEscalation(target, escalation, result.activeWarns);
+            }
         }
 
         // optional webhook
@@ -154,6 +165,39 @@ public class WarnCommand implements SimpleCommand {
             try {
                 webhook.getClass().getMethod("sendWarn", Punishment.class).invoke(webhook, warn);
             } catch (Throwable ignored) {}
+            if (escalation != null) {
+                String method = (escalation.type == PunishmentType.BAN) ? "sendBan" : "sendMute";
+                try {
+                    webhook.getClass().getMethod(method, Punishment.class).invoke(webhook, escalation);
+                } catch (Throwable ignored) {}
+            }
+        }
+    }
+
+    private String escalationText(Punishment escalation) {
+        String what = (escalation.type == PunishmentType.BAN) ? "Ban" : "Mute";
+        String dur = (escalation.expiresAt == null) ? "Permanent" : punishmentService.formatRemaining(escalation);
+        return what + " §8(§7" + dur + "§8)";
+    }
+
+    private void notifyEscalation(Player target, Punishment escalation, int activeWarns) {
+        String remaining = (escalation.expiresAt == null) ? "§cPermanent" : "§e" + punishmentService.formatRemaining(escalation);
+
+        if (escalation.type == PunishmentType.BAN) {
+            target.disconnect(Component.text(
+                    "§c§lGalacticfy §8» §cDu wurdest gebannt.\n" +
+                            "§7Grund: §f" + activeWarns + " aktive Verwarnungen\n" +
+                            "§7Dauer: " + remaining + "\n" +
+                            " \n" +
+                            "§7Falls du der Meinung bist, dass dieser Ban §cunberechtigt §7ist,\n" +
+                            "§7kannst du einen §bEntbannungsantrag §7auf unserem Discord stellen."
+            ));
+        } else {
+            target.sendMessage(Component.text(
+                    "§c§lGalacticfy §8» §cDu wurdest gemutet.\n" +
+                            "§7Grund: §f" + activeWarns + " aktive Verwarnungen\n" +
+                            "§7Dauer: " + remaining
+            ));
         }
     }
 
@@ -66,16 +66,6 @@ public class WarningsCommand implements SimpleCommand {
 
         String targetName = args[0];
 
-        int page = 1;
-        if (args.length >= 2) {
-            try {
-                page = Integer.parseInt(args[1]);
-                if (page <= 0) page = 1;
-            } catch (NumberFormatException ignored) {
-                page = 1;
-            }
-        }
-
         Player online = proxy.getPlayer(targetName).orElse(null);
 
         UUID uuid = null;
@@ -91,25 +81,21 @@ public class WarningsCommand implements SimpleCommand {
             }
         }
 
-        // Wir holen History und filtern WARN
-        List<Punishment> history = (List<Punishment>) punishmentService.getHistory(uuid, storedName, 500);
-        List<Punishment> warns = history.stream()
-                .filter(p -> p.type == PunishmentType.WARN)
-                .sorted(Comparator.comparing((Punishment p) -> p.createdAt).reversed())
-                .collect(Collectors.toList());
-
-        int perPage = 8;
-        int totalPages = Math.max(1, (int) Math.ceil(warns.size() / (double) perPage));
-        if (page > totalPages) page = totalPages;
-
-        int start = (page - 1) * perPage;
-        int end = Math.min(start + perPage, warns.size());
+        // Nur WARN-Einträge, seitenweise direkt aus der DB
+        HistoryPaging paging = HistoryPaging.resolve(args.length >= 2 ? args[1] : null,
+                punishmentService, uuid, storedName, PunishmentType.WARN);
+        if (paging == null) {
+            src.sendMessage(prefix().append(Component.text("§cDiese Seite gibt es nicht.")));
+            return;
+        }
 
-        List<Punishment> pageList = warns.subList(start, end);
+        PunishmentService.HistoryPage result = punishmentService.getHistoryPage(
+                uuid, storedName, PunishmentType.WARN, paging.beforeId, HistoryPaging.PER_PAGE);
+        List<Punishment> pageList = result.entries;
 
         src.sendMessage(Component.text(" "));
         src.sendMessage(prefix().append(Component.text(
-                "§eWarnings für §f" + storedName + " §7(Seite " + page + "§7/§3" + totalPages + "§7)"
+                "§eWarnings für §f" + storedName + " §7(Seite " + paging.page + "§7)"
         )));
         src.sendMessage(Component.text("§8§m────────────────────────────────"));
 
@@ -136,7 +122,7 @@ public class WarningsCommand implements SimpleCommand {
         }
 
         src.sendMessage(Component.text("§8§m────────────────────────────────"));
-        src.sendMessage(Component.text("§7Seiten: §f/warnings " + storedName + " <1-" + totalPages + ">"));
+        src.sendMessage(HistoryPaging.footer("warnings", storedName, paging.page, result));
         src.sendMessage(Component.text(" "));
     }
 
@@ -9,14 +9,36 @@ import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Central JDBC manager with multi-vendor support:
  * - External DB: MariaDB/MySQL/Postgres
  * - Fallback: SQLite file
  * - Optional: SQLite in-memory
+ *
+ * Additionally owns the bounded DB executor. Event handlers and commands must not
+ * call {@link #getConnection()} on Velocity threads; they go through
+ * {@link #query(String, SqlFunction)}, {@link #supplyAsync(String, Callable)} or
+ * {@link #runAsync(String, Runnable)} instead. Every call is tagged with a query type
+ * so queue depth and latency can be inspected per type ({@link #getQueryStats()}).
  */
 public final class DatabaseManager {
 
@@ -33,12 +55,72 @@ public final class DatabaseManager {
         POSTGRES
     }
 
+    /**
+     * JDBC-Arbeit auf einer Connection aus dem Pool.
+     */
+    @FunctionalInterface
+    public interface SqlFunction<T> {
+        T apply(Connection con) throws SQLException;
+    }
+
+    /**
+     * Zähler pro Query-Typ (Queue-Tiefe, In-Flight, Latenzen).
+     */
+    public static final class QueryStats {
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAdder totalExecNanos = new LongAdder();
+        private final AtomicLong maxExecNanos = new AtomicLong();
+
+        public int getQueueDepth() {
+            return queued.get();
+        }
+
+        public int getInFlight() {
+            return running.get();
+        }
+
+        public long getCompleted() {
+            return completed.sum();
+        }
+
+        public long getFailed() {
+            return failed.sum();
+        }
+
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        public double getAvgWaitMillis() {
+            long n = completed.sum() + failed.sum();
+            return n == 0 ? 0.0 : totalWaitNanos.sum() / (double) n / 1_000_000.0;
+        }
+
+        public double getAvgExecMillis() {
+            long n = completed.sum() + failed.sum();
+            return n == 0 ? 0.0 : totalExecNanos.sum() / (double) n / 1_000_000.0;
+        }
+
+        public double getMaxExecMillis() {
+            return maxExecNanos.get() / 1_000_000.0;
+        }
+    }
+
     private final Logger logger;
     private final Path dataDir;
     private HikariDataSource dataSource;
     private Mode activeMode;
     private Vendor activeVendor;
 
+    private volatile ThreadPoolExecutor executor;
+    private boolean virtualThreads;
+    private final Map<String, QueryStats> queryStats = new ConcurrentHashMap<>();
+
     public DatabaseManager(Logger logger, Path dataDir) {
         this.logger = Objects.requireNonNull(logger, "logger");
         this.dataDir = Objects.requireNonNull(dataDir, "dataDir");
@@ -46,7 +128,23 @@ public final class DatabaseManager {
 
     public synchronized void init(ConfigManager cfg) {
         shutdown();
+        initBackend(cfg);
+        startExecutor(cfg);
+    }
+
+    /**
+     * Übernimmt einen fertigen Pool statt der Backends aus der config.yml (nur Tests,
+     * z.B. H2 im MariaDB-Modus als Stand-in). Der Executor startet wie bei {@link #init}.
+     */
+    synchronized void init(ConfigManager cfg, HikariDataSource dataSource, Mode mode, Vendor vendor) {
+        shutdown();
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this.activeMode = mode;
+        this.activeVendor = vendor;
+        startExecutor(cfg);
+    }
 
+    private void initBackend(ConfigManager cfg) {
         Mode requested = parseMode(cfg.getString("database.mode", "AUTO"));
         Vendor vendor = parseVendor(cfg.getString("database.external.vendor", "MARIADB"));
 
@@ -225,6 +323,175 @@ public final class DatabaseManager {
         }
     }
 
+    // ============================================================
+    // DB-EXECUTOR
+    // ============================================================
+
+    private void startExecutor(ConfigManager cfg) {
+        int defaultThreads = isSQLite()
+                ? Math.max(1, cfg.getInt("database.sqlite.poolSize", 1))
+                : Math.max(1, cfg.getInt("database.pool.maxSize", 10));
+        int threads = Math.max(1, cfg.getInt("database.executor.threads", defaultThreads));
+        int queueCapacity = Math.max(16, cfg.getInt("database.executor.queueCapacity", 2048));
+        boolean preferVirtual = cfg.getBoolean("database.executor.virtualThreads", true);
+
+        ThreadFactory factory = preferVirtual ? virtualThreadFactory() : null;
+        this.virtualThreads = factory != null;
+        if (factory == null) {
+            factory = platformThreadFactory();
+        }
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                factory,
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+
+        logger.info("GalacticfyCore: DB-Executor gestartet ({} {} Threads, Queue={}).",
+                threads, virtualThreads ? "virtuelle" : "Plattform-", queueCapacity);
+    }
+
+    /**
+     * JDK 21+: Thread.ofVirtual().name(...).factory() per Reflection, damit das Plugin
+     * weiterhin mit release 17 kompiliert und auf 17 läuft.
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class)
+                    .invoke(builder, "GalacticfyCore-DB-", 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger counter = new AtomicInteger(1);
+        return r -> {
+            Thread t = new Thread(r, "GalacticfyCore-DB-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Executor für Fortsetzungen, die selbst wieder JDBC brauchen (z.B. thenApplyAsync).
+     */
+    public Executor executor() {
+        ThreadPoolExecutor pool = this.executor;
+        if (pool == null) {
+            throw new IllegalStateException("DB executor has not been initialized.");
+        }
+        return pool;
+    }
+
+    public boolean isVirtualThreadExecutor() {
+        return virtualThreads;
+    }
+
+    /**
+     * Führt JDBC-Arbeit mit einer eigenen Connection auf dem DB-Executor aus.
+     */
+    public <T> CompletableFuture<T> query(String queryType, SqlFunction<T> work) {
+        Objects.requireNonNull(work, "work");
+        return supplyAsync(queryType, () -> {
+            try (Connection con = getConnection()) {
+                return work.apply(con);
+            }
+        });
+    }
+
+    /**
+     * Führt einen bestehenden (blockierenden) Service-Aufruf auf dem DB-Executor aus.
+     */
+    public <T> CompletableFuture<T> supplyAsync(String queryType, Callable<T> task) {
+        Objects.requireNonNull(task, "task");
+        QueryStats stats = statsFor(queryType);
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        ThreadPoolExecutor pool = this.executor;
+        if (pool == null) {
+            stats.rejected.increment();
+            future.completeExceptionally(new IllegalStateException("DB executor has not been initialized."));
+            return future;
+        }
+
+        long enqueuedAt = System.nanoTime();
+        stats.queued.incrementAndGet();
+        try {
+            pool.execute(() -> {
+                stats.queued.decrementAndGet();
+                stats.running.incrementAndGet();
+                long startedAt = System.nanoTime();
+                stats.totalWaitNanos.add(startedAt - enqueuedAt);
+                try {
+                    T result = task.call();
+                    stats.completed.increment();
+                    future.complete(result);
+                } catch (Throwable t) {
+                    stats.failed.increment();
+                    logger.warn("GalacticfyCore: DB-Task '{}' fehlgeschlagen: {}", queryType, t.toString());
+                    future.completeExceptionally(t instanceof CompletionException ? t : new CompletionException(t));
+                } finally {
+                    long took = System.nanoTime() - startedAt;
+                    stats.totalExecNanos.add(took);
+                    stats.maxExecNanos.accumulateAndGet(took, Math::max);
+                    stats.running.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stats.queued.decrementAndGet();
+            stats.rejected.increment();
+            logger.warn("GalacticfyCore: DB-Executor ausgelastet, Task '{}' abgelehnt.", queryType);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public CompletableFuture<Void> runAsync(String queryType, Runnable task) {
+        Objects.requireNonNull(task, "task");
+        return supplyAsync(queryType, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Zählt Arbeit, die ein Aufrufer vor dem Executor verworfen hat (z.B. voller Puffer),
+     * als abgelehnt – taucht so in {@link #getQueryStats()} mit auf.
+     */
+    public void recordDropped(String queryType) {
+        statsFor(queryType).rejected.increment();
+    }
+
+    private QueryStats statsFor(String queryType) {
+        String key = (queryType == null || queryType.isBlank()) ? "unknown" : queryType;
+        return queryStats.computeIfAbsent(key, k -> new QueryStats());
+    }
+
+    /**
+     * Momentaufnahme aller Query-Typen (sortiert nach Name).
+     */
+    public Map<String, QueryStats> getQueryStats() {
+        return Collections.unmodifiableMap(new TreeMap<>(queryStats));
+    }
+
+    public int getExecutorQueueSize() {
+        ThreadPoolExecutor pool = this.executor;
+        return pool == null ? 0 : pool.getQueue().size();
+    }
+
+    public int getExecutorActiveCount() {
+        ThreadPoolExecutor pool = this.executor;
+        return pool == null ? 0 : pool.getActiveCount();
+    }
+
     public boolean isAvailable() {
         return dataSource != null;
     }
@@ -241,6 +508,26 @@ public final class DatabaseManager {
         return activeMode == Mode.EXTERNAL;
     }
 
+    /**
+     * Lohnt ein neuer Versuch der Transaktion? Deadlock (SQLState 40001 / PostgreSQL 40P01,
+     * MariaDB 1213), Lock-Wait-Timeout (1205) oder SQLITE_BUSY / SQLITE_LOCKED
+     * (auch als erweiterter Code, z. B. SQLITE_BUSY_SNAPSHOT = 517).
+     */
+    public boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (!(t instanceof SQLException sql)) continue;
+            if ("40001".equals(sql.getSQLState()) || "40P01".equals(sql.getSQLState())) return true;
+            int code = sql.getErrorCode();
+            if (isSQLite()) {
+                int primary = code & 0xFF;
+                if (primary == 5 || primary == 6) return true;
+            } else if (code == 1213 || code == 1205) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public Vendor getActiveVendor() {
         return activeVendor;
     }
@@ -252,7 +539,30 @@ public final class DatabaseManager {
         return dataSource.getConnection();
     }
 
+    /**
+     * Stoppt nur den DB-Executor und wartet auf laufende/queued Tasks.
+     * Die Connections bleiben offen, damit danach noch synchron geflusht werden kann.
+     */
+    public synchronized void shutdownExecutor() {
+        ThreadPoolExecutor pool = this.executor;
+        if (pool != null) {
+            this.executor = null;
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                    logger.warn("GalacticfyCore: DB-Executor hat noch {} offene Tasks, breche ab.", pool.getQueue().size());
+                    pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     public synchronized void shutdown() {
+        shutdownExecutor();
+
         if (dataSource != null) {
             try {
                 dataSource.close();
@@ -193,6 +193,62 @@ public class DatabaseMigrationService {
                 st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_reports_created_at ON gf_reports(created_at);");
                 st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_reports_handled ON gf_reports(handled);");
 
+                // Change-Log für die proxy-übergreifende Cache-Invalidierung (InvalidationBus)
+                st.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS gf_change_log (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            type TEXT NOT NULL,
+                            target TEXT NULL,
+                            origin TEXT NOT NULL,
+                            created_at INTEGER NOT NULL
+                        )
+                        """);
+                st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_change_log_created ON gf_change_log(created_at);");
+
+                // IP-Historie (uuid <-> ip) für die Alt-Erkennung
+                st.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS gf_ip_history (
+                            uuid TEXT NOT NULL,
+                            ip TEXT NOT NULL,
+                            name TEXT NULL,
+                            first_seen INTEGER NOT NULL,
+                            last_seen INTEGER NOT NULL,
+                            PRIMARY KEY (uuid, ip)
+                        )
+                        """);
+                st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_ip_history_ip ON gf_ip_history(ip);");
+                st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_ip_history_last_seen ON gf_ip_history(last_seen);");
+
+                // Änderungs-Log der IP-Historie: andere Proxys lesen nur neue Zeilen (id > zuletzt gesehen)
+                st.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS gf_ip_history_log (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            uuid TEXT NOT NULL,
+                            ip TEXT NOT NULL,
+                            name TEXT NULL,
+                            first_seen INTEGER NOT NULL,
+                            last_seen INTEGER NOT NULL,
+                            created_at INTEGER NOT NULL
+                        )
+                        """);
+                st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_ip_history_log_created ON gf_ip_history_log(created_at);");
+
+                // Economy-Ledger (append-only): jede Galas/Stardust-Bewegung
+                st.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS gf_economy_ledger (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            uuid TEXT NOT NULL,
+                            currency TEXT NOT NULL,
+                            op TEXT NOT NULL,
+                            amount INTEGER NOT NULL,
+                            reason TEXT NOT NULL,
+                            counterparty TEXT NULL,
+                            note TEXT NULL,
+                            created_at INTEGER NOT NULL
+                        )
+                        """);
+                st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_economy_ledger_uuid_id ON gf_economy_ledger(uuid, id);");
+
                 st.executeUpdate("""
                         CREATE TABLE IF NOT EXISTS gf_npcs (
                             id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -364,6 +420,62 @@ public class DatabaseMigrationService {
                         ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
                         """);
 
+                // Change-Log für die proxy-übergreifende Cache-Invalidierung (InvalidationBus)
+                st.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS gf_change_log (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            type VARCHAR(32) NOT NULL,
+                            target VARCHAR(64) NULL,
+                            origin VARCHAR(64) NOT NULL,
+                            created_at BIGINT NOT NULL,
+                            INDEX idx_change_log_created (created_at)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+                        """);
+
+                // IP-Historie (uuid <-> ip) für die Alt-Erkennung
+                st.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS gf_ip_history (
+                            uuid VARCHAR(36) NOT NULL,
+                            ip VARCHAR(45) NOT NULL,
+                            name VARCHAR(16) NULL,
+                            first_seen BIGINT NOT NULL,
+                            last_seen BIGINT NOT NULL,
+                            PRIMARY KEY (uuid, ip),
+                            INDEX idx_ip_history_ip (ip),
+                            INDEX idx_ip_history_last_seen (last_seen)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+                        """);
+
+                // Änderungs-Log der IP-Historie: andere Proxys lesen nur neue Zeilen (id > zuletzt gesehen)
+                st.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS gf_ip_history_log (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            uuid VARCHAR(36) NOT NULL,
+                            ip VARCHAR(45) NOT NULL,
+                            name VARCHAR(16) NULL,
+                            first_seen BIGINT NOT NULL,
+                            last_seen BIGINT NOT NULL,
+                            created_at BIGINT NOT NULL,
+                            INDEX idx_ip_history_log_created (created_at)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+                        """);
+
+                // Economy-Ledger (append-only): jede Galas/Stardust-Bewegung
+                st.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS gf_economy_ledger (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            uuid CHAR(36) NOT NULL,
+                            currency VARCHAR(16) NOT NULL,
+                            op VARCHAR(8) NOT NULL,
+                            amount BIGINT NOT NULL,
+                            reason VARCHAR(32) NOT NULL,
+                            counterparty CHAR(36) NULL,
+                            note VARCHAR(64) NULL,
+                            created_at BIGINT NOT NULL,
+                            INDEX idx_economy_ledger_uuid_id (uuid, id)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+                        """);
+
                 st.executeUpdate("""
                         CREATE TABLE IF NOT EXISTS gf_reports (
                             id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -408,12 +520,67 @@ public class DatabaseMigrationService {
             ensureColumn(con, "gf_reports", "handled_by", sqlite ? "TEXT NULL" : "VARCHAR(32) NULL");
             ensureColumn(con, "gf_reports", "handled_at", sqlite ? "TEXT NULL" : "TIMESTAMP NULL");
 
+            // Punishment-History: normalisierter Name + Indizes für Keyset-Pagination (id < ?)
+            ensureColumn(con, "gf_punishments", "name_lower", sqlite ? "TEXT NULL" : "VARCHAR(64) NULL");
+            try (Statement backfill = con.createStatement()) {
+                int filled = backfill.executeUpdate(
+                        "UPDATE gf_punishments SET name_lower = LOWER(name) WHERE name_lower IS NULL"
+                );
+                if (filled > 0) {
+                    logger.info("DB-Migration: gf_punishments.name_lower für {} Zeilen befüllt.", filled);
+                }
+            }
+            ensureIndex(con, "idx_punish_uuid_id", "gf_punishments", "uuid, id");
+            ensureIndex(con, "idx_punish_name_lower_id", "gf_punishments", "name_lower, id");
+
+            seedEconomyLedger(con);
+
             logger.info("GalacticfyCore: DB-Migrationen erfolgreich.");
         } catch (SQLException e) {
             logger.error("Fehler bei DB-Migrationen", e);
         }
     }
 
+    /**
+     * Leerer Ledger → aktuelle Kontostände als OPENING-Einträge übernehmen,
+     * damit ein Replay auch für Accounts von vor dem Ledger aufgeht.
+     */
+    private void seedEconomyLedger(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT 1 FROM gf_economy_ledger LIMIT 1")) {
+                if (rs.next()) return;
+            }
+
+            long now = System.currentTimeMillis();
+            int seeded = 0;
+            for (String currency : new String[]{"GALAS", "STARDUST"}) {
+                String column = currency.equals("GALAS") ? "balance" : "stardust";
+                seeded += st.executeUpdate(
+                        "INSERT INTO gf_economy_ledger (uuid, currency, op, amount, reason, created_at) " +
+                                "SELECT uuid, '" + currency + "', 'SET', " + column + ", 'OPENING', " + now +
+                                " FROM gf_economy"
+                );
+            }
+            if (seeded > 0) {
+                logger.info("DB-Migration: gf_economy_ledger mit {} Anfangsständen befüllt.", seeded);
+            }
+        }
+    }
+
+    private void ensureIndex(Connection con, String index, String table, String columns) {
+        try (Statement st = con.createStatement()) {
+            if (db.isSQLite()) {
+                st.executeUpdate("CREATE INDEX IF NOT EXISTS " + index + " ON " + table + "(" + columns + ")");
+            } else {
+                // MySQL kennt kein "IF NOT EXISTS" bei CREATE INDEX → Duplicate-Fehler ignorieren
+                st.executeUpdate("CREATE INDEX " + index + " ON " + table + "(" + columns + ")");
+                logger.info("DB-Migration: Added index {} on {}({})", index, table, columns);
+            }
+        } catch (SQLException e) {
+            logger.debug("DB-Migration: Index {} not created ({})", index, e.toString());
+        }
+    }
+
     private void ensureColumn(Connection con, String table, String column, String columnDef) {
         try {
             if (columnExists(con, table, column)) return;
@@ -1,13 +1,14 @@
 package de.galacticfy.core.listener;
 
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.PostOrder;
 import com.velocitypowered.api.event.Subscribe;
-import com.velocitypowered.api.event.player.PlayerChooseInitialServerEvent;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
 import de.galacticfy.core.service.EconomyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.SQLException;
-
 public class EconomyListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EconomyListener.class);
@@ -19,15 +20,23 @@ public class EconomyListener {
     }
 
     @Subscribe
-    public void onJoin(PlayerChooseInitialServerEvent e) {
+    public EventTask onPostLogin(PostLoginEvent e) {
         var p = e.getPlayer();
 
-        // Spieleraccount automatisch anlegen (falls nicht vorhanden)
-        try {
-            economy.ensureAccount(p.getUniqueId(), p.getUsername());
-        } catch (SQLException ex) {
-            // Do not fail the login flow if the economy backend is temporarily unavailable.
-            LOGGER.error("Failed to ensure economy account for {} ({})", p.getUsername(), p.getUniqueId(), ex);
-        }
+        // Spieleraccount automatisch anlegen (falls nicht vorhanden) und Kontostand in den
+        // Cache laden – auf dem DB-Executor, das Event wird erst danach fortgesetzt.
+        return EventTask.resumeWhenComplete(
+                economy.loadAccountAsync(p.getUniqueId(), p.getUsername())
+                        .exceptionally(ex -> {
+                            // Do not fail the login flow if the economy backend is temporarily unavailable.
+                            LOGGER.error("Failed to load economy account for {} ({})", p.getUsername(), p.getUniqueId(), ex);
+                            return null;
+                        })
+        );
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent e) {
+        economy.evict(e.getPlayer().getUniqueId());
     }
 }
@@ -0,0 +1,67 @@
+package de.galacticfy.core.listener;
+
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import com.velocitypowered.api.event.player.PlayerChatEvent;
+import com.velocitypowered.api.proxy.Player;
+import de.galacticfy.core.service.PunishmentService;
+import de.galacticfy.core.service.PunishmentService.Punishment;
+import net.kyori.adventure.text.Component;
+import org.slf4j.Logger;
+
+/**
+ * Setzt Mutes im Chat durch.
+ *
+ * Der Mute-Status wird beim PostLogin in den Cache des PunishmentService geladen und
+ * von mute/unmute aktuell gehalten – pro Chat-Nachricht gibt es nur noch einen Map-Read.
+ */
+public class MuteListener {
+
+    private final PunishmentService punishmentService;
+    private final Logger logger;
+
+    public MuteListener(PunishmentService punishmentService, Logger logger) {
+        this.punishmentService = punishmentService;
+        this.logger = logger;
+    }
+
+    private Component prefix() {
+        return Component.text("§8[§bGalacticfy§8] §r");
+    }
+
+    @Subscribe
+    public EventTask onPostLogin(PostLoginEvent event) {
+        Player player = event.getPlayer();
+        return EventTask.resumeWhenComplete(
+                punishmentService.trackMuteStateAsync(player.getUniqueId())
+                        .exceptionally(ex -> {
+                            logger.error("Konnte Mute-Status von {} nicht laden", player.getUsername(), ex);
+                            return null;
+                        })
+        );
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent event) {
+        punishmentService.untrackMuteState(event.getPlayer().getUniqueId());
+    }
+
+    @Subscribe(order = PostOrder.FIRST)
+    public void onChat(PlayerChatEvent event) {
+        if (!event.getResult().isAllowed()) return;
+
+        Player p = event.getPlayer();
+        Punishment mute = punishmentService.getChatMute(p.getUniqueId());
+        if (mute == null) return;
+
+        event.setResult(PlayerChatEvent.ChatResult.denied());
+        p.sendMessage(prefix().append(Component.text(
+                "§cDu bist gemutet.\n" +
+                        "§7Grund: §e" + mute.reason + "\n" +
+                        "§7Verbleibend: §e" + punishmentService.formatRemaining(mute)
+        )));
+    }
+}
@@ -1,6 +1,8 @@
 package de.galacticfy.core.listener;
 
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
 import com.velocitypowered.api.event.permission.PermissionsSetupEvent;
 import com.velocitypowered.api.permission.PermissionFunction;
 import com.velocitypowered.api.permission.PermissionProvider;
@@ -17,6 +19,8 @@ import org.slf4j.Logger;
  * Ergebnis:
  *  - Alle hasPermission()-Checks laufen über GalacticfyPermissionService.hasRankPermission(..., serverName)
  *  - server_scope aus gf_role_permissions wird berücksichtigt.
+ *  - Die User-Rolle wird vorab asynchron geladen; die PermissionFunction selbst
+ *    arbeitet nur noch auf dem Cache.
  */
 public class PermissionsSetupListener {
 
@@ -29,7 +33,7 @@ public class PermissionsSetupListener {
     }
 
     @Subscribe
-    public void onPermissionsSetup(PermissionsSetupEvent event) {
+    public EventTask onPermissionsSetup(PermissionsSetupEvent event) {
         PermissionSubject subject = event.getSubject();
         final PermissionProvider baseProvider = event.getProvider(); // bisheriger Provider (Velocity/LuckPerms/…)
 
@@ -78,5 +82,23 @@ public class PermissionsSetupListener {
                 "Permissions-Provider für {} wurde auf Galacticfy gesetzt (Subject-Typ: {}).",
                 subject, subject.getClass().getSimpleName()
         );
+
+        if (!(subject instanceof Player player)) {
+            return null;
+        }
+
+        // Rolle vorladen, bevor der Login weiterläuft – erster Check trifft dann den Cache
+        return EventTask.resumeWhenComplete(
+                permissionService.preloadUserRoleAsync(player)
+                        .exceptionally(ex -> {
+                            logger.error("Konnte Rolle für {} nicht vorladen", player.getUsername(), ex);
+                            return null;
+                        })
+        );
+    }
+
+    @Subscribe
+    public void onDisconnect(DisconnectEvent event) {
+        permissionService.forgetPlayer(event.getPlayer());
     }
 }
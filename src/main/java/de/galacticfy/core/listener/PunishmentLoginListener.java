@@ -1,17 +1,19 @@
 package de.galacticfy.core.listener;
 
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.LoginEvent;
 import com.velocitypowered.api.event.ResultedEvent;
 import com.velocitypowered.api.proxy.Player;
-import com.velocitypowered.api.proxy.ProxyServer;
-import de.galacticfy.core.permission.GalacticfyPermissionService;
+import de.galacticfy.core.service.IpHistoryService;
 import de.galacticfy.core.service.PunishmentService;
 import de.galacticfy.core.service.PunishmentService.Punishment;
+import de.galacticfy.core.service.StaffAlertService;
 import net.kyori.adventure.text.Component;
 import org.slf4j.Logger;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -22,19 +24,22 @@ public class PunishmentLoginListener {
     // Wer die Alerts sehen darf
     private static final String PERM_PUNISH_ALERTS = "galacticfy.punish.alerts";
 
+    // Wie viele Accounts aus der IP-Historie pro Login auf Bans geprüft werden
+    private static final int ALT_CHECK_LIMIT = 50;
+
     private final PunishmentService punishmentService;
     private final Logger logger;
-    private final ProxyServer proxy;
-    private final GalacticfyPermissionService perms;
+    private final StaffAlertService alerts;
+    private final IpHistoryService ipHistory;
 
     public PunishmentLoginListener(PunishmentService punishmentService,
                                    Logger logger,
-                                   ProxyServer proxy,
-                                   GalacticfyPermissionService perms) {
+                                   StaffAlertService alerts,
+                                   IpHistoryService ipHistory) {
         this.punishmentService = punishmentService;
         this.logger = logger;
-        this.proxy = proxy;
-        this.perms = perms;
+        this.alerts = alerts;
+        this.ipHistory = ipHistory;
     }
 
     private Component prefix() {
@@ -42,7 +47,7 @@ public class PunishmentLoginListener {
     }
 
     @Subscribe
-    public void onLogin(LoginEvent event) {
+    public EventTask onLogin(LoginEvent event) {
         // Player-Daten
         Player player = event.getPlayer();
         UUID uuid = player.getUniqueId();
@@ -52,61 +57,99 @@ public class PunishmentLoginListener {
         InetSocketAddress addr = player.getRemoteAddress();
         String ip = addr.getAddress().getHostAddress();
 
+        // auch gebannte Login-Versuche landen in der IP-Historie (Ban-Umgehung)
+        ipHistory.recordLogin(uuid, name, ip);
 
         // ================================
         // 1) Aktiver Ban -> Join blocken
         // ================================
-        Punishment ban = punishmentService.getActiveBan(uuid, ip);
-        if (ban != null) {
-            String remaining = punishmentService.formatRemaining(ban);
-            Component kick = Component.text(
-                    "§cDu bist vom Netzwerk gebannt.\n" +
-                            "§7Grund: §e" + ban.reason + "\n" +
-                            "§7Dauer: §e" + remaining + "\n" +
-                            "§7Von: §b" + ban.staff
-            );
-            event.setResult(ResultedEvent.ComponentResult.denied(kick));
-            logger.info("Blockiere Login von {} ({}) wegen aktivem Ban.", name, uuid);
-            return;
-        }
-
-        // ===========================================
-        // 2) Kein aktiver Ban -> Alt-Check per IP
-        // ===========================================
-        if (ip != null && !ip.isBlank()) {
-            // aktive Bans auf derselben IP, aber NICHT dieser Spieler
-            List<Punishment> altBans = punishmentService.findActiveBansByIp(ip, uuid, 5);
-
-            if (!altBans.isEmpty()) {
-                String altNames = altBans.stream()
-                        .map(p -> p.name)
-                        .filter(n -> n != null && !n.isBlank())
-                        .map(n -> n) // optional: .map(n -> "§c" + n + "§7")
-                        .distinct()
-                        .collect(Collectors.joining("§7, §c"));
-
-                Component alert = prefix().append(Component.text(
-                        "§eAlt-Check: §f" + name + " §7teilt die IP mit gebannten Accounts: §c" + altNames
-                ));
-
-                // an alle mit galacticfy.punish.alerts schicken
-                proxy.getAllPlayers().forEach(p -> {
-                    boolean canSee;
-                    if (perms != null) {
-                        canSee = perms.hasPluginPermission(p, PERM_PUNISH_ALERTS);
-                    } else {
-                        canSee = p.hasPermission(PERM_PUNISH_ALERTS);
-                    }
-                    if (canSee) {
-                        p.sendMessage(alert);
-                    }
-                });
-
-                proxy.getConsoleCommandSource().sendMessage(alert);
-
-                logger.info("[Alt-Check] {} ({}) teilt IP {} mit gebannten Accounts: {}",
-                        name, uuid, ip, altNames.replace("§", ""));
+        // Lookup auf dem DB-Executor, der Login wird erst danach fortgesetzt.
+        return EventTask.resumeWhenComplete(
+                punishmentService.getActiveBanAsync(uuid, ip)
+                        .thenAccept(ban -> {
+                            if (ban != null) {
+                                String remaining = punishmentService.formatRemaining(ban);
+                                Component kick = Component.text(
+                                        "§cDu bist vom Netzwerk gebannt.\n" +
+                                                "§7Grund: §e" + ban.reason + "\n" +
+                                                "§7Dauer: §e" + remaining + "\n" +
+                                                "§7Von: §b" + ban.staff
+                                );
+                                event.setResult(ResultedEvent.ComponentResult.denied(kick));
+                                logger.info("Blockiere Login von {} ({}) wegen aktivem Ban.", name, uuid);
+                                alertBlocked(name);
+                                return;
+                            }
+
+                            // Alt-Check blockiert den Login nicht
+                            checkAlts(uuid, name, ip);
+                        })
+                        .exceptionally(ex -> {
+                            // ohne Ban-Check kein Login (Executor ausgelastet / DB weg)
+                            logger.error("Ban-Check beim Login von {} ({}) fehlgeschlagen, Login abgelehnt", name, uuid, ex);
+                            event.setResult(ResultedEvent.ComponentResult.denied(Component.text(
+                                    "§cDein Login konnte gerade nicht geprüft werden.\n" +
+                                            "§7Bitte versuche es in ein paar Sekunden erneut."
+                            )));
+                            return null;
+                        })
+        );
+    }
+
+    // ===========================================
+    // 2) Kein aktiver Ban -> Alt-Check per IP
+    // ===========================================
+    private void checkAlts(UUID uuid, String name, String ip) {
+        if (ip == null || ip.isBlank()) return;
+
+        // aktive Bans auf derselben IP, aber NICHT dieser Spieler
+        punishmentService.findActiveBansByIpAsync(ip, uuid, 5).thenAccept(ipBans -> {
+            List<Punishment> altBans = new ArrayList<>(ipBans);
+
+            // + gebannte Accounts, die laut IP-Historie dieselbe IP benutzt haben
+            for (IpHistoryService.Alt alt : ipHistory.findAccountsByIp(ip, uuid, ALT_CHECK_LIMIT)) {
+                Punishment ban = punishmentService.getActiveBan(alt.uuid, null);
+                if (ban != null) altBans.add(ban);
             }
-        }
+            if (altBans.isEmpty()) return;
+
+            String altNames = altBans.stream()
+                    .map(p -> p.name)
+                    .filter(n -> n != null && !n.isBlank())
+                    .map(n -> n) // optional: .map(n -> "§c" + n + "§7")
+                    .distinct()
+                    .limit(10)
+                    .collect(Collectors.joining("§7, §c"));
+
+            Component alert = prefix().append(Component.text(
+                    "§eAlt-Check: §f" + name + " §7teilt die IP mit gebannten Accounts: §c" + altNames
+            ));
+
+            // an alle mit galacticfy.punish.alerts (+ Konsole); nur Bot-Wellen von derselben IP
+            // werden zusammengefasst, jeder andere Treffer bekommt seinen eigenen Alert
+            alerts.alert(PERM_PUNISH_ALERTS, "punish.altcheck:" + ip, alert, count -> prefix().append(Component.text(
+                    "§eAlt-Check: §f" + count + " §7weitere Logins von der IP von §f" + name +
+                            " §7in den letzten §f" + windowSeconds() + "s"
+            )));
+
+            logger.info("[Alt-Check] {} ({}) teilt IP {} mit gebannten Accounts: {}",
+                    name, uuid, ip, altNames.replace("§", ""));
+        });
+    }
+
+    // ===========================================
+    // Alerts
+    // ===========================================
+    private void alertBlocked(String name) {
+        Component alert = prefix().append(Component.text(
+                "§cGebannter Account §f" + name + " §cwurde beim Login blockiert."
+        ));
+        alerts.alert(PERM_PUNISH_ALERTS, "punish.blocked", alert, count -> prefix().append(Component.text(
+                "§c" + count + " §7weitere gebannte Accounts in §f" + windowSeconds() + "s §7blockiert."
+        )));
+    }
+
+    private long windowSeconds() {
+        return Math.max(1, alerts.getCoalesceWindow().toSeconds());
     }
 }
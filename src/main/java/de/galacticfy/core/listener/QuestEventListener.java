@@ -5,34 +5,67 @@ import com.velocitypowered.api.event.connection.PluginMessageEvent;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.proxy.messages.ChannelIdentifier;
+import de.galacticfy.core.database.DatabaseManager;
 import de.galacticfy.core.service.QuestService;
+import de.galacticfy.core.service.QuestService.StatType;
+import de.galacticfy.core.service.QuestStatCodec;
 import net.kyori.adventure.text.Component;
 import org.slf4j.Logger;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Empfängt Stat-Updates vom Spigot-Plugin (galacticfy:queststats)
  * und leitet sie an den QuestService weiter.
  *
- * Payload-Format (UTF-8-String, eine Zeile):
+ * Payload-Format: Binär-Frame (siehe {@link QuestStatCodec}) oder
+ * Legacy-UTF-8-String (eine Zeile):
  *   TYPE|UUID|NAME|AMOUNT
+ *
+ * Beide Formate werden direkt im Event dekodiert und pro (Spieler, Stat) in einem
+ * begrenzten Puffer aufsummiert. Auf dem DB-Executor liegt höchstens ein Drain-Task,
+ * damit eine Stat-Welle die Queue nicht füllt und z.B. Login-Checks verdrängt.
+ * Ist der Puffer voll, werden neue Deltas verworfen und als "quest.stat" abgelehnt gezählt.
  */
 public class QuestEventListener {
 
+    private static final String QUERY_TYPE = "quest.stat";
+
+    // Max. (Spieler, Stat)-Paare im Puffer, darüber wird verworfen
+    private static final int MAX_PENDING = 4096;
+
+    private record PendingKey(UUID uuid, StatType type) {}
+
+    private record PendingStat(String name, long amount) {
+        PendingStat plus(PendingStat next) {
+            return new PendingStat(next.name != null ? next.name : name, amount + next.amount);
+        }
+    }
+
     private final QuestService questService;
     private final ChannelIdentifier statsChannel;
     private final ProxyServer proxy;
+    private final DatabaseManager db;
     private final Logger logger;
 
+    private final Map<PendingKey, PendingStat> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
     public QuestEventListener(QuestService questService,
                               ChannelIdentifier statsChannel,
                               ProxyServer proxy,
+                              DatabaseManager db,
                               Logger logger) {
         this.questService = questService;
         this.statsChannel = statsChannel;
         this.proxy = proxy;
+        this.db = db;
         this.logger = logger;
     }
 
@@ -47,6 +80,14 @@ public class QuestEventListener {
             return;
         }
 
+        // Binär-Frame (kann viele Stats für viele Spieler enthalten)
+        if (QuestStatCodec.isBinary(data)) {
+            handleBinary(data);
+            scheduleDrain();
+            return;
+        }
+
+        // Legacy-Text (Rolling-Upgrade der Backends)
         String msg = new String(data, StandardCharsets.UTF_8);
         String[] parts = msg.split("\\|");
         if (parts.length < 4) {
@@ -76,60 +117,69 @@ public class QuestEventListener {
             return;
         }
 
-        // jetzt an den QuestService routen
-        switch (type) {
-            case "BREAK" -> questService.handleBlocksBroken(uuid, name, amount, this::sendBar);
-            case "STONE" -> questService.handleStoneBroken(uuid, name, amount, this::sendBar);
-            case "ORE" -> questService.handleOresBroken(uuid, name, amount, this::sendBar);
-            case "DIRT" -> questService.handleDirtBroken(uuid, name, amount, this::sendBar);
-            case "GRAVEL" -> questService.handleGravelBroken(uuid, name, amount, this::sendBar);
-            case "NETHERRACK" -> questService.handleNetherrackBroken(uuid, name, amount, this::sendBar);
-            case "SAND_BREAK" -> questService.handleSandBroken(uuid, name, amount, this::sendBar);
-            case "SAND_GIVE" -> questService.handleSandDelivered(uuid, name, amount, this::sendBar);
-            case "PLACE" -> questService.handleBlocksPlaced(uuid, name, amount, this::sendBar);
-
-            case "CROPS" -> questService.handleCropsHarvested(uuid, name, amount, this::sendBar);
-            case "WOOD" -> questService.handleWoodChopped(uuid, name, amount, this::sendBar);
-            case "SUGARCANE" -> questService.handleSugarCaneHarvested(uuid, name, amount, this::sendBar);
-
-            case "FISH" -> questService.handleFishCaught(uuid, name, amount, this::sendBar);
-            case "TRADE" -> questService.handleTradesMade(uuid, name, amount, this::sendBar);
-            case "WALK" -> questService.handleBlocksWalked(uuid, name, amount, this::sendBar);
-            case "PLAYTIME" -> questService.handlePlaytime(uuid, name, amount, this::sendBar);
-            case "LOGIN" -> questService.handleLogin(uuid, name, this::sendBar);
-
-            case "CRAFT_TOOLS" -> questService.handleToolsCrafted(uuid, name, amount, this::sendBar);
-            case "CRAFT_TORCHES" -> questService.handleTorchesCrafted(uuid, name, amount, this::sendBar);
-            case "CRAFT_BREAD" -> questService.handleBreadCrafted(uuid, name, amount, this::sendBar);
-            case "CRAFT_BLOCKS" -> questService.handleBlocksCrafted(uuid, name, amount, this::sendBar);
-            case "CRAFT_GEAR" -> questService.handleGearCrafted(uuid, name, amount, this::sendBar);
-
-            case "SMELT_ORES" -> questService.handleOresSmelted(uuid, name, amount, this::sendBar);
-            case "SMELT_FOOD" -> questService.handleFoodSmelted(uuid, name, amount, this::sendBar);
-
-            case "MOB" -> questService.handleMobsKilled(uuid, name, amount, this::sendBar);
-            case "ZOMBIE" -> questService.handleZombiesKilled(uuid, name, amount, this::sendBar);
-            case "CREEPER" -> questService.handleCreepersKilled(uuid, name, amount, this::sendBar);
-            case "BREED" -> questService.handleAnimalsBred(uuid, name, amount, this::sendBar);
-            case "TAME" -> questService.handleAnimalsTamed(uuid, name, amount, this::sendBar);
-            case "SHEAR" -> questService.handleSheepSheared(uuid, name, amount, this::sendBar);
-            case "MILK" -> questService.handleMilkCollected(uuid, name, amount, this::sendBar);
-            case "EGG" -> questService.handleEggsThrown(uuid, name, amount, this::sendBar);
-            case "ENCHANT" -> questService.handleItemsEnchanted(uuid, name, amount, this::sendBar);
-            case "DEATH" -> questService.handleDeaths(uuid, name, amount, this::sendBar);
-            case "PVP_KILL" -> questService.handlePvpKills(uuid, name, amount, this::sendBar);
-            case "SLEEP" -> questService.handleSleeps(uuid, name, amount, this::sendBar);
-            case "NETHER_VISIT" -> questService.handleNetherVisits(uuid, name, amount, this::sendBar);
-            case "END_VISIT" -> questService.handleEndVisits(uuid, name, amount, this::sendBar);
-
-            // Event-Stats
-            case "EVENT_SNOWBALL"   -> questService.handleEventSnowball(uuid, name, amount, this::sendBar);
-            case "EVENT_SNOWMAN"    -> questService.handleEventSnowman(uuid, name, amount, this::sendBar);
-            case "EVENT_PUMPKIN"    -> questService.handleEventPumpkin(uuid, name, amount, this::sendBar);
-            case "EVENT_EASTER_EGG" -> questService.handleEventEasterEgg(uuid, name, amount, this::sendBar);
-
-
-            default -> logger.debug("[Quests] Unbekannter Stat-Type '{}'", type);
+        StatType statType = QuestStatCodec.legacyType(type);
+        if (statType == null) {
+            logger.debug("[Quests] Unbekannter Stat-Type '{}'", type);
+            return;
+        }
+
+        // jetzt an den QuestService routen (DB-Executor)
+        enqueue(uuid, name, statType, amount);
+        scheduleDrain();
+    }
+
+    private void handleBinary(byte[] data) {
+        try {
+            QuestStatCodec.decode(ByteBuffer.wrap(data), this::dispatch);
+        } catch (IllegalArgumentException | BufferUnderflowException ex) {
+            // decode() wendet erst nach vollständiger Prüfung an → der ganze Frame wird verworfen
+            logger.warn("[Quests] Ungültiger Quest-Stat-Frame ({} Bytes): {}", data.length, ex.toString());
+        }
+    }
+
+    private void dispatch(StatType statType, long uuidMost, long uuidLeast, long amount) {
+        // Name wird erst beim Drain aufgelöst
+        enqueue(new UUID(uuidMost, uuidLeast), null, statType, amount);
+    }
+
+    private void enqueue(UUID uuid, String name, StatType statType, long amount) {
+        PendingKey key = new PendingKey(uuid, statType);
+        if (pending.size() >= MAX_PENDING && !pending.containsKey(key)) {
+            db.recordDropped(QUERY_TYPE);
+            return;
+        }
+        pending.merge(key, new PendingStat(name, amount), PendingStat::plus);
+    }
+
+    /**
+     * Plant einen Drain ein, falls keiner aussteht. Lehnt der Executor ab, bleiben die
+     * Deltas im Puffer und die nächste Nachricht versucht es erneut.
+     */
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) return;
+
+        db.runAsync(QUERY_TYPE, this::drain).exceptionally(ex -> {
+            drainScheduled.set(false);
+            return null;
+        });
+    }
+
+    private void drain() {
+        // vor dem Abarbeiten zurücksetzen: neue Deltas planen einen weiteren Drain
+        drainScheduled.set(false);
+
+        for (PendingKey key : pending.keySet()) {
+            PendingStat stat = pending.remove(key);
+            if (stat == null) continue;
+
+            String name = stat.name != null ? stat.name : proxy.getPlayer(key.uuid)
+                    .map(Player::getUsername)
+                    .orElse(key.uuid.toString());
+            try {
+                questService.handleStat(key.uuid, name, key.type, stat.amount, this::sendBar);
+            } catch (RuntimeException ex) {
+                logger.warn("[Quests] Stat {} für {} fehlgeschlagen: {}", key.type, key.uuid, ex.toString());
+            }
         }
     }
 
@@ -0,0 +1,56 @@
+package de.galacticfy.core.listener;
+
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PluginMessageEvent;
+import com.velocitypowered.api.proxy.ServerConnection;
+import com.velocitypowered.api.proxy.messages.ChannelIdentifier;
+import de.galacticfy.core.service.QuestGuiMessenger;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rückkanal des Quest-GUIs (galacticfy:quests, Backend → Proxy).
+ *
+ * Payload: {@code ACK|<seq>} – bestätigt einen Frame des QuestGuiMessenger.
+ */
+public class QuestGuiListener {
+
+    private final ChannelIdentifier channel;
+    private final QuestGuiMessenger messenger;
+
+    public QuestGuiListener(ChannelIdentifier channel, QuestGuiMessenger messenger) {
+        this.channel = channel;
+        this.messenger = messenger;
+    }
+
+    @Subscribe
+    public void onPluginMessage(PluginMessageEvent event) {
+        if (!event.getIdentifier().equals(channel)) return;
+        if (!(event.getSource() instanceof ServerConnection serverConn)) return;
+
+        event.setResult(PluginMessageEvent.ForwardResult.handled());
+
+        String msg = new String(event.getData(), StandardCharsets.UTF_8);
+        String[] p = msg.split("\\|", -1);
+        if (p.length < 2 || !"ACK".equalsIgnoreCase(p[0])) return;
+
+        long seq;
+        try {
+            seq = Long.parseLong(p[1].trim());
+        } catch (NumberFormatException ex) {
+            return;
+        }
+
+        messenger.acknowledge(
+                serverConn.getPlayer().getUniqueId(),
+                serverConn.getServerInfo().getName(),
+                seq
+        );
+    }
+
+    @Subscribe
+    public void onDisconnect(DisconnectEvent event) {
+        messenger.forget(event.getPlayer().getUniqueId());
+    }
+}
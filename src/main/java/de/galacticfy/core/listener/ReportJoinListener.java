@@ -44,17 +44,19 @@ public class ReportJoinListener {
         if (!canView(player)) return;
         if (!notified.add(player.getUniqueId())) return;
 
-        int open = reportService.countOpenReports();
-        if (open <= 0) return;
+        // Zählen auf dem DB-Executor, Nachricht sobald das Ergebnis da ist
+        reportService.countOpenReportsAsync().thenAccept(open -> {
+            if (open <= 0) return;
 
-        Component msg = prefix().append(Component.text(
-                "§7Es gibt aktuell §e" + open + " §7offene Reports. "
-        ));
+            Component msg = prefix().append(Component.text(
+                    "§7Es gibt aktuell §e" + open + " §7offene Reports. "
+            ));
 
-        Component button = Component.text("§8[§dÖffnen§8]")
-                .clickEvent(ClickEvent.runCommand("/reports openall"))
-                .hoverEvent(HoverEvent.showText(Component.text("§7Klicke um alle offenen Reports zu sehen")));
+            Component button = Component.text("§8[§dÖffnen§8]")
+                    .clickEvent(ClickEvent.runCommand("/reports openall"))
+                    .hoverEvent(HoverEvent.showText(Component.text("§7Klicke um alle offenen Reports zu sehen")));
 
-        player.sendMessage(msg.append(button));
+            player.sendMessage(msg.append(button));
+        });
     }
 }
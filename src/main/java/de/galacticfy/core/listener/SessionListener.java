@@ -4,28 +4,38 @@ import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
 import com.velocitypowered.api.event.connection.PostLoginEvent;
 import com.velocitypowered.api.proxy.Player;
+import de.galacticfy.core.database.DatabaseManager;
 import de.galacticfy.core.service.PlayerIdentityCacheService;
 import de.galacticfy.core.service.QuestService;
 import de.galacticfy.core.service.SessionService;
 import net.kyori.adventure.text.Component;
 import org.slf4j.Logger;
 
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SessionListener {
 
     private final SessionService sessions;
     private final QuestService quests;
     private final PlayerIdentityCacheService identityCache;
+    private final DatabaseManager db;
     private final Logger logger;
 
+    // Laufender Login-Write pro Spieler, damit der Logout-Write nie davor landet
+    private final Map<UUID, CompletableFuture<Void>> pendingLogins = new ConcurrentHashMap<>();
+
     public SessionListener(SessionService sessions,
                            QuestService quests,
                            PlayerIdentityCacheService identityCache,
+                           DatabaseManager db,
                            Logger logger) {
         this.sessions = sessions;
         this.quests = quests;
         this.identityCache = identityCache;
+        this.db = db;
         this.logger = logger;
     }
 
@@ -36,15 +46,23 @@ public class SessionListener {
                 .map(conn -> conn.getServerInfo().getName())
                 .orElse("Unbekannt");
 
-        // DB Session updaten
-        sessions.onLogin(p.getUniqueId(), p.getUsername(), serverName);
+        // DB Session updaten (DB-Executor)
+        CompletableFuture<Void> sessionLogin = sessions.onLoginAsync(p.getUniqueId(), p.getUsername(), serverName);
 
-        // Cache updaten (Name<->UUID)
+        // Cache updaten (Name<->UUID) – Speicher sofort, DB asynchron
         if (identityCache != null) {
             identityCache.update(p.getUniqueId(), p.getUsername());
         }
 
-        quests.handleLogin(p.getUniqueId(), p.getUsername(), (uuid, msg) -> sendToPlayer(uuid, msg, p));
+        // Quest-Progress vorladen + Login-Quest
+        CompletableFuture<Void> questLogin = db.runAsync("quest.login", () -> {
+            quests.onPlayerJoin(p.getUniqueId());
+            quests.handleLogin(p.getUniqueId(), p.getUsername(), (uuid, msg) -> sendToPlayer(uuid, msg, p));
+        });
+
+        CompletableFuture<Void> login = CompletableFuture.allOf(sessionLogin, questLogin);
+        pendingLogins.put(p.getUniqueId(), login);
+        login.whenComplete((v, ex) -> pendingLogins.remove(p.getUniqueId(), login));
     }
 
     @Subscribe
@@ -52,11 +70,27 @@ public class SessionListener {
         Player p = event.getPlayer();
         UUID uuid = p.getUniqueId();
 
-        // SessionService gibt z.B. gespielte Minuten für diese Session zurück
-        long minutes = sessions.onLogout(uuid);
-        if (minutes > 0) {
-            quests.handlePlaytime(uuid, p.getUsername(), minutes, (u, msg) -> sendToPlayer(u, msg, p));
-        }
+        CompletableFuture<Void> login = pendingLogins.remove(uuid);
+        CompletableFuture<Void> before = login != null
+                ? login.exceptionally(ex -> null)
+                : CompletableFuture.completedFuture(null);
+
+        // SessionService gibt z.B. gespielte Minuten für diese Session zurück.
+        // Läuft komplett auf dem DB-Executor, der Disconnect wird nicht aufgehalten.
+        before.thenCompose(v -> db.runAsync("session.logout", () -> {
+                    long minutes = sessions.onLogout(uuid);
+                    if (minutes > 0) {
+                        quests.handlePlaytime(uuid, p.getUsername(), minutes, (u, msg) -> sendToPlayer(u, msg, p));
+                    }
+                    // offenen Quest-Progress des Spielers sofort schreiben,
+                    // aus dem Cache fliegt er erst nach der Grace-Period
+                    quests.onPlayerQuit(uuid);
+                    quests.flushProgress(uuid);
+                }))
+                .exceptionally(ex -> {
+                    logger.error("SessionListener: Logout-Verarbeitung für {} fehlgeschlagen", uuid, ex);
+                    return null;
+                });
     }
 
     private void sendToPlayer(UUID uuid, Component msg, Player player) {
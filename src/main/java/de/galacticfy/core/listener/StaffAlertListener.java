@@ -0,0 +1,36 @@
+package de.galacticfy.core.listener;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import com.velocitypowered.api.event.player.ServerPostConnectEvent;
+import de.galacticfy.core.service.StaffAlertService;
+
+/**
+ * Hält die Empfänger-Mengen des {@link StaffAlertService} aktuell.
+ * Serverwechsel zählen mit, weil Rang-Permissions pro Server gelten können.
+ */
+public class StaffAlertListener {
+
+    private final StaffAlertService alerts;
+
+    public StaffAlertListener(StaffAlertService alerts) {
+        this.alerts = alerts;
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onPostLogin(PostLoginEvent event) {
+        alerts.refresh(event.getPlayer());
+    }
+
+    @Subscribe
+    public void onServerPostConnect(ServerPostConnectEvent event) {
+        alerts.refresh(event.getPlayer());
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent event) {
+        alerts.remove(event.getPlayer());
+    }
+}
@@ -3,6 +3,8 @@ package de.galacticfy.core.permission;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.proxy.Player;
 import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.sync.InvalidationBus;
+import de.galacticfy.core.sync.InvalidationEvent;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextColor;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
@@ -11,7 +13,12 @@ import org.slf4j.Logger;
 import java.sql.*;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 
 /**
  * Eigenes Rollen-/Permission-System:
@@ -29,6 +36,7 @@ public class GalacticfyPermissionService {
 
     private final DatabaseManager db;
     private final Logger logger;
+    private final InvalidationBus bus;
 
     private final String defaultRoleName = "spieler";
 
@@ -66,11 +74,64 @@ public class GalacticfyPermissionService {
     // role_id -> Einträge (permission + serverScope)
     private final Map<Integer, Set<RolePermissionEntry>> permissionsByRoleId = new ConcurrentHashMap<>();
     private final Map<Integer, Set<Integer>> parentsByRoleId = new ConcurrentHashMap<>();
-    // role_id -> effektive Einträge inkl. Vererbung
-    private final Map<Integer, Set<RolePermissionEntry>> effectivePermissionsCache = new ConcurrentHashMap<>();
+    // role_id -> vorkompilierte effektive Permissions inkl. Vererbung (wird bei Änderungen komplett ersetzt)
+    private volatile Map<Integer, CompiledPermissions> compiledPermissions = new ConcurrentHashMap<>();
 
+    /**
+     * Effektive Permissions einer Rolle, nach Scope vorkompiliert.
+     * GLOBAL gilt überall, alle anderen Scopes (inkl. PROXY) nur bei passendem Servernamen.
+     */
+    private static final class CompiledPermissions {
+        static final CompiledPermissions EMPTY = new CompiledPermissions(PermissionMatcher.EMPTY, Map.of());
+
+        final PermissionMatcher global;
+        final Map<String, PermissionMatcher> byScope;
+
+        private CompiledPermissions(PermissionMatcher global, Map<String, PermissionMatcher> byScope) {
+            this.global = global;
+            this.byScope = byScope;
+        }
+
+        static CompiledPermissions compile(Set<RolePermissionEntry> entries) {
+            if (entries.isEmpty()) return EMPTY;
+
+            List<String> global = new ArrayList<>();
+            Map<String, List<String>> scoped = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (RolePermissionEntry entry : entries) {
+                if (entry.permission == null || entry.permission.isBlank()) continue;
+                if (entry.serverScope.equalsIgnoreCase("GLOBAL")) {
+                    global.add(entry.permission);
+                } else {
+                    scoped.computeIfAbsent(entry.serverScope, k -> new ArrayList<>()).add(entry.permission);
+                }
+            }
+
+            Map<String, PermissionMatcher> byScope = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            scoped.forEach((scope, perms) -> byScope.put(scope, PermissionMatcher.compile(perms)));
+            return new CompiledPermissions(
+                    PermissionMatcher.compile(global),
+                    Collections.unmodifiableMap(byScope)
+            );
+        }
+
+        boolean matches(String node, String serverName) {
+            if (global.matches(node)) return true;
+            PermissionMatcher scoped = byScope.get(serverName);
+            return scoped != null && scoped.matches(node);
+        }
+    }
+
+    // Nur Spieler mit laufender Session (preloadUserRoleAsync … forgetPlayer); Offline-Lookups
+    // aus Commands werden nicht gecacht, sonst bliebe der Eintrag für immer liegen.
     private final Map<UUID, CachedUserRole> userRoleCache = new ConcurrentHashMap<>();
 
+    // UUID → aktuelle Verbindung. Ein später Disconnect der alten Verbindung (Relog, Doppel-Login)
+    // darf die vorgeladene Rolle der neuen nicht entfernen.
+    private final Map<UUID, Player> sessions = new ConcurrentHashMap<>();
+
+    // Wird bei jeder Änderung eines Ablaufdatums aufgerufen (expiresAt == null → kein Ablauf mehr)
+    private volatile BiConsumer<UUID, Long> roleExpiryListener = (uuid, expiresAt) -> { };
+
     // Cache: User → Rolle + Expire
     private static class CachedUserRole {
         final GalacticfyRole role;
@@ -84,14 +145,54 @@ public class GalacticfyPermissionService {
         }
     }
 
-    public GalacticfyPermissionService(DatabaseManager db, Logger logger) {
+    // ---------------------------------------------------
+    //  Entscheidungs-Cache pro Spieler
+    // ---------------------------------------------------
+
+    // Jede Änderung an Rollen, Permissions, Vererbung oder User-Rollen erhöht die Generation.
+    // Caches mit älterer Generation werden beim nächsten Zugriff verworfen.
+    private final AtomicLong permissionGeneration = new AtomicLong();
+
+    private final Map<UUID, PlayerDecisions> decisionCache = new ConcurrentHashMap<>();
+
+    // Nur Online-Spieler bekommen einen Entscheidungs-Cache (entfernt wird er beim Disconnect)
+    private volatile Predicate<UUID> onlineCheck = uuid -> true;
+
+    // Roh-Node → kanonische lower-case Node (eine Instanz pro Node, als Map-Key wiederverwendet)
+    private final Map<String, String> internedNodes = new ConcurrentHashMap<>();
+    private static final int MAX_INTERNED_NODES = 10_000;
+
+    private final LongAdder decisionHits = new LongAdder();
+    private final LongAdder decisionMisses = new LongAdder();
+    // Checks, bei denen die User-Rolle noch nicht im Cache lag (→ JDBC im Aufrufer-Thread)
+    private final LongAdder roleCacheMisses = new LongAdder();
+
+    private static final class PlayerDecisions {
+        final long generation;
+        // serverScope -> node -> erlaubt?
+        final Map<String, Map<String, Boolean>> byScope = new ConcurrentHashMap<>();
+
+        PlayerDecisions(long generation) {
+            this.generation = generation;
+        }
+
+        Map<String, Boolean> forScope(String serverName) {
+            return byScope.computeIfAbsent(serverName, k -> new ConcurrentHashMap<>());
+        }
+    }
+
+    public GalacticfyPermissionService(DatabaseManager db, Logger logger, InvalidationBus bus) {
         this.db = db;
         this.logger = logger;
+        this.bus = bus;
 
         ensureDefaultRole();
         reloadAllRoles();
         reloadAllRolePermissions();
         reloadAllInheritance();
+
+        bus.subscribe(InvalidationEvent.Type.USER_ROLE_CHANGED, e -> onRemoteUserRoleChange(e.target));
+        bus.subscribe(InvalidationEvent.Type.ROLE_DEFINITION_CHANGED, e -> reloadRoleDefinitions());
     }
 
     // ---------------------------------------------------
@@ -180,7 +281,7 @@ public class GalacticfyPermissionService {
         } catch (SQLException e) {
             logger.error("Fehler beim Laden aller Rollen", e);
         }
-        effectivePermissionsCache.clear();
+        rebuildPermissionIndex();
     }
 
     public String getDefaultRoleName() {
@@ -262,7 +363,8 @@ public class GalacticfyPermissionService {
                             id, key, displayName, colorHex, prefix, suffix, staff, maintenanceBypass, joinPriority
                     );
                     cacheRole(role);
-                    effectivePermissionsCache.clear();
+                    rebuildPermissionIndex();
+                    publishRoleDefinitionChange();
                 }
             }
             return true;
@@ -287,7 +389,8 @@ public class GalacticfyPermissionService {
                 roleById.remove(role.id);
                 permissionsByRoleId.remove(role.id);
                 parentsByRoleId.remove(role.id);
-                effectivePermissionsCache.clear();
+                rebuildPermissionIndex();
+                publishRoleDefinitionChange();
             }
             return ok;
         } catch (SQLException e) {
@@ -321,6 +424,7 @@ public class GalacticfyPermissionService {
                     role.joinPriority
             );
             cacheRole(updatedRole);
+            publishRoleDefinitionChange();
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Aktualisieren des Prefix für Rolle {}", roleName, e);
@@ -353,6 +457,7 @@ public class GalacticfyPermissionService {
                     role.joinPriority
             );
             cacheRole(updatedRole);
+            publishRoleDefinitionChange();
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Aktualisieren des Suffix für Rolle {}", roleName, e);
@@ -386,16 +491,35 @@ public class GalacticfyPermissionService {
         CachedUserRole cached = userRoleCache.get(uuid);
         if (cached != null) {
             if (cached.expiresAtMillis != null && cached.expiresAtMillis <= now) {
-                logger.info("Rang für {} ist abgelaufen, setze auf Default.", uuid);
-                setRoleToDefault(uuid, cached.name != null ? cached.name : "Unknown");
-                userRoleCache.remove(uuid);
-                return getRoleByName(defaultRoleName);
+                // Das eigentliche Zurücksetzen (DB + Tablist) übernimmt der RankExpiryService,
+                // bis dahin gilt bereits die Default-Rolle.
+                roleExpiryListener.accept(uuid, cached.expiresAtMillis);
+                return getDefaultRole();
             }
             if (cached.role != null) {
                 return cached.role;
             }
         }
 
+        CachedUserRole loaded = loadUserRole(uuid);
+        if (loaded == null) {
+            return getDefaultRole();
+        }
+        if (loaded.expiresAtMillis != null && loaded.expiresAtMillis <= now) {
+            roleExpiryListener.accept(uuid, loaded.expiresAtMillis);
+            return getDefaultRole();
+        }
+        return loaded.role;
+    }
+
+    /**
+     * Liest die User-Rolle aus der DB und ersetzt den Cache-Eintrag (ohne ihn vorher zu entfernen,
+     * damit parallele Checks nie auf die DB durchfallen). Ohne Eintrag wird die Default-Rolle
+     * gecacht, sonst fragt jeder Check erneut die DB.
+     *
+     * @return der neue Cache-Eintrag oder null bei einem DB-Fehler
+     */
+    private CachedUserRole loadUserRole(UUID uuid) {
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement(
                      "SELECT u.name, u.role_id, u.expires_at, r.* " +
@@ -415,23 +539,39 @@ public class GalacticfyPermissionService {
                     }
 
                     GalacticfyRole role = mapRole(rs);
-
-                    if (expiresAtMillis != null && expiresAtMillis <= now) {
-                        logger.info("Rang {} für {} ist abgelaufen (DB), setze auf Default.", role.name, uuid);
-                        setRoleToDefault(uuid, name != null ? name : "Unknown");
-                        userRoleCache.remove(uuid);
-                        return getRoleByName(defaultRoleName);
-                    }
-
                     cacheRole(role);
-                    userRoleCache.put(uuid, new CachedUserRole(role, name, expiresAtMillis));
-                    return role;
+
+                    CachedUserRole entry = new CachedUserRole(role, name, expiresAtMillis);
+                    cacheUserRole(uuid, entry);
+                    return entry;
                 }
             }
+
+            GalacticfyRole def = getDefaultRole();
+            if (def == null) return null;
+
+            CachedUserRole entry = new CachedUserRole(def, null, null);
+            cacheUserRole(uuid, entry);
+            return entry;
         } catch (SQLException e) {
             logger.error("Fehler beim Laden der User-Rolle", e);
         }
+        return null;
+    }
+
+    /**
+     * Cache-Eintrag nur für Spieler mit laufender Session. Endet die Session während des
+     * Ladens, wird der Eintrag gleich wieder entfernt.
+     */
+    private void cacheUserRole(UUID uuid, CachedUserRole entry) {
+        if (!sessions.containsKey(uuid)) return;
+        userRoleCache.put(uuid, entry);
+        if (!sessions.containsKey(uuid)) {
+            userRoleCache.remove(uuid, entry);
+        }
+    }
 
+    private GalacticfyRole getDefaultRole() {
         GalacticfyRole def = getRoleByName(defaultRoleName);
         if (def == null) {
             ensureDefaultRole();
@@ -440,6 +580,22 @@ public class GalacticfyPermissionService {
         return def;
     }
 
+    /**
+     * Startet die Session eines Spielers und lädt seine Rolle auf dem DB-Executor in den Cache,
+     * damit spätere Permission-Checks (Velocity-PermissionFunction) kein JDBC mehr auslösen.
+     */
+    public CompletableFuture<Void> preloadUserRoleAsync(Player player) {
+        if (player == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        UUID uuid = player.getUniqueId();
+        sessions.put(uuid, player);
+        if (userRoleCache.containsKey(uuid)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return db.runAsync("perm.preload", () -> getRoleFor(uuid));
+    }
+
     public boolean setRoleFor(UUID uuid, String name, String roleName) {
         return setRoleFor(uuid, name, roleName, null);
     }
@@ -498,7 +654,10 @@ public class GalacticfyPermissionService {
                 }
             }
 
-            userRoleCache.put(uuid, new CachedUserRole(role, name, expiresAtMillis));
+            cacheUserRole(uuid, new CachedUserRole(role, name, expiresAtMillis));
+            invalidateDecisions();
+            roleExpiryListener.accept(uuid, expiresAtMillis);
+            bus.publish(InvalidationEvent.Type.USER_ROLE_CHANGED, uuid.toString());
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Setzen der Rolle {} für {}", roleName, uuid, e);
@@ -510,6 +669,113 @@ public class GalacticfyPermissionService {
         return setRoleFor(uuid, name, defaultRoleName, null);
     }
 
+    public void setRoleExpiryListener(BiConsumer<UUID, Long> listener) {
+        this.roleExpiryListener = (listener != null) ? listener : (uuid, expiresAt) -> { };
+    }
+
+    /**
+     * Entscheidet, ob für eine UUID Permission-Entscheidungen gecacht werden (nur Online-Spieler).
+     */
+    public void setOnlineCheck(Predicate<UUID> onlineCheck) {
+        this.onlineCheck = (onlineCheck != null) ? onlineCheck : uuid -> true;
+    }
+
+    /**
+     * Setzt einen abgelaufenen Rang auf die Default-Rolle zurück – aber nur, wenn in der DB
+     * noch ein Ablaufdatum &lt;= {@code expiresAtMillis} steht (Rang wurde nicht inzwischen verlängert).
+     *
+     * @return true, wenn der Rang tatsächlich zurückgesetzt wurde
+     */
+    public boolean expireUserRole(UUID uuid, long expiresAtMillis) {
+        GalacticfyRole def = getDefaultRole();
+        if (def == null) return false;
+
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "UPDATE gf_user_roles SET role_id = ?, expires_at = NULL " +
+                             "WHERE uuid = ? AND expires_at IS NOT NULL AND expires_at <= ?"
+             )) {
+            ps.setInt(1, def.id);
+            ps.setString(2, uuid.toString());
+            ps.setTimestamp(3, Timestamp.from(Instant.ofEpochMilli(expiresAtMillis)));
+
+            if (ps.executeUpdate() == 0) {
+                return false;
+            }
+        } catch (SQLException e) {
+            logger.error("Fehler beim Zurücksetzen des abgelaufenen Rangs von {}", uuid, e);
+            return false;
+        }
+
+        // nur vorhandene Einträge ersetzen – Offline-Spieler nicht neu in den Cache holen
+        userRoleCache.computeIfPresent(uuid, (id, cached) -> new CachedUserRole(def, cached.name, null));
+        invalidateDecisions();
+        bus.publish(InvalidationEvent.Type.USER_ROLE_CHANGED, uuid.toString());
+        logger.info("Rang von {} ist abgelaufen, auf Default zurückgesetzt.", uuid);
+        return true;
+    }
+
+    /**
+     * Gleicht Cache und Ablauf-Planung eines Users wieder mit der DB ab, z.B. wenn ein fälliger
+     * Ablauf dort nicht mehr zutrifft (Rang von einem anderen Proxy / extern verlängert).
+     * Gecachte User werden komplett neu geladen, sonst wird nur das Ablaufdatum neu geplant.
+     */
+    public void refreshUserRole(UUID uuid) {
+        if (uuid == null) return;
+
+        if (userRoleCache.containsKey(uuid)) {
+            CachedUserRole loaded = loadUserRole(uuid);
+            invalidateDecisions();
+            if (loaded != null) {
+                roleExpiryListener.accept(uuid, loaded.expiresAtMillis);
+            }
+            return;
+        }
+
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT expires_at FROM gf_user_roles WHERE uuid = ?"
+             )) {
+            ps.setString(1, uuid.toString());
+            Long expiresAtMillis = null;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Instant expiresAt = de.galacticfy.core.util.DbTimeUtil.readInstant(rs, "expires_at");
+                    expiresAtMillis = (expiresAt != null) ? expiresAt.toEpochMilli() : null;
+                }
+            }
+            roleExpiryListener.accept(uuid, expiresAtMillis);
+        } catch (SQLException e) {
+            logger.error("Fehler beim Neuladen des Rang-Ablaufs von {}", uuid, e);
+        }
+    }
+
+    /**
+     * Alle gesetzten Ablaufdaten (uuid → expires_at in Millis), z.B. zum Befüllen des Expiry-Schedulers.
+     */
+    public Map<UUID, Long> loadRoleExpiries() {
+        Map<UUID, Long> result = new HashMap<>();
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT uuid, expires_at FROM gf_user_roles WHERE expires_at IS NOT NULL"
+             );
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                Instant expiresAt = de.galacticfy.core.util.DbTimeUtil.readInstant(rs, "expires_at");
+                if (expiresAt == null) continue;
+                try {
+                    result.put(UUID.fromString(rs.getString("uuid")), expiresAt.toEpochMilli());
+                } catch (IllegalArgumentException ex) {
+                    logger.warn("Ungültige UUID '{}' in gf_user_roles", rs.getString("uuid"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Fehler beim Laden der Rang-Ablaufdaten", e);
+        }
+        return result;
+    }
+
     /**
      * Komfort: Rang für X Dauer setzen (Millis).
      */
@@ -576,7 +842,7 @@ public class GalacticfyPermissionService {
         } catch (SQLException e) {
             logger.error("Fehler beim Laden der Rollen-Permissions", e);
         }
-        effectivePermissionsCache.clear();
+        rebuildPermissionIndex();
     }
 
     // Default: GLOBAL-Scope
@@ -616,7 +882,8 @@ public class GalacticfyPermissionService {
                     .computeIfAbsent(role.id, k -> ConcurrentHashMap.newKeySet())
                     .add(new RolePermissionEntry(node, scope));
 
-            effectivePermissionsCache.clear();
+            rebuildPermissionIndex();
+            publishRoleDefinitionChange();
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Hinzufügen der Permission {} ({}) zu Rolle {}", node, scope, roleName, e);
@@ -648,7 +915,8 @@ public class GalacticfyPermissionService {
                 if (set != null) {
                     set.removeIf(e -> e.permission.equalsIgnoreCase(node));
                 }
-                effectivePermissionsCache.clear();
+                rebuildPermissionIndex();
+                publishRoleDefinitionChange();
             }
 
             return ok;
@@ -715,7 +983,7 @@ public class GalacticfyPermissionService {
         } catch (SQLException e) {
             logger.error("Fehler beim Laden der Rollen-Vererbung", e);
         }
-        effectivePermissionsCache.clear();
+        rebuildPermissionIndex();
     }
 
     public boolean addInheritedRole(String roleName, String parentRoleName) {
@@ -739,7 +1007,8 @@ public class GalacticfyPermissionService {
                     .computeIfAbsent(role.id, k -> ConcurrentHashMap.newKeySet())
                     .add(parent.id);
 
-            effectivePermissionsCache.clear();
+            rebuildPermissionIndex();
+            publishRoleDefinitionChange();
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Hinzufügen von Inherit {} -> {}", roleName, parentRoleName, e);
@@ -765,7 +1034,8 @@ public class GalacticfyPermissionService {
                 if (set != null) {
                     set.remove(parent.id);
                 }
-                effectivePermissionsCache.clear();
+                rebuildPermissionIndex();
+                publishRoleDefinitionChange();
             }
 
             return ok;
@@ -818,38 +1088,52 @@ public class GalacticfyPermissionService {
         return result;
     }
 
-    private Set<RolePermissionEntry> getEffectivePermissionsForRole(GalacticfyRole role) {
-        if (role == null) return Set.of();
-
-        Set<RolePermissionEntry> cached = effectivePermissionsCache.get(role.id);
-        if (cached != null) return cached;
+    private CompiledPermissions getCompiledPermissions(GalacticfyRole role) {
+        if (role == null) return CompiledPermissions.EMPTY;
+        return compiledPermissions.computeIfAbsent(role.id,
+                id -> CompiledPermissions.compile(computeEffectivePermissions(role, new HashSet<>())));
+    }
 
-        Set<RolePermissionEntry> perms = computeEffectivePermissions(role, new HashSet<>());
-        Set<RolePermissionEntry> unmodifiable = Collections.unmodifiableSet(perms);
-        effectivePermissionsCache.put(role.id, unmodifiable);
-        return unmodifiable;
+    /**
+     * Kompiliert die effektiven Permissions aller bekannten Rollen neu und tauscht
+     * den Index danach atomar aus. Laufende Checks sehen so nie einen halb gebauten Stand.
+     */
+    private void rebuildPermissionIndex() {
+        Map<Integer, CompiledPermissions> fresh = new ConcurrentHashMap<>();
+        for (GalacticfyRole role : roleById.values()) {
+            fresh.put(role.id, CompiledPermissions.compile(computeEffectivePermissions(role, new HashSet<>())));
+        }
+        compiledPermissions = fresh;
+        invalidateDecisions();
     }
 
-    private boolean scopeMatches(String entryScope, String currentServerName, boolean proxyContext) {
-        String scope = (entryScope == null || entryScope.isBlank())
-                ? "GLOBAL"
-                : entryScope;
+    /**
+     * Verwirft alle gecachten Permission-Entscheidungen (O(1), die Caches werden lazy ersetzt).
+     */
+    private void invalidateDecisions() {
+        permissionGeneration.incrementAndGet();
+    }
 
-        // GLOBAL → überall
-        if (scope.equalsIgnoreCase("GLOBAL")) {
-            return true;
-        }
+    private String internNode(String permission) {
+        String node = internedNodes.get(permission);
+        if (node != null) return node;
 
-        // PROXY → nur Proxy-Kontext
-        if (scope.equalsIgnoreCase("PROXY")) {
-            return proxyContext;
+        node = permission.toLowerCase(Locale.ROOT);
+        if (internedNodes.size() < MAX_INTERNED_NODES) {
+            String existing = internedNodes.putIfAbsent(permission, node);
+            if (existing != null) return existing;
         }
+        return node;
+    }
 
-        // Server-spezifisch
-        if (currentServerName == null || currentServerName.isBlank()) {
-            return false;
-        }
-        return scope.equalsIgnoreCase(currentServerName);
+    /**
+     * true, wenn der gecachte User-Rang abgelaufen ist und getRoleFor() ihn zurücksetzen muss.
+     */
+    private boolean isCachedRoleExpired(UUID uuid) {
+        CachedUserRole cached = userRoleCache.get(uuid);
+        return cached != null
+                && cached.expiresAtMillis != null
+                && cached.expiresAtMillis <= System.currentTimeMillis();
     }
 
     /**
@@ -866,41 +1150,81 @@ public class GalacticfyPermissionService {
             return true;
         }
 
+        String node = internNode(permission);
+        String serverName = (currentServer == null || currentServer.isBlank())
+                ? "PROXY"
+                : currentServer;
+
+        // Generation VOR der Berechnung lesen: ändert sich währenddessen etwas,
+        // ist dieser Cache beim nächsten Zugriff schon veraltet.
+        long generation = permissionGeneration.get();
+        PlayerDecisions decisions = decisionCache.get(uuid);
+        if (decisions == null || decisions.generation != generation) {
+            decisions = new PlayerDecisions(generation);
+            // Offline-Lookups (z.B. aus Commands) nicht cachen – für sie kommt nie ein forgetPlayer()
+            if (onlineCheck.test(uuid)) {
+                decisionCache.put(uuid, decisions);
+            }
+        }
+
+        Map<String, Boolean> scoped = decisions.forScope(serverName);
+        Boolean cached = scoped.get(node);
+        if (cached != null && !isCachedRoleExpired(uuid)) {
+            decisionHits.increment();
+            return cached;
+        }
+        decisionMisses.increment();
+
+        if (!userRoleCache.containsKey(uuid)) {
+            roleCacheMisses.increment();
+            logger.debug("Permission-Check für {} ohne vorgeladene Rolle ({}), lade synchron.", uuid, node);
+        }
+
         GalacticfyRole role = getRoleFor(uuid);
         if (role == null) return false;
 
-        Set<RolePermissionEntry> permsList = getEffectivePermissionsForRole(role);
-        if (permsList.isEmpty()) return false;
+        boolean allowed = getCompiledPermissions(role).matches(node, serverName);
+        scoped.put(node, allowed);
+        return allowed;
+    }
 
-        String node = permission.toLowerCase(Locale.ROOT);
-        String serverName = (currentServer == null || currentServer.isBlank())
-                ? "PROXY"
-                : currentServer;
-        boolean proxyContext = "PROXY".equalsIgnoreCase(serverName);
+    /**
+     * Beendet die Session eines Spielers und entfernt seine gecachten Entscheidungen und
+     * User-Rolle (Disconnect). Gehört {@code player} nicht mehr zur aktuellen Session
+     * (neue Verbindung derselben UUID schon da), bleibt alles stehen.
+     * Beim nächsten Login lädt preloadUserRoleAsync() die Rolle neu;
+     * Ablaufdaten plant der RankExpiryService unabhängig davon.
+     */
+    public void forgetPlayer(Player player) {
+        if (player == null) return;
+        UUID uuid = player.getUniqueId();
+        if (!sessions.remove(uuid, player)) return;
+        decisionCache.remove(uuid);
+        userRoleCache.remove(uuid);
+    }
 
-        for (RolePermissionEntry entry : permsList) {
-            if (entry.permission == null || entry.permission.isBlank()) continue;
+    public int getUserRoleCacheSize() {
+        return userRoleCache.size();
+    }
 
-            String p = entry.permission.toLowerCase(Locale.ROOT);
+    public int getDecisionCachePlayerCount() {
+        return decisionCache.size();
+    }
 
-            // Scope-Match?
-            if (!scopeMatches(entry.serverScope, serverName, proxyContext)) {
-                continue;
-            }
+    public long getDecisionCacheHits() {
+        return decisionHits.sum();
+    }
 
-            // Wildcard / exakte Permission
-            if (p.equals("*")) return true;
+    public long getDecisionCacheMisses() {
+        return decisionMisses.sum();
+    }
 
-            if (p.equals(node)) return true;
+    public long getRoleCacheMisses() {
+        return roleCacheMisses.sum();
+    }
 
-            if (p.endsWith(".*")) {
-                String prefix = p.substring(0, p.length() - 2);
-                if (!prefix.isEmpty() && node.startsWith(prefix)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public long getPermissionGeneration() {
+        return permissionGeneration.get();
     }
 
     /**
@@ -917,6 +1241,10 @@ public class GalacticfyPermissionService {
     /**
      * Lädt Rollen, Permissions, Inheritance und den User-Cache komplett neu.
      * Wird z.B. von /rank reload aufgerufen.
+     *
+     * Der User-Cache wird nicht geleert (sonst liefe der nächste Permission-Check jedes
+     * Online-Spielers per JDBC auf Velocitys Threads), sondern auf die neuen Rollen umgehängt;
+     * die Zuordnungen der laufenden Sessions werden danach auf dem DB-Executor neu gelesen.
      */
     public void reloadAllCaches() {
         logger.info("GalacticfyPermissionService: Starte /rank reload ...");
@@ -925,18 +1253,79 @@ public class GalacticfyPermissionService {
         roleById.clear();
         permissionsByRoleId.clear();
         parentsByRoleId.clear();
-        effectivePermissionsCache.clear();
-        userRoleCache.clear();
+        compiledPermissions = new ConcurrentHashMap<>();
+        invalidateDecisions();
 
         ensureDefaultRole();
 
         reloadAllRoles();
         reloadAllRolePermissions();
         reloadAllInheritance();
+        remapCachedUserRoles();
+        publishRoleDefinitionChange();
+
+        db.runAsync("perm.reload", () -> {
+            for (UUID uuid : sessions.keySet()) {
+                refreshUserRole(uuid);
+            }
+        });
 
         logger.info("GalacticfyPermissionService: Reload abgeschlossen.");
     }
 
+    // ---------------------------------------------------
+    //  Cross-Proxy-Invalidierung (InvalidationBus)
+    // ---------------------------------------------------
+
+    private void publishRoleDefinitionChange() {
+        bus.publish(InvalidationEvent.Type.ROLE_DEFINITION_CHANGED, null);
+    }
+
+    /**
+     * Ein anderer Proxy hat die Rolle eines Users geändert: Cache-Eintrag neu laden
+     * (nur, wenn der User hier überhaupt gecacht ist).
+     */
+    private void onRemoteUserRoleChange(String uuidString) {
+        if (uuidString == null) return;
+
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(uuidString);
+        } catch (IllegalArgumentException ex) {
+            return;
+        }
+        if (!userRoleCache.containsKey(uuid)) return;
+
+        refreshUserRole(uuid);
+    }
+
+    /**
+     * Ein anderer Proxy hat Rollen, Permissions oder Vererbung geändert: alles neu laden
+     * und gecachte User-Rollen auf die neuen Rollen-Objekte umhängen (Prefix/Suffix etc.).
+     * Veröffentlicht selbst nichts, sonst würden sich die Proxys gegenseitig anstoßen.
+     */
+    private void reloadRoleDefinitions() {
+        reloadAllRoles();
+        reloadAllRolePermissions();
+        reloadAllInheritance();
+        remapCachedUserRoles();
+
+        logger.info("GalacticfyPermissionService: Rollen nach Änderung auf anderem Proxy neu geladen.");
+    }
+
+    /**
+     * Hängt gecachte User-Rollen auf die frisch geladenen Rollen-Objekte um (Prefix/Suffix etc.).
+     */
+    private void remapCachedUserRoles() {
+        userRoleCache.replaceAll((uuid, cached) -> {
+            if (cached.role == null) return cached;
+            GalacticfyRole current = roleById.get(cached.role.id);
+            if (current == null) current = getDefaultRole(); // Rolle wurde gelöscht
+            return new CachedUserRole(current, cached.name, cached.expiresAtMillis);
+        });
+        invalidateDecisions();
+    }
+
     public boolean hasConsoleOrPluginPerm(CommandSource src, String permission) {
         if (!(src instanceof Player)) {
             return true;
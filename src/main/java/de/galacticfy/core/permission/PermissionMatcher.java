@@ -0,0 +1,150 @@
+package de.galacticfy.core.permission;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Vorkompilierte Permissions einer Rolle für einen Scope.
+ *
+ *  - "*"      → alles erlaubt
+ *  - "foo.*"  → Dot-Segment-Trie (matcht "foo" und "foo.bar.baz", nicht "foobar")
+ *  - sonst    → exakter Treffer über ein HashSet
+ *
+ * Ein Check kostet O(Segmente der Node) und allokiert nichts (Node muss lower-case sein).
+ */
+final class PermissionMatcher {
+
+    static final PermissionMatcher EMPTY = new PermissionMatcher(false, Set.of(), TrieNode.EMPTY);
+
+    private final boolean all;
+    private final Set<String> exact;
+    private final TrieNode wildcards;
+
+    private PermissionMatcher(boolean all, Set<String> exact, TrieNode wildcards) {
+        this.all = all;
+        this.exact = exact;
+        this.wildcards = wildcards;
+    }
+
+    static PermissionMatcher compile(Collection<String> permissions) {
+        boolean all = false;
+        Set<String> exact = new HashSet<>();
+        TrieBuilder root = new TrieBuilder();
+
+        for (String raw : permissions) {
+            if (raw == null || raw.isBlank()) continue;
+            String p = raw.trim().toLowerCase(Locale.ROOT);
+
+            if (p.equals("*")) {
+                all = true;
+            } else if (p.endsWith(".*")) {
+                String prefix = p.substring(0, p.length() - 2);
+                if (prefix.isEmpty()) continue;
+
+                TrieBuilder cur = root;
+                for (String segment : prefix.split("\\.", -1)) {
+                    cur = cur.children.computeIfAbsent(segment, k -> new TrieBuilder());
+                }
+                cur.wildcard = true;
+            } else {
+                exact.add(p);
+            }
+        }
+
+        if (!all && exact.isEmpty() && root.children.isEmpty()) {
+            return EMPTY;
+        }
+        return new PermissionMatcher(all, Set.copyOf(exact), root.freeze());
+    }
+
+    boolean matches(String node) {
+        if (all) return true;
+        if (exact.contains(node)) return true;
+
+        TrieNode cur = wildcards;
+        int len = node.length();
+        int start = 0;
+        while (true) {
+            int end = node.indexOf('.', start);
+            if (end < 0) end = len;
+
+            cur = cur.child(node, start, end);
+            if (cur == null) return false;
+            if (cur.wildcard) return true;
+            if (end == len) return false;
+            start = end + 1;
+        }
+    }
+
+    // ============================================================
+    // TRIE
+    // ============================================================
+
+    private static final class TrieBuilder {
+        final Map<String, TrieBuilder> children = new HashMap<>();
+        boolean wildcard;
+
+        TrieNode freeze() {
+            int capacity = Integer.highestOneBit(Math.max(1, children.size()) * 2 - 1) << 1;
+            String[] keys = new String[capacity];
+            TrieNode[] nodes = new TrieNode[capacity];
+            int mask = capacity - 1;
+
+            for (Map.Entry<String, TrieBuilder> e : children.entrySet()) {
+                int i = spread(e.getKey().hashCode()) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = e.getKey();
+                nodes[i] = e.getValue().freeze();
+            }
+            return new TrieNode(wildcard, keys, nodes);
+        }
+    }
+
+    /**
+     * Unveränderlicher Trie-Knoten mit Open-Addressing-Tabelle, damit Segmente
+     * direkt aus der Node gelesen werden können (kein substring).
+     */
+    private static final class TrieNode {
+        static final TrieNode EMPTY = new TrieNode(false, new String[1], new TrieNode[1]);
+
+        final boolean wildcard;
+        private final String[] keys;
+        private final TrieNode[] nodes;
+        private final int mask;
+
+        TrieNode(boolean wildcard, String[] keys, TrieNode[] nodes) {
+            this.wildcard = wildcard;
+            this.keys = keys;
+            this.nodes = nodes;
+            this.mask = keys.length - 1;
+        }
+
+        TrieNode child(String s, int from, int to) {
+            int h = 0;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + s.charAt(i);
+            }
+
+            int len = to - from;
+            int i = spread(h) & mask;
+            String key;
+            while ((key = keys[i]) != null) {
+                if (key.length() == len && key.regionMatches(0, s, from, len)) {
+                    return nodes[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,385 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.PunishmentService.Punishment;
+import de.galacticfy.core.service.PunishmentService.PunishmentType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-Memory-Index aller aktiven BAN / IP_BAN / MUTE / WARN Einträge aus gf_punishments.
+ *
+ * Pro Typ gibt es je eine Map nach UUID, lower-case Name und IP. Die Werte sind kleine,
+ * nach id absteigend sortierte Arrays, die bei Änderungen komplett ersetzt werden
+ * (Copy-on-Write): Lesen ist lock-frei, Schreiben läuft synchronisiert.
+ *
+ * Ein Reload aus der DB ({@link #beginResync()} / {@link #replaceAll}) merkt sich alle lokalen
+ * Änderungen seit dem Start und legt sie auf den DB-Stand, damit ein Ban/Unban zwischen
+ * SELECT und Abgleich nicht verloren geht bzw. zurückkommt.
+ */
+final class ActivePunishmentIndex {
+
+    private static final Punishment[] EMPTY = new Punishment[0];
+
+    private static final Comparator<Punishment> NEWEST_FIRST = (a, b) -> Integer.compare(b.id, a.id);
+
+    private static final class Bucket {
+        final Map<UUID, Punishment[]> byUuid = new ConcurrentHashMap<>();
+        final Map<String, Punishment[]> byName = new ConcurrentHashMap<>();
+        final Map<String, Punishment[]> byIp = new ConcurrentHashMap<>();
+    }
+
+    private final Map<PunishmentType, Bucket> buckets = new EnumMap<>(PunishmentType.class);
+    private final Map<Integer, Punishment> byId = new ConcurrentHashMap<>();
+
+    // Lokale Änderungen seit beginResync(): hinzugefügt (gewinnt gegen fehlende DB-Zeile)
+    // bzw. entfernt (Tombstone, gewinnt gegen noch aktive DB-Zeile)
+    private boolean resyncing;
+    private final Map<Integer, Punishment> addedDuringResync = new HashMap<>();
+    private final Set<Integer> removedDuringResync = new HashSet<>();
+    // "UPDATE ... WHERE uuid/name/ip = ?" seit beginResync(): trifft auch Zeilen, die der Index noch nicht kannte
+    private final Set<String> removedKeysDuringResync = new HashSet<>();
+
+    ActivePunishmentIndex() {
+        buckets.put(PunishmentType.BAN, new Bucket());
+        buckets.put(PunishmentType.IP_BAN, new Bucket());
+        buckets.put(PunishmentType.MUTE, new Bucket());
+        buckets.put(PunishmentType.WARN, new Bucket());
+    }
+
+    static boolean isIndexed(PunishmentType type) {
+        return type == PunishmentType.BAN || type == PunishmentType.IP_BAN
+                || type == PunishmentType.MUTE || type == PunishmentType.WARN;
+    }
+
+    static String nameKey(String name) {
+        return (name == null || name.isBlank()) ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    static String ipKey(String ip) {
+        return (ip == null || ip.isBlank()) ? null : ip;
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    // ============================================================
+    // SCHREIBEN
+    // ============================================================
+
+    synchronized void add(Punishment p) {
+        if (p == null || !p.active || !isIndexed(p.type)) return;
+        if (resyncing) {
+            addedDuringResync.put(p.id, p);
+            removedDuringResync.remove(p.id);
+        }
+        insert(p);
+    }
+
+    private void insert(Punishment p) {
+        if (byId.putIfAbsent(p.id, p) != null) return;
+
+        Bucket b = buckets.get(p.type);
+        if (p.uuid != null) b.byUuid.merge(p.uuid, new Punishment[]{p}, ActivePunishmentIndex::mergeSorted);
+        String name = nameKey(p.name);
+        if (name != null) b.byName.merge(name, new Punishment[]{p}, ActivePunishmentIndex::mergeSorted);
+        String ip = ipKey(p.ip);
+        if (ip != null) b.byIp.merge(ip, new Punishment[]{p}, ActivePunishmentIndex::mergeSorted);
+    }
+
+    /** Vor dem DB-Read eines Reloads aufrufen. */
+    synchronized void beginResync() {
+        resyncing = true;
+        addedDuringResync.clear();
+        removedDuringResync.clear();
+        removedKeysDuringResync.clear();
+    }
+
+    /** Reload fehlgeschlagen: inkrementell weiterpflegen. */
+    synchronized void abortResync() {
+        endResync();
+    }
+
+    private void endResync() {
+        resyncing = false;
+        addedDuringResync.clear();
+        removedDuringResync.clear();
+        removedKeysDuringResync.clear();
+    }
+
+    /**
+     * Gleicht den Index mit einem frischen DB-Stand ab: erst neue Einträge hinzufügen,
+     * dann nicht mehr aktive entfernen – lock-freie Leser sehen nie einen leeren Index.
+     * Seit {@link #beginResync()} lokal hinzugefügte Einträge bleiben, lokal entfernte
+     * kommen nicht zurück.
+     */
+    synchronized void replaceAll(Collection<Punishment> active) {
+        Set<Integer> keep = new HashSet<>(addedDuringResync.keySet());
+        for (Punishment p : active) {
+            if (p == null || !p.active || !isIndexed(p.type)) continue;
+            if (removedDuringResync.contains(p.id) || removedByKey(p)) continue;
+            keep.add(p.id);
+            insert(p);
+        }
+        for (Integer id : new ArrayList<>(byId.keySet())) {
+            if (!keep.contains(id)) unlink(id);
+        }
+        endResync();
+    }
+
+    /**
+     * Wie {@link #replaceAll}, aber nur für ein Ziel (UUID, Name oder IP, über alle Typen):
+     * {@code active} ist der frische DB-Stand genau dieses Ziels.
+     *
+     * @return hinzugekommene und entfernte Einträge
+     */
+    synchronized List<Punishment> replaceTarget(UUID uuid, String name, String ip, Collection<Punishment> active) {
+        List<Punishment> changed = new ArrayList<>();
+        Set<Integer> keep = new HashSet<>(addedDuringResync.keySet());
+        for (Punishment p : active) {
+            if (p == null || !p.active || !isIndexed(p.type)) continue;
+            if (removedDuringResync.contains(p.id) || removedByKey(p)) continue;
+            keep.add(p.id);
+            if (!byId.containsKey(p.id)) {
+                insert(p);
+                changed.add(p);
+            }
+        }
+
+        String nameKey = nameKey(name);
+        String ipKey = ipKey(ip);
+        for (Bucket b : buckets.values()) {
+            Punishment[] arr = uuid != null ? b.byUuid.get(uuid)
+                    : nameKey != null ? b.byName.get(nameKey)
+                    : ipKey != null ? b.byIp.get(ipKey) : null;
+            if (arr == null) continue;
+            for (Punishment p : arr) {
+                if (!keep.contains(p.id) && unlink(p.id) != null) changed.add(p);
+            }
+        }
+        endResync();
+        return changed;
+    }
+
+    synchronized Punishment remove(int id) {
+        if (resyncing) {
+            removedDuringResync.add(id);
+            addedDuringResync.remove(id);
+        }
+        return unlink(id);
+    }
+
+    private Punishment unlink(int id) {
+        Punishment p = byId.remove(id);
+        if (p == null) return null;
+
+        Bucket b = buckets.get(p.type);
+        if (p.uuid != null) b.byUuid.computeIfPresent(p.uuid, (k, arr) -> without(arr, id));
+        String name = nameKey(p.name);
+        if (name != null) b.byName.computeIfPresent(name, (k, arr) -> without(arr, id));
+        String ip = ipKey(p.ip);
+        if (ip != null) b.byIp.computeIfPresent(ip, (k, arr) -> without(arr, id));
+        return p;
+    }
+
+    /** Entspricht "UPDATE ... SET active = 0 WHERE uuid = ? AND type = ?". */
+    synchronized List<Punishment> removeByUuid(PunishmentType type, UUID uuid) {
+        if (uuid == null) return List.of();
+        if (resyncing) removedKeysDuringResync.add(tombstone(type, 'u', uuid.toString()));
+        return removeAll(buckets.get(type).byUuid.get(uuid));
+    }
+
+    /** Entspricht "UPDATE ... SET active = 0 WHERE LOWER(name) = ? AND type = ?". */
+    synchronized List<Punishment> removeByName(PunishmentType type, String name) {
+        String key = nameKey(name);
+        if (key == null) return List.of();
+        if (resyncing) removedKeysDuringResync.add(tombstone(type, 'n', key));
+        return removeAll(buckets.get(type).byName.get(key));
+    }
+
+    /** Entspricht "UPDATE ... SET active = 0 WHERE ip = ? AND type = ?". */
+    synchronized List<Punishment> removeByIp(PunishmentType type, String ip) {
+        String key = ipKey(ip);
+        if (key == null) return List.of();
+        if (resyncing) removedKeysDuringResync.add(tombstone(type, 'i', key));
+        return removeAll(buckets.get(type).byIp.get(key));
+    }
+
+    private static String tombstone(PunishmentType type, char kind, String key) {
+        return type.name() + '|' + kind + '|' + key;
+    }
+
+    /** Snapshot-Zeile wurde seit beginResync() per uuid/name/ip deaktiviert (und nicht neu angelegt). */
+    private boolean removedByKey(Punishment p) {
+        if (removedKeysDuringResync.isEmpty() || addedDuringResync.containsKey(p.id)) return false;
+        if (p.uuid != null && removedKeysDuringResync.contains(tombstone(p.type, 'u', p.uuid.toString()))) return true;
+        String name = nameKey(p.name);
+        if (name != null && removedKeysDuringResync.contains(tombstone(p.type, 'n', name))) return true;
+        String ip = ipKey(p.ip);
+        return ip != null && removedKeysDuringResync.contains(tombstone(p.type, 'i', ip));
+    }
+
+    private List<Punishment> removeAll(Punishment[] arr) {
+        if (arr == null) return List.of();
+        for (Punishment p : arr) {
+            remove(p.id);
+        }
+        return Arrays.asList(arr);
+    }
+
+    // ============================================================
+    // LESEN
+    // ============================================================
+
+    /**
+     * Neuester nicht abgelaufener Eintrag, gesucht nach UUID, dann Name, dann IP.
+     * Abgelaufene Einträge werden an {@code onExpired} gemeldet (und nicht zurückgegeben).
+     */
+    Punishment find(PunishmentType type, UUID uuid, String name, String ip,
+                    long now, Consumer<Punishment> onExpired) {
+        Bucket b = buckets.get(type);
+        if (b == null) return null;
+
+        Punishment p = null;
+        if (uuid != null) {
+            p = firstValid(b.byUuid.get(uuid), now, onExpired);
+        }
+        if (p == null) {
+            String key = nameKey(name);
+            if (key != null) p = firstValid(b.byName.get(key), now, onExpired);
+        }
+        if (p == null) {
+            String key = ipKey(ip);
+            if (key != null) p = firstValid(b.byIp.get(key), now, onExpired);
+        }
+        return p;
+    }
+
+    /**
+     * Alle aktiven Einträge eines Spielers, neueste zuerst – nach UUID, ohne UUID nach Name
+     * (wie "WHERE type = ? AND active = 1 AND uuid = ?" bzw. "... AND name_lower = ?").
+     */
+    Punishment[] activeOf(PunishmentType type, UUID uuid, String name) {
+        Bucket b = buckets.get(type);
+        if (b == null) return EMPTY;
+
+        Punishment[] arr;
+        if (uuid != null) {
+            arr = b.byUuid.get(uuid);
+        } else {
+            String key = nameKey(name);
+            arr = (key != null) ? b.byName.get(key) : null;
+        }
+        return arr != null ? arr : EMPTY;
+    }
+
+    /**
+     * Aktive BAN + IP_BAN Einträge auf einer IP, neueste zuerst.
+     */
+    List<Punishment> findBansByIp(String ip, UUID excludeUuid, int limit,
+                                  long now, Consumer<Punishment> onExpired) {
+        String key = ipKey(ip);
+        if (key == null) return new ArrayList<>();
+
+        List<Punishment> list = new ArrayList<>();
+        collect(list, buckets.get(PunishmentType.BAN).byIp.get(key), excludeUuid, now, onExpired);
+        collect(list, buckets.get(PunishmentType.IP_BAN).byIp.get(key), excludeUuid, now, onExpired);
+
+        list.sort(Comparator
+                .comparing((Punishment p) -> p.createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(NEWEST_FIRST));
+        return list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list;
+    }
+
+    List<String> activeNames(PunishmentType type) {
+        TreeSet<String> names = new TreeSet<>();
+        for (Punishment p : byId.values()) {
+            if (p.type == type && p.name != null && !p.name.isBlank()) {
+                names.add(p.name);
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Entfernt alle bis {@code now} abgelaufenen Einträge und gibt sie zurück.
+     */
+    synchronized List<Punishment> removeExpired(long now) {
+        List<Punishment> expired = new ArrayList<>();
+        for (Punishment p : byId.values()) {
+            if (isExpired(p, now)) expired.add(p);
+        }
+        for (Punishment p : expired) {
+            remove(p.id);
+        }
+        return expired;
+    }
+
+    // ============================================================
+    // INTERN
+    // ============================================================
+
+    private static void collect(List<Punishment> out, Punishment[] arr, UUID excludeUuid,
+                                long now, Consumer<Punishment> onExpired) {
+        if (arr == null) return;
+        for (Punishment p : arr) {
+            if (isExpired(p, now)) {
+                onExpired.accept(p);
+                continue;
+            }
+            if (excludeUuid != null && excludeUuid.equals(p.uuid)) continue;
+            out.add(p);
+        }
+    }
+
+    private static Punishment firstValid(Punishment[] arr, long now, Consumer<Punishment> onExpired) {
+        if (arr == null) return null;
+        for (Punishment p : arr) {
+            if (!isExpired(p, now)) return p;
+            onExpired.accept(p);
+        }
+        return null;
+    }
+
+    static boolean isExpired(Punishment p, long now) {
+        return p.expiresAt != null && p.expiresAt.toEpochMilli() <= now;
+    }
+
+    private static Punishment[] mergeSorted(Punishment[] existing, Punishment[] added) {
+        Punishment[] out = Arrays.copyOf(existing, existing.length + added.length);
+        System.arraycopy(added, 0, out, existing.length, added.length);
+        Arrays.sort(out, NEWEST_FIRST);
+        return out;
+    }
+
+    private static Punishment[] without(Punishment[] arr, int id) {
+        int idx = -1;
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i].id == id) {
+                idx = i;
+                break;
+            }
+        }
+        if (idx < 0) return arr;
+        if (arr.length == 1) return null; // computeIfPresent entfernt den Key
+
+        Punishment[] out = new Punishment[arr.length - 1];
+        System.arraycopy(arr, 0, out, 0, idx);
+        System.arraycopy(arr, idx + 1, out, idx, arr.length - idx - 1);
+        return out;
+    }
+}
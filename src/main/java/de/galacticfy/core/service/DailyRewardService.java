@@ -106,10 +106,10 @@ public class DailyRewardService {
 
             // Belohnungen gutschreiben
             if (galasReward > 0) {
-                economy.deposit(uuid, galasReward);
+                economy.deposit(uuid, galasReward, EconomyLedger.Reason.DAILY_REWARD, null, "streak " + newStreak);
             }
             if (stardustReward > 0) {
-                economy.addStardust(uuid, stardustReward);
+                economy.addStardust(uuid, stardustReward, EconomyLedger.Reason.DAILY_REWARD, "streak " + newStreak);
             }
 
             return new ClaimResult(true, false, newStreak, galasReward, stardustReward, today);
@@ -0,0 +1,356 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.EconomyLedger.Currency;
+import de.galacticfy.core.service.EconomyService.Account;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Materialisierte Baltop-Rangliste (Galas + Stardust) aller Accounts aus gf_economy.
+ *
+ *  - pro Währung ein Order-Statistic-Tree (Treap) mit Schlüssel (Betrag absteigend, UUID)
+ *  - Seite N und eigener Platz in O(log n), ohne LIMIT/OFFSET gegen die DB
+ *  - wird von jeder {@link EconomyService}-Änderung inkrementell gepflegt und
+ *    periodisch komplett aus der DB neu aufgebaut ({@link #beginResync()} / {@link #replaceAll})
+ *
+ * Alle Zugriffe laufen unter dem Monitor dieses Objekts (kurze Abschnitte, kein JDBC).
+ */
+final class EconomyLeaderboard {
+
+    private record Row(String name, long galas, long stardust) {}
+
+    private static final class Board {
+        final Map<UUID, Row> rows = new HashMap<>();
+        final RankTree galas = new RankTree();
+        final RankTree stardust = new RankTree();
+
+        RankTree tree(Currency currency) {
+            return currency == Currency.GALAS ? galas : stardust;
+        }
+
+        void put(UUID uuid, Row row) {
+            Row old = rows.put(uuid, row);
+            if (old == null) {
+                galas.insert(row.galas(), uuid);
+                stardust.insert(row.stardust(), uuid);
+                return;
+            }
+            if (old.galas() != row.galas()) {
+                galas.remove(old.galas(), uuid);
+                galas.insert(row.galas(), uuid);
+            }
+            if (old.stardust() != row.stardust()) {
+                stardust.remove(old.stardust(), uuid);
+                stardust.insert(row.stardust(), uuid);
+            }
+        }
+    }
+
+    /**
+     * Änderung eines Accounts seit {@link #beginResync()}. Je Währung entweder ein absoluter
+     * Stand (gewinnt gegen den DB-Stand) oder eine Summe von Differenzen (kommt auf den DB-Stand).
+     */
+    private static final class Change {
+        String name;
+        final boolean[] absolute = new boolean[2];
+        final long[] value = new long[2];
+    }
+
+    private Board board = new Board();
+    private volatile boolean ready;
+
+    private boolean resyncing;
+    private final Map<UUID, Change> changes = new HashMap<>();
+
+    boolean isReady() {
+        return ready;
+    }
+
+    // ============================================================
+    // PFLEGE (EconomyService)
+    // ============================================================
+
+    /** Account angelegt / Name aktualisiert. */
+    synchronized void touch(UUID uuid, String name) {
+        Row row = board.rows.get(uuid);
+        board.put(uuid, row != null
+                ? new Row(name, row.galas(), row.stardust())
+                : new Row(name, 0L, 0L));
+        if (resyncing) change(uuid).name = name;
+    }
+
+    /** Neuer absoluter Stand. */
+    synchronized void set(UUID uuid, Currency currency, long value) {
+        Row row = board.rows.getOrDefault(uuid, new Row(null, 0L, 0L));
+        board.put(uuid, currency == Currency.GALAS
+                ? new Row(row.name(), value, row.stardust())
+                : new Row(row.name(), row.galas(), value));
+        if (resyncing) {
+            Change ch = change(uuid);
+            ch.absolute[currency.ordinal()] = true;
+            ch.value[currency.ordinal()] = value;
+        }
+    }
+
+    /** Differenz (für nicht gecachte Accounts, deren neuer Stand nur in der DB steht). */
+    synchronized void add(UUID uuid, Currency currency, long delta) {
+        Row row = board.rows.getOrDefault(uuid, new Row(null, 0L, 0L));
+        long next = capped(currency == Currency.GALAS ? row.galas() : row.stardust(), delta);
+
+        // vor dem ersten Resync kennt die Rangliste den Ausgangsstand nicht: nur die Differenz merken
+        Change ch = resyncing ? changes.get(uuid) : null;
+        if (ready || !resyncing || (ch != null && ch.absolute[currency.ordinal()])) {
+            set(uuid, currency, next);
+            return;
+        }
+
+        board.put(uuid, currency == Currency.GALAS
+                ? new Row(row.name(), next, row.stardust())
+                : new Row(row.name(), row.galas(), next));
+        change(uuid).value[currency.ordinal()] += delta;
+    }
+
+    private Change change(UUID uuid) {
+        return changes.computeIfAbsent(uuid, k -> new Change());
+    }
+
+    private static long capped(long cur, long delta) {
+        if (delta > 0 && cur > Long.MAX_VALUE - delta) {
+            return Long.MAX_VALUE; // wie in der DB gekappt
+        }
+        return Math.max(0L, cur + delta);
+    }
+
+    /** Vor dem DB-Read des Resyncs aufrufen. */
+    synchronized void beginResync() {
+        resyncing = true;
+        changes.clear();
+    }
+
+    /**
+     * Ersetzt die Rangliste durch den DB-Stand. Für Accounts, die sich seit {@link #beginResync()}
+     * geändert haben, gewinnt ein absoluter Stand; Differenzen kommen auf den DB-Stand.
+     * War die Rangliste schon aufgebaut, ist jede Änderung absolut (der alte Stand war vollständig).
+     */
+    void replaceAll(List<Account> accounts) {
+        // Aufbau außerhalb des Monitors, damit Änderungen/Abfragen nicht warten müssen
+        Board fresh = new Board();
+        for (Account acc : accounts) {
+            fresh.put(acc.uuid(), new Row(acc.name(), acc.balance(), acc.stardust()));
+        }
+
+        synchronized (this) {
+            for (Map.Entry<UUID, Change> e : changes.entrySet()) {
+                UUID uuid = e.getKey();
+                Change ch = e.getValue();
+                Row stored = fresh.rows.get(uuid);
+                if (stored == null) {
+                    // erst nach dem DB-Read angelegt: Startstand 0, der Speicherstand ist vollständig
+                    Row live = board.rows.get(uuid);
+                    if (live != null) fresh.put(uuid, live);
+                    continue;
+                }
+                fresh.put(uuid, new Row(
+                        ch.name != null ? ch.name : stored.name(),
+                        merge(ch, Currency.GALAS, stored.galas()),
+                        merge(ch, Currency.STARDUST, stored.stardust())));
+            }
+            changes.clear();
+            resyncing = false;
+            board = fresh;
+            ready = true;
+        }
+    }
+
+    private static long merge(Change ch, Currency currency, long stored) {
+        int i = currency.ordinal();
+        return ch.absolute[i] ? ch.value[i] : capped(stored, ch.value[i]);
+    }
+
+    /** Resync fehlgeschlagen: inkrementell weiterpflegen. */
+    synchronized void abortResync() {
+        changes.clear();
+        resyncing = false;
+    }
+
+    // ============================================================
+    // ABFRAGEN
+    // ============================================================
+
+    /** Einträge ab Platz {@code offset + 1}, absteigend sortiert. */
+    synchronized List<Account> page(Currency currency, int offset, int limit) {
+        RankTree tree = board.tree(currency);
+        int end = Math.min(tree.size(), offset + limit);
+
+        List<Account> list = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++) {
+            UUID uuid = tree.select(i);
+            Row row = board.rows.get(uuid);
+            list.add(new Account(uuid, row.name(), row.galas(), row.stardust()));
+        }
+        return list;
+    }
+
+    /** Platz (1-basiert) eines Accounts. */
+    synchronized OptionalInt rank(UUID uuid, Currency currency) {
+        Row row = board.rows.get(uuid);
+        if (row == null) return OptionalInt.empty();
+        long amount = currency == Currency.GALAS ? row.galas() : row.stardust();
+        return OptionalInt.of(board.tree(currency).rank(amount, uuid) + 1);
+    }
+
+    synchronized int size() {
+        return board.rows.size();
+    }
+
+    // ============================================================
+    // ORDER-STATISTIC-TREE (Treap mit Teilbaumgrößen)
+    // ============================================================
+
+    private static final class RankTree {
+
+        private static final class Node {
+            final long amount;
+            final UUID uuid;
+            final int priority = ThreadLocalRandom.current().nextInt();
+            int size = 1;
+            Node left;
+            Node right;
+
+            Node(long amount, UUID uuid) {
+                this.amount = amount;
+                this.uuid = uuid;
+            }
+        }
+
+        private Node root;
+
+        int size() {
+            return size(root);
+        }
+
+        void insert(long amount, UUID uuid) {
+            root = insert(root, new Node(amount, uuid));
+        }
+
+        void remove(long amount, UUID uuid) {
+            root = remove(root, amount, uuid);
+        }
+
+        /** UUID an Position {@code index} (0-basiert). */
+        UUID select(int index) {
+            Node t = root;
+            while (t != null) {
+                int leftSize = size(t.left);
+                if (index < leftSize) {
+                    t = t.left;
+                } else if (index == leftSize) {
+                    return t.uuid;
+                } else {
+                    index -= leftSize + 1;
+                    t = t.right;
+                }
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        /** Anzahl Einträge vor (amount, uuid). */
+        int rank(long amount, UUID uuid) {
+            int before = 0;
+            Node t = root;
+            while (t != null) {
+                int c = compare(amount, uuid, t);
+                if (c < 0) {
+                    t = t.left;
+                } else if (c == 0) {
+                    return before + size(t.left);
+                } else {
+                    before += size(t.left) + 1;
+                    t = t.right;
+                }
+            }
+            return before;
+        }
+
+        // höherer Betrag zuerst, bei Gleichstand nach UUID
+        private static int compare(long amount, UUID uuid, Node n) {
+            int c = Long.compare(n.amount, amount);
+            return c != 0 ? c : uuid.compareTo(n.uuid);
+        }
+
+        private static int size(Node n) {
+            return n == null ? 0 : n.size;
+        }
+
+        private static void update(Node n) {
+            n.size = 1 + size(n.left) + size(n.right);
+        }
+
+        private static Node insert(Node t, Node n) {
+            if (t == null) return n;
+            if (n.priority > t.priority) {
+                Node[] parts = split(t, n.amount, n.uuid);
+                n.left = parts[0];
+                n.right = parts[1];
+                update(n);
+                return n;
+            }
+            if (compare(n.amount, n.uuid, t) < 0) {
+                t.left = insert(t.left, n);
+            } else {
+                t.right = insert(t.right, n);
+            }
+            update(t);
+            return t;
+        }
+
+        private static Node remove(Node t, long amount, UUID uuid) {
+            if (t == null) return null;
+            int c = compare(amount, uuid, t);
+            if (c == 0) return merge(t.left, t.right);
+            if (c < 0) {
+                t.left = remove(t.left, amount, uuid);
+            } else {
+                t.right = remove(t.right, amount, uuid);
+            }
+            update(t);
+            return t;
+        }
+
+        /** [0] = alles vor (amount, uuid), [1] = der Rest. */
+        private static Node[] split(Node t, long amount, UUID uuid) {
+            if (t == null) return new Node[2];
+            if (compare(amount, uuid, t) > 0) {
+                Node[] parts = split(t.right, amount, uuid);
+                t.right = parts[0];
+                update(t);
+                parts[0] = t;
+                return parts;
+            }
+            Node[] parts = split(t.left, amount, uuid);
+            t.left = parts[1];
+            update(t);
+            parts[1] = t;
+            return parts;
+        }
+
+        private static Node merge(Node a, Node b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            if (a.priority > b.priority) {
+                a.right = merge(a.right, b);
+                update(a);
+                return a;
+            }
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+}
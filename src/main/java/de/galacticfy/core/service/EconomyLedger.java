@@ -0,0 +1,362 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only Ledger aller Galas/Stardust-Bewegungen (gf_economy_ledger).
+ *
+ *  - {@link #add} / {@link #set} hängen nur an eine lock-freie Queue an (kein JDBC im Command-Pfad)
+ *  - {@link #flush()} schreibt die Queue in JDBC-Batches (DB-Executor, periodisch + Shutdown)
+ *  - Queue begrenzt: ist sie voll, wird der neue Eintrag verworfen und als Dead-Letter geloggt
+ *  - scheitert ein Batch wiederholt an seinen Daten, wird er einzeln geschrieben und die
+ *    unschreibbaren Zeilen als Dead-Letter geloggt (blockiert keine späteren Einträge)
+ *  - {@link #verify(UUID)} spielt den Ledger ab und vergleicht mit gf_economy
+ *
+ * Zeilen: op = ADD (amount mit Vorzeichen) oder SET (amount = neuer Stand).
+ */
+public class EconomyLedger {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int WARN_QUEUE_SIZE = 50_000;
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 500_000;
+    // so oft darf derselbe Batch scheitern (ohne Verbindungsfehler), bevor er aufgeteilt wird
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    public enum Currency {
+        GALAS,
+        STARDUST
+    }
+
+    public enum Reason {
+        OPENING,
+        DEPOSIT,
+        WITHDRAW,
+        SET,
+        TRANSFER,
+        PAY,
+        QUEST_REWARD,
+        DAILY_REWARD,
+        ADMIN
+    }
+
+    private record Entry(UUID uuid,
+                         Currency currency,
+                         boolean set,
+                         long amount,
+                         Reason reason,
+                         UUID counterparty,
+                         String note,
+                         long createdAt) {}
+
+    /** Abweichung zwischen Ledger-Replay und gf_economy. */
+    public record Mismatch(UUID uuid, String name,
+                           long ledgerGalas, long galas,
+                           long ledgerStardust, long stardust) {}
+
+    private final DatabaseManager db;
+    private final Logger logger;
+    private final int maxQueueSize;
+    private final int warnQueueSize;
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // fehlgeschlagener Batch, wird beim nächsten Flush zuerst geschrieben (Reihenfolge bleibt)
+    private final List<Entry> retry = new ArrayList<>();
+    private int retryAttempts;
+    // verworfen (Queue voll / unschreibbar), nur im Log erhalten
+    private final AtomicLong dropped = new AtomicLong();
+    // schützt retry / retryAttempts
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public EconomyLedger(DatabaseManager db, Logger logger) {
+        this(db, logger, DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    public EconomyLedger(DatabaseManager db, Logger logger, int maxQueueSize) {
+        this.db = db;
+        this.logger = logger;
+        this.maxQueueSize = Math.max(BATCH_SIZE, maxQueueSize);
+        this.warnQueueSize = Math.min(WARN_QUEUE_SIZE, this.maxQueueSize / 2);
+    }
+
+    // ============================================================
+    // ERFASSEN
+    // ============================================================
+
+    /** Bewegung um {@code delta} (positiv = Gutschrift, negativ = Abbuchung). */
+    public void add(UUID uuid, Currency currency, long delta, Reason reason, UUID counterparty, String note) {
+        enqueue(new Entry(uuid, currency, false, delta, reason, counterparty, note, System.currentTimeMillis()));
+    }
+
+    /** Kontostand wurde auf {@code value} gesetzt. */
+    public void set(UUID uuid, Currency currency, long value, Reason reason, String note) {
+        enqueue(new Entry(uuid, currency, true, value, reason, null, note, System.currentTimeMillis()));
+    }
+
+    private void enqueue(Entry e) {
+        if (e.uuid == null) return;
+
+        int size = queued.incrementAndGet();
+        if (size > maxQueueSize) {
+            // voll: Kontostand ist schon geändert, nur der Ledger-Eintrag geht (ins Log) verloren
+            queued.decrementAndGet();
+            if (dropped.getAndIncrement() == 0) {
+                logger.error("EconomyLedger: Queue voll ({} Einträge) – neue Einträge werden verworfen " +
+                        "und nur geloggt, /eco verify meldet Abweichungen", maxQueueSize);
+            }
+            deadLetter(e, "Queue voll", null);
+            return;
+        }
+        queue.add(e);
+        if (size == warnQueueSize) {
+            logger.warn("EconomyLedger: {} Einträge warten auf das Schreiben – DB erreichbar?", warnQueueSize);
+        }
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /** Verworfene Einträge seit dem Start (Queue voll oder unschreibbar). */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // ============================================================
+    // SCHREIBEN
+    // ============================================================
+
+    /**
+     * Schreibt alle wartenden Einträge in Batches. Nur ein Flush gleichzeitig
+     * (ReentrantLock statt Monitor: läuft auf virtuellen Threads und hält JDBC).
+     *
+     * @return Anzahl geschriebener Einträge
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushLocked() {
+        int written = 0;
+        while (true) {
+            List<Entry> batch = new ArrayList<>(retry);
+            retry.clear();
+            Entry e;
+            while (batch.size() < BATCH_SIZE && (e = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.add(e);
+            }
+            if (batch.isEmpty()) return written;
+
+            try {
+                insertBatch(batch);
+                written += batch.size();
+                retryAttempts = 0;
+            } catch (SQLException ex) {
+                // DB weg: nicht zählen, der Batch ist nicht schuld
+                if (isConnectionProblem(ex) || ++retryAttempts < MAX_BATCH_ATTEMPTS) {
+                    retry.addAll(batch);
+                    logger.error("EconomyLedger: {} Einträge konnten nicht geschrieben werden, neuer Versuch beim nächsten Flush",
+                            batch.size(), ex);
+                    return written;
+                }
+
+                logger.error("EconomyLedger: Batch ({} Einträge) scheitert wiederholt, wird einzeln geschrieben",
+                        batch.size(), ex);
+                retryAttempts = 0;
+                written += insertEach(batch);
+                if (!retry.isEmpty()) return written;
+            }
+            if (batch.size() < BATCH_SIZE) return written;
+        }
+    }
+
+    /**
+     * Einzeln schreiben. Zeilen, die an ihren Daten scheitern, werden als Dead-Letter geloggt;
+     * bei einem Verbindungsfehler bleibt der Rest für den nächsten Flush.
+     */
+    private int insertEach(List<Entry> batch) {
+        int written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Entry e = batch.get(i);
+            try {
+                insertBatch(List.of(e));
+                written++;
+            } catch (SQLException ex) {
+                if (isConnectionProblem(ex)) {
+                    retry.addAll(batch.subList(i, batch.size()));
+                    return written;
+                }
+                dropped.incrementAndGet();
+                deadLetter(e, "unschreibbar", ex);
+            }
+        }
+        return written;
+    }
+
+    /** Verbindung / Pool / Timeout / Lock – dann liegt es nicht an den Zeilen. */
+    private boolean isConnectionProblem(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (!(t instanceof SQLException sql)) continue;
+            if (sql instanceof SQLTransientException || sql instanceof SQLRecoverableException) return true;
+            String state = sql.getSQLState();
+            if (state != null && (state.startsWith("08") || state.equals("40001"))) return true;
+            int code = sql.getErrorCode();
+            if (db.isSQLite() ? (code == 5 || code == 6) : (code == 1213 || code == 1205)) return true;
+        }
+        return false;
+    }
+
+    /** Eine Zeile, aus der sich der Ledger-Eintrag von Hand nachtragen lässt. */
+    private void deadLetter(Entry e, String why, SQLException cause) {
+        logger.error("EconomyLedger DEAD-LETTER ({}): uuid={} currency={} op={} amount={} reason={} counterparty={} note={} createdAt={}",
+                why, e.uuid, e.currency, e.set ? "SET" : "ADD", e.amount, e.reason, e.counterparty, e.note, e.createdAt,
+                cause);
+    }
+
+    private void insertBatch(List<Entry> batch) throws SQLException {
+        try (Connection con = db.getConnection()) {
+            boolean oldAutoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO gf_economy_ledger " +
+                            "(uuid, currency, op, amount, reason, counterparty, note, created_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)"
+            )) {
+                for (Entry e : batch) {
+                    ps.setString(1, e.uuid.toString());
+                    ps.setString(2, e.currency.name());
+                    ps.setString(3, e.set ? "SET" : "ADD");
+                    ps.setLong(4, e.amount);
+                    ps.setString(5, e.reason.name());
+                    if (e.counterparty != null) {
+                        ps.setString(6, e.counterparty.toString());
+                    } else {
+                        ps.setNull(6, Types.VARCHAR);
+                    }
+                    if (e.note != null) {
+                        ps.setString(7, e.note.length() > 64 ? e.note.substring(0, 64) : e.note);
+                    } else {
+                        ps.setNull(7, Types.VARCHAR);
+                    }
+                    ps.setLong(8, e.createdAt);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                con.commit();
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(oldAutoCommit);
+            }
+        }
+    }
+
+    // ============================================================
+    // REPLAY / ABGLEICH
+    // ============================================================
+
+    /**
+     * Baut die Kontostände aus dem Ledger neu auf ({@code uuid == null} → alle Accounts).
+     *
+     * @return uuid → {galas, stardust}
+     */
+    public Map<UUID, long[]> replay(UUID uuid) throws SQLException {
+        flush();
+
+        Map<UUID, long[]> balances = new HashMap<>();
+        String sql = "SELECT uuid, currency, op, amount FROM gf_economy_ledger" +
+                (uuid != null ? " WHERE uuid = ?" : "") +
+                " ORDER BY id";
+
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            if (uuid != null) ps.setString(1, uuid.toString());
+            ps.setFetchSize(1000);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID id;
+                    try {
+                        id = UUID.fromString(rs.getString("uuid"));
+                    } catch (IllegalArgumentException ex) {
+                        continue;
+                    }
+                    int idx = Currency.GALAS.name().equals(rs.getString("currency")) ? 0 : 1;
+                    long amount = rs.getLong("amount");
+
+                    long[] b = balances.computeIfAbsent(id, k -> new long[2]);
+                    if ("SET".equals(rs.getString("op"))) {
+                        b[idx] = amount;
+                    } else if (amount > 0 && b[idx] > Long.MAX_VALUE - amount) {
+                        b[idx] = Long.MAX_VALUE; // wie EconomyService: gekappt
+                    } else {
+                        b[idx] += amount;
+                    }
+                }
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Vergleicht das Replay mit gf_economy ({@code uuid == null} → alle Accounts).
+     * Bei WRITE_BEHIND vorher {@link EconomyService#flushPending()} aufrufen.
+     */
+    public List<Mismatch> verify(UUID uuid) throws SQLException {
+        Map<UUID, long[]> replayed = replay(uuid);
+        List<Mismatch> mismatches = new ArrayList<>();
+
+        String sql = "SELECT uuid, name, balance, stardust FROM gf_economy" +
+                (uuid != null ? " WHERE uuid = ?" : "");
+
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            if (uuid != null) ps.setString(1, uuid.toString());
+            ps.setFetchSize(1000);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID id;
+                    try {
+                        id = UUID.fromString(rs.getString("uuid"));
+                    } catch (IllegalArgumentException ex) {
+                        continue;
+                    }
+                    long galas = rs.getLong("balance");
+                    long stardust = rs.getLong("stardust");
+                    long[] b = replayed.getOrDefault(id, new long[2]);
+
+                    if (b[0] != galas || b[1] != stardust) {
+                        mismatches.add(new Mismatch(id, rs.getString("name"), b[0], galas, b[1], stardust));
+                    }
+                }
+            }
+        }
+        return mismatches;
+    }
+}
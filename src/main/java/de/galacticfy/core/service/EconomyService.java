@@ -1,24 +1,298 @@
 package de.galacticfy.core.service;
 
 import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.service.EconomyLedger.Currency;
+import de.galacticfy.core.service.EconomyLedger.Reason;
 import org.slf4j.Logger;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class EconomyService {
 
     // Einheitlicher Datentyp für jeden Account
     public record Account(UUID uuid, String name, long balance, long stardust) {}
 
+    /**
+     * Wie Änderungen an gecachten (Online-)Accounts in gf_economy landen.
+     *
+     *  - WRITE_THROUGH: erst das Statement, dann der Speicher (nichts geht bei einem Crash verloren)
+     *  - WRITE_BEHIND:  nur der Speicher, die Differenzen werden periodisch geschrieben
+     */
+    public enum Durability {
+        WRITE_THROUGH,
+        WRITE_BEHIND
+    }
+
+    /**
+     * Kontostand eines Online-Spielers. Lesen ist lock-frei; Änderungen laufen unter dem
+     * Lock des Accounts (bei WRITE_THROUGH DB + Speicher zusammen).
+     *
+     * ReentrantLock statt Monitor: die Locks werden über JDBC-Aufrufe und beim Warten auf
+     * Stripe-Locks gehalten, auf virtuellen Threads (JDK 21–23) würde ein Monitor den
+     * Carrier-Thread blockieren.
+     */
+    private static final class CachedAccount {
+        final AtomicLong balance;
+        final AtomicLong stardust;
+        // noch nicht geschriebene Differenzen (nur WRITE_BEHIND)
+        final AtomicLong pendingBalance = new AtomicLong();
+        final AtomicLong pendingStardust = new AtomicLong();
+        // Änderungen an diesem Account
+        final ReentrantLock lock = new ReentrantLock();
+        // hält ein laufender Flush (Differenz entnommen, Statement noch offen)
+        final ReentrantLock flushLock = new ReentrantLock();
+        // Disconnect: ab hier keine Änderungen mehr an diesem Eintrag (unter dem Lock gesetzt)
+        volatile boolean evicted;
+
+        CachedAccount(long balance, long stardust) {
+            this.balance = new AtomicLong(balance);
+            this.stardust = new AtomicLong(stardust);
+        }
+
+        AtomicLong value(String column) {
+            return COL_BALANCE.equals(column) ? balance : stardust;
+        }
+
+        AtomicLong pending(String column) {
+            return COL_BALANCE.equals(column) ? pendingBalance : pendingStardust;
+        }
+
+        boolean hasPending() {
+            return pendingBalance.get() != 0L || pendingStardust.get() != 0L;
+        }
+    }
+
+    // Spaltennamen für die atomaren Helfer (nie aus User-Input)
+    private static final String COL_BALANCE = "balance";
+    private static final String COL_STARDUST = "stardust";
+
+    private static final int ACCOUNT_STRIPES = 64;
+    private static final int TRANSFER_MAX_ATTEMPTS = 4;
+
     private final DatabaseManager db;
     private final Logger logger;
-
-    public EconomyService(DatabaseManager db, Logger logger) {
+    private final Durability durability;
+    private final EconomyLedger ledger;
+
+    // Online-Spieler (PostLogin → Disconnect)
+    private final Map<UUID, CachedAccount> online = new ConcurrentHashMap<>();
+    // ausgeloggt, aber Differenzen noch nicht geschrieben (WRITE_BEHIND)
+    private final Map<UUID, CachedAccount> leaving = new ConcurrentHashMap<>();
+
+    // /baltop: alle Accounts sortiert im Speicher, inkrementell gepflegt
+    private final EconomyLeaderboard leaderboard = new EconomyLeaderboard();
+
+    /*
+     * Striped-Locks pro Account. Darunter laufen:
+     *  - alle Änderungen an nicht gecachten Accounts (direkt in der DB)
+     *  - Laden in den Cache (SELECT + Einsetzen) und Verdrängen aus dem Cache
+     *  - Transfers (pro Paar; ersetzt unter SQLite das fehlende FOR UPDATE)
+     * Damit kann keine DB-Änderung zwischen SELECT und Einsetzen landen.
+     * Reihenfolge: Lock eines CachedAccount vor Stripe-Lock, nie umgekehrt.
+     */
+    private final ReentrantLock[] accountLocks = new ReentrantLock[ACCOUNT_STRIPES];
+
+    public EconomyService(DatabaseManager db, Logger logger, Durability durability, EconomyLedger ledger) {
         this.db = db;
         this.logger = logger;
+        this.durability = durability != null ? durability : Durability.WRITE_THROUGH;
+        this.ledger = ledger;
+        for (int i = 0; i < ACCOUNT_STRIPES; i++) {
+            accountLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public EconomyLedger getLedger() {
+        return ledger;
+    }
+
+    // ============================================================
+    // CACHE: Online-Spieler
+    // ============================================================
+
+    /**
+     * Account anlegen und in den Cache laden (PostLogin, DB-Executor).
+     * Danach laufen getBalance / getStardust für diesen Spieler ohne JDBC.
+     */
+    public CompletableFuture<Void> loadAccountAsync(UUID uuid, String name) {
+        return db.runAsync("economy.load", () -> {
+            try {
+                loadAccount(uuid, name);
+            } catch (SQLException e) {
+                logger.error("Konnte Economy-Account von {} ({}) nicht laden", name, uuid, e);
+            }
+        });
+    }
+
+    private void loadAccount(UUID uuid, String name) throws SQLException {
+        if (uuid == null) return;
+        ensureAccount(uuid, name);
+
+        // SELECT + Einsetzen unter dem Account-Lock: ungecachte Änderungen laufen unter
+        // demselben Lock und können nicht dazwischen landen (sonst veralteter Stand im Cache)
+        ReentrantLock lock = accountLock(uuid);
+        lock.lock();
+        try {
+            CachedAccount cur = online.get(uuid);
+            if (cur != null && !cur.evicted) return;
+
+            // schneller Reconnect: offene Differenzen der letzten Sitzung zuerst schreiben
+            settle(uuid);
+
+            try (Connection con = db.getConnection();
+                 PreparedStatement ps = con.prepareStatement(
+                         "SELECT balance, stardust FROM gf_economy WHERE uuid = ?"
+                 )) {
+                ps.setString(1, uuid.toString());
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        online.put(uuid, new CachedAccount(rs.getLong("balance"), rs.getLong("stardust")));
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Disconnect: aus dem Cache nehmen; offene Differenzen werden noch geschrieben.
+     */
+    public void evict(UUID uuid) {
+        if (uuid == null) return;
+        CachedAccount acc = online.get(uuid);
+        if (acc == null) return;
+
+        // laufende Änderungen abwarten; spätere sehen das Flag und gehen über die DB
+        acc.lock.lock();
+        try {
+            acc.evicted = true;
+        } finally {
+            acc.lock.unlock();
+        }
+
+        boolean pending;
+        ReentrantLock lock = accountLock(uuid);
+        lock.lock();
+        try {
+            // ein laufender Flush (flushPending) muss erst fertig oder zurückgebucht sein
+            acc.flushLock.lock();
+            try {
+                online.remove(uuid, acc);
+                pending = acc.hasPending();
+                if (pending) leaving.put(uuid, acc);
+            } finally {
+                acc.flushLock.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!pending) return;
+
+        db.runAsync("economy.flush", () -> flushLeaving(uuid));
+    }
+
+    /**
+     * Schreibt alle offenen Differenzen (WRITE_BEHIND). Periodisch und beim Shutdown.
+     *
+     * @return Anzahl geschriebener Accounts
+     */
+    public int flushPending() {
+        int flushed = 0;
+        for (Map.Entry<UUID, CachedAccount> e : online.entrySet()) {
+            if (flushAccount(e.getKey(), e.getValue())) flushed++;
+        }
+        for (UUID uuid : leaving.keySet()) {
+            if (flushLeaving(uuid)) flushed++;
+        }
+        return flushed;
+    }
+
+    /** Ausgeloggten Account schreiben und bei Erfolg aus {@code leaving} nehmen. */
+    private boolean flushLeaving(UUID uuid) {
+        ReentrantLock lock = accountLock(uuid);
+        lock.lock();
+        try {
+            CachedAccount acc = leaving.get(uuid);
+            if (acc == null) return false;
+            boolean flushed = flushAccount(uuid, acc);
+            if (!acc.hasPending()) leaving.remove(uuid, acc);
+            return flushed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Vor jedem DB-Zugriff auf einen nicht (mehr) gecachten Account, unter dessen Account-Lock:
+     * offene Differenzen eines verdrängten Eintrags zuerst schreiben. Sonst sähe z. B. ein
+     * bedingtes Abbuchen einen zu hohen Stand.
+     */
+    private void settle(UUID uuid) throws SQLException {
+        CachedAccount cur = online.get(uuid);
+        if (cur != null && cur.evicted) {
+            flushAccount(uuid, cur);
+            if (cur.hasPending()) throw unsettled(uuid);
+        }
+        CachedAccount left = leaving.get(uuid);
+        if (left != null) {
+            flushAccount(uuid, left);
+            if (left.hasPending()) throw unsettled(uuid);
+            leaving.remove(uuid, left);
+        }
+    }
+
+    private static SQLException unsettled(UUID uuid) {
+        return new SQLException("Offene Economy-Differenzen für " + uuid + " konnten nicht geschrieben werden");
+    }
+
+    private boolean flushAccount(UUID uuid, CachedAccount acc) {
+        if (!acc.hasPending()) return false;
+
+        acc.flushLock.lock();
+        try {
+            long dBalance = acc.pendingBalance.getAndSet(0L);
+            long dStardust = acc.pendingStardust.getAndSet(0L);
+            if (dBalance == 0L && dStardust == 0L) return false;
+
+            try (Connection con = db.getConnection();
+                 PreparedStatement ps = con.prepareStatement(
+                         "UPDATE gf_economy SET balance = balance + ?, stardust = stardust + ? WHERE uuid = ?"
+                 )) {
+                ps.setLong(1, dBalance);
+                ps.setLong(2, dStardust);
+                ps.setString(3, uuid.toString());
+                ps.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                // nichts verlieren: beim nächsten Flush erneut versuchen
+                acc.pendingBalance.addAndGet(dBalance);
+                acc.pendingStardust.addAndGet(dStardust);
+                logger.error("Economy: Flush für {} fehlgeschlagen (Galas {}, Stardust {})",
+                        uuid, dBalance, dStardust, e);
+                return false;
+            }
+        } finally {
+            acc.flushLock.unlock();
+        }
+    }
+
+    public int getCachedAccountCount() {
+        return online.size();
     }
 
     // ============================================================
@@ -48,8 +322,19 @@ public class EconomyService {
         ps.setString(2, safeName);
         ps.executeUpdate();
     }
+    leaderboard.touch(uuid, safeName);
 }
 
+    /**
+     * {@link #ensureAccount(UUID, String)} auf dem DB-Executor (für Login-Events).
+     */
+    public CompletableFuture<Void> ensureAccountAsync(UUID uuid, String name) {
+        return db.supplyAsync("economy.ensureAccount", () -> {
+            ensureAccount(uuid, name);
+            return null;
+        });
+    }
+
     // ============================================================
     // GALAS (Normale Währung → balance)
     // ============================================================
@@ -57,6 +342,9 @@ public class EconomyService {
     public long getBalance(UUID uuid) {
         if (uuid == null) return 0L;
 
+        CachedAccount acc = online.get(uuid);
+        if (acc != null) return acc.balance.get();
+
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement(
                      "SELECT balance FROM gf_economy WHERE uuid = ?"
@@ -74,33 +362,15 @@ public class EconomyService {
     }
 
     public boolean setBalance(UUID uuid, long amount) {
+        return setBalance(uuid, amount, Reason.SET, null);
+    }
+
+    public boolean setBalance(UUID uuid, long amount, Reason reason, String note) {
         if (uuid == null) return false;
         if (amount < 0) amount = 0;
 
-        try (Connection con = db.getConnection()) {
-
-            int updated;
-            try (PreparedStatement ps = con.prepareStatement(
-                    "UPDATE gf_economy SET balance = ? WHERE uuid = ?"
-            )) {
-                ps.setLong(1, amount);
-                ps.setString(2, uuid.toString());
-                updated = ps.executeUpdate();
-            }
-
-            if (updated == 0) {
-                try (PreparedStatement ps = con.prepareStatement("""
-                        INSERT INTO gf_economy (uuid, name, balance, stardust)
-                        VALUES (?, ?, ?, 0)
-                        """)) {
-                    ps.setString(1, uuid.toString());
-                    ps.setString(2, "Unknown");
-                    ps.setLong(3, amount);
-                    ps.executeUpdate();
-                }
-            }
-
-            return true;
+        try {
+            return set(COL_BALANCE, uuid, amount, reason, note);
         } catch (SQLException e) {
             logger.error("Fehler beim Setzen des Kontostands für {}", uuid, e);
             return false;
@@ -108,106 +378,196 @@ public class EconomyService {
     }
 
     public boolean deposit(UUID uuid, long amount) {
+        return deposit(uuid, amount, Reason.DEPOSIT, null, null);
+    }
+
+    public boolean deposit(UUID uuid, long amount, Reason reason, UUID counterparty, String note) {
         if (uuid == null || amount <= 0) return false;
-        long current = getBalance(uuid);
-        long next = current + amount;
-        if (next < 0) next = Long.MAX_VALUE; // Overflow-Schutz
-        return setBalance(uuid, next);
+
+        try {
+            return add(COL_BALANCE, uuid, amount, reason, counterparty, note);
+        } catch (SQLException e) {
+            logger.error("Fehler bei Einzahlung von {} Galas für {}", amount, uuid, e);
+            return false;
+        }
     }
 
     public boolean withdraw(UUID uuid, long amount) {
+        return withdraw(uuid, amount, Reason.WITHDRAW, null, null);
+    }
+
+    public boolean withdraw(UUID uuid, long amount, Reason reason, UUID counterparty, String note) {
         if (uuid == null || amount <= 0) return false;
-        long current = getBalance(uuid);
-        if (current < amount) return false;
-        return setBalance(uuid, current - amount);
+
+        try {
+            return take(COL_BALANCE, uuid, amount, reason, counterparty, note);
+        } catch (SQLException e) {
+            logger.error("Fehler bei Abbuchung von {} Galas für {}", amount, uuid, e);
+            return false;
+        }
     }
 
     public boolean transfer(UUID from, UUID to, long amount) {
+        return transfer(from, to, amount, Reason.TRANSFER, null);
+    }
+
+    public boolean transfer(UUID from, UUID to, long amount, Reason reason, String note) {
         if (from == null || to == null) return false;
         if (amount <= 0) return false;
         if (from.equals(to)) return false;
 
-        try (Connection con = db.getConnection()) {
-            con.setAutoCommit(false);
+        while (true) {
+            CachedAccount fromAcc = cached(from);
+            CachedAccount toAcc = cached(to);
 
-            long fromBal;
-            try (PreparedStatement ps = con.prepareStatement(
-                    "SELECT balance FROM gf_economy WHERE uuid = ? FOR UPDATE"
-            )) {
-                ps.setString(1, from.toString());
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (!rs.next()) {
-                        con.rollback();
-                        return false;
-                    }
-                    fromBal = rs.getLong("balance");
-                }
+            if (durability == Durability.WRITE_BEHIND && (fromAcc != null || toAcc != null)) {
+                // Speicher ist maßgeblich: abbuchen, gutschreiben, bei Fehler zurückbuchen
+                if (!withdraw(from, amount, reason, to, note)) return false;
+                if (deposit(to, amount, reason, from, note)) return true;
+                deposit(from, amount, reason, to, "Rückbuchung");
+                return false;
             }
 
-            if (fromBal < amount) {
-                con.rollback();
-                return false;
+            // gecachte Accounts (WRITE_THROUGH) in fester Reihenfolge sperren, dann die DB-Transaktion
+            boolean fromFirst = from.compareTo(to) < 0;
+            CachedAccount first = fromFirst ? fromAcc : toAcc;
+            CachedAccount second = fromFirst ? toAcc : fromAcc;
+            lock(first);
+            lock(second);
+            try {
+                if ((fromAcc != null && fromAcc.evicted) || (toAcc != null && toAcc.evicted)) continue;
+                if (fromAcc != null && fromAcc.balance.get() < amount) return false;
+
+                // Speicher + Ledger noch unter den Stripe-Locks (gleiche Reihenfolge wie in der DB)
+                Boolean ok = transferInDatabase(from, to, amount, fromAcc, toAcc, () -> {
+                    if (fromAcc != null) fromAcc.balance.addAndGet(-amount);
+                    if (toAcc != null) addCapped(toAcc.balance, amount);
+                    recordTransfer(from, to, amount, reason, note);
+                });
+                if (ok == null) continue; // Cache hat sich geändert → neu entscheiden
+                return ok;
+            } finally {
+                unlock(second);
+                unlock(first);
             }
+        }
+    }
 
-            long toBal = 0;
-            boolean toExists;
+    private void recordTransfer(UUID from, UUID to, long amount, Reason reason, String note) {
+        ledger.add(from, Currency.GALAS, -amount, reason, to, note);
+        ledger.add(to, Currency.GALAS, amount, reason, from, note);
+        rankChanged(COL_BALANCE, from, -amount);
+        rankChanged(COL_BALANCE, to, amount);
+    }
 
-            try (PreparedStatement ps = con.prepareStatement(
-                    "SELECT balance FROM gf_economy WHERE uuid = ? FOR UPDATE"
-            )) {
-                ps.setString(1, to.toString());
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        toExists = true;
-                        toBal = rs.getLong("balance");
-                    } else {
-                        toExists = false;
-                    }
-                }
+    // nicht gecacht → nichts zu sperren
+    private static void lock(CachedAccount acc) {
+        if (acc != null) acc.lock.lock();
+    }
+
+    private static void unlock(CachedAccount acc) {
+        if (acc != null) acc.lock.unlock();
+    }
+
+    /**
+     * Transfer in einer DB-Transaktion, ohne Deadlock zwischen gegenläufigen Transfers:
+     *
+     *  - beide Zeilen werden in kanonischer UUID-Reihenfolge angefasst (kleinere UUID zuerst)
+     *  - Abbuchen und Gutschreiben sind je ein bedingtes Statement (kein SELECT ... FOR UPDATE,
+     *    das SQLite ohnehin nicht kennt)
+     *  - im Prozess zusätzlich die Account-Locks beider Seiten (in Stripe-Reihenfolge)
+     *  - Deadlock / Lock-Timeout / SQLITE_BUSY → begrenzt neu versuchen
+     *
+     * {@code onCommit} läuft nach dem Commit noch unter den Account-Locks.
+     *
+     * @return null, wenn eine nicht gecachte Seite inzwischen geladen wurde
+     */
+    private Boolean transferInDatabase(UUID from, UUID to, long amount,
+                                       CachedAccount fromAcc, CachedAccount toAcc,
+                                       Runnable onCommit) {
+        int a = stripeOf(from);
+        int b = stripeOf(to);
+        ReentrantLock first = accountLocks[Math.min(a, b)];
+        ReentrantLock second = a != b ? accountLocks[Math.max(a, b)] : null;
+        first.lock();
+        if (second != null) second.lock();
+
+        try {
+            if (cached(from) != fromAcc || cached(to) != toAcc) return null;
+            try {
+                if (fromAcc == null) settle(from);
+                if (toAcc == null) settle(to);
+            } catch (SQLException e) {
+                logger.error("Fehler bei Transfer {} → {} ({} Galas)", from, to, amount, e);
+                return false;
             }
 
-            // Absender updaten
-            try (PreparedStatement ps = con.prepareStatement(
-                    "UPDATE gf_economy SET balance = ? WHERE uuid = ?"
-            )) {
-                ps.setLong(1, fromBal - amount);
-                ps.setString(2, from.toString());
-                ps.executeUpdate();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    if (!transferOnce(from, to, amount)) return false;
+                    onCommit.run();
+                    return true;
+                } catch (SQLException e) {
+                    if (attempt >= TRANSFER_MAX_ATTEMPTS || !db.isRetryable(e)) {
+                        logger.error("Fehler bei Transfer {} → {} ({} Galas)", from, to, amount, e);
+                        return false;
+                    }
+                    logger.debug("Transfer {} → {}: Versuch {} fehlgeschlagen ({}), neuer Versuch",
+                            from, to, attempt, e.getMessage());
+                    try {
+                        Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * attempt);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
             }
+        } finally {
+            if (second != null) second.unlock();
+            first.unlock();
+        }
+    }
 
-            // Empfänger updaten / anlegen
-            if (toExists) {
-                try (PreparedStatement ps = con.prepareStatement(
-                        "UPDATE gf_economy SET balance = ? WHERE uuid = ?"
-                )) {
-                    ps.setLong(1, toBal + amount);
-                    ps.setString(2, to.toString());
-                    ps.executeUpdate();
+    private boolean transferOnce(UUID from, UUID to, long amount) throws SQLException {
+        try (Connection con = db.getConnection()) {
+            boolean oldAutoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                boolean ok;
+                if (from.compareTo(to) < 0) {
+                    ok = subtract(con, COL_BALANCE, from, amount) && upsert(con, COL_BALANCE, to, amount, true);
+                } else {
+                    ok = upsert(con, COL_BALANCE, to, amount, true) && subtract(con, COL_BALANCE, from, amount);
                 }
-            } else {
-                try (PreparedStatement ps = con.prepareStatement("""
-                        INSERT INTO gf_economy (uuid, name, balance, stardust)
-                        VALUES (?, ?, ?, 0)
-                        """)) {
-                    ps.setString(1, to.toString());
-                    ps.setString(2, "Unknown");
-                    ps.setLong(3, amount);
-                    ps.executeUpdate();
+
+                if (!ok) {
+                    con.rollback(); // zu wenig Guthaben / Absender fehlt
+                    return false;
                 }
+                con.commit();
+                return true;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(oldAutoCommit);
             }
-
-            con.commit();
-            return true;
-        } catch (SQLException e) {
-            logger.error("Fehler bei Transfer {} → {} ({} Galas)", from, to, amount, e);
-            return false;
         }
     }
 
+    private ReentrantLock accountLock(UUID uuid) {
+        return accountLocks[stripeOf(uuid)];
+    }
+
+    private static int stripeOf(UUID uuid) {
+        return Math.floorMod(uuid.hashCode(), ACCOUNT_STRIPES);
+    }
+
     // Alte simple Top-Liste (ohne Offset) – optional
     public List<Account> getTopBalances(int limit) {
         List<Account> list = new ArrayList<>();
         if (limit <= 0) limit = 10;
+        if (leaderboard.isReady()) return leaderboard.page(Currency.GALAS, 0, limit);
 
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement("""
@@ -239,6 +599,9 @@ public class EconomyService {
     public long getStardust(UUID uuid) {
         if (uuid == null) return 0L;
 
+        CachedAccount acc = online.get(uuid);
+        if (acc != null) return acc.stardust.get();
+
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement(
                      "SELECT stardust FROM gf_economy WHERE uuid = ?"
@@ -257,33 +620,15 @@ public class EconomyService {
     }
 
     public boolean setStardust(UUID uuid, long amount) {
+        return setStardust(uuid, amount, Reason.SET, null);
+    }
+
+    public boolean setStardust(UUID uuid, long amount, Reason reason, String note) {
         if (uuid == null) return false;
         if (amount < 0) amount = 0;
 
-        try (Connection con = db.getConnection()) {
-
-            int updated;
-            try (PreparedStatement ps = con.prepareStatement(
-                    "UPDATE gf_economy SET stardust = ? WHERE uuid = ?"
-            )) {
-                ps.setLong(1, amount);
-                ps.setString(2, uuid.toString());
-                updated = ps.executeUpdate();
-            }
-
-            if (updated == 0) {
-                try (PreparedStatement ps = con.prepareStatement("""
-                        INSERT INTO gf_economy (uuid, name, balance, stardust)
-                        VALUES (?, ?, 0, ?)
-                        """)) {
-                    ps.setString(1, uuid.toString());
-                    ps.setString(2, "Unknown");
-                    ps.setLong(3, amount);
-                    ps.executeUpdate();
-                }
-            }
-
-            return true;
+        try {
+            return set(COL_STARDUST, uuid, amount, reason, note);
         } catch (SQLException e) {
             logger.error("Fehler beim Setzen von Stardust für {}", uuid, e);
             return false;
@@ -291,23 +636,39 @@ public class EconomyService {
     }
 
     public boolean addStardust(UUID uuid, long amount) {
+        return addStardust(uuid, amount, Reason.DEPOSIT, null);
+    }
+
+    public boolean addStardust(UUID uuid, long amount, Reason reason, String note) {
         if (uuid == null || amount <= 0) return false;
-        long current = getStardust(uuid);
-        long next = current + amount;
-        if (next < 0) next = Long.MAX_VALUE;
-        return setStardust(uuid, next);
+
+        try {
+            return add(COL_STARDUST, uuid, amount, reason, null, note);
+        } catch (SQLException e) {
+            logger.error("Fehler beim Gutschreiben von {} Stardust für {}", amount, uuid, e);
+            return false;
+        }
     }
 
     public boolean removeStardust(UUID uuid, long amount) {
+        return removeStardust(uuid, amount, Reason.WITHDRAW, null);
+    }
+
+    public boolean removeStardust(UUID uuid, long amount, Reason reason, String note) {
         if (uuid == null || amount <= 0) return false;
-        long current = getStardust(uuid);
-        if (current < amount) return false;
-        return setStardust(uuid, current - amount);
+
+        try {
+            return take(COL_STARDUST, uuid, amount, reason, null, note);
+        } catch (SQLException e) {
+            logger.error("Fehler beim Abziehen von {} Stardust für {}", amount, uuid, e);
+            return false;
+        }
     }
 
     public List<Account> getTopStardust(int limit) {
         List<Account> list = new ArrayList<>();
         if (limit <= 0) limit = 10;
+        if (leaderboard.isReady()) return leaderboard.page(Currency.STARDUST, 0, limit);
 
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement("""
@@ -334,13 +695,67 @@ public class EconomyService {
 
     // ============================================================
     // Paginierte Rankings für /baltop
+    // (aus der Rangliste im Speicher; SQL nur bis zum ersten Aufbau)
     // ============================================================
 
+    /**
+     * Baut die Rangliste aus gf_economy neu auf (Start + periodisch, DB-Executor).
+     * Gecachte Accounts zählen mit ihrem Speicherstand (WRITE_BEHIND ist der DB evtl. voraus).
+     */
+    public void resyncLeaderboard() {
+        leaderboard.beginResync();
+
+        List<Account> accounts = new ArrayList<>();
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT uuid, name, balance, stardust FROM gf_economy"
+             )) {
+            ps.setFetchSize(1000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    try {
+                        accounts.add(mapAccount(rs));
+                    } catch (IllegalArgumentException ignored) {
+                        // ungültige UUID in der Tabelle
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            leaderboard.abortResync();
+            logger.error("Economy: Rangliste konnte nicht neu aufgebaut werden", e);
+            return;
+        }
+
+        accounts.replaceAll(acc -> {
+            CachedAccount cached = online.get(acc.uuid());
+            if (cached == null) cached = leaving.get(acc.uuid());
+            return cached == null
+                    ? acc
+                    : new Account(acc.uuid(), acc.name(), cached.balance.get(), cached.stardust.get());
+        });
+        leaderboard.replaceAll(accounts);
+    }
+
+    /**
+     * Platz (1-basiert) eines Accounts in der Galas- bzw. Stardust-Rangliste.
+     * Leer, solange die Rangliste noch nicht aufgebaut ist oder der Account fehlt.
+     */
+    public OptionalInt getRank(UUID uuid, Currency currency) {
+        if (uuid == null || !leaderboard.isReady()) return OptionalInt.empty();
+        return leaderboard.rank(uuid, currency);
+    }
+
+    /** Anzahl Accounts in der Rangliste (0 vor dem ersten Aufbau). */
+    public int getRankedAccountCount() {
+        return leaderboard.isReady() ? leaderboard.size() : 0;
+    }
+
     // /baltop → sortiert nach Galas
     public List<Account> getTopAccounts(int limit, int offset) {
         List<Account> result = new ArrayList<>();
         if (limit <= 0) limit = 10;
         if (offset < 0) offset = 0;
+        if (leaderboard.isReady()) return leaderboard.page(Currency.GALAS, offset, limit);
 
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement("""
@@ -371,6 +786,7 @@ public class EconomyService {
         List<Account> result = new ArrayList<>();
         if (limit <= 0) limit = 10;
         if (offset < 0) offset = 0;
+        if (leaderboard.isReady()) return leaderboard.page(Currency.STARDUST, offset, limit);
 
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement("""
@@ -396,6 +812,254 @@ public class EconomyService {
         return result;
     }
 
+    // ============================================================
+    // INTERN: Änderungen (Cache + DB) + Ledger + Rangliste
+    // ============================================================
+
+    /*
+     * Ledger-Eintrag und Rangliste werden im selben kritischen Abschnitt wie die Änderung
+     * erfasst (Account-Lock bzw. Stripe-Lock), sonst landen gleichzeitige Änderungen eines
+     * Accounts in anderer Reihenfolge im Ledger als in der DB (SET + ADD → falscher Replay).
+     */
+
+    private boolean set(String column, UUID uuid, long amount, Reason reason, String note) throws SQLException {
+        return applySet(column, uuid, amount, () -> {
+            ledger.set(uuid, currencyOf(column), amount, reason, note);
+            leaderboard.set(uuid, currencyOf(column), amount);
+        });
+    }
+
+    private boolean add(String column, UUID uuid, long amount,
+                        Reason reason, UUID counterparty, String note) throws SQLException {
+        return applyAdd(column, uuid, amount, () -> {
+            ledger.add(uuid, currencyOf(column), amount, reason, counterparty, note);
+            rankChanged(column, uuid, amount);
+        });
+    }
+
+    private boolean take(String column, UUID uuid, long amount,
+                         Reason reason, UUID counterparty, String note) throws SQLException {
+        return applyTake(column, uuid, amount, () -> {
+            ledger.add(uuid, currencyOf(column), -amount, reason, counterparty, note);
+            rankChanged(column, uuid, -amount);
+        });
+    }
+
+    /** Gecacht: Speicherstand übernehmen, sonst die Differenz anwenden. */
+    private void rankChanged(String column, UUID uuid, long delta) {
+        CachedAccount acc = online.get(uuid);
+        if (acc != null) {
+            leaderboard.set(uuid, currencyOf(column), acc.value(column).get());
+        } else {
+            leaderboard.add(uuid, currencyOf(column), delta);
+        }
+    }
+
+    private static Currency currencyOf(String column) {
+        return COL_BALANCE.equals(column) ? Currency.GALAS : Currency.STARDUST;
+    }
+
+    private boolean applySet(String column, UUID uuid, long amount, Runnable record) throws SQLException {
+        while (true) {
+            CachedAccount acc = cached(uuid);
+            if (acc == null) {
+                Boolean ok = uncached(uuid, () -> upsert(column, uuid, amount, false), record);
+                if (ok != null) return ok;
+                continue; // inzwischen geladen → über den Cache
+            }
+
+            acc.lock.lock();
+            try {
+                if (acc.evicted) continue;
+
+                if (durability == Durability.WRITE_BEHIND) {
+                    long old = acc.value(column).getAndSet(amount);
+                    acc.pending(column).addAndGet(amount - old);
+                    record.run();
+                    return true;
+                }
+
+                if (!upsert(column, uuid, amount, false)) return false;
+                acc.value(column).set(amount);
+                record.run();
+                return true;
+            } finally {
+                acc.lock.unlock();
+            }
+        }
+    }
+
+    private boolean applyAdd(String column, UUID uuid, long amount, Runnable record) throws SQLException {
+        while (true) {
+            CachedAccount acc = cached(uuid);
+            if (acc == null) {
+                Boolean ok = uncached(uuid, () -> upsert(column, uuid, amount, true), record);
+                if (ok != null) return ok;
+                continue;
+            }
+
+            acc.lock.lock();
+            try {
+                if (acc.evicted) continue;
+
+                if (durability == Durability.WRITE_BEHIND) {
+                    long added = addCapped(acc.value(column), amount);
+                    acc.pending(column).addAndGet(added);
+                    record.run();
+                    return true;
+                }
+
+                if (!upsert(column, uuid, amount, true)) return false;
+                addCapped(acc.value(column), amount);
+                record.run();
+                return true;
+            } finally {
+                acc.lock.unlock();
+            }
+        }
+    }
+
+    private boolean applyTake(String column, UUID uuid, long amount, Runnable record) throws SQLException {
+        while (true) {
+            CachedAccount acc = cached(uuid);
+            if (acc == null) {
+                Boolean ok = uncached(uuid, () -> subtract(column, uuid, amount), record);
+                if (ok != null) return ok;
+                continue;
+            }
+
+            acc.lock.lock();
+            try {
+                if (acc.evicted) continue;
+
+                if (durability == Durability.WRITE_BEHIND) {
+                    if (!takeIfEnough(acc.value(column), amount)) return false;
+                    acc.pending(column).addAndGet(-amount);
+                    record.run();
+                    return true;
+                }
+
+                if (acc.value(column).get() < amount) return false;
+                if (!subtract(column, uuid, amount)) return false;
+                acc.value(column).addAndGet(-amount);
+                record.run();
+                return true;
+            } finally {
+                acc.lock.unlock();
+            }
+        }
+    }
+
+    /** Gecachter, nicht verdrängter Account oder null. */
+    private CachedAccount cached(UUID uuid) {
+        CachedAccount acc = online.get(uuid);
+        return acc != null && !acc.evicted ? acc : null;
+    }
+
+    private interface SqlAction {
+        boolean run() throws SQLException;
+    }
+
+    /**
+     * DB-Änderung an einem nicht gecachten Account, unter dessen Account-Lock.
+     * Bei Erfolg läuft {@code record} noch unter dem Lock.
+     *
+     * @return null, wenn der Account inzwischen in den Cache geladen wurde
+     */
+    private Boolean uncached(UUID uuid, SqlAction action, Runnable record) throws SQLException {
+        ReentrantLock lock = accountLock(uuid);
+        lock.lock();
+        try {
+            if (cached(uuid) != null) return null;
+            settle(uuid);
+            if (!action.run()) return false;
+            record.run();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** CAS: addiert (gekappt bei Long.MAX_VALUE) und gibt die tatsächlich addierte Menge zurück. */
+    private static long addCapped(AtomicLong value, long amount) {
+        while (true) {
+            long cur = value.get();
+            long next = (cur > Long.MAX_VALUE - amount) ? Long.MAX_VALUE : cur + amount;
+            if (value.compareAndSet(cur, next)) return next - cur;
+        }
+    }
+
+    /** CAS: zieht nur ab, wenn genug vorhanden ist. */
+    private static boolean takeIfEnough(AtomicLong value, long amount) {
+        while (true) {
+            long cur = value.get();
+            if (cur < amount) return false;
+            if (value.compareAndSet(cur, cur - amount)) return true;
+        }
+    }
+
+    // ============================================================
+    // INTERN: atomare Statements (ein Statement, kein Read-Modify-Write)
+    // ============================================================
+
+    /**
+     * Setzt ({@code add = false}) bzw. erhöht ({@code add = true}) eine Spalte. Fehlt die Zeile,
+     * wird sie im selben Statement angelegt (SQLite ON CONFLICT / MariaDB ON DUPLICATE KEY).
+     * Beim Erhöhen wird bei Long.MAX_VALUE gekappt statt überzulaufen.
+     */
+    private boolean upsert(String column, UUID uuid, long amount, boolean add) throws SQLException {
+        try (Connection con = db.getConnection()) {
+            return upsert(con, column, uuid, amount, add);
+        }
+    }
+
+    private boolean upsert(Connection con, String column, UUID uuid, long amount, boolean add) throws SQLException {
+        String newValue = db.isSQLite() ? "excluded." + column : "VALUES(" + column + ")";
+        String update = add
+                ? "CASE WHEN " + column + " > " + Long.MAX_VALUE + " - " + newValue +
+                  " THEN " + Long.MAX_VALUE + " ELSE " + column + " + " + newValue + " END"
+                : newValue;
+
+        String balance = COL_BALANCE.equals(column) ? "?" : "0";
+        String stardust = COL_STARDUST.equals(column) ? "?" : "0";
+        String sql = "INSERT INTO gf_economy (uuid, name, balance, stardust) " +
+                "VALUES (?, 'Unknown', " + balance + ", " + stardust + ") " +
+                (db.isSQLite()
+                        ? "ON CONFLICT(uuid) DO UPDATE SET "
+                        : "ON DUPLICATE KEY UPDATE ") +
+                column + " = " + update;
+
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, uuid.toString());
+            ps.setLong(2, amount);
+            ps.executeUpdate();
+            return true;
+        }
+    }
+
+    /**
+     * Zieht {@code amount} nur ab, wenn genug vorhanden ist.
+     *
+     * @return false bei zu wenig Guthaben oder fehlendem Account
+     */
+    private boolean subtract(String column, UUID uuid, long amount) throws SQLException {
+        try (Connection con = db.getConnection()) {
+            return subtract(con, column, uuid, amount);
+        }
+    }
+
+    private boolean subtract(Connection con, String column, UUID uuid, long amount) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                     "UPDATE gf_economy SET " + column + " = " + column + " - ? " +
+                             "WHERE uuid = ? AND " + column + " >= ?"
+             )) {
+            ps.setLong(1, amount);
+            ps.setString(2, uuid.toString());
+            ps.setLong(3, amount);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
     // ============================================================
     // INTERN: Mapper
     // ============================================================
@@ -0,0 +1,538 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import org.slf4j.Logger;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * IP-Historie (gf_ip_history) + In-Memory-Graph Account ↔ IP für die Alt-Erkennung.
+ *
+ *  - Logins landen sofort im Speicher und werden gesammelt in die DB geschrieben (flush)
+ *  - Abfragen ("wer teilt eine IP / ein Subnetz mit X?") laufen nur gegen den Speicher
+ *  - Subnetz = /24 bei IPv4, /64 bei IPv6
+ *  - Start: {@link #loadAsync()} lädt die letzten {@code maxAgeDays} auf dem DB-Executor
+ *  - Logins anderer Proxys kommen über {@link #syncFromDatabase()} dazu: jeder Flush schreibt
+ *    zusätzlich in gf_ip_history_log, gelesen werden nur neue Zeilen (id > zuletzt gesehen)
+ *
+ * Wie bei gf_change_log können Auto-Increment-IDs bei MariaDB außer der Reihe committet
+ * werden – ein kleines Fenster unter der letzten ID wird erneut gelesen, bekannte IDs übersprungen.
+ */
+public class IpHistoryService {
+
+    // Obergrenze für Kandidaten pro Abfrage (geteilte NAT-IPs können sehr viele Accounts haben)
+    private static final int MAX_CANDIDATES = 1000;
+    // Abgleich über gf_ip_history_log
+    private static final int SYNC_LIMIT = 5000;
+    private static final int LOOKBACK_IDS = 256;
+    private static final int SEEN_CAPACITY = 4096;
+    private static final long LOG_RETENTION_MS = 60 * 60_000L;
+    private static final long CLEANUP_EVERY_MS = 60_000L;
+
+    public static final class Alt {
+        public final UUID uuid;
+        public final String name;
+        public final String ip;          // IP, über die der Account gefunden wurde
+        public final boolean subnetOnly; // nur gleiches Subnetz, nicht dieselbe IP
+        public final long lastSeen;
+
+        Alt(UUID uuid, String name, String ip, boolean subnetOnly, long lastSeen) {
+            this.uuid = uuid;
+            this.name = name;
+            this.ip = ip;
+            this.subnetOnly = subnetOnly;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    public static final class AltPage {
+        public final List<Alt> entries;
+        public final int total;     // gedeckelt auf MAX_CANDIDATES
+        public final boolean truncated;
+        public final int page;      // 1-basiert
+        public final int pages;
+
+        AltPage(List<Alt> entries, int total, boolean truncated, int page, int pages) {
+            this.entries = entries;
+            this.total = total;
+            this.truncated = truncated;
+            this.page = page;
+            this.pages = pages;
+        }
+    }
+
+    private static final class Entry {
+        final UUID uuid;
+        final String ip;
+        final long firstSeen;
+        volatile String name;
+        volatile long lastSeen;
+
+        Entry(UUID uuid, String ip, String name, long firstSeen, long lastSeen) {
+            this.uuid = uuid;
+            this.ip = ip;
+            this.name = name;
+            this.firstSeen = firstSeen;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private static final Comparator<Alt> ALT_ORDER = Comparator
+            .comparing((Alt a) -> a.subnetOnly)
+            .thenComparing(Comparator.comparingLong((Alt a) -> a.lastSeen).reversed());
+
+    private final DatabaseManager db;
+    private final Logger logger;
+    private final long maxAgeMillis;
+
+    // ip -> uuid -> Eintrag
+    private final Map<String, Map<UUID, Entry>> byIp = new ConcurrentHashMap<>();
+    // uuid -> ip -> Eintrag
+    private final Map<UUID, Map<String, Entry>> byUuid = new ConcurrentHashMap<>();
+    // Subnetz -> IPs
+    private final Map<String, Set<String>> ipsBySubnet = new ConcurrentHashMap<>();
+
+    // noch nicht geschriebene Einträge (uuid|ip -> Eintrag)
+    private final Map<String, Entry> dirty = new ConcurrentHashMap<>();
+
+    // Abgleich läuft nie parallel ("syncing"); lastLogId < 0: Start-Load noch nicht fertig
+    private final AtomicBoolean syncing = new AtomicBoolean(false);
+    private final ArrayDeque<Long> seenOrder = new ArrayDeque<>();
+    private final Set<Long> seen = new HashSet<>();
+    private volatile long lastLogId = -1L;
+    private long lastCleanup = 0L;
+
+    public IpHistoryService(DatabaseManager db, Logger logger, int maxAgeDays) {
+        this.db = db;
+        this.logger = logger;
+        this.maxAgeMillis = Math.max(1, maxAgeDays) * 86_400_000L;
+    }
+
+    /**
+     * Lädt alle Einträge der letzten {@code maxAgeDays} (DB-Executor). Bis dahin
+     * liefern Alt-Abfragen nur die Logins seit dem Start.
+     */
+    public CompletableFuture<Void> loadAsync() {
+        return db.runAsync("iphistory.load", () -> {
+            long start = System.nanoTime();
+            int loaded = loadInitial();
+            logger.info("IpHistoryService: {} Account/IP-Paare geladen ({}ms).",
+                    loaded, (System.nanoTime() - start) / 1_000_000L);
+        });
+    }
+
+    private int loadInitial() {
+        int rows = 0;
+        try (Connection con = db.getConnection()) {
+            // Cursor VOR dem Laden merken: was währenddessen dazukommt, liest der nächste Abgleich
+            long startId;
+            try (PreparedStatement ps = con.prepareStatement("SELECT MAX(id) FROM gf_ip_history_log");
+                 ResultSet rs = ps.executeQuery()) {
+                startId = rs.next() ? rs.getLong(1) : 0L;
+            }
+            // IDs im Lookback-Fenster stecken schon im Snapshot unten – nicht erneut abgleichen
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT id FROM gf_ip_history_log WHERE id > ? AND id <= ?"
+            )) {
+                ps.setLong(1, Math.max(0L, startId - LOOKBACK_IDS));
+                ps.setLong(2, startId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        markSeen(rs.getLong(1));
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT uuid, ip, name, first_seen, last_seen FROM gf_ip_history WHERE last_seen >= ?"
+            )) {
+                ps.setLong(1, System.currentTimeMillis() - maxAgeMillis);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (putRow(rs)) rows++;
+                    }
+                }
+            }
+            lastLogId = startId;
+        } catch (SQLException e) {
+            logger.error("Fehler beim Laden von gf_ip_history", e);
+        }
+        return rows;
+    }
+
+    // ============================================================
+    // SCHREIBEN
+    // ============================================================
+
+    /**
+     * Login merken: sofort im Graphen, in der DB mit dem nächsten {@link #flush()}.
+     */
+    public void recordLogin(UUID uuid, String name, String ip) {
+        if (uuid == null || ip == null || ip.isBlank()) return;
+
+        long now = System.currentTimeMillis();
+        Entry e = put(uuid, ip, name, now, now);
+        dirty.put(uuid + "|" + ip, e);
+    }
+
+    /**
+     * Schreibt alle gesammelten Logins in einem Batch (DB-Executor).
+     *
+     * @return Anzahl geschriebener Zeilen
+     */
+    public int flush() {
+        if (dirty.isEmpty()) return 0;
+
+        List<Entry> batch = new ArrayList<>();
+        for (String key : new ArrayList<>(dirty.keySet())) {
+            Entry e = dirty.remove(key);
+            if (e != null) batch.add(e);
+        }
+        if (batch.isEmpty()) return 0;
+
+        String sql = db.isSQLite()
+                ? "INSERT INTO gf_ip_history (uuid, ip, name, first_seen, last_seen) VALUES (?, ?, ?, ?, ?) " +
+                  "ON CONFLICT(uuid, ip) DO UPDATE SET name = excluded.name, " +
+                  "last_seen = MAX(last_seen, excluded.last_seen)"
+                : "INSERT INTO gf_ip_history (uuid, ip, name, first_seen, last_seen) VALUES (?, ?, ?, ?, ?) " +
+                  "ON DUPLICATE KEY UPDATE name = VALUES(name), " +
+                  "last_seen = GREATEST(last_seen, VALUES(last_seen))";
+
+        try (Connection con = db.getConnection()) {
+            boolean oldAutoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(sql);
+                 PreparedStatement log = con.prepareStatement(
+                         "INSERT INTO gf_ip_history_log (uuid, ip, name, first_seen, last_seen, created_at) " +
+                                 "VALUES (?, ?, ?, ?, ?, ?)")) {
+                long now = System.currentTimeMillis();
+                for (Entry e : batch) {
+                    bindEntry(ps, e);
+                    ps.addBatch();
+                    bindEntry(log, e);
+                    log.setLong(6, now);
+                    log.addBatch();
+                }
+                ps.executeBatch();
+                log.executeBatch();
+                con.commit();
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(oldAutoCommit);
+            }
+            return batch.size();
+        } catch (SQLException ex) {
+            logger.error("Fehler beim Schreiben von {} IP-History-Einträgen, versuche es erneut", batch.size(), ex);
+            for (Entry e : batch) {
+                dirty.putIfAbsent(e.uuid + "|" + e.ip, e);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Übernimmt neue Zeilen aus gf_ip_history_log (z.B. Logins auf anderen Proxys).
+     * Vor dem Start-Load ({@link #loadAsync()}) passiert nichts.
+     *
+     * @return Anzahl neu gelesener Zeilen
+     */
+    public int syncFromDatabase() {
+        if (lastLogId < 0) return 0;
+        if (!syncing.compareAndSet(false, true)) return 0; // letzter Abgleich läuft noch
+
+        int rows = 0;
+        try (Connection con = db.getConnection()) {
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, uuid, ip, name, first_seen, last_seen FROM gf_ip_history_log " +
+                            "WHERE id > ? ORDER BY id LIMIT ?"
+            )) {
+                ps.setLong(1, Math.max(0L, lastLogId - LOOKBACK_IDS));
+                ps.setInt(2, SYNC_LIMIT);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong("id");
+                        if (!markSeen(id)) continue;
+                        lastLogId = Math.max(lastLogId, id);
+                        if (putRow(rs)) rows++;
+                    }
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastCleanup >= CLEANUP_EVERY_MS) {
+                lastCleanup = now;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "DELETE FROM gf_ip_history_log WHERE created_at < ?"
+                )) {
+                    ps.setLong(1, now - LOG_RETENTION_MS);
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Fehler beim Abgleich über gf_ip_history_log", e);
+        } finally {
+            syncing.set(false);
+        }
+        return rows;
+    }
+
+    /**
+     * Entfernt Einträge, die älter als {@code maxAgeDays} sind, aus dem Speicher.
+     */
+    public synchronized int pruneMemory() {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        int removed = 0;
+
+        for (Map<String, Entry> ips : byUuid.values()) {
+            for (Entry e : new ArrayList<>(ips.values())) {
+                if (e.lastSeen < cutoff && !dirty.containsKey(e.uuid + "|" + e.ip)) {
+                    unlink(e);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    // ============================================================
+    // LESEN
+    // ============================================================
+
+    public String getLastKnownIp(UUID uuid) {
+        if (uuid == null) return null;
+        Map<String, Entry> ips = byUuid.get(uuid);
+        if (ips == null) return null;
+
+        Entry best = null;
+        for (Entry e : ips.values()) {
+            if (best == null || e.lastSeen > best.lastSeen) best = e;
+        }
+        return best != null ? best.ip : null;
+    }
+
+    /**
+     * Accounts, die die IP {@code ip} benutzt haben (ohne {@code excludeUuid}), zuletzt gesehen zuerst.
+     */
+    public List<Alt> findAccountsByIp(String ip, UUID excludeUuid, int limit) {
+        if (ip == null || ip.isBlank() || limit <= 0) return List.of();
+        Map<UUID, Entry> accounts = byIp.get(ip);
+        if (accounts == null) return List.of();
+
+        List<Alt> result = new ArrayList<>();
+        for (Entry e : accounts.values()) {
+            if (e.uuid.equals(excludeUuid)) continue;
+            result.add(new Alt(e.uuid, e.name, ip, false, e.lastSeen));
+            if (result.size() >= MAX_CANDIDATES) break;
+        }
+        result.sort(ALT_ORDER);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Accounts, die eine IP (oder optional ein Subnetz) mit {@code uuid} teilen – seitenweise.
+     * Gleiche IP vor gleichem Subnetz, innerhalb davon zuletzt gesehen zuerst.
+     */
+    public AltPage findAlts(UUID uuid, boolean includeSubnet, int page, int pageSize) {
+        if (pageSize <= 0) pageSize = 10;
+        if (page <= 0) page = 1;
+
+        Map<String, Entry> ownIps = (uuid != null) ? byUuid.get(uuid) : null;
+        if (ownIps == null || ownIps.isEmpty()) {
+            return new AltPage(List.of(), 0, false, 1, 1);
+        }
+
+        Map<UUID, Alt> found = new HashMap<>();
+        boolean truncated = false;
+
+        for (String ip : ownIps.keySet()) {
+            truncated |= collect(found, uuid, ip, false);
+        }
+        if (includeSubnet && !truncated) {
+            Set<String> visited = new HashSet<>(ownIps.keySet());
+            outer:
+            for (String ownIp : ownIps.keySet()) {
+                String subnet = subnetKey(ownIp);
+                Set<String> ips = (subnet != null) ? ipsBySubnet.get(subnet) : null;
+                if (ips == null) continue;
+
+                for (String ip : ips) {
+                    if (!visited.add(ip)) continue;
+                    if (collect(found, uuid, ip, true)) {
+                        truncated = true;
+                        break outer;
+                    }
+                }
+            }
+        }
+
+        List<Alt> all = new ArrayList<>(found.values());
+        all.sort(ALT_ORDER);
+
+        int total = all.size();
+        int pages = Math.max(1, (total + pageSize - 1) / pageSize);
+        page = Math.min(page, pages);
+        int from = (page - 1) * pageSize;
+        int to = Math.min(total, from + pageSize);
+
+        List<Alt> entries = (from < to)
+                ? Collections.unmodifiableList(new ArrayList<>(all.subList(from, to)))
+                : List.of();
+        return new AltPage(entries, total, truncated, page, pages);
+    }
+
+    public int getAccountCount() {
+        return byUuid.size();
+    }
+
+    public int getIpCount() {
+        return byIp.size();
+    }
+
+    public int getPendingWrites() {
+        return dirty.size();
+    }
+
+    // ============================================================
+    // INTERN
+    // ============================================================
+
+    private static void bindEntry(PreparedStatement ps, Entry e) throws SQLException {
+        ps.setString(1, e.uuid.toString());
+        ps.setString(2, e.ip);
+        ps.setString(3, e.name);
+        ps.setLong(4, e.firstSeen);
+        ps.setLong(5, e.lastSeen);
+    }
+
+    /** Zeile aus gf_ip_history / gf_ip_history_log übernehmen; false bei kaputter UUID. */
+    private boolean putRow(ResultSet rs) throws SQLException {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(rs.getString("uuid"));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        put(uuid, rs.getString("ip"), rs.getString("name"),
+                rs.getLong("first_seen"), rs.getLong("last_seen"));
+        return true;
+    }
+
+    private boolean markSeen(long id) {
+        if (!seen.add(id)) return false;
+        seenOrder.addLast(id);
+        if (seenOrder.size() > SEEN_CAPACITY) {
+            seen.remove(seenOrder.removeFirst());
+        }
+        return true;
+    }
+
+    /** @return true, wenn MAX_CANDIDATES erreicht wurde */
+    private boolean collect(Map<UUID, Alt> found, UUID self, String ip, boolean subnetOnly) {
+        Map<UUID, Entry> accounts = byIp.get(ip);
+        if (accounts == null) return false;
+
+        for (Entry e : accounts.values()) {
+            if (e.uuid.equals(self)) continue;
+
+            Alt existing = found.get(e.uuid);
+            if (existing == null) {
+                if (found.size() >= MAX_CANDIDATES) return true;
+                found.put(e.uuid, new Alt(e.uuid, e.name, ip, subnetOnly, e.lastSeen));
+            } else if (existing.subnetOnly == subnetOnly && e.lastSeen > existing.lastSeen) {
+                found.put(e.uuid, new Alt(e.uuid, e.name, ip, subnetOnly, e.lastSeen));
+            }
+        }
+        return false;
+    }
+
+    private synchronized Entry put(UUID uuid, String ip, String name, long firstSeen, long lastSeen) {
+        Map<String, Entry> ips = byUuid.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>());
+        Entry e = ips.get(ip);
+        if (e == null) {
+            e = new Entry(uuid, ip, name, firstSeen, lastSeen);
+            ips.put(ip, e);
+            byIp.computeIfAbsent(ip, k -> new ConcurrentHashMap<>()).put(uuid, e);
+
+            String subnet = subnetKey(ip);
+            if (subnet != null) {
+                ipsBySubnet.computeIfAbsent(subnet, k -> ConcurrentHashMap.newKeySet()).add(ip);
+            }
+            return e;
+        }
+
+        if (lastSeen > e.lastSeen) {
+            e.lastSeen = lastSeen;
+            if (name != null && !name.isBlank()) e.name = name;
+        }
+        return e;
+    }
+
+    private void unlink(Entry e) {
+        Map<String, Entry> ips = byUuid.get(e.uuid);
+        if (ips != null) {
+            ips.remove(e.ip);
+            if (ips.isEmpty()) byUuid.remove(e.uuid);
+        }
+
+        Map<UUID, Entry> accounts = byIp.get(e.ip);
+        if (accounts != null) {
+            accounts.remove(e.uuid);
+            if (accounts.isEmpty()) {
+                byIp.remove(e.ip);
+
+                String subnet = subnetKey(e.ip);
+                Set<String> subnetIps = (subnet != null) ? ipsBySubnet.get(subnet) : null;
+                if (subnetIps != null) {
+                    subnetIps.remove(e.ip);
+                    if (subnetIps.isEmpty()) ipsBySubnet.remove(subnet);
+                }
+            }
+        }
+    }
+
+    /**
+     * "/24" bei IPv4, "/64" bei IPv6. IPs kommen von Velocity immer als Literal,
+     * InetAddress.getByName löst hier also nichts per DNS auf.
+     */
+    static String subnetKey(String ip) {
+        if (ip == null || ip.isBlank()) return null;
+
+        if (ip.indexOf(':') < 0) {
+            int lastDot = ip.lastIndexOf('.');
+            return (lastDot > 0) ? ip.substring(0, lastDot) + ".0/24" : null;
+        }
+
+        try {
+            byte[] addr = InetAddress.getByName(ip).getAddress();
+            if (addr.length != 16) return null;
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 8; i += 2) {
+                if (i > 0) sb.append(':');
+                sb.append(Integer.toHexString(((addr[i] & 0xFF) << 8) | (addr[i + 1] & 0xFF)));
+            }
+            return sb.append("::/64").toString();
+        } catch (UnknownHostException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.util.DbTimeUtil;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Gemeinsamer In-Memory-Index aller bekannten Spielernamen für Tab-Completion.
+ *
+ *  - sortiertes Array der lower-case Namen → Präfix-Suche per Binärsuche (kein JDBC)
+ *  - Treffer nach "zuletzt gesehen" sortiert
+ *  - neue Namen landen erst in einer kleinen Pending-Menge; ab {@code REBUILD_THRESHOLD}
+ *    baut der DB-Executor das sortierte Array neu auf. {@link #find} liest nur Snapshot + Pending
+ *    und sortiert nie selbst (läuft inline im Tab-Complete)
+ *
+ * Quellen: gf_identity_cache (Joins) und gf_punishments (auch nie gejointe Namen).
+ */
+public class KnownNameIndex {
+
+    // so viele Treffer eines Präfix-Bereichs werden höchstens für das Ranking angesehen
+    private static final int MAX_SCAN = 4096;
+    // Größe der "zuletzt gesehen"-Liste für ein leeres Präfix
+    private static final int RECENT_SIZE = 256;
+    // ab so vielen neuen Namen wird das sortierte Array neu aufgebaut
+    private static final int REBUILD_THRESHOLD = 512;
+
+    private static final class Entry {
+        final String lower;
+        volatile String display;
+        volatile long lastSeen;
+
+        Entry(String lower, String display, long lastSeen) {
+            this.lower = lower;
+            this.display = display;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new Entry[0], new Entry[0]);
+
+        final String[] keys;   // sortiert
+        final Entry[] entries; // parallel zu keys
+        final Entry[] recent;  // nach lastSeen absteigend
+
+        Snapshot(String[] keys, Entry[] entries, Entry[] recent) {
+            this.keys = keys;
+            this.entries = entries;
+            this.recent = recent;
+        }
+    }
+
+    // Momentaufnahme eines Eintrags (lastSeen kann sich während des Sortierens ändern)
+    private static final class Hit {
+        final String lower;
+        final String display;
+        final long lastSeen;
+
+        Hit(Entry e) {
+            this.lower = e.lower;
+            this.display = e.display;
+            this.lastSeen = e.lastSeen;
+        }
+    }
+
+    private static final Comparator<Hit> MOST_RECENT = Comparator
+            .comparingLong((Hit h) -> h.lastSeen).reversed()
+            .thenComparing(h -> h.lower);
+
+    private final DatabaseManager db;
+    private final Logger logger;
+
+    private final Map<String, Entry> byLower = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    // während des Seeds baut loadAsync am Ende einmal auf, keine Zwischen-Rebuilds
+    private volatile boolean seeding;
+
+    public KnownNameIndex(DatabaseManager db, Logger logger) {
+        this.db = db;
+        this.logger = logger;
+    }
+
+    // ============================================================
+    // BEFÜLLEN
+    // ============================================================
+
+    /**
+     * Lädt alle Namen aus gf_identity_cache und gf_punishments (DB-Executor).
+     */
+    public CompletableFuture<Void> loadAsync() {
+        return db.runAsync("names.seed", () -> {
+            long start = System.nanoTime();
+            seeding = true;
+            try {
+                loadFrom("SELECT name, last_seen FROM gf_identity_cache");
+                loadFrom("SELECT name, MAX(created_at) AS last_seen FROM gf_punishments " +
+                        "WHERE type <> 'IP_BAN' GROUP BY name");
+            } finally {
+                seeding = false;
+            }
+            rebuild();
+            logger.info("KnownNameIndex: {} Namen geladen ({}ms).",
+                    byLower.size(), (System.nanoTime() - start) / 1_000_000L);
+        });
+    }
+
+    private void loadFrom(String sql) {
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Instant seen = null;
+                try {
+                    seen = DbTimeUtil.readInstant(rs, "last_seen");
+                } catch (Exception ignored) {
+                }
+                record(rs.getString("name"), seen != null ? seen.toEpochMilli() : 0L);
+            }
+        } catch (SQLException e) {
+            logger.error("KnownNameIndex: Laden fehlgeschlagen ({})", sql, e);
+        }
+    }
+
+    /**
+     * Name bekannt machen bzw. "zuletzt gesehen" aktualisieren.
+     */
+    public void record(String name, long lastSeen) {
+        if (name == null) return;
+        String display = name.trim();
+        if (display.isEmpty()) return;
+
+        String lower = display.toLowerCase(Locale.ROOT);
+        Entry existing = byLower.get(lower);
+        if (existing != null) {
+            if (lastSeen >= existing.lastSeen) {
+                existing.lastSeen = lastSeen;
+                existing.display = display;
+            }
+            return;
+        }
+
+        if (byLower.putIfAbsent(lower, new Entry(lower, display, lastSeen)) == null) {
+            pending.add(lower);
+            if (!seeding && pending.size() >= REBUILD_THRESHOLD) {
+                scheduleRebuild();
+            }
+        } else {
+            record(name, lastSeen); // paralleler Insert → als Update behandeln
+        }
+    }
+
+    public void recordNow(String name) {
+        record(name, System.currentTimeMillis());
+    }
+
+    // ============================================================
+    // ABFRAGE
+    // ============================================================
+
+    /**
+     * Bis zu {@code limit} Namen mit diesem Präfix (case-insensitive), zuletzt gesehen zuerst.
+     */
+    public List<String> find(String prefix, int limit) {
+        if (limit <= 0) return List.of();
+        String pfx = (prefix == null) ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+
+        Snapshot snap = snapshot;
+
+        List<Hit> candidates = new ArrayList<>();
+        if (pfx.isEmpty()) {
+            for (Entry e : snap.recent) {
+                candidates.add(new Hit(e));
+            }
+        } else {
+            int from = lowerBound(snap.keys, pfx);
+            for (int i = from; i < snap.keys.length && candidates.size() < MAX_SCAN; i++) {
+                if (!snap.keys[i].startsWith(pfx)) break;
+                candidates.add(new Hit(snap.entries[i]));
+            }
+        }
+        for (String lower : pending) {
+            if (lower.startsWith(pfx)) {
+                Entry e = byLower.get(lower);
+                if (e != null) candidates.add(new Hit(e));
+            }
+        }
+
+        candidates.sort(MOST_RECENT);
+
+        List<String> out = new ArrayList<>(Math.min(limit, candidates.size()));
+        String last = null;
+        for (Hit h : candidates) {
+            if (h.lower.equals(last)) continue; // pending + snapshot während eines Rebuilds
+            last = h.lower;
+            out.add(h.display);
+            if (out.size() >= limit) break;
+        }
+        return out;
+    }
+
+    public int size() {
+        return byLower.size();
+    }
+
+    // ============================================================
+    // INTERN
+    // ============================================================
+
+    /**
+     * Neuaufbau höchstens einmal gleichzeitig auf dem DB-Executor anstoßen. Ist der Executor
+     * ausgelastet, bleibt es beim Pending-Set; der nächste neue Name versucht es erneut.
+     */
+    private void scheduleRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) return;
+        db.runAsync("names.rebuild", () -> {
+            rebuildQueued.set(false);
+            // Re-Check: ein anderer Rebuild (z.B. loadAsync) kann schon alles übernommen haben
+            if (pending.size() >= REBUILD_THRESHOLD) {
+                rebuild();
+            }
+        }).exceptionally(ex -> {
+            rebuildQueued.set(false);
+            return null;
+        });
+    }
+
+    private synchronized void rebuild() {
+        // erst leeren, dann lesen: was danach dazukommt, bleibt in pending
+        pending.clear();
+
+        Entry[] entries = byLower.values().toArray(new Entry[0]);
+        Arrays.sort(entries, Comparator.comparing(e -> e.lower));
+
+        String[] keys = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i] = entries[i].lower;
+        }
+
+        Hit[] hits = new Hit[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            hits[i] = new Hit(entries[i]);
+        }
+        Arrays.sort(hits, MOST_RECENT);
+
+        Entry[] recent = new Entry[Math.min(RECENT_SIZE, hits.length)];
+        for (int i = 0; i < recent.length; i++) {
+            recent[i] = byLower.get(hits[i].lower);
+        }
+
+        snapshot = new Snapshot(keys, entries, recent);
+    }
+
+    private static int lowerBound(String[] keys, String key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
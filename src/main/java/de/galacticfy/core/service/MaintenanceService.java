@@ -1,12 +1,15 @@
 package de.galacticfy.core.service;
 
 import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.sync.InvalidationBus;
+import de.galacticfy.core.sync.InvalidationEvent;
 import org.slf4j.Logger;
 
 import java.sql.*;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
@@ -28,6 +31,7 @@ public class MaintenanceService {
 
     private final Logger logger;
     private final DatabaseManager db;
+    private final InvalidationBus bus;
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 
     // Globaler Wartungsmodus
@@ -42,12 +46,16 @@ public class MaintenanceService {
     // Pro-Server-Maintenance: Backend-Name in lowercase (nur in Memory)
     private final Set<String> serverMaintenance = ConcurrentHashMap.newKeySet();
 
-    public MaintenanceService(Logger logger, DatabaseManager db) {
+    public MaintenanceService(Logger logger, DatabaseManager db, InvalidationBus bus) {
         this.logger = logger;
         this.db = db;
+        this.bus = bus;
 
         // Beim Start Zustand & Whitelists aus DB laden
         loadFromDatabase();
+
+        // Änderungen anderer Proxys übernehmen
+        bus.subscribe(InvalidationEvent.Type.MAINTENANCE_CHANGED, e -> reloadFromDatabase());
     }
 
     // =====================================================================
@@ -59,6 +67,13 @@ public class MaintenanceService {
         loadWhitelists();
     }
 
+    /**
+     * Status und Whitelists neu aus der DB lesen (z.B. nach Änderung auf einem anderen Proxy).
+     */
+    public synchronized void reloadFromDatabase() {
+        loadFromDatabase();
+    }
+
     private void loadMaintenanceConfig() {
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement(
@@ -138,8 +153,9 @@ public class MaintenanceService {
     }
 
     private void loadWhitelists() {
-        whitelistedPlayers.clear();
-        whitelistedGroups.clear();
+        // erst vollständig lesen, dann abgleichen → Join-Checks sehen nie eine leere Whitelist
+        Set<String> players = new HashSet<>();
+        Set<String> groups = new HashSet<>();
 
         try (Connection con = db.getConnection();
              PreparedStatement psPlayers = con.prepareStatement(
@@ -153,7 +169,7 @@ public class MaintenanceService {
                 while (rs.next()) {
                     String name = rs.getString("name");
                     if (name != null && !name.isBlank()) {
-                        whitelistedPlayers.add(name.toLowerCase(Locale.ROOT));
+                        players.add(name.toLowerCase(Locale.ROOT));
                     }
                 }
             }
@@ -162,11 +178,16 @@ public class MaintenanceService {
                 while (rs.next()) {
                     String group = rs.getString("group_name");
                     if (group != null && !group.isBlank()) {
-                        whitelistedGroups.add(group.toLowerCase(Locale.ROOT));
+                        groups.add(group.toLowerCase(Locale.ROOT));
                     }
                 }
             }
 
+            whitelistedPlayers.addAll(players);
+            whitelistedPlayers.retainAll(players);
+            whitelistedGroups.addAll(groups);
+            whitelistedGroups.retainAll(groups);
+
             logger.info("MaintenanceService: Whitelists aus DB geladen (players={}, groups={}).",
                     whitelistedPlayers.size(), whitelistedGroups.size());
 
@@ -210,6 +231,8 @@ public class MaintenanceService {
                 }
             }
 
+            bus.publish(InvalidationEvent.Type.MAINTENANCE_CHANGED, null);
+
         } catch (SQLException e) {
             logger.error("Fehler beim Speichern der Maintenance-Config in der Datenbank", e);
         }
@@ -363,6 +386,7 @@ public class MaintenanceService {
              )) {
             ps.setString(1, key);
             ps.executeUpdate();
+            bus.publish(InvalidationEvent.Type.MAINTENANCE_CHANGED, key);
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Hinzufügen des Whitelist-Spielers {}", key, e);
@@ -384,6 +408,7 @@ public class MaintenanceService {
              )) {
             ps.setString(1, key);
             ps.executeUpdate();
+            bus.publish(InvalidationEvent.Type.MAINTENANCE_CHANGED, key);
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Entfernen des Whitelist-Spielers {}", key, e);
@@ -417,6 +442,7 @@ public class MaintenanceService {
              )) {
             ps.setString(1, key);
             ps.executeUpdate();
+            bus.publish(InvalidationEvent.Type.MAINTENANCE_CHANGED, key);
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Hinzufügen der Whitelist-Gruppe {}", key, e);
@@ -438,6 +464,7 @@ public class MaintenanceService {
              )) {
             ps.setString(1, key);
             ps.executeUpdate();
+            bus.publish(InvalidationEvent.Type.MAINTENANCE_CHANGED, key);
             return true;
         } catch (SQLException e) {
             logger.error("Fehler beim Entfernen der Whitelist-Gruppe {}", key, e);
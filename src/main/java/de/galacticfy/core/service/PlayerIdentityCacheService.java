@@ -15,14 +15,16 @@ public class PlayerIdentityCacheService {
 
     private final DatabaseManager db;
     private final Logger logger;
+    private final KnownNameIndex nameIndex;
 
     // In-memory Cache (schnell)
     private final Map<String, UUID> nameToUuid = new ConcurrentHashMap<>(); // lower(name) -> uuid
     private final Map<UUID, String> uuidToName = new ConcurrentHashMap<>(); // uuid -> lastName
 
-    public PlayerIdentityCacheService(DatabaseManager db, Logger logger) {
+    public PlayerIdentityCacheService(DatabaseManager db, Logger logger, KnownNameIndex nameIndex) {
         this.db = db;
         this.logger = logger;
+        this.nameIndex = nameIndex;
         ensureTable();
         warmupCache(2000); // lädt letzte 2000 Einträge (kein Muss, aber hilfreich)
     }
@@ -43,27 +45,30 @@ public class PlayerIdentityCacheService {
         // memory
         nameToUuid.put(key, uuid);
         uuidToName.put(uuid, clean);
-// db
-try (Connection c = db.getConnection()) {
-    String sql;
-    if (db.isSQLite()) {
-        sql = "INSERT INTO gf_identity_cache (uuid, name, last_seen) " +
-                "VALUES (?, ?, CURRENT_TIMESTAMP) " +
-                "ON CONFLICT(uuid) DO UPDATE SET name = excluded.name, last_seen = CURRENT_TIMESTAMP";
-    } else {
-        sql = "INSERT INTO gf_identity_cache (uuid, name, last_seen) " +
-                "VALUES (?, ?, CURRENT_TIMESTAMP) " +
-                "ON DUPLICATE KEY UPDATE name = VALUES(name), last_seen = CURRENT_TIMESTAMP";
-    }
+        nameIndex.recordNow(clean);
+        // db (DB-Executor, der Aufrufer wartet nicht)
+        db.runAsync("identity.upsert", () -> {
+            try (Connection c = db.getConnection()) {
+                String sql;
+                if (db.isSQLite()) {
+                    sql = "INSERT INTO gf_identity_cache (uuid, name, last_seen) " +
+                            "VALUES (?, ?, CURRENT_TIMESTAMP) " +
+                            "ON CONFLICT(uuid) DO UPDATE SET name = excluded.name, last_seen = CURRENT_TIMESTAMP";
+                } else {
+                    sql = "INSERT INTO gf_identity_cache (uuid, name, last_seen) " +
+                            "VALUES (?, ?, CURRENT_TIMESTAMP) " +
+                            "ON DUPLICATE KEY UPDATE name = VALUES(name), last_seen = CURRENT_TIMESTAMP";
+                }
 
-    try (PreparedStatement ps = c.prepareStatement(sql)) {
-        ps.setString(1, uuid.toString());
-        ps.setString(2, clean);
-        ps.executeUpdate();
-    }
-} catch (Exception e) {
-    if (logger != null) logger.warn("IdentityCache upsert failed for {} / {}: {}", uuid, clean, e.toString());
-}
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, uuid.toString());
+                    ps.setString(2, clean);
+                    ps.executeUpdate();
+                }
+            } catch (Exception e) {
+                if (logger != null) logger.warn("IdentityCache upsert failed for {} / {}: {}", uuid, clean, e.toString());
+            }
+        });
     }
 
     /**
@@ -132,50 +137,10 @@ try (Connection c = db.getConnection()) {
 
     /**
      * Tabcomplete-Hilfe: gib bekannte Namen zurück, die mit prefix starten.
+     * Läuft komplett über den {@link KnownNameIndex}, kein JDBC.
      */
     public List<String> getKnownNames(String prefix, int limit) {
-        int lim = Math.max(1, Math.min(limit, 100));
-        String pfx = (prefix == null) ? "" : prefix.trim().toLowerCase(Locale.ROOT);
-
-        // 1) erst aus Memory
-        List<String> fromMem = uuidToName.values().stream()
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(s -> !s.isBlank())
-                .filter(s -> s.toLowerCase(Locale.ROOT).startsWith(pfx))
-                .distinct()
-                .limit(lim)
-                .toList();
-
-        if (fromMem.size() >= lim) return fromMem;
-
-        // 2) DB ergänzen
-        List<String> out = new ArrayList<>(fromMem);
-        try (Connection c = db.getConnection();
-             PreparedStatement ps = c.prepareStatement(
-                     "SELECT name FROM gf_identity_cache WHERE LOWER(name) LIKE ? ORDER BY last_seen DESC LIMIT ?"
-             )) {
-            ps.setString(1, pfx + "%");
-            ps.setInt(2, lim * 2); // etwas mehr ziehen und dann distinct/limit
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next() && out.size() < lim) {
-                    String n = rs.getString("name");
-                    if (n == null) continue;
-
-                    n = n.trim();
-                    if (n.isBlank()) continue;
-
-                    final String nameFinal = n; // <- jetzt effektiv final für Lambda
-                    if (out.stream().anyMatch(x -> x.equalsIgnoreCase(nameFinal))) continue;
-
-                    out.add(nameFinal);
-                }
-            }
-        } catch (Exception e) {
-            if (logger != null) logger.warn("IdentityCache getKnownNames failed: {}", e.toString());
-        }
-
-        return out;
+        return nameIndex.find(prefix, Math.max(1, Math.min(limit, 100)));
     }
 
     // ============================================================
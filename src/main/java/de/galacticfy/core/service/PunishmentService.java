@@ -1,6 +1,8 @@
 package de.galacticfy.core.service;
 
 import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.sync.InvalidationBus;
+import de.galacticfy.core.sync.InvalidationEvent;
 import org.slf4j.Logger;
 
 import java.sql.*;
@@ -8,7 +10,15 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class PunishmentService {
 
@@ -59,16 +69,431 @@ public class PunishmentService {
         }
     }
 
+    /**
+     * Eine Seite der History. {@code nextToken} ist die id, ab der die nächste Seite beginnt
+     * ({@code id < nextToken}), 0 = keine weitere Seite.
+     */
+    public static class HistoryPage {
+        static final HistoryPage EMPTY = new HistoryPage(List.of(), 0);
+
+        public final List<Punishment> entries;
+        public final int nextToken;
+
+        public HistoryPage(List<Punishment> entries, int nextToken) {
+            this.entries = entries;
+            this.nextToken = nextToken;
+        }
+
+        public boolean hasNext() {
+            return nextToken > 0;
+        }
+    }
+
+    /**
+     * Ergebnis von {@link #warnWithEscalation}: die Warn, die neue Anzahl aktiver Warns
+     * und die ausgelöste Eskalation (oder null).
+     */
+    public static class WarnResult {
+        public final Punishment warn;
+        public final int activeWarns;
+        public final Punishment escalation;
+
+        public WarnResult(Punishment warn, int activeWarns, Punishment escalation) {
+            this.warn = warn;
+            this.activeWarns = activeWarns;
+            this.escalation = escalation;
+        }
+    }
+
     // ============================================================
     // FELDER
     // ============================================================
 
     private final DatabaseManager db;
     private final Logger logger;
+    private final InvalidationBus bus;
+    private final KnownNameIndex nameIndex;
+    private final WarnEscalation warnEscalation;
+
+    // Staff-Name automatischer Eskalationen (History / Webhook)
+    private static final String ESCALATION_STAFF = "Auto-Eskalation";
+    // Warns pro Spieler (Stripe) nacheinander; ReentrantLock statt Monitor, da über die ganze
+    // Transaktion gehalten (virtuelle DB-Threads). Proxy-übergreifend sperrt die DB (FOR UPDATE).
+    private static final int WARN_LOCK_STRIPES = 64;
+    private static final int WARN_MAX_ATTEMPTS = 4;
+    private final ReentrantLock[] warnLocks = new ReentrantLock[WARN_LOCK_STRIPES];
+
+    // Aktive BAN / IP_BAN / MUTE / WARN Einträge im Speicher (Login-/Chat-Checks und Warn-Zähler ohne DB)
+    private final ActivePunishmentIndex activeIndex = new ActivePunishmentIndex();
+    private volatile boolean activeIndexReady = false;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    // Reload nach Remote-Änderungen ist bereits eingeplant (Events eines Polls zusammenfassen)
+    private final AtomicBoolean remoteReloadPending = new AtomicBoolean();
+    // betroffene Ziele (UUID, lower-case Name oder IP) bzw. Event ohne Ziel → alles neu laden
+    private final Set<String> remoteTargets = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean remoteFullReload = new AtomicBoolean();
+    // ab so vielen Zielen in einem Durchlauf ist ein kompletter Reload günstiger
+    private static final int REMOTE_TARGET_LIMIT = 256;
 
-    public PunishmentService(DatabaseManager db, Logger logger) {
+    /**
+     * Höchste direkt anspringbare History-Seite (eingetippte Seitenzahl). Der Sprung braucht ein
+     * OFFSET über den Index, das mit der Seitenzahl wächst; weiter hinten geht es nur über die
+     * Page-Tokens der Klick-Buttons ("Nächste Seite »"), die immer O(Seitengröße) kosten.
+     */
+    public static final int MAX_DIRECT_PAGE = 50;
+
+    // Mute-Status der Online-Spieler für den Chat-Check (ein Map-Read pro Nachricht)
+    private final Map<UUID, MuteState> muteStates = new ConcurrentHashMap<>();
+    // Spieler ohne Mute-Status, deren Status gerade auf dem DB-Executor geladen wird
+    private final Set<UUID> muteStateLoads = ConcurrentHashMap.newKeySet();
+
+    private static final class MuteState {
+        final Punishment mute;
+        final long expiresAtMillis;
+
+        MuteState(Punishment mute, long expiresAtMillis) {
+            this.mute = mute;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    // Spieler wird getrackt, ist aber nicht gemutet
+    private static final MuteState NOT_MUTED = new MuteState(null, 0L);
+
+    public PunishmentService(DatabaseManager db,
+                             Logger logger,
+                             InvalidationBus bus,
+                             KnownNameIndex nameIndex,
+                             WarnEscalation warnEscalation) {
         this.db = db;
         this.logger = logger;
+        this.bus = bus;
+        this.nameIndex = nameIndex;
+        this.warnEscalation = warnEscalation != null ? warnEscalation : WarnEscalation.NONE;
+        for (int i = 0; i < WARN_LOCK_STRIPES; i++) {
+            warnLocks[i] = new ReentrantLock();
+        }
+
+        reloadActiveIndex();
+
+        bus.subscribe(InvalidationEvent.Type.PUNISHMENT_CHANGED, this::onRemoteChange);
+    }
+
+    // ============================================================
+    // AKTIV-INDEX
+    // ============================================================
+
+    /**
+     * Lädt alle aktiven BAN / IP_BAN / MUTE / WARN Einträge in den Speicher.
+     * Schlägt das fehl, laufen die Checks weiter direkt gegen die DB.
+     *
+     * Lokale Bans/Unbans zwischen SELECT und Abgleich legt der Index auf den DB-Stand
+     * ({@link ActivePunishmentIndex#beginResync()}); Reloads laufen nacheinander.
+     */
+    public void reloadActiveIndex() {
+        reloadLock.lock();
+        try {
+            reloadActiveIndexLocked();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reloadActiveIndexLocked() {
+        List<Punishment> active = new ArrayList<>();
+        activeIndex.beginResync();
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT * FROM gf_punishments " +
+                             "WHERE active = 1 AND type IN ('BAN','IP_BAN','MUTE','WARN')"
+             );
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                active.add(mapPunishment(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Fehler beim Laden der aktiven Punishments, nutze DB-Abfragen als Fallback", e);
+            activeIndex.abortResync();
+            activeIndexReady = false;
+            return;
+        }
+
+        activeIndex.replaceAll(active);
+        activeIndexReady = true;
+        logger.info("PunishmentService: {} aktive Bans/Mutes/Warns im Speicher.", activeIndex.size());
+    }
+
+    public int getActiveIndexSize() {
+        return activeIndex.size();
+    }
+
+    /**
+     * Ein anderer Proxy hat gebannt / gemutet / entbannt: die Einträge des betroffenen Ziels
+     * (UUID, Name oder IP aus {@code event.target}) neu laden und deren Mute-Status abgleichen.
+     * Nur Events ohne Ziel (oder sehr viele Ziele auf einmal) laden den ganzen Index neu.
+     *
+     * Ein Poll kann viele Events liefern (Ban-Welle, bis zu POLL_LIMIT) – dafür wird
+     * nur EIN Durchlauf auf dem DB-Executor eingeplant statt einem pro Event.
+     */
+    private void onRemoteChange(InvalidationEvent event) {
+        if (event.target == null || event.target.isBlank() || !activeIndexReady) {
+            remoteFullReload.set(true);
+        } else {
+            remoteTargets.add(event.target);
+        }
+        if (!remoteReloadPending.compareAndSet(false, true)) return;
+
+        db.runAsync("punish.remoteReload", () -> {
+            // vor dem Laden zurücksetzen: spätere Events planen einen weiteren Durchlauf
+            remoteReloadPending.set(false);
+
+            List<String> targets = new ArrayList<>();
+            for (String target : remoteTargets) {
+                if (remoteTargets.remove(target)) targets.add(target);
+            }
+            boolean full = remoteFullReload.getAndSet(false) || targets.size() > REMOTE_TARGET_LIMIT;
+            for (int i = 0; !full && i < targets.size(); i++) {
+                full = !reloadTarget(targets.get(i));
+            }
+            if (full) {
+                reloadActiveIndex();
+                for (UUID uuid : muteStates.keySet()) {
+                    refreshMuteState(uuid);
+                }
+            }
+        }).exceptionally(ex -> {
+            remoteReloadPending.set(false);
+            remoteFullReload.set(true); // Ziele sind evtl. schon entnommen → beim nächsten Mal alles
+            logger.warn("Punishment-Reload nach Remote-Änderung fehlgeschlagen: {}", ex.toString());
+            return null;
+        });
+    }
+
+    /**
+     * Lädt die aktiven Einträge eines Ziels neu: UUID, IP (enthält '.' oder ':', Namen nie)
+     * oder lower-case Name – so wie es {@link #publishChange} verschickt.
+     *
+     * @return false bei einem DB-Fehler (dann lädt der Aufrufer alles neu)
+     */
+    private boolean reloadTarget(String target) {
+        UUID uuid = null;
+        String name = null;
+        String ip = null;
+        String column;
+        try {
+            uuid = UUID.fromString(target);
+            column = "uuid";
+        } catch (IllegalArgumentException notUuid) {
+            if (target.indexOf('.') >= 0 || target.indexOf(':') >= 0) {
+                ip = target;
+                column = "ip";
+            } else {
+                name = target.toLowerCase(Locale.ROOT);
+                column = "name_lower";
+            }
+        }
+
+        List<Punishment> changed;
+        reloadLock.lock();
+        try {
+            List<Punishment> active = new ArrayList<>();
+            activeIndex.beginResync();
+            try (Connection con = db.getConnection();
+                 PreparedStatement ps = con.prepareStatement(
+                         "SELECT * FROM gf_punishments " +
+                                 "WHERE active = 1 AND type IN ('BAN','IP_BAN','MUTE','WARN') AND " + column + " = ?"
+                 )) {
+                ps.setString(1, uuid != null ? uuid.toString() : (ip != null ? ip : name));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        active.add(mapPunishment(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                activeIndex.abortResync();
+                logger.warn("Punishment-Reload für {} fehlgeschlagen, lade alles neu: {}", target, e.toString());
+                return false;
+            }
+            changed = activeIndex.replaceTarget(uuid, name, ip, active);
+        } finally {
+            reloadLock.unlock();
+        }
+
+        refreshMuteState(uuid);
+        for (Punishment p : changed) {
+            if (p.type == PunishmentType.MUTE) refreshMuteState(p.uuid);
+        }
+        return true;
+    }
+
+    private void publishChange(String target) {
+        bus.publish(InvalidationEvent.Type.PUNISHMENT_CHANGED, target);
+    }
+
+    /**
+     * Abgelaufener Eintrag wurde im Index gefunden → nur aus dem Index nehmen,
+     * die DB-Zeile deaktiviert der Sweeper ({@link #sweepExpired(int, int)}).
+     */
+    private void onIndexExpired(Punishment p) {
+        if (activeIndex.remove(p.id) != null && p.type == PunishmentType.MUTE) {
+            refreshMuteState(p.uuid);
+        }
+    }
+
+    // ============================================================
+    // EXPIRY-SWEEPER
+    // ============================================================
+
+    /**
+     * Deaktiviert abgelaufene Punishments in Batches (ein UPDATE pro Batch) und
+     * gleicht danach den In-Memory-Index ab. Läuft auf dem DB-Executor.
+     *
+     * @return Anzahl deaktivierter Zeilen in diesem Durchlauf
+     */
+    public int sweepExpired(int batchSize, int maxBatches) {
+        if (batchSize <= 0) batchSize = 500;
+        if (maxBatches <= 0) maxBatches = 20;
+
+        long startNanos = System.nanoTime();
+        long now = System.currentTimeMillis();
+        Timestamp cutoff = Timestamp.from(Instant.ofEpochMilli(now));
+
+        // MariaDB kann UPDATE ... LIMIT, SQLite (Standard-Build) nicht → Sub-Select über id
+        String sql = db.isSQLite()
+                ? "UPDATE gf_punishments SET active = 0 WHERE id IN (" +
+                  "SELECT id FROM gf_punishments " +
+                  "WHERE active = 1 AND expires_at IS NOT NULL AND expires_at <= ? LIMIT ?)"
+                : "UPDATE gf_punishments SET active = 0 " +
+                  "WHERE active = 1 AND expires_at IS NOT NULL AND expires_at <= ? LIMIT ?";
+
+        int swept = 0;
+        int batches = 0;
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            while (batches < maxBatches) {
+                ps.setTimestamp(1, cutoff);
+                ps.setInt(2, batchSize);
+                int updated = ps.executeUpdate();
+                batches++;
+                swept += updated;
+                if (updated < batchSize) break;
+            }
+        } catch (SQLException e) {
+            logger.error("Fehler beim Deaktivieren abgelaufener Punishments", e);
+        }
+
+        for (Punishment p : activeIndex.removeExpired(now)) {
+            if (p.type == PunishmentType.MUTE) {
+                refreshMuteState(p.uuid);
+            }
+        }
+
+        long tookMs = (System.nanoTime() - startNanos) / 1_000_000L;
+        if (swept > 0) {
+            logger.info("Punishment-Sweeper: {} abgelaufene Einträge deaktiviert ({} Batches, {}ms).",
+                    swept, batches, tookMs);
+        } else {
+            logger.debug("Punishment-Sweeper: nichts abgelaufen ({}ms).", tookMs);
+        }
+        return swept;
+    }
+
+    // ============================================================
+    // MUTE-STATUS (Chat)
+    // ============================================================
+
+    /**
+     * Übernimmt den aktuellen Mute-Status eines Spielers in den Chat-Cache (PostLogin).
+     */
+    public void trackMuteState(UUID uuid) {
+        if (uuid == null) return;
+        muteStates.put(uuid, muteStateOf(getActiveMute(uuid)));
+    }
+
+    /**
+     * {@link #trackMuteState(UUID)} – nur ohne geladenen Index auf dem DB-Executor.
+     */
+    public CompletableFuture<Void> trackMuteStateAsync(UUID uuid) {
+        if (activeIndexReady) {
+            trackMuteState(uuid);
+            return CompletableFuture.completedFuture(null);
+        }
+        return db.runAsync("punish.muteState", () -> trackMuteState(uuid));
+    }
+
+    public void untrackMuteState(UUID uuid) {
+        if (uuid == null) return;
+        muteStateLoads.remove(uuid);
+        muteStates.remove(uuid);
+    }
+
+    /**
+     * Aktiver Mute für eine Chat-Nachricht oder {@code null}.
+     * Für getrackte Spieler genau ein Map-Read, kein JDBC, keine Allokation.
+     * Nie JDBC im Chat: ohne Status und ohne Index gilt der Spieler als nicht gemutet,
+     * bis der Status im Hintergrund geladen ist.
+     */
+    public Punishment getChatMute(UUID uuid) {
+        MuteState state = muteStates.get(uuid);
+        if (state == null) {
+            if (uuid == null) return null;
+            if (!activeIndexReady) {
+                loadMuteStateAsync(uuid);
+                return null;
+            }
+            // Index ist im Speicher – direkt nachtragen (nicht in computeIfAbsent: der
+            // Index-Lookup kann beim Ablauf selbst muteStates anfassen)
+            MuteState loaded = muteStateOf(getActiveMute(uuid));
+            MuteState raced = muteStates.putIfAbsent(uuid, loaded);
+            state = raced != null ? raced : loaded;
+        }
+        if (state == NOT_MUTED) {
+            return null;
+        }
+        if (state.expiresAtMillis > System.currentTimeMillis()) {
+            return state.mute;
+        }
+        muteStates.replace(uuid, state, NOT_MUTED);
+        return null;
+    }
+
+    /**
+     * Lädt den Mute-Status eines nicht getrackten Spielers einmalig auf dem DB-Executor
+     * (Chat-Flood erzeugt keinen Task pro Nachricht). Nach einem Disconnect wird nichts eingetragen.
+     */
+    private void loadMuteStateAsync(UUID uuid) {
+        if (!muteStateLoads.add(uuid)) return;
+
+        db.runAsync("punish.muteState", () -> {
+            MuteState state = muteStateOf(getActiveMute(uuid));
+            if (muteStateLoads.remove(uuid)) {
+                muteStates.putIfAbsent(uuid, state);
+            }
+        }).exceptionally(ex -> {
+            muteStateLoads.remove(uuid);
+            logger.warn("Mute-Status von {} konnte nicht geladen werden: {}", uuid, ex.toString());
+            return null;
+        });
+    }
+
+    private void refreshMuteState(UUID uuid) {
+        if (uuid == null || !muteStates.containsKey(uuid)) return;
+        MuteState state = muteStateOf(getActiveMute(uuid));
+        muteStates.computeIfPresent(uuid, (k, old) -> state);
+    }
+
+    private void refreshMuteStates(List<Punishment> changed) {
+        for (Punishment p : changed) {
+            refreshMuteState(p.uuid);
+        }
+    }
+
+    private static MuteState muteStateOf(Punishment mute) {
+        if (mute == null) return NOT_MUTED;
+        long until = mute.expiresAt != null ? mute.expiresAt.toEpochMilli() : Long.MAX_VALUE;
+        return new MuteState(mute, until);
     }
 
     // ============================================================
@@ -94,6 +519,8 @@ public class PunishmentService {
              )) {
             ps.setString(1, uuid.toString());
             int updated = ps.executeUpdate();
+            activeIndex.removeByUuid(PunishmentType.BAN, uuid);
+            if (updated > 0) publishChange(uuid.toString());
             return updated > 0;
         } catch (SQLException e) {
             logger.error("Fehler beim Unbannen von {}", uuid, e);
@@ -109,10 +536,12 @@ public class PunishmentService {
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement(
                      "UPDATE gf_punishments SET active = 0 " +
-                             "WHERE LOWER(name) = ? AND type = 'BAN' AND active = 1"
+                             "WHERE name_lower = ? AND type = 'BAN' AND active = 1"
              )) {
             ps.setString(1, key);
             int updated = ps.executeUpdate();
+            activeIndex.removeByName(PunishmentType.BAN, key);
+            if (updated > 0) publishChange(key);
             return updated > 0;
         } catch (SQLException e) {
             logger.error("Fehler beim Unbannen von Name {}", name, e);
@@ -133,7 +562,7 @@ public class PunishmentService {
             String selectSql = """
                     SELECT *
                     FROM gf_punishments
-                    WHERE LOWER(name) = ? AND type = 'BAN' AND active = 1
+                    WHERE name_lower = ? AND type = 'BAN' AND active = 1
                     ORDER BY created_at DESC, id DESC
                     LIMIT 1
                     """;
@@ -154,11 +583,13 @@ public class PunishmentService {
             // 2) Alle aktiven BANs für diesen Namen deaktivieren
             try (PreparedStatement psUpd = con.prepareStatement(
                     "UPDATE gf_punishments SET active = 0 " +
-                            "WHERE LOWER(name) = ? AND type = 'BAN' AND active = 1"
+                            "WHERE name_lower = ? AND type = 'BAN' AND active = 1"
             )) {
                 psUpd.setString(1, key);
                 psUpd.executeUpdate();
             }
+            activeIndex.removeByName(PunishmentType.BAN, key);
+            publishChange(key);
 
             return lastBan;
 
@@ -205,6 +636,8 @@ public class PunishmentService {
                 psUpd.setString(1, ip);
                 psUpd.executeUpdate();
             }
+            activeIndex.removeByIp(PunishmentType.IP_BAN, ip);
+            publishChange(ip);
 
             return last;
 
@@ -254,6 +687,9 @@ public class PunishmentService {
              )) {
             ps.setString(1, uuid.toString());
             int updated = ps.executeUpdate();
+            activeIndex.removeByUuid(PunishmentType.MUTE, uuid);
+            refreshMuteState(uuid);
+            if (updated > 0) publishChange(uuid.toString());
             return updated > 0;
         } catch (SQLException e) {
             logger.error("Fehler beim Unmuten von {}", uuid, e);
@@ -269,10 +705,12 @@ public class PunishmentService {
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement(
                      "UPDATE gf_punishments SET active = 0 " +
-                             "WHERE LOWER(name) = ? AND type = 'MUTE' AND active = 1"
+                             "WHERE name_lower = ? AND type = 'MUTE' AND active = 1"
              )) {
             ps.setString(1, key);
             int updated = ps.executeUpdate();
+            refreshMuteStates(activeIndex.removeByName(PunishmentType.MUTE, key));
+            if (updated > 0) publishChange(key);
             return updated > 0;
         } catch (SQLException e) {
             logger.error("Fehler beim Unmuten von Name {}", name, e);
@@ -291,7 +729,7 @@ public class PunishmentService {
             String selectSql = """
                     SELECT *
                     FROM gf_punishments
-                    WHERE LOWER(name) = ? AND type = 'MUTE' AND active = 1
+                    WHERE name_lower = ? AND type = 'MUTE' AND active = 1
                     ORDER BY created_at DESC, id DESC
                     LIMIT 1
                     """;
@@ -311,11 +749,13 @@ public class PunishmentService {
 
             try (PreparedStatement psUpd = con.prepareStatement(
                     "UPDATE gf_punishments SET active = 0 " +
-                            "WHERE LOWER(name) = ? AND type = 'MUTE' AND active = 1"
+                            "WHERE name_lower = ? AND type = 'MUTE' AND active = 1"
             )) {
                 psUpd.setString(1, key);
                 psUpd.executeUpdate();
             }
+            refreshMuteStates(activeIndex.removeByName(PunishmentType.MUTE, key));
+            publishChange(key);
 
             return lastMute;
 
@@ -335,148 +775,256 @@ public class PunishmentService {
                                  String ip,
                                  String reason,
                                  String staff) {
-        // durationMs = 0 → keine expiresAt
-        return createPunishment(uuid, name, ip, PunishmentType.WARN, reason, staff, 0L);
+        WarnResult result = warnWithEscalation(uuid, name, ip, reason, staff);
+        return result != null ? result.warn : null;
     }
 
-    /** Anzahl aller aktiven WARNs (active = 1) für Spieler */
-    public int countWarns(UUID uuid, String name) {
-        StringBuilder sql = new StringBuilder(
-                "SELECT COUNT(*) FROM gf_punishments WHERE type = 'WARN' AND active = 1 "
-        );
-        List<Object> params = new ArrayList<>();
+    /**
+     * Verwarnung + ggf. Eskalation laut {@link WarnEscalation} in einer Transaktion.
+     *
+     *  - gezählt wird im Aktiv-Index ({@code activeOf(WARN, …)}) unter dem Per-Spieler-Stripe-Lock;
+     *    das serialisiert alle Warns eines Spielers auf diesem Proxy ohne DB-Zählung
+     *  - Cross-Proxy-Schutz: der Index erfährt Warns anderer Proxys erst über den gepollten
+     *    Invalidation-Bus. Deshalb werden die aktiven Warns in derselben Transaktion zusätzlich
+     *    gesperrt gelesen (FOR UPDATE; unter SQLite wird zuerst eingefügt). Weicht die DB vom
+     *    Index ab, zählt die DB – sonst lösen zwei Proxys dieselbe Stufe aus oder überspringen eine
+     *  - Deadlock / Lock-Timeout / SQLITE_BUSY → begrenzt neu versuchen
+     *
+     * @return Ergebnis oder null bei DB-Fehler (dann wurde nichts gespeichert)
+     */
+    public WarnResult warnWithEscalation(UUID uuid,
+                                         String name,
+                                         String ip,
+                                         String reason,
+                                         String staff) {
+        ReentrantLock lock = warnLockFor(uuid, name);
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return warnOnce(uuid, name, ip, reason, staff);
+                } catch (SQLException e) {
+                    if (attempt >= WARN_MAX_ATTEMPTS || !db.isRetryable(e)) {
+                        logger.error("Fehler beim Verwarnen von {}", uuid != null ? uuid : name, e);
+                        return null;
+                    }
+                    logger.debug("Warn für {}: Versuch {} fehlgeschlagen ({}), neuer Versuch",
+                            uuid != null ? uuid : name, attempt, e.getMessage());
+                    try {
+                        Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * attempt);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private WarnResult warnOnce(UUID uuid,
+                                String name,
+                                String ip,
+                                String reason,
+                                String staff) throws SQLException {
+        Punishment warn;
+        Punishment escalation = null;
+        int activeWarns;
+
+        // Zählung aus dem Aktiv-Index (unter dem Stripe-Lock stabil für diesen Proxy)
+        int indexed = activeIndexReady ? activeIndex.activeOf(PunishmentType.WARN, uuid, name).length : -1;
+
+        try (Connection con = db.getConnection()) {
+            boolean oldAutoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                int locked;
+                if (db.isSQLite()) {
+                    // erst schreiben (Schreib-Lock), dann zählen: Lesen-dann-Schreiben endet bei
+                    // zwei Verbindungen im Lock-Upgrade mit SQLITE_BUSY
+                    warn = insertPunishment(con, uuid, name, ip, PunishmentType.WARN, reason, staff, 0L);
+                    locked = lockActiveWarns(con, uuid, name, warn.id);
+                } else {
+                    locked = lockActiveWarns(con, uuid, name, 0);
+                    warn = insertPunishment(con, uuid, name, ip, PunishmentType.WARN, reason, staff, 0L);
+                }
+                if (indexed >= 0 && indexed != locked) {
+                    // Warn/Unwarn auf einem anderen Proxy, das hier noch nicht angekommen ist
+                    logger.debug("Warn für {}: Index zählt {} aktive Warns, DB {} – DB gilt.",
+                            uuid != null ? uuid : name, indexed, locked);
+                }
+                activeWarns = locked + 1;
+
+                WarnEscalation.Step step = warnEscalation.stepFor(activeWarns);
+                if (step != null) {
+                    escalation = insertPunishment(con, uuid, warn.name, ip, step.type(),
+                            "Automatisch: " + activeWarns + " aktive Verwarnungen (" + reason + ")",
+                            ESCALATION_STAFF, step.durationMs());
+                }
 
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(oldAutoCommit);
+            }
+        }
+
+        onCreated(warn);
+        if (escalation != null) {
+            onCreated(escalation);
+            logger.info("Warn-Eskalation: {} hat {} aktive Warns → {} ({}).",
+                    warn.name, activeWarns, escalation.type,
+                    escalation.expiresAt == null ? "permanent" : formatRemaining(escalation));
+        }
+        return new WarnResult(warn, activeWarns, escalation);
+    }
+
+    private ReentrantLock warnLockFor(UUID uuid, String name) {
+        int hash = uuid != null ? uuid.hashCode() : Objects.hashCode(ActivePunishmentIndex.nameKey(name));
+        return warnLocks[Math.floorMod(hash, WARN_LOCK_STRIPES)];
+    }
+
+    /**
+     * Cross-Proxy-Schutz für {@link #warnWithEscalation}: zählt die aktiven Warns eines Spielers
+     * (ohne {@code excludeId}) und sperrt sie bis zum Ende der Transaktion. Zeilen statt COUNT(*), weil PostgreSQL FOR UPDATE nicht mit
+     * Aggregaten erlaubt.
+     */
+    private int lockActiveWarns(Connection con, UUID uuid, String name, int excludeId) throws SQLException {
+        String column;
+        String param;
         if (uuid != null) {
-            sql.append("AND uuid = ? ");
-            params.add(uuid.toString());
+            column = "uuid";
+            param = uuid.toString();
         } else if (name != null && !name.isBlank()) {
-            sql.append("AND LOWER(name) = ? ");
-            params.add(name.toLowerCase(Locale.ROOT));
+            column = "name_lower";
+            param = name.toLowerCase(Locale.ROOT);
         } else {
             return 0;
         }
 
-        try (Connection con = db.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql.toString())) {
-
-            for (int i = 0; i < params.size(); i++) {
-                ps.setString(i + 1, (String) params.get(i));
-            }
-
+        String sql = "SELECT id FROM gf_punishments WHERE type = 'WARN' AND active = 1 AND " + column + " = ?" +
+                " AND id <> ?" + (db.isSQLite() ? "" : " FOR UPDATE");
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, param);
+            ps.setInt(2, excludeId);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
+                int count = 0;
+                while (rs.next()) count++;
+                return count;
             }
+        }
+    }
 
+    /** Anzahl aller aktiven WARNs (active = 1) für Spieler */
+    public int countWarns(UUID uuid, String name) {
+        if (activeIndexReady) {
+            return activeIndex.activeOf(PunishmentType.WARN, uuid, name).length;
+        }
+
+        try (Connection con = db.getConnection()) {
+            return countWarns(con, uuid, name);
         } catch (SQLException e) {
             logger.error("Fehler beim Zählen der Warns", e);
         }
         return 0;
     }
 
-    /** Letzte aktive Warnung deaktivieren (alte Variante, nur boolean) */
-    public boolean unwarnLast(UUID uuid, String name) {
-        StringBuilder select = new StringBuilder(
-                "SELECT id FROM gf_punishments WHERE type = 'WARN' AND active = 1 "
+    private int countWarns(Connection con, UUID uuid, String name) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT COUNT(*) FROM gf_punishments WHERE type = 'WARN' AND active = 1 "
         );
-        List<Object> params = new ArrayList<>();
+        String param;
 
         if (uuid != null) {
-            select.append("AND uuid = ? ");
-            params.add(uuid.toString());
+            sql.append("AND uuid = ?");
+            param = uuid.toString();
         } else if (name != null && !name.isBlank()) {
-            select.append("AND LOWER(name) = ? ");
-            params.add(name.toLowerCase(Locale.ROOT));
+            sql.append("AND name_lower = ?");
+            param = name.toLowerCase(Locale.ROOT);
         } else {
-            return false;
+            return 0;
         }
 
-        select.append("ORDER BY created_at DESC, id DESC LIMIT 1");
+        try (PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            ps.setString(1, param);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
 
-        try (Connection con = db.getConnection();
-             PreparedStatement psSel = con.prepareStatement(select.toString())) {
+    /** Letzte aktive Warnung deaktivieren (alte Variante, nur boolean) */
+    public boolean unwarnLast(UUID uuid, String name) {
+        return clearLastWarn(uuid, name, null) != null;
+    }
 
-            for (int i = 0; i < params.size(); i++) {
-                psSel.setString(i + 1, (String) params.get(i));
-            }
+    /** Neue Variante für /unwarn: letzte Warn zurückgeben */
+    public Punishment clearLastWarn(UUID uuid, String name, String staffName) {
+        if (uuid == null && (name == null || name.isBlank())) {
+            return null;
+        }
 
-            int id = -1;
-            try (ResultSet rs = psSel.executeQuery()) {
-                if (rs.next()) {
-                    id = rs.getInt("id");
+        try (Connection con = db.getConnection();
+             PreparedStatement psUpd = con.prepareStatement(
+                     "UPDATE gf_punishments SET active = 0 WHERE id = ? AND active = 1"
+             )) {
+
+            if (activeIndexReady) {
+                // neueste Warn direkt aus dem Index, nur noch das UPDATE geht an die DB
+                for (Punishment lastWarn : activeIndex.activeOf(PunishmentType.WARN, uuid, name)) {
+                    psUpd.setInt(1, lastWarn.id);
+                    boolean updated = psUpd.executeUpdate() > 0;
+                    activeIndex.remove(lastWarn.id);
+                    if (updated) {
+                        publishChange(uuid != null ? uuid.toString() : lastWarn.name);
+                        return lastWarn;
+                    }
+                    // schon woanders entfernt → nächste probieren
                 }
+                return null;
             }
 
-            if (id == -1) {
-                return false;
+            Punishment lastWarn = findLastActiveWarn(con, uuid, name);
+            if (lastWarn == null) {
+                return null;
             }
 
-            try (PreparedStatement psUpd = con.prepareStatement(
-                    "UPDATE gf_punishments SET active = 0 WHERE id = ?"
-            )) {
-                psUpd.setInt(1, id);
-                return psUpd.executeUpdate() > 0;
-            }
+            psUpd.setInt(1, lastWarn.id);
+            psUpd.executeUpdate();
+            activeIndex.remove(lastWarn.id);
+            publishChange(uuid != null ? uuid.toString() : lastWarn.name);
+            return lastWarn;
 
         } catch (SQLException e) {
-            logger.error("Fehler bei unwarnLast", e);
-            return false;
+            logger.error("Fehler bei clearLastWarn(uuid={}, name={}, staff={})", uuid, name, staffName, e);
+            return null;
         }
     }
 
-    /** Neue Variante für /unwarn: letzte Warn zurückgeben */
-    public Punishment clearLastWarn(UUID uuid, String name, String staffName) {
+    private Punishment findLastActiveWarn(Connection con, UUID uuid, String name) throws SQLException {
         StringBuilder select = new StringBuilder(
                 "SELECT * FROM gf_punishments WHERE type = 'WARN' AND active = 1 "
         );
-        List<Object> params = new ArrayList<>();
+        String param;
 
         if (uuid != null) {
             select.append("AND uuid = ? ");
-            params.add(uuid.toString());
-        } else if (name != null && !name.isBlank()) {
-            select.append("AND LOWER(name) = ? ");
-            params.add(name.toLowerCase(Locale.ROOT));
+            param = uuid.toString();
         } else {
-            return null;
+            select.append("AND name_lower = ? ");
+            param = name.toLowerCase(Locale.ROOT);
         }
 
         select.append("ORDER BY created_at DESC, id DESC LIMIT 1");
 
-        try (Connection con = db.getConnection();
-             PreparedStatement psSel = con.prepareStatement(select.toString())) {
-
-            for (int i = 0; i < params.size(); i++) {
-                psSel.setString(i + 1, (String) params.get(i));
-            }
-
-            Punishment lastWarn = null;
-            int id = -1;
-
+        try (PreparedStatement psSel = con.prepareStatement(select.toString())) {
+            psSel.setString(1, param);
             try (ResultSet rs = psSel.executeQuery()) {
-                if (rs.next()) {
-                    lastWarn = mapPunishment(rs);
-                    id = rs.getInt("id");
-                }
-            }
-
-            if (id == -1 || lastWarn == null) {
-                return null;
-            }
-
-            try (PreparedStatement psUpd = con.prepareStatement(
-                    "UPDATE gf_punishments SET active = 0 WHERE id = ?"
-            )) {
-                psUpd.setInt(1, id);
-                psUpd.executeUpdate();
+                return rs.next() ? mapPunishment(rs) : null;
             }
-
-            return lastWarn;
-
-        } catch (SQLException e) {
-            logger.error("Fehler bei clearLastWarn(uuid={}, name={}, staff={})", uuid, name, staffName, e);
-            return null;
         }
     }
 
@@ -492,7 +1040,7 @@ public class PunishmentService {
             sql.append("AND uuid = ? ");
             params.add(uuid.toString());
         } else if (name != null && !name.isBlank()) {
-            sql.append("AND LOWER(name) = ? ");
+            sql.append("AND name_lower = ? ");
             params.add(name.toLowerCase(Locale.ROOT));
         } else {
             return 0;
@@ -505,7 +1053,17 @@ public class PunishmentService {
                 ps.setString(i + 1, (String) params.get(i));
             }
 
-            return ps.executeUpdate();
+            int cleared = ps.executeUpdate();
+
+            if (uuid != null) {
+                activeIndex.removeByUuid(PunishmentType.WARN, uuid);
+            } else {
+                activeIndex.removeByName(PunishmentType.WARN, name);
+            }
+            if (cleared > 0) {
+                publishChange(uuid != null ? uuid.toString() : name);
+            }
+            return cleared;
 
         } catch (SQLException e) {
             logger.error("Fehler bei clearAllWarns(uuid={}, name={}, staff={})", uuid, name, staffName, e);
@@ -515,49 +1073,7 @@ public class PunishmentService {
 
     /** Liste der letzten Warns (alte API, von dir) */
     public List<Punishment> getWarnings(UUID uuid, String name, int limit) {
-        List<Punishment> list = new ArrayList<>();
-
-        StringBuilder sql = new StringBuilder(
-                "SELECT * FROM gf_punishments WHERE type = 'WARN' "
-        );
-        List<Object> params = new ArrayList<>();
-
-        if (uuid != null) {
-            sql.append("AND uuid = ? ");
-            params.add(uuid.toString());
-        } else if (name != null && !name.isBlank()) {
-            sql.append("AND LOWER(name) = ? ");
-            params.add(name.toLowerCase(Locale.ROOT));
-        } else {
-            return list;
-        }
-
-        sql.append("ORDER BY created_at DESC, id DESC LIMIT ?");
-        params.add(limit);
-
-        try (Connection con = db.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql.toString())) {
-
-            for (int i = 0; i < params.size(); i++) {
-                Object p = params.get(i);
-                if (p instanceof String s) {
-                    ps.setString(i + 1, s);
-                } else if (p instanceof Integer in) {
-                    ps.setInt(i + 1, in);
-                }
-            }
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    list.add(mapPunishment(rs));
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.error("Fehler beim Laden der Warnungs-Liste", e);
-        }
-
-        return list;
+        return getHistoryPage(uuid, name, PunishmentType.WARN, 0, limit).entries;
     }
 
     /** Neue API für /warnings-Command – einfacher Name. */
@@ -588,6 +1104,30 @@ public class PunishmentService {
                                         String reason,
                                         String staff,
                                         Long durationMs) {
+        try (Connection con = db.getConnection()) {
+            Punishment created = insertPunishment(con, uuid, name, ip, type, reason, staff, durationMs);
+            onCreated(created);
+            return created;
+        } catch (SQLException e) {
+            logger.error("Fehler beim Erstellen eines {}-Punishments für {}",
+                    type, uuid != null ? uuid : name, e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Nur das INSERT (läuft ggf. in der Transaktion des Aufrufers).
+     * Index / Caches / Sync erst nach dem Commit über {@link #onCreated(Punishment)}.
+     */
+    private Punishment insertPunishment(Connection con,
+                                        UUID uuid,
+                                        String name,
+                                        String ip,
+                                        PunishmentType type,
+                                        String reason,
+                                        String staff,
+                                        Long durationMs) throws SQLException {
         if (name == null || name.isBlank()) {
             if (ip != null && !ip.isBlank()) {
                 name = "IP " + ip;
@@ -604,13 +1144,12 @@ public class PunishmentService {
 
         Instant now = Instant.now();
 
-        try (Connection con = db.getConnection();
-             PreparedStatement ps = con.prepareStatement(
-                     "INSERT INTO gf_punishments " +
-                             "(uuid, name, ip, type, reason, staff, created_at, expires_at, active) " +
-                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 1)",
-                     Statement.RETURN_GENERATED_KEYS
-             )) {
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO gf_punishments " +
+                        "(uuid, name, name_lower, ip, type, reason, staff, created_at, expires_at, active) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 1)",
+                Statement.RETURN_GENERATED_KEYS
+        )) {
 
             if (uuid != null) {
                 ps.setString(1, uuid.toString());
@@ -619,50 +1158,58 @@ public class PunishmentService {
             }
 
             ps.setString(2, name);
+            ps.setString(3, name.toLowerCase(Locale.ROOT));
 
             if (ip != null && !ip.isBlank()) {
-                ps.setString(3, ip);
+                ps.setString(4, ip);
             } else {
-                ps.setNull(3, Types.VARCHAR);
+                ps.setNull(4, Types.VARCHAR);
             }
 
-            ps.setString(4, type.name());
-            ps.setString(5, reason != null ? reason : "Kein Grund angegeben");
-            ps.setString(6, staff != null ? staff : "Konsole");
-            ps.setTimestamp(7, Timestamp.from(now));
+            ps.setString(5, type.name());
+            ps.setString(6, reason != null ? reason : "Kein Grund angegeben");
+            ps.setString(7, staff != null ? staff : "Konsole");
+            ps.setTimestamp(8, Timestamp.from(now));
 
             if (expires != null) {
-                ps.setTimestamp(8, expires);
+                ps.setTimestamp(9, expires);
             } else {
-                ps.setNull(8, Types.TIMESTAMP);
+                ps.setNull(9, Types.TIMESTAMP);
             }
 
             ps.executeUpdate();
 
             try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    int id = rs.getInt(1);
-                    return new Punishment(
-                            id,
-                            uuid,
-                            name,
-                            ip,
-                            type,
-                            reason,
-                            staff,
-                            now,
-                            expires != null ? expires.toInstant() : null,
-                            true
-                    );
+                if (!rs.next()) {
+                    throw new SQLException("INSERT in gf_punishments lieferte keine id");
                 }
+                return new Punishment(
+                        rs.getInt(1),
+                        uuid,
+                        name,
+                        ip,
+                        type,
+                        reason,
+                        staff,
+                        now,
+                        expires != null ? expires.toInstant() : null,
+                        true
+                );
             }
-
-        } catch (SQLException e) {
-            logger.error("Fehler beim Erstellen eines {}-Punishments für {}",
-                    type, uuid != null ? uuid : name, e);
         }
+    }
 
-        return null;
+    private void onCreated(Punishment created) {
+        activeIndex.add(created);
+        if (created.type != PunishmentType.IP_BAN) {
+            nameIndex.recordNow(created.name);
+        }
+        if (created.type == PunishmentType.MUTE) {
+            refreshMuteState(created.uuid);
+        }
+        if (ActivePunishmentIndex.isIndexed(created.type)) {
+            publishChange(created.uuid != null ? created.uuid.toString() : created.ip);
+        }
     }
 
     // ============================================================
@@ -670,6 +1217,13 @@ public class PunishmentService {
     // ============================================================
 
     public Punishment getActiveBan(UUID uuid, String ip) {
+        if (activeIndexReady) {
+            long now = System.currentTimeMillis();
+            Punishment ban = activeIndex.find(PunishmentType.BAN, uuid, null, null, now, this::onIndexExpired);
+            if (ban != null) return ban;
+            return activeIndex.find(PunishmentType.IP_BAN, null, null, ip, now, this::onIndexExpired);
+        }
+
         // 1) normaler Account-Ban
         Punishment ban = getActivePunishment(PunishmentType.BAN, uuid, null);
         if (ban != null) return ban;
@@ -682,7 +1236,21 @@ public class PunishmentService {
         return null;
     }
 
+    /**
+     * {@link #getActiveBan(UUID, String)} auf dem DB-Executor (LoginEvent).
+     */
+    public CompletableFuture<Punishment> getActiveBanAsync(UUID uuid, String ip) {
+        if (activeIndexReady) {
+            return CompletableFuture.completedFuture(getActiveBan(uuid, ip));
+        }
+        return db.supplyAsync("punish.activeBan", () -> getActiveBan(uuid, ip));
+    }
+
     public Punishment getActiveMute(UUID uuid) {
+        if (activeIndexReady) {
+            return activeIndex.find(PunishmentType.MUTE, uuid, null, null,
+                    System.currentTimeMillis(), this::onIndexExpired);
+        }
         return getActivePunishment(PunishmentType.MUTE, uuid, null);
     }
 
@@ -702,6 +1270,10 @@ public class PunishmentService {
                                                    UUID uuid,
                                                    String name,
                                                    String ip) {
+        if (activeIndexReady) {
+            return activeIndex.find(type, uuid, name, ip, System.currentTimeMillis(), this::onIndexExpired);
+        }
+
         try (Connection con = db.getConnection()) {
 
             Punishment p = null;
@@ -713,7 +1285,7 @@ public class PunishmentService {
 
             // 2) Name (falls UUID nicht bekannt / Spieler offline)
             if (p == null && name != null && !name.isBlank()) {
-                p = querySingleActive(con, type, "LOWER(name) = ?", name.toLowerCase(Locale.ROOT));
+                p = querySingleActive(con, type, "name_lower = ?", name.toLowerCase(Locale.ROOT));
             }
 
             // 3) IP (Fallback, z.B. wenn du alte Daten hast)
@@ -725,9 +1297,8 @@ public class PunishmentService {
                 return null;
             }
 
-            // Ablauf prüfen
+            // Ablauf prüfen (deaktiviert wird im Hintergrund vom Sweeper)
             if (isExpired(p)) {
-                deactivateById(p.id);
                 return null;
             }
 
@@ -756,8 +1327,7 @@ public class PunishmentService {
             if (p == null) return null;
 
             if (isExpired(p)) {
-                deactivateById(p.id);
-                return null;
+                return null; // Sweeper deaktiviert die Zeile
             }
 
             return p;
@@ -794,18 +1364,6 @@ public class PunishmentService {
         return p.expiresAt.toEpochMilli() <= System.currentTimeMillis();
     }
 
-    private void deactivateById(int id) {
-        try (Connection con = db.getConnection();
-             PreparedStatement ps = con.prepareStatement(
-                     "UPDATE gf_punishments SET active = 0 WHERE id = ?"
-             )) {
-            ps.setInt(1, id);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            logger.error("Fehler beim Deaktivieren von Punishment id={}", id, e);
-        }
-    }
-
     private Punishment mapPunishment(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         String uuidStr = rs.getString("uuid");
@@ -901,37 +1459,45 @@ public class PunishmentService {
     // ============================================================
 
     public List<Punishment> getHistory(UUID uuid, String name, int limit) {
-        List<Punishment> list = new ArrayList<>();
+        return getHistoryPage(uuid, name, null, 0, limit).entries;
+    }
 
-        StringBuilder sql = new StringBuilder(
-                "SELECT * FROM gf_punishments WHERE 1=1 "
-        );
-        List<Object> params = new ArrayList<>();
+    /**
+     * Eine Seite History per Keyset-Pagination: {@code id < beforeId}, neueste zuerst.
+     * Jede Seite ist ein Range-Scan auf (uuid, id) bzw. (name_lower, id).
+     *
+     * @param type     optionaler Typ-Filter (null = alle)
+     * @param beforeId Page-Token der vorherigen Seite, 0 = erste Seite
+     */
+    public HistoryPage getHistoryPage(UUID uuid, String name, PunishmentType type, int beforeId, int pageSize) {
+        if (pageSize <= 0) pageSize = 8;
 
+        StringBuilder sql = new StringBuilder("SELECT * FROM gf_punishments WHERE ");
+        String key;
         if (uuid != null) {
-            sql.append("AND uuid = ? ");
-            params.add(uuid.toString());
+            sql.append("uuid = ? ");
+            key = uuid.toString();
         } else if (name != null && !name.isBlank()) {
-            sql.append("AND LOWER(name) = ? ");
-            params.add(name.toLowerCase(Locale.ROOT));
+            sql.append("name_lower = ? ");
+            key = name.toLowerCase(Locale.ROOT);
         } else {
-            return list;
+            return HistoryPage.EMPTY;
         }
 
-        sql.append("ORDER BY created_at DESC, id DESC LIMIT ?");
-        params.add(limit);
+        if (type != null) sql.append("AND type = ? ");
+        if (beforeId > 0) sql.append("AND id < ? ");
+        // eine Zeile mehr lesen → wissen, ob es eine nächste Seite gibt
+        sql.append("ORDER BY id DESC LIMIT ?");
 
+        List<Punishment> list = new ArrayList<>(pageSize + 1);
         try (Connection con = db.getConnection();
              PreparedStatement ps = con.prepareStatement(sql.toString())) {
 
-            for (int i = 0; i < params.size(); i++) {
-                Object p = params.get(i);
-                if (p instanceof String s) {
-                    ps.setString(i + 1, s);
-                } else if (p instanceof Integer in) {
-                    ps.setInt(i + 1, in);
-                }
-            }
+            int i = 1;
+            ps.setString(i++, key);
+            if (type != null) ps.setString(i++, type.name());
+            if (beforeId > 0) ps.setInt(i++, beforeId);
+            ps.setInt(i, pageSize + 1);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -941,9 +1507,60 @@ public class PunishmentService {
 
         } catch (SQLException e) {
             logger.error("Fehler beim Laden der Punishment-History", e);
+            return HistoryPage.EMPTY;
         }
 
-        return list;
+        if (list.size() > pageSize) {
+            list.remove(pageSize);
+            return new HistoryPage(list, list.get(pageSize - 1).id);
+        }
+        return new HistoryPage(list, 0);
+    }
+
+    /**
+     * Page-Token für "Seite N" (für manuell eingegebene Seitenzahlen): liest nur ids über den Index.
+     *
+     * Bewusst mit OFFSET: die DB überspringt dabei (N-1) * pageSize Index-Einträge. Deshalb nur
+     * bis {@link #MAX_DIRECT_PAGE} (höchstens ein paar hundert Index-Zeilen); alles dahinter
+     * läuft über die Tokens aus {@link HistoryPage#nextToken}.
+     *
+     * @return Token für {@link #getHistoryPage}, 0 für Seite 1, -1 wenn die Seite nicht existiert
+     *         oder hinter {@link #MAX_DIRECT_PAGE} liegt
+     */
+    public int findHistoryPageToken(UUID uuid, String name, PunishmentType type, int page, int pageSize) {
+        if (page <= 1) return 0;
+        if (page > MAX_DIRECT_PAGE) return -1;
+
+        StringBuilder sql = new StringBuilder("SELECT id FROM gf_punishments WHERE ");
+        String key;
+        if (uuid != null) {
+            sql.append("uuid = ? ");
+            key = uuid.toString();
+        } else if (name != null && !name.isBlank()) {
+            sql.append("name_lower = ? ");
+            key = name.toLowerCase(Locale.ROOT);
+        } else {
+            return -1;
+        }
+        if (type != null) sql.append("AND type = ? ");
+        sql.append("ORDER BY id DESC LIMIT 1 OFFSET ?");
+
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql.toString())) {
+
+            int i = 1;
+            ps.setString(i++, key);
+            if (type != null) ps.setString(i++, type.name());
+            // letzte id der vorherigen Seite
+            ps.setInt(i, (page - 1) * pageSize - 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("id") : -1;
+            }
+        } catch (SQLException e) {
+            logger.error("Fehler beim Bestimmen der History-Seite {}", page, e);
+            return -1;
+        }
     }
 
     // ============================================================
@@ -952,7 +1569,7 @@ public class PunishmentService {
 
     /**
      * Holt die letzte bekannte IP eines Spielers aus gf_punishments.
-     * Nutzt zuerst uuid, sonst name (LOWER(name)).
+     * Nutzt zuerst uuid, sonst name (name_lower).
      */
     public String getLastKnownIp(UUID uuid, String name) {
         StringBuilder sql = new StringBuilder(
@@ -964,7 +1581,7 @@ public class PunishmentService {
             sql.append("AND uuid = ? ");
             params.add(uuid.toString());
         } else if (name != null && !name.isBlank()) {
-            sql.append("AND LOWER(name) = ? ");
+            sql.append("AND name_lower = ? ");
             params.add(name.toLowerCase(Locale.ROOT));
         } else {
             return null;
@@ -1026,6 +1643,10 @@ public class PunishmentService {
      * Simple Dauer-Parser (30m, 1h, 7d, 1w, 1mo, 1y)
      */
     public Long parseDuration(String input) {
+        return parseDurationMillis(input);
+    }
+
+    static Long parseDurationMillis(String input) {
         if (input == null || input.isBlank()) return null;
 
         input = input.toLowerCase(Locale.ROOT).trim();
@@ -1073,35 +1694,11 @@ public class PunishmentService {
         return list;
     }
 
+    /**
+     * Tab-Completion: bekannte Namen mit diesem Präfix aus dem {@link KnownNameIndex} (kein JDBC).
+     */
     public List<String> findKnownNames(String prefix, int limit) {
-        List<String> list = new ArrayList<>();
-        if (limit <= 0) limit = 30;
-        if (prefix == null) prefix = "";
-        String key = prefix.toLowerCase(Locale.ROOT) + "%";
-
-        String sql = "SELECT DISTINCT name FROM gf_punishments " +
-                "WHERE LOWER(name) LIKE ? ORDER BY name ASC LIMIT ?";
-
-        try (Connection con = db.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-
-            ps.setString(1, key);
-            ps.setInt(2, limit);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    String name = rs.getString("name");
-                    if (name != null && !name.isBlank()) {
-                        list.add(name);
-                    }
-                }
-            }
-
-        } catch (SQLException e) {
-            logger.error("Fehler bei findKnownNames(prefix={})", prefix, e);
-        }
-
-        return list;
+        return nameIndex.find(prefix, limit > 0 ? limit : 30);
     }
 
     public List<String> getActiveBannedNames() {
@@ -1113,6 +1710,10 @@ public class PunishmentService {
     }
 
     private List<String> getActiveNamesByType(PunishmentType type) {
+        if (activeIndexReady) {
+            return activeIndex.activeNames(type);
+        }
+
         List<String> list = new ArrayList<>();
         String sql = "SELECT DISTINCT name FROM gf_punishments " +
                 "WHERE type = ? AND active = 1 ORDER BY name ASC";
@@ -1147,11 +1748,22 @@ public class PunishmentService {
      * @param excludeUuid optional: diesen Spieler ausklammern (eigener Login)
      * @param limit       max. Anzahl Zeilen
      */
+    public CompletableFuture<List<Punishment>> findActiveBansByIpAsync(String ip, UUID excludeUuid, int limit) {
+        if (activeIndexReady) {
+            return CompletableFuture.completedFuture(findActiveBansByIp(ip, excludeUuid, limit));
+        }
+        return db.supplyAsync("punish.altCheck", () -> findActiveBansByIp(ip, excludeUuid, limit));
+    }
+
     public List<Punishment> findActiveBansByIp(String ip, UUID excludeUuid, int limit) {
         List<Punishment> list = new ArrayList<>();
         if (ip == null || ip.isBlank()) return list;
         if (limit <= 0) limit = 10;
 
+        if (activeIndexReady) {
+            return activeIndex.findBansByIp(ip, excludeUuid, limit, System.currentTimeMillis(), this::onIndexExpired);
+        }
+
         String sql =
                 "SELECT * FROM gf_punishments " +
                         "WHERE type IN ('BAN','IP_BAN') " +
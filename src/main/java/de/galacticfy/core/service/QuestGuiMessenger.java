@@ -9,17 +9,58 @@ import de.galacticfy.core.service.QuestService.QuestDefinition;
 import org.slf4j.Logger;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Schickt den Quest-Stand an das GUI auf dem Backend (Channel galacticfy:quests).
+ *
+ * - OPEN: immer vollständiger Stand (Resync)
+ * - UPDATE: wird pro Spieler gesammelt und höchstens alle N ms geschickt ({@link #flushUpdates()})
+ * - DELTA: nur geänderte Quests relativ zum zuletzt per ACK bestätigten Frame,
+ *   sobald das Backend für den Spieler ein ACK geschickt hat
+ */
 public class QuestGuiMessenger {
 
+    // Ohne ACKs fallen wir nach so vielen offenen Frames auf das Legacy-Format zurück
+    private static final int MAX_IN_FLIGHT = 32;
+
     private final ProxyServer proxy;
     private final ChannelIdentifier channel;
     private final Logger logger;
     private final QuestService questService;
 
+    // Spieler mit ausstehendem UPDATE (Coalescing)
+    private final Set<UUID> pendingUpdates = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, GuiState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Was der Backend-Server vom Quest-GUI eines Spielers kennt.
+     * Snapshot-Werte: (progress << 1) | completed
+     */
+    private static final class GuiState {
+        final String serverName;
+        boolean sequenced;                 // Backend hat ACKs geschickt → Frames mit Sequenz + DELTA
+        long nextSeq = 1;
+        long ackedSeq;
+        Map<String, Long> acked;           // Stand des zuletzt bestätigten Frames
+        Map<String, Long> lastSent;
+        final NavigableMap<Long, Map<String, Long>> inFlight = new TreeMap<>();
+
+        GuiState(String serverName) {
+            this.serverName = serverName;
+        }
+    }
+
     public QuestGuiMessenger(ProxyServer proxy,
                              ChannelIdentifier channel,
                              Logger logger,
@@ -41,29 +82,57 @@ public class QuestGuiMessenger {
         UUID uuid = player.getUniqueId();
         List<PlayerQuestView> questsForPlayer = questService.getQuestsFor(uuid);
 
-        byte[] payload = serialize(questsForPlayer, "OPEN");
-
         Optional<ServerConnection> optConn = player.getCurrentServer();
         if (optConn.isEmpty()) {
             logger.warn("[QuestGuiMessenger] openGui: Spieler {} ist auf KEINEM Server.", player.getUsername());
             return;
         }
 
+        // OPEN ist ohnehin ein vollständiger Stand
+        pendingUpdates.remove(uuid);
+
         ServerConnection conn = optConn.get();
         String serverName = conn.getServerInfo().getName();
-        logger.info("[QuestGuiMessenger] Sende OPEN-Payload ({} Bytes) für Spieler {} an Server {} über Channel {}",
-                payload.length, player.getUsername(), serverName, channel.getId());
+        GuiState state = stateFor(uuid, serverName);
+
+        synchronized (state) {
+            byte[] payload = frame(state, questsForPlayer, "OPEN", true);
+            logger.info("[QuestGuiMessenger] Sende OPEN-Payload ({} Bytes) für Spieler {} an Server {} über Channel {}",
+                    payload.length, player.getUsername(), serverName, channel.getId());
 
-        conn.sendPluginMessage(channel, payload);
+            conn.sendPluginMessage(channel, payload);
+        }
     }
 
     /**
      * Wird vom QuestService beim Fortschritt/Abschluss aufgerufen
-     * (über updateHook).
+     * (über updateHook). Merkt den Spieler nur vor, gesendet wird in {@link #flushUpdates()}.
      */
     public void pushUpdate(UUID uuid) {
         if (uuid == null) return;
+        pendingUpdates.add(uuid);
+    }
+
+    public boolean hasPendingUpdates() {
+        return !pendingUpdates.isEmpty();
+    }
+
+    /**
+     * Schickt für alle vorgemerkten Spieler ein (Delta-)UPDATE.
+     */
+    public void flushUpdates() {
+        for (Iterator<UUID> it = pendingUpdates.iterator(); it.hasNext(); ) {
+            UUID uuid = it.next();
+            it.remove();
+            try {
+                sendUpdate(uuid);
+            } catch (Exception e) {
+                logger.warn("[QuestGuiMessenger] UPDATE für {} fehlgeschlagen: {}", uuid, e.toString());
+            }
+        }
+    }
 
+    private void sendUpdate(UUID uuid) {
         Player player = proxy.getPlayer(uuid).orElse(null);
         if (player == null) {
             logger.debug("[QuestGuiMessenger] pushUpdate: Spieler {} ist nicht online.", uuid);
@@ -77,14 +146,135 @@ public class QuestGuiMessenger {
         }
 
         List<PlayerQuestView> list = questService.getQuestsFor(uuid);
-        byte[] payload = serialize(list, "UPDATE");
 
         ServerConnection conn = optConn.get();
         String serverName = conn.getServerInfo().getName();
-        logger.debug("[QuestGuiMessenger] Sende UPDATE-Payload ({} Bytes) für Spieler {} an Server {}",
-                payload.length, player.getUsername(), serverName);
+        GuiState state = stateFor(uuid, serverName);
+
+        synchronized (state) {
+            byte[] payload = frame(state, list, "UPDATE", false);
+            if (payload == null) {
+                return; // nichts geändert
+            }
+
+            logger.debug("[QuestGuiMessenger] Sende UPDATE-Payload ({} Bytes) für Spieler {} an Server {}",
+                    payload.length, player.getUsername(), serverName);
 
-        conn.sendPluginMessage(channel, payload);
+            conn.sendPluginMessage(channel, payload);
+        }
+    }
+
+    /**
+     * ACK vom Backend: {@code ACK|<seq>}. {@code seq = 0} meldet nur, dass das Backend
+     * Sequenzen/DELTA versteht (z.B. nach Serverwechsel).
+     */
+    public void acknowledge(UUID uuid, String serverName, long seq) {
+        if (uuid == null || serverName == null) return;
+
+        GuiState state = stateFor(uuid, serverName);
+        synchronized (state) {
+            state.sequenced = true;
+            if (seq <= 0) return;
+
+            Map<String, Long> snapshot = state.inFlight.get(seq);
+            if (snapshot == null) return; // veraltet oder unbekannt
+
+            state.acked = snapshot;
+            state.ackedSeq = seq;
+            state.inFlight.headMap(seq, true).clear();
+        }
+    }
+
+    public void forget(UUID uuid) {
+        if (uuid == null) return;
+        pendingUpdates.remove(uuid);
+        states.remove(uuid);
+    }
+
+    private GuiState stateFor(UUID uuid, String serverName) {
+        // Neuer Backend-Server kennt nichts → frischer Zustand
+        return states.compute(uuid, (k, old) ->
+                (old != null && old.serverName.equals(serverName)) ? old : new GuiState(serverName));
+    }
+
+    // ============================================================
+    // FRAMES
+    // ============================================================
+
+    /**
+     * Baut den nächsten Frame (Aufruf unter {@code synchronized (state)}).
+     *
+     * @return Payload oder {@code null}, wenn sich seit dem letzten Frame nichts geändert hat
+     */
+    private byte[] frame(GuiState state, List<PlayerQuestView> quests, String mode, boolean full) {
+        Map<String, Long> current = snapshot(quests);
+        if (!full && current.equals(state.lastSent)) {
+            return null;
+        }
+        state.lastSent = current;
+
+        // Legacy-Backend: immer vollständig, ohne Sequenz
+        if (!state.sequenced) {
+            return serialize(quests, mode);
+        }
+
+        long seq = state.nextSeq++;
+        boolean needsFull = full || !canDelta(state, current);
+
+        state.inFlight.put(seq, current);
+        if (state.inFlight.size() > MAX_IN_FLIGHT) {
+            // Backend bestätigt nicht mehr → zurück auf vollständige Frames ohne Sequenz
+            state.sequenced = false;
+            state.acked = null;
+            state.inFlight.clear();
+            return serialize(quests, mode);
+        }
+
+        if (needsFull) {
+            return serialize(quests, mode + "|" + seq);
+        }
+
+        List<PlayerQuestView> changed = new ArrayList<>();
+        for (PlayerQuestView view : quests) {
+            String key = view.definition().key();
+            Long base = state.acked.get(key);
+            if (!base.equals(current.get(key)) || changedSinceAck(state, key, base)) {
+                changed.add(view);
+            }
+        }
+        return serialize(changed, "DELTA|" + seq + "|" + state.ackedSeq);
+    }
+
+    /**
+     * DELTA geht nur, wenn es einen bestätigten Stand gibt und alle Frames seitdem
+     * dieselben Quests enthalten (keine Rerolls / entfernten Quests).
+     */
+    private boolean canDelta(GuiState state, Map<String, Long> current) {
+        if (state.acked == null) return false;
+        if (!state.acked.keySet().equals(current.keySet())) return false;
+        for (Map<String, Long> sent : state.inFlight.values()) {
+            if (!state.acked.keySet().equals(sent.keySet())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ein unbestätigter Frame kann einen anderen Wert gesetzt haben, auch wenn der
+     * aktuelle Wert wieder dem bestätigten entspricht (z.B. Reset einer No-Death-Quest).
+     */
+    private boolean changedSinceAck(GuiState state, String key, Long base) {
+        for (Map<String, Long> sent : state.inFlight.values()) {
+            if (!base.equals(sent.get(key))) return true;
+        }
+        return false;
+    }
+
+    private Map<String, Long> snapshot(List<PlayerQuestView> quests) {
+        Map<String, Long> map = new HashMap<>(quests.size() * 2);
+        for (PlayerQuestView view : quests) {
+            map.put(view.definition().key(), (view.progress() << 1) | (view.completed() ? 1L : 0L));
+        }
+        return map;
     }
 
     /**
@@ -92,7 +282,10 @@ public class QuestGuiMessenger {
      *
      *   Zeile 0:
      *     MODE
-     *       MODE = "OPEN" oder "UPDATE"
+     *       MODE = "OPEN" oder "UPDATE"                    (Legacy, ohne Sequenz)
+     *       MODE = "OPEN|seq" oder "UPDATE|seq"            (vollständig, mit Sequenz)
+     *       MODE = "DELTA|seq|baseSeq"                     (nur geänderte Quests ggü. baseSeq)
+     *     Frames mit Sequenz bestätigt das Backend mit "ACK|seq".
      *
      *   ab Zeile 1:
      *     key|title|desc|type|goal|progress|galas|stardust|completed
@@ -8,7 +8,11 @@ import java.sql.*;
 import java.time.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Quest-System mit:
@@ -22,6 +26,10 @@ import java.util.function.BiConsumer;
  * Zusätzlich:
  * - Täglicher Login mit 24h-Cooldown, in DB gespeichert (gf_quest_meta)
  * - Keine Chat/Actionbar-Nachrichten für Login-Quests/Streaks
+ * - Write-Behind für gf_quest_progress: Änderungen werden als "dirty" markiert und
+ *   gesammelt per JDBC-Batch geschrieben (Intervall, Quest-Abschluss, Disconnect, Shutdown)
+ * - Begrenzter Progress-Cache: Laden beim Join, Flush + Entfernen nach Disconnect und
+ *   Grace-Period, LRU-Eviction als Obergrenze
  */
 public class QuestService {
 
@@ -79,8 +87,19 @@ public class QuestService {
         long lastPeriodId; // DAILY: epochDay, WEEKLY: epochDay/7, MONTHLY: year*12+month, LIFETIME: 1
     }
 
+    /**
+     * Quest-Progress eines Spielers im Cache (questKey -> Progress) plus letzter Zugriff für LRU.
+     * Der Monitor ist der Per-Spieler-Lock: Änderungen am Progress und {@code evictPlayer}
+     * laufen darunter, damit kein Increment zwischen Flush und Entfernen verloren geht.
+     */
+    private static final class PlayerProgress extends ConcurrentHashMap<String, QuestProgress> {
+        volatile long lastAccessMillis = System.currentTimeMillis();
+        boolean evicted; // nur unter dem Monitor
+    }
+
     /**
      * Interner Stat-Typ, auf den der QuestEventListener routet.
+     * Die Ordinals sind Teil des Binär-Protokolls (QuestStatCodec): neue Werte nur am Ende anhängen.
      */
     public enum StatType {
         // Blöcke (Mining)
@@ -158,7 +177,21 @@ public class QuestService {
     private final DatabaseManager db; // optional, kann null sein
 
     private final Map<String, QuestDefinition> definitions = new LinkedHashMap<>();
-    private final Map<UUID, Map<String, QuestProgress>> progressMap = new ConcurrentHashMap<>();
+    private final Map<UUID, PlayerProgress> progressMap = new ConcurrentHashMap<>();
+
+    // Cache-Lebenszyklus: offline seit (millis), Grenzen + Metriken
+    private final Map<UUID, Long> offlineSince = new ConcurrentHashMap<>();
+    private final AtomicBoolean boundEvictionRunning = new AtomicBoolean();
+    private volatile long cacheGraceMillis = Duration.ofMinutes(5).toMillis();
+    private volatile int maxCachedPlayers = 5000;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder idleEvictions = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+
+    // Routing-Index: StatType -> passende aktive Quests (wird bei jeder Generierung neu gebaut)
+    private static final QuestDefinition[] NO_QUESTS = new QuestDefinition[0];
+    private volatile Map<StatType, QuestDefinition[]> statIndex = new EnumMap<>(StatType.class);
 
     private final List<QuestTemplate> templates = new ArrayList<>();
     private final List<QuestDefinition> lifetimeDefinitions = new ArrayList<>();
@@ -180,6 +213,21 @@ public class QuestService {
     private final Map<UUID, LocalDate> lastDeathDate = new ConcurrentHashMap<>();
     private final Map<UUID, Instant> lastActive = new ConcurrentHashMap<>();
 
+    // Write-Behind: Progress-Einträge, die noch nicht in gf_quest_progress stehen
+    private record DirtyKey(UUID uuid, String questKey) {}
+    private record ProgressRow(DirtyKey key, long value, boolean completed, boolean rewardClaimed) {}
+
+    private final Set<DirtyKey> dirty = ConcurrentHashMap.newKeySet();
+    private final Object flushLock = new Object();
+
+    // Write-Behind-Metriken
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushNanosTotal = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile int lastFlushBatchSize;
+
     // =====================================================
     // CONSTRUCTOR
     // =====================================================
@@ -937,6 +985,8 @@ public class QuestService {
         }
 
 
+        rebuildStatIndex();
+
         lastGenerationDate = date;
         logger.info("QuestService: {} Quest-Definitionen für {} generiert (inkl. Lifetime, rerollOffset={}).",
                 definitions.size(), date, rerollOffset);
@@ -1090,8 +1140,8 @@ if (db.isSQLite()) {
     // DB-SYNC (Progress)
     // =====================================================
 
-    private Map<String, QuestProgress> loadProgressFor(UUID uuid) {
-        Map<String, QuestProgress> map = new ConcurrentHashMap<>();
+    private PlayerProgress loadProgressFor(UUID uuid) {
+        PlayerProgress map = new PlayerProgress();
         if (db == null) return map;
 
         try (Connection con = db.getConnection();
@@ -1121,28 +1171,25 @@ if (db.isSQLite()) {
         return map;
     }
 
-    private void saveProgress(UUID uuid, QuestDefinition def, QuestProgress qp) {
-    if (db == null || uuid == null || def == null || qp == null) return;
-
-    String sql;
-    if (db.isSQLite()) {
-        sql = """
-                INSERT INTO gf_quest_progress
-                    (uuid, quest_key, progress, completed, completed_at, reward_claimed, last_update)
-                VALUES
-                    (?, ?, ?, ?, CASE WHEN ? = 1 THEN CURRENT_TIMESTAMP ELSE NULL END, ?, CURRENT_TIMESTAMP)
-                ON CONFLICT(uuid, quest_key) DO UPDATE SET
-                    progress = excluded.progress,
-                    completed = excluded.completed,
-                    completed_at = CASE
-                        WHEN excluded.completed = 1 AND gf_quest_progress.completed_at IS NULL THEN CURRENT_TIMESTAMP
-                        ELSE gf_quest_progress.completed_at
-                    END,
-                    reward_claimed = excluded.reward_claimed,
-                    last_update = CURRENT_TIMESTAMP
-                """;
-    } else {
-        sql = """
+    private String progressUpsertSql() {
+        if (db.isSQLite()) {
+            return """
+                    INSERT INTO gf_quest_progress
+                        (uuid, quest_key, progress, completed, completed_at, reward_claimed, last_update)
+                    VALUES
+                        (?, ?, ?, ?, CASE WHEN ? = 1 THEN CURRENT_TIMESTAMP ELSE NULL END, ?, CURRENT_TIMESTAMP)
+                    ON CONFLICT(uuid, quest_key) DO UPDATE SET
+                        progress = excluded.progress,
+                        completed = excluded.completed,
+                        completed_at = CASE
+                            WHEN excluded.completed = 1 AND gf_quest_progress.completed_at IS NULL THEN CURRENT_TIMESTAMP
+                            ELSE gf_quest_progress.completed_at
+                        END,
+                        reward_claimed = excluded.reward_claimed,
+                        last_update = CURRENT_TIMESTAMP
+                    """;
+        }
+        return """
                 INSERT INTO gf_quest_progress
                     (uuid, quest_key, progress, completed, completed_at, reward_claimed, last_update)
                 VALUES
@@ -1159,20 +1206,300 @@ if (db.isSQLite()) {
                 """;
     }
 
-    try (Connection con = db.getConnection();
-         PreparedStatement ps = con.prepareStatement(sql)) {
-        ps.setString(1, uuid.toString());
-        ps.setString(2, def.key());
-        ps.setLong(3, qp.value);
-        ps.setBoolean(4, qp.completedForPeriod);
-        // completed_at trigger flag
-        ps.setBoolean(5, qp.completedForPeriod);
-        ps.setBoolean(6, qp.rewardClaimed);
-        ps.executeUpdate();
-    } catch (SQLException e) {
-        logger.error("QuestService: Fehler beim Speichern von gf_quest_progress ({} / {})", uuid, def.key(), e);
+    // =====================================================
+    // WRITE-BEHIND (Progress)
+    // =====================================================
+
+    /**
+     * Merkt einen Progress-Eintrag zum Schreiben vor. Mehrere Increments auf dieselbe
+     * Quest werden so zu einem einzigen Row-Write zusammengefasst.
+     */
+    private void markDirty(UUID uuid, QuestDefinition def) {
+        if (db == null || uuid == null || def == null) return;
+        dirty.add(new DirtyKey(uuid, def.key()));
+    }
+
+    /**
+     * Schreibt alle dirty Einträge (Intervall-Task / Shutdown).
+     *
+     * @return Anzahl geschriebener Zeilen
+     */
+    public int flushDirtyProgress() {
+        return flush(null);
+    }
+
+    /**
+     * Schreibt nur die dirty Einträge eines Spielers (Quest-Abschluss / Disconnect).
+     */
+    public int flushProgress(UUID uuid) {
+        if (uuid == null) return 0;
+        return flush(uuid);
+    }
+
+    private int flush(UUID onlyFor) {
+        if (db == null || dirty.isEmpty()) return 0;
+
+        // Flushes laufen nacheinander, sonst könnte ein älterer Stand einen neueren überschreiben
+        synchronized (flushLock) {
+            List<ProgressRow> rows = new ArrayList<>();
+
+            for (Iterator<DirtyKey> it = dirty.iterator(); it.hasNext(); ) {
+                DirtyKey key = it.next();
+                if (onlyFor != null && !onlyFor.equals(key.uuid())) continue;
+                it.remove();
+
+                Map<String, QuestProgress> playerMap = progressMap.get(key.uuid());
+                QuestProgress qp = (playerMap != null) ? playerMap.get(key.questKey()) : null;
+                if (qp == null) continue;
+
+                rows.add(new ProgressRow(key, qp.value, qp.completedForPeriod, qp.rewardClaimed));
+            }
+
+            if (rows.isEmpty()) return 0;
+
+            long start = System.nanoTime();
+            try (Connection con = db.getConnection()) {
+                boolean oldAutoCommit = con.getAutoCommit();
+                con.setAutoCommit(false);
+                try (PreparedStatement ps = con.prepareStatement(progressUpsertSql())) {
+                    for (ProgressRow row : rows) {
+                        ps.setString(1, row.key().uuid().toString());
+                        ps.setString(2, row.key().questKey());
+                        ps.setLong(3, row.value());
+                        ps.setBoolean(4, row.completed());
+                        // completed_at trigger flag
+                        ps.setBoolean(5, row.completed());
+                        ps.setBoolean(6, row.rewardClaimed());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    con.commit();
+                } catch (SQLException e) {
+                    con.rollback();
+                    throw e;
+                } finally {
+                    con.setAutoCommit(oldAutoCommit);
+                }
+            } catch (SQLException e) {
+                // Nichts verlieren: beim nächsten Flush erneut versuchen
+                for (ProgressRow row : rows) {
+                    dirty.add(row.key());
+                }
+                logger.error("QuestService: Write-Behind-Flush von {} Einträgen nach gf_quest_progress fehlgeschlagen",
+                        rows.size(), e);
+                return 0;
+            }
+
+            long took = System.nanoTime() - start;
+            flushCount.increment();
+            flushedRows.add(rows.size());
+            flushNanosTotal.add(took);
+            maxFlushNanos.accumulateAndGet(took, Math::max);
+            lastFlushNanos = took;
+            lastFlushBatchSize = rows.size();
+            return rows.size();
+        }
+    }
+
+    public int getDirtyQueueDepth() {
+        return dirty.size();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    public int getLastFlushBatchSize() {
+        return lastFlushBatchSize;
+    }
+
+    public double getAvgFlushBatchSize() {
+        long n = flushCount.sum();
+        return n == 0 ? 0.0 : (double) flushedRows.sum() / n;
+    }
+
+    public double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000.0;
+    }
+
+    public double getAvgFlushMillis() {
+        long n = flushCount.sum();
+        return n == 0 ? 0.0 : flushNanosTotal.sum() / 1_000_000.0 / n;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+
+    // =====================================================
+    // PROGRESS-CACHE (Lebenszyklus + Obergrenze)
+    // =====================================================
+
+    public void configureCache(Duration grace, int maxPlayers) {
+        this.cacheGraceMillis = Math.max(0L, grace.toMillis());
+        this.maxCachedPlayers = Math.max(100, maxPlayers);
+    }
+
+    private PlayerProgress progressFor(UUID uuid) {
+        PlayerProgress pp = progressMap.get(uuid);
+        if (pp != null) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+            pp = progressMap.computeIfAbsent(uuid, this::loadProgressFor);
+            enforceCacheBound();
+        }
+        pp.lastAccessMillis = System.currentTimeMillis();
+        return pp;
+    }
+
+    /**
+     * Progress eines Spielers unter seinem Lock bearbeiten. Wurde der Eintrag inzwischen
+     * evicted, wird er neu geladen (der Flush davor hat alles geschrieben).
+     */
+    private <T> T withProgress(UUID uuid, Function<PlayerProgress, T> action) {
+        while (true) {
+            PlayerProgress pp = progressFor(uuid);
+            synchronized (pp) {
+                if (!pp.evicted) return action.apply(pp);
+            }
+        }
+    }
+
+    /**
+     * PostLogin: Progress vorladen und eine evtl. laufende Grace-Period abbrechen.
+     */
+    public void onPlayerJoin(UUID uuid) {
+        if (uuid == null) return;
+        offlineSince.remove(uuid);
+        progressFor(uuid);
+    }
+
+    /**
+     * Disconnect: Spieler wird nach der Grace-Period aus dem Cache entfernt.
+     */
+    public void onPlayerQuit(UUID uuid) {
+        if (uuid == null) return;
+        offlineSince.put(uuid, System.currentTimeMillis());
+    }
+
+    /**
+     * Periodischer Task: Spieler, die länger als die Grace-Period offline sind, flushen und entfernen.
+     */
+    public void evictIdlePlayers() {
+        long cutoff = System.currentTimeMillis() - cacheGraceMillis;
+
+        for (Map.Entry<UUID, Long> e : offlineSince.entrySet()) {
+            if (e.getValue() > cutoff) continue;
+
+            UUID uuid = e.getKey();
+            if (evictPlayer(uuid)) {
+                offlineSince.remove(uuid, e.getValue());
+                idleEvictions.increment();
+            }
+        }
+
+        // No-Death-Merker von gestern und älter braucht niemand mehr
+        LocalDate today = LocalDate.now();
+        lastDeathDate.values().removeIf(d -> d.isBefore(today));
+
+        enforceCacheBound();
+    }
+
+    /**
+     * Sicherheitsnetz: mehr als maxCachedPlayers Einträge → Offline-Spieler und danach die am
+     * längsten nicht genutzten entfernen (auch online; werden beim nächsten Zugriff neu geladen).
+     */
+    private void enforceCacheBound() {
+        int max = maxCachedPlayers;
+        if (progressMap.size() <= max) return;
+        if (!boundEvictionRunning.compareAndSet(false, true)) return;
+
+        try {
+            // etwas Luft schaffen, damit nicht bei jedem Miss erneut sortiert wird
+            int excess = progressMap.size() - max + Math.max(1, max / 20);
+
+            // Offline-Spieler zuerst, danach nach letztem Zugriff
+            record LruCandidate(UUID uuid, boolean online, long lastAccess) {}
+            List<LruCandidate> candidates = new ArrayList<>(progressMap.size());
+            for (Map.Entry<UUID, PlayerProgress> e : progressMap.entrySet()) {
+                UUID uuid = e.getKey();
+                candidates.add(new LruCandidate(uuid, !offlineSince.containsKey(uuid), e.getValue().lastAccessMillis));
+            }
+            candidates.sort(Comparator.comparing(LruCandidate::online).thenComparingLong(LruCandidate::lastAccess));
+
+            for (int i = 0; i < candidates.size() && excess > 0; i++) {
+                UUID uuid = candidates.get(i).uuid();
+                if (evictPlayer(uuid)) {
+                    offlineSince.remove(uuid);
+                    sizeEvictions.increment();
+                    excess--;
+                }
+            }
+        } finally {
+            boundEvictionRunning.set(false);
+        }
+    }
+
+    /**
+     * Schreibt offenen Progress und entfernt den Spieler aus allen Caches.
+     *
+     * @return false, wenn der Flush fehlgeschlagen ist (dann bleibt der Eintrag erhalten)
+     */
+    private boolean evictPlayer(UUID uuid) {
+        PlayerProgress pp = progressMap.get(uuid);
+        if (pp != null) {
+            // gleicher Lock wie increment/getQuestsFor: Flush, Prüfung und Entfernen am Stück
+            synchronized (pp) {
+                if (!pp.evicted) {
+                    flushProgress(uuid);
+                    if (hasDirty(uuid)) return false;
+
+                    pp.evicted = true;
+                    progressMap.remove(uuid, pp);
+
+                    // Sicherheitsnetz: doch noch etwas dirty geworden → Eintrag zurück, nichts verlieren
+                    if (hasDirty(uuid)) {
+                        pp.evicted = false;
+                        progressMap.putIfAbsent(uuid, pp);
+                        return false;
+                    }
+                }
+            }
+        }
+
+        lastActive.remove(uuid);
+        lastLoginCounted.remove(uuid); // wird bei Bedarf aus gf_quest_meta nachgeladen
+        lastDeathDate.computeIfPresent(uuid, (k, d) -> d.equals(LocalDate.now()) ? d : null);
+        return true;
+    }
+
+    private boolean hasDirty(UUID uuid) {
+        for (DirtyKey key : dirty) {
+            if (key.uuid().equals(uuid)) return true;
+        }
+        return false;
+    }
+
+    public int getCachedPlayerCount() {
+        return progressMap.size();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public long getIdleEvictions() {
+        return idleEvictions.sum();
+    }
+
+    public long getSizeEvictions() {
+        return sizeEvictions.sum();
     }
-}
 
 
     // =====================================================
@@ -1230,9 +1557,10 @@ if (db.isSQLite()) {
         if (uuid == null) return List.of();
         ensureDefinitionsForToday();
 
-        Map<String, QuestProgress> map = progressMap
-                .computeIfAbsent(uuid, this::loadProgressFor);
+        return withProgress(uuid, map -> questViews(uuid, map));
+    }
 
+    private List<PlayerQuestView> questViews(UUID uuid, Map<String, QuestProgress> map) {
         List<PlayerQuestView> result = new ArrayList<>();
         Set<String> weeklyForPlayer = getWeeklyKeysForPlayer(uuid);
 
@@ -1252,7 +1580,7 @@ if (db.isSQLite()) {
                     qp.lastPeriodId = currentPeriod;
                     qp.value = 0;
                     qp.completedForPeriod = false;
-                    saveProgress(uuid, def, qp);
+                    markDirty(uuid, def);
                 }
             }
 
@@ -1275,18 +1603,23 @@ if (db.isSQLite()) {
         // betroffene Spieler merken, damit wir das GUI refreshen können
         Set<UUID> affected = new HashSet<>(progressMap.keySet());
 
-        progressMap.clear();
         lastLoginCounted.clear();
         lastDeathDate.clear();
         lastActive.clear();
 
-        if (db != null) {
-            try (Connection con = db.getConnection();
-                 Statement st = con.createStatement()) {
-                st.executeUpdate("DELETE FROM gf_quest_progress");
-                st.executeUpdate("DELETE FROM gf_quest_meta");
-            } catch (SQLException e) {
-                logger.error("QuestService: Fehler beim globalen Reset von gf_quest_progress / gf_quest_meta", e);
+        // unter flushLock, damit kein laufender Flush gelöschte Zeilen wieder anlegt
+        synchronized (flushLock) {
+            progressMap.clear();
+            dirty.clear();
+
+            if (db != null) {
+                try (Connection con = db.getConnection();
+                     Statement st = con.createStatement()) {
+                    st.executeUpdate("DELETE FROM gf_quest_progress");
+                    st.executeUpdate("DELETE FROM gf_quest_meta");
+                } catch (SQLException e) {
+                    logger.error("QuestService: Fehler beim globalen Reset von gf_quest_progress / gf_quest_meta", e);
+                }
             }
         }
 
@@ -1306,27 +1639,31 @@ if (db.isSQLite()) {
         if (uuid == null) return;
 
         // Cache leeren
-        progressMap.remove(uuid);
         lastLoginCounted.remove(uuid);
         lastDeathDate.remove(uuid);
         lastActive.remove(uuid);
 
-        // Datenbank löschen
-        if (db != null) {
-            try (Connection con = db.getConnection();
-                 PreparedStatement ps1 = con.prepareStatement(
-                         "DELETE FROM gf_quest_progress WHERE uuid = ?"
-                 );
-                 PreparedStatement ps2 = con.prepareStatement(
-                         "DELETE FROM gf_quest_meta WHERE uuid = ?"
-                 )) {
-                ps1.setString(1, uuid.toString());
-                ps1.executeUpdate();
-
-                ps2.setString(1, uuid.toString());
-                ps2.executeUpdate();
-            } catch (SQLException e) {
-                logger.error("[Quests] Konnte Progress/Meta für {} nicht löschen", uuid, e);
+        synchronized (flushLock) {
+            progressMap.remove(uuid);
+            dirty.removeIf(k -> k.uuid().equals(uuid));
+
+            // Datenbank löschen
+            if (db != null) {
+                try (Connection con = db.getConnection();
+                     PreparedStatement ps1 = con.prepareStatement(
+                             "DELETE FROM gf_quest_progress WHERE uuid = ?"
+                     );
+                     PreparedStatement ps2 = con.prepareStatement(
+                             "DELETE FROM gf_quest_meta WHERE uuid = ?"
+                     )) {
+                    ps1.setString(1, uuid.toString());
+                    ps1.executeUpdate();
+
+                    ps2.setString(1, uuid.toString());
+                    ps2.executeUpdate();
+                } catch (SQLException e) {
+                    logger.error("[Quests] Konnte Progress/Meta für {} nicht löschen", uuid, e);
+                }
             }
         }
 
@@ -1361,6 +1698,19 @@ if (db.isSQLite()) {
     // =====================================================
 
     // Blöcke / Ressourcen
+    /**
+     * Zentraler Einstieg für den QuestEventListener (Binär- und Text-Protokoll).
+     */
+    public void handleStat(UUID uuid, String name, StatType statType, long amount,
+                           BiConsumer<UUID, Component> sender) {
+        switch (statType) {
+            case PLAYTIME -> handlePlaytime(uuid, name, amount, sender);
+            case LOGIN -> handleLogin(uuid, name, sender);
+            case DEATH -> handleDeaths(uuid, name, amount, sender);
+            default -> applyStatToMatchingQuests(uuid, name, amount, sender, statType);
+        }
+    }
+
     public void handleBlocksBroken(UUID uuid, String name, long amount,
                                    BiConsumer<UUID, Component> sender) {
         applyStatToMatchingQuests(uuid, name, amount, sender, StatType.BREAK);
@@ -1579,33 +1929,31 @@ if (db.isSQLite()) {
         // 2) Normale Death-Quests (falls später nötig)
         applyStatToMatchingQuests(uuid, name, amount, sender, StatType.DEATH);
 
-        // 3) No-Death-Quests zurücksetzen
-        Map<String, QuestProgress> playerMap = progressMap.get(uuid);
-        if (playerMap == null) {
-            return;
-        }
+        // 3) No-Death-Quests zurücksetzen (unter dem Per-Spieler-Lock, lädt bei Bedarf nach)
+        boolean changed = withProgress(uuid, playerMap -> {
+            boolean any = false;
 
-        boolean changed = false;
+            for (QuestDefinition def : definitions.values()) {
+                if (!def.active()) continue;
 
-        for (QuestDefinition def : definitions.values()) {
-            if (!def.active()) continue;
+                String key = def.key().toLowerCase(Locale.ROOT);
 
-            String key = def.key().toLowerCase(Locale.ROOT);
+                // unsere No-Death-Quests erkennen wir am Key
+                if (!key.contains("nodeath")) continue;
 
-            // unsere No-Death-Quests erkennen wir am Key
-            if (!key.contains("nodeath")) continue;
+                QuestProgress qp = playerMap.get(def.key());
+                if (qp == null) continue;
 
-            QuestProgress qp = playerMap.get(def.key());
-            if (qp == null) continue;
-
-            // Fortschritt und Status resetten
-            qp.value = 0;
-            qp.completedForPeriod = false;
-            changed = true;
+                // Fortschritt und Status resetten
+                qp.value = 0;
+                qp.completedForPeriod = false;
+                any = true;
 
-            // in DB speichern
-            saveProgress(uuid, def, qp);
-        }
+                // zum Speichern vormerken
+                markDirty(uuid, def);
+            }
+            return any;
+        });
 
         if (changed && updateHook != null) {
             updateHook.accept(uuid);
@@ -1682,15 +2030,34 @@ if (db.isSQLite()) {
 
         long effective = amount; // keine Boni mehr, 1:1 zählen
 
-        for (QuestDefinition def : definitions.values()) {
-            if (!def.active()) continue;
-            if (!matchesStat(def, statType)) continue;
+        for (QuestDefinition def : statIndex.get(statType)) {
+            increment(uuid, name, def, effective, statType, sender);
+        }
+    }
+
+    /**
+     * Baut den StatType-Index aus den aktuellen Definitionen neu auf.
+     * Das String-Matching passiert nur hier, nicht mehr pro Stat-Message.
+     */
+    private void rebuildStatIndex() {
+        this.statIndex = buildStatIndex(definitions.values());
+    }
 
-            increment(uuid, name, def.key(), def.type(), effective, statType, sender);
+    static Map<StatType, QuestDefinition[]> buildStatIndex(Collection<QuestDefinition> defs) {
+        Map<StatType, QuestDefinition[]> index = new EnumMap<>(StatType.class);
+        for (StatType statType : StatType.values()) {
+            List<QuestDefinition> matching = new ArrayList<>();
+            for (QuestDefinition def : defs) {
+                if (def.active() && matchesStat(def, statType)) {
+                    matching.add(def);
+                }
+            }
+            index.put(statType, matching.isEmpty() ? NO_QUESTS : matching.toArray(NO_QUESTS));
         }
+        return index;
     }
 
-    private boolean matchesStat(QuestDefinition def, StatType statType) {
+    static boolean matchesStat(QuestDefinition def, StatType statType) {
         String k = def.key().toLowerCase(Locale.ROOT);
         boolean isLifetime = (def.type() == QuestType.LIFETIME);
 
@@ -1803,17 +2170,12 @@ if (db.isSQLite()) {
 
     private void increment(UUID uuid,
                            String name,
-                           String questKey,
-                           QuestType typeHint,
+                           QuestDefinition def,
                            long delta,
                            StatType statType,
                            BiConsumer<UUID, Component> sender) {
 
         if (uuid == null || delta <= 0) return;
-        ensureDefinitionsForToday();
-
-        QuestDefinition def = getDefinition(questKey);
-        if (def == null) return;
         if (!def.active()) return;
 
         // No-Death-Quest: nur zählen, wenn heute noch kein Tod registriert
@@ -1826,12 +2188,25 @@ if (db.isSQLite()) {
             }
         }
 
+        withProgress(uuid, playerMap -> {
+            applyIncrement(uuid, name, def, delta, statType, sender, playerMap);
+            return null;
+        });
+    }
+
+    /** Increment unter dem Per-Spieler-Lock (siehe {@link #withProgress}). */
+    private void applyIncrement(UUID uuid,
+                                String name,
+                                QuestDefinition def,
+                                long delta,
+                                StatType statType,
+                                BiConsumer<UUID, Component> sender,
+                                Map<String, QuestProgress> playerMap) {
+
+        String defKeyLower = def.key().toLowerCase(Locale.ROOT);
         QuestType type = def.type();
         long periodId = computeCurrentPeriodId(def);
 
-        Map<String, QuestProgress> playerMap = progressMap
-                .computeIfAbsent(uuid, this::loadProgressFor);
-
         QuestProgress qp = playerMap.computeIfAbsent(def.key(), k -> new QuestProgress());
 
         // Periodenwechsel (Daily/Weekly/Monthly/Event)
@@ -1847,7 +2222,7 @@ if (db.isSQLite()) {
         // Wenn schon fertig → nur clampen, fertig
         if (qp.completedForPeriod) {
             qp.value = Math.min(qp.value + delta, goal);
-            saveProgress(uuid, def, qp);
+            markDirty(uuid, def);
             return;
         }
 
@@ -1872,10 +2247,10 @@ if (db.isSQLite()) {
             long dust = def.rewardStardust();
 
             if (galas > 0) {
-                economy.deposit(uuid, galas);
+                economy.deposit(uuid, galas, EconomyLedger.Reason.QUEST_REWARD, null, def.key());
             }
             if (dust > 0) {
-                economy.addStardust(uuid, dust);
+                economy.addStardust(uuid, dust, EconomyLedger.Reason.QUEST_REWARD, def.key());
             }
 
             // Abschluss-Nachricht NICHT für Login-Quests/Streaks
@@ -1904,7 +2279,7 @@ if (db.isSQLite()) {
                         .filter(q -> !q.key().equals(def.key()))
                         .findFirst()
                         .ifPresent(meta ->
-                                increment(uuid, name, meta.key(), meta.type(), 1, StatType.LOGIN, sender)
+                                increment(uuid, name, meta, 1, StatType.LOGIN, sender)
                         );
             }
         }
@@ -1914,8 +2289,11 @@ if (db.isSQLite()) {
             updateHook.accept(uuid);
         }
 
-        // DB speichern
-        saveProgress(uuid, def, qp);
+        // DB speichern (Write-Behind, Abschlüsse sofort)
+        markDirty(uuid, def);
+        if (justCompleted) {
+            flushProgress(uuid);
+        }
     }
 
 }
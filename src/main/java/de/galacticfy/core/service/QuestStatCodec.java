@@ -0,0 +1,207 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.QuestService.StatType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Kodierung für den Channel galacticfy:queststats.
+ *
+ * Binär-Frame (Version 1), alle Zahlen big-endian bzw. als unsigned VarInt (LEB128):
+ * <pre>
+ *   byte    version   (= 0x01)
+ *   varint  count
+ *   count x {
+ *     varint  stat      (StatType.ordinal())
+ *     long    uuidMost
+ *     long    uuidLeast
+ *     varlong amount
+ *   }
+ * </pre>
+ * Ein Frame kann beliebig viele Stat-Deltas für beliebig viele Spieler enthalten.
+ * Neue StatTypes dürfen deshalb nur am Ende des Enums ergänzt werden.
+ *
+ * Legacy-Format (UTF-8, eine Zeile): {@code TYPE|UUID|NAME|AMOUNT}. Es beginnt immer mit
+ * einem Buchstaben und lässt sich so eindeutig vom Binär-Frame unterscheiden.
+ */
+public final class QuestStatCodec {
+
+    public static final byte VERSION_1 = 0x01;
+
+    // Schutz gegen kaputte/feindliche Frames
+    public static final int MAX_ENTRIES = 4096;
+
+    private static final StatType[] STATS = StatType.values();
+
+    // Typ-Namen des alten Text-Protokolls (CRAFT/SMELT wurden dort nie geschickt)
+    private static final Map<String, StatType> LEGACY_NAMES = new HashMap<>();
+
+    static {
+        for (StatType type : STATS) {
+            if (type == StatType.CRAFT || type == StatType.SMELT) continue;
+            LEGACY_NAMES.put(type.name(), type);
+        }
+    }
+
+    /**
+     * Empfänger für dekodierte Einträge (UUID bewusst als zwei longs).
+     */
+    @FunctionalInterface
+    public interface StatSink {
+        void accept(StatType type, long uuidMost, long uuidLeast, long amount);
+    }
+
+    private QuestStatCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == VERSION_1;
+    }
+
+    /**
+     * StatType zu einem Typ-Namen des Legacy-Text-Protokolls, oder {@code null}.
+     */
+    public static StatType legacyType(String name) {
+        return LEGACY_NAMES.get(name);
+    }
+
+    // ============================================================
+    // DECODE
+    // ============================================================
+
+    /**
+     * Dekodiert einen Binär-Frame in zwei Durchläufen ohne Allokation: der erste prüft den
+     * ganzen Frame, der zweite liest ihn ab derselben Position erneut und reicht jeden
+     * Eintrag an {@code sink} weiter. Ein abgeschnittener oder kaputter Frame wendet damit
+     * keinen einzigen Eintrag an (ein erneut gesendeter Frame zählt nichts doppelt).
+     * Unbekannte Stat-IDs (neueres Backend) werden übersprungen.
+     *
+     * @return Anzahl Einträge im Frame
+     * @throws IllegalArgumentException          bei falscher Version / ungültigen Werten / Restbytes
+     * @throws java.nio.BufferUnderflowException bei abgeschnittenen Frames
+     */
+    public static int decode(ByteBuffer buf, StatSink sink) {
+        byte version = buf.get();
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("Unbekannte Frame-Version: " + version);
+        }
+
+        int count = readVarInt(buf);
+        if (count < 0 || count > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Ungültige Anzahl Einträge: " + count);
+        }
+
+        // 1) nur prüfen
+        int entries = buf.position();
+        for (int i = 0; i < count; i++) {
+            readVarInt(buf);
+            skipLongs(buf, 2); // uuidMost + uuidLeast
+            long amount = readVarLong(buf);
+            if (amount < 0) {
+                throw new IllegalArgumentException("Negative Anzahl: " + amount);
+            }
+        }
+        if (buf.hasRemaining()) {
+            throw new IllegalArgumentException(buf.remaining() + " Bytes nach dem letzten Eintrag");
+        }
+
+        // 2) Frame ist vollständig gültig → noch einmal lesen und anwenden
+        buf.position(entries);
+        for (int i = 0; i < count; i++) {
+            int ordinal = readVarInt(buf);
+            long most = buf.getLong();
+            long least = buf.getLong();
+            long amount = readVarLong(buf);
+            if (ordinal < 0 || ordinal >= STATS.length) {
+                continue;
+            }
+            sink.accept(STATS[ordinal], most, least, amount);
+        }
+        return count;
+    }
+
+    // ============================================================
+    // ENCODE (Referenz für das Backend-Plugin)
+    // ============================================================
+
+    public static byte[] encode(StatType[] types, UUID[] uuids, long[] amounts, int count) {
+        if (count < 0 || count > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Ungültige Anzahl Einträge: " + count);
+        }
+
+        // version + count + count * (stat + 2 longs + amount), VarInts großzügig abgeschätzt
+        ByteBuffer buf = ByteBuffer.allocate(1 + 5 + count * (5 + 16 + 10));
+        buf.put(VERSION_1);
+        writeVarInt(buf, count);
+        for (int i = 0; i < count; i++) {
+            if (amounts[i] < 0) {
+                throw new IllegalArgumentException("Negative Anzahl: " + amounts[i]);
+            }
+            writeVarInt(buf, types[i].ordinal());
+            buf.putLong(uuids[i].getMostSignificantBits());
+            buf.putLong(uuids[i].getLeastSignificantBits());
+            writeVarLong(buf, amounts[i]);
+        }
+
+        byte[] out = new byte[buf.position()];
+        buf.flip();
+        buf.get(out);
+        return out;
+    }
+
+    // ============================================================
+    // VARINT
+    // ============================================================
+
+    static int readVarInt(ByteBuffer buf) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("VarInt zu lang");
+    }
+
+    private static void skipLongs(ByteBuffer buf, int n) {
+        int bytes = n * Long.BYTES;
+        if (buf.remaining() < bytes) {
+            throw new BufferUnderflowException();
+        }
+        buf.position(buf.position() + bytes);
+    }
+
+    static long readVarLong(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("VarLong zu lang");
+    }
+
+    static void writeVarInt(ByteBuffer buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    static void writeVarLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+}
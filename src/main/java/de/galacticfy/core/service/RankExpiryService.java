@@ -0,0 +1,281 @@
+package de.galacticfy.core.service;
+
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.permission.GalacticfyPermissionService;
+import net.kyori.adventure.text.Component;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Setzt zeitlich begrenzte Ränge genau zum Ablaufzeitpunkt zurück – auch für Offline-Spieler.
+ *
+ *  - Priority-Queue nach expires_at, befüllt aus gf_user_roles und über setRoleFor aktuell gehalten
+ *  - genau EIN Velocity-Task, der immer auf den nächsten Ablauf zeigt
+ *  - das Zurücksetzen selbst läuft auf dem DB-Executor (Query-Typ rank.expire); wird der Task
+ *    abgelehnt oder schlägt fehl, kommen die offenen Einträge zurück in die Queue und der
+ *    Timer versucht es mit Backoff erneut
+ *  - Permission-Checks melden abgelaufene Ränge bei jedem Zugriff erneut; bereits geplante
+ *    oder gerade laufende Abläufe werden dabei ohne Lock erkannt und nicht doppelt ausgelöst
+ */
+public class RankExpiryService {
+
+    private static final long RETRY_BASE_MS = 1_000L;
+    private static final long RETRY_MAX_MS = 60_000L;
+
+    private static final class Expiry {
+        final UUID uuid;
+        final long expiresAt;
+
+        Expiry(UUID uuid, long expiresAt) {
+            this.uuid = uuid;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final ProxyServer proxy;
+    private final Object pluginInstance;
+    private final DatabaseManager db;
+    private final GalacticfyPermissionService perms;
+    private final Logger logger;
+    private final Runnable onRankExpired;
+
+    // Queue kann veraltete Einträge enthalten; gültig ist nur, was auch in "scheduled" steht.
+    // Geschrieben wird nur unter dem Lock, gelesen auch ohne (Vorab-Check in schedule()).
+    private final PriorityQueue<Expiry> queue = new PriorityQueue<>(Comparator.comparingLong(e -> e.expiresAt));
+    private final Map<UUID, Long> scheduled = new ConcurrentHashMap<>();
+    // fällig und an den DB-Executor übergeben, aber noch nicht zurückgesetzt
+    private final Map<UUID, Long> inFlight = new ConcurrentHashMap<>();
+
+    private ScheduledTask timer;
+    private long timerAt = Long.MAX_VALUE;
+    // nach fehlgeschlagenem rank.expire: Timer frühestens dann wieder auslösen
+    private long retryNotBefore = 0L;
+    private int failedRuns = 0;
+    private boolean stopped;
+
+    public RankExpiryService(ProxyServer proxy,
+                             Object pluginInstance,
+                             DatabaseManager db,
+                             GalacticfyPermissionService perms,
+                             Logger logger,
+                             Runnable onRankExpired) {
+        this.proxy = proxy;
+        this.pluginInstance = pluginInstance;
+        this.db = db;
+        this.perms = perms;
+        this.logger = logger;
+        this.onRankExpired = onRankExpired;
+
+        perms.setRoleExpiryListener(this::schedule);
+    }
+
+    // ============================================================
+    // SEED / SCHEDULE
+    // ============================================================
+
+    /**
+     * Lädt alle Ablaufdaten aus gf_user_roles (kann auch periodisch erneut aufgerufen werden,
+     * z.B. wenn Ränge von außerhalb dieses Proxys vergeben werden).
+     */
+    public CompletableFuture<Void> loadAsync() {
+        return db.runAsync("rank.expiry.seed", () -> {
+            Map<UUID, Long> expiries = perms.loadRoleExpiries();
+            expiries.forEach(this::schedule);
+            logger.info("RankExpiryService: {} zeitlich begrenzte Ränge geplant.", expiries.size());
+        });
+    }
+
+    /**
+     * Plant (oder ersetzt) den Ablauf eines Rangs. {@code expiresAt == null} entfernt ihn.
+     * Bereits geplante oder laufende Abläufe kehren ohne Lock zurück (Permission-Hot-Path).
+     */
+    public void schedule(UUID uuid, Long expiresAt) {
+        if (uuid == null) return;
+        if (expiresAt != null && (expiresAt.equals(inFlight.get(uuid)) || expiresAt.equals(scheduled.get(uuid)))) {
+            return;
+        }
+
+        synchronized (this) {
+            scheduleLocked(uuid, expiresAt);
+        }
+    }
+
+    private void scheduleLocked(UUID uuid, Long expiresAt) {
+        if (stopped) return;
+
+        if (expiresAt == null) {
+            scheduled.remove(uuid);
+            return;
+        }
+        if (expiresAt.equals(inFlight.get(uuid))) {
+            return; // wird gerade zurückgesetzt
+        }
+
+        Long previous = scheduled.put(uuid, expiresAt);
+        if (previous != null && previous.longValue() == expiresAt) {
+            return;
+        }
+
+        queue.add(new Expiry(uuid, expiresAt));
+        armTimer();
+    }
+
+    public synchronized int getScheduledCount() {
+        return scheduled.size();
+    }
+
+    // ============================================================
+    // TIMER
+    // ============================================================
+
+    private void armTimer() {
+        Expiry head = peekValid();
+        if (head == null) {
+            cancelTimer();
+            return;
+        }
+        long fireAt = Math.max(head.expiresAt, retryNotBefore);
+        if (timer != null && timerAt <= fireAt) {
+            return; // läuft bereits früh genug
+        }
+
+        cancelTimer();
+        long delay = Math.max(0L, fireAt - System.currentTimeMillis());
+        timerAt = fireAt;
+        timer = proxy.getScheduler()
+                .buildTask(pluginInstance, this::fire)
+                .delay(delay, TimeUnit.MILLISECONDS)
+                .schedule();
+    }
+
+    private void cancelTimer() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        timerAt = Long.MAX_VALUE;
+    }
+
+    private Expiry peekValid() {
+        Expiry head;
+        while ((head = queue.peek()) != null) {
+            Long current = scheduled.get(head.uuid);
+            if (current != null && current == head.expiresAt) {
+                return head;
+            }
+            queue.poll(); // veraltet (verlängert / entfernt)
+        }
+        return null;
+    }
+
+    private void fire() {
+        List<Expiry> due = new ArrayList<>();
+
+        synchronized (this) {
+            timer = null;
+            timerAt = Long.MAX_VALUE;
+            if (stopped) return;
+
+            long now = System.currentTimeMillis();
+            Expiry head;
+            while ((head = peekValid()) != null && head.expiresAt <= now) {
+                queue.poll();
+                // erst in-flight, dann aus "scheduled": der Vorab-Check sieht immer einen der beiden
+                inFlight.put(head.uuid, head.expiresAt);
+                scheduled.remove(head.uuid);
+                due.add(head);
+            }
+            armTimer();
+        }
+
+        if (!due.isEmpty()) {
+            // nur im rank.expire-Task geschrieben, gelesen erst nach dessen Abschluss
+            List<Expiry> done = new ArrayList<>();
+            db.runAsync("rank.expire", () -> expire(due, done))
+                    .whenComplete((v, ex) -> {
+                        if (ex == null) {
+                            finished(due);
+                            return;
+                        }
+                        logger.error("Fehler beim Zurücksetzen abgelaufener Ränge", ex);
+                        retry(due, done);
+                    });
+        }
+    }
+
+    private synchronized void finished(List<Expiry> due) {
+        for (Expiry e : due) {
+            inFlight.remove(e.uuid, e.expiresAt);
+        }
+        failedRuns = 0;
+        retryNotBefore = 0L;
+    }
+
+    /**
+     * Task abgelehnt oder abgebrochen: alles, was noch nicht zurückgesetzt wurde, wieder
+     * einplanen – außer es wurde inzwischen neu geplant oder entfernt.
+     */
+    private synchronized void retry(List<Expiry> due, List<Expiry> done) {
+        int retried = 0;
+        for (Expiry e : due) {
+            if (!stopped && !done.contains(e) && !scheduled.containsKey(e.uuid)) {
+                // erst wieder in "scheduled", dann aus in-flight (Vorab-Check in schedule())
+                scheduled.put(e.uuid, e.expiresAt);
+                queue.add(e);
+                retried++;
+            }
+            inFlight.remove(e.uuid, e.expiresAt);
+        }
+        if (stopped || retried == 0) return;
+
+        long backoff = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(failedRuns, 6));
+        failedRuns++;
+        retryNotBefore = System.currentTimeMillis() + backoff;
+        logger.warn("{} Rang-Abläufe werden in {}ms erneut versucht.", retried, backoff);
+        armTimer();
+    }
+
+    private void expire(List<Expiry> due, List<Expiry> done) {
+        boolean changed = false;
+
+        for (Expiry e : due) {
+            if (!perms.expireUserRole(e.uuid, e.expiresAt)) {
+                // DB sagt etwas anderes (verlängert / entfernt): Cache + Planung neu aus der DB,
+                // sonst plant der abgelaufene Cache-Eintrag den Ablauf bei jedem Check erneut
+                perms.refreshUserRole(e.uuid);
+                done.add(e);
+                continue;
+            }
+            done.add(e);
+            changed = true;
+
+            proxy.getPlayer(e.uuid).ifPresent(p -> p.sendMessage(Component.text(
+                    "§8[§bGalacticfy§8] §7Dein Rang ist abgelaufen. Du bist jetzt wieder §f"
+                            + perms.getDefaultRoleName() + "§7."
+            )));
+        }
+
+        if (changed && onRankExpired != null) {
+            onRankExpired.run();
+        }
+    }
+
+    public synchronized void shutdown() {
+        stopped = true;
+        cancelTimer();
+        queue.clear();
+        scheduled.clear();
+        inFlight.clear();
+    }
+}
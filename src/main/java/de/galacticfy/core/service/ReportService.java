@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 public class ReportService {
 
@@ -332,6 +333,10 @@ public class ReportService {
         return 0;
     }
 
+    public CompletableFuture<Integer> countOpenReportsAsync() {
+        return db.supplyAsync("report.countOpen", this::countOpenReports);
+    }
+
     public boolean clearReportsFor(String targetName) {
         if (targetName == null || targetName.isBlank()) return false;
 
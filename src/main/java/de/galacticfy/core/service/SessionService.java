@@ -7,6 +7,7 @@ import java.sql.*;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class SessionService {
 
@@ -77,6 +78,13 @@ public class SessionService {
         }
     }
 
+    /**
+     * {@link #onLogin(UUID, String, String)} auf dem DB-Executor.
+     */
+    public CompletableFuture<Void> onLoginAsync(UUID uuid, String name, String serverName) {
+        return db.runAsync("session.login", () -> onLogin(uuid, name, serverName));
+    }
+
     /**
      * Wird beim Logout aufgerufen.
      *
@@ -0,0 +1,164 @@
+package de.galacticfy.core.service;
+
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import de.galacticfy.core.permission.GalacticfyPermissionService;
+import net.kyori.adventure.text.Component;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Verteilt Team-Alerts (Alt-Check, geblockte Logins, Reports) an die Online-Staffs.
+ *
+ *  - pro Permission eine gepflegte Empfänger-Menge (Join / Serverwechsel / Quit / Rang-Änderung),
+ *    ein Alert kostet damit O(Staffs) statt einen Permission-Check pro Online-Spieler
+ *  - die Component wird vom Aufrufer einmal gebaut und an alle Empfänger geschickt
+ *  - gleiche Alerts (gleicher Key) innerhalb des Fensters werden zusammengefasst:
+ *    der erste geht sofort raus, der Rest als eine Sammelmeldung am Ende des Fensters
+ */
+public class StaffAlertService {
+
+    private static final class Window {
+        int suppressed; // nur innerhalb von windows.compute(...) verändert
+    }
+
+    private final ProxyServer proxy;
+    private final Object pluginInstance;
+    private final GalacticfyPermissionService perms;
+    private final Logger logger;
+    private final Duration coalesceWindow;
+
+    private final Map<String, Set<Player>> recipients = new ConcurrentHashMap<>();
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public StaffAlertService(ProxyServer proxy,
+                             Object pluginInstance,
+                             GalacticfyPermissionService perms,
+                             Logger logger,
+                             Duration coalesceWindow) {
+        this.proxy = proxy;
+        this.pluginInstance = pluginInstance;
+        this.perms = perms;
+        this.logger = logger;
+        this.coalesceWindow = coalesceWindow;
+    }
+
+    // ============================================================
+    // EMPFÄNGER
+    // ============================================================
+
+    /**
+     * Empfänger-Menge für eine Permission (beim ersten Aufruf aus allen Online-Spielern aufgebaut).
+     */
+    private Set<Player> recipientsOf(String permission) {
+        Set<Player> set = recipients.get(permission);
+        if (set != null) return set;
+
+        return recipients.computeIfAbsent(permission, perm -> {
+            Set<Player> initial = ConcurrentHashMap.newKeySet();
+            for (Player p : proxy.getAllPlayers()) {
+                if (canSee(p, perm)) initial.add(p);
+            }
+            return initial;
+        });
+    }
+
+    /** Join / Serverwechsel: Spieler für alle bekannten Permissions neu einordnen. */
+    public void refresh(Player player) {
+        if (!player.isActive()) {
+            remove(player);
+            return;
+        }
+        for (Map.Entry<String, Set<Player>> e : recipients.entrySet()) {
+            if (canSee(player, e.getKey())) {
+                e.getValue().add(player);
+            } else {
+                e.getValue().remove(player);
+            }
+        }
+    }
+
+    /** Rang-Änderung / Rollen-Reload oder periodischer Abgleich. */
+    public void refreshAll() {
+        for (Player p : proxy.getAllPlayers()) {
+            refresh(p);
+        }
+        // Spieler, die ohne DisconnectEvent verschwunden sind
+        for (Set<Player> set : recipients.values()) {
+            set.removeIf(p -> !p.isActive());
+        }
+    }
+
+    public void remove(Player player) {
+        for (Set<Player> set : recipients.values()) {
+            set.remove(player);
+        }
+    }
+
+    private boolean canSee(Player p, String permission) {
+        if (perms != null) return perms.hasPluginPermission(p, permission);
+        return p.hasPermission(permission);
+    }
+
+    // ============================================================
+    // SENDEN
+    // ============================================================
+
+    /**
+     * Sofort an alle Staffs mit {@code permission} schicken (ohne Konsole, ohne Zusammenfassen).
+     */
+    public void broadcast(String permission, Component message) {
+        for (Player p : recipientsOf(permission)) {
+            p.sendMessage(message);
+        }
+    }
+
+    /**
+     * Alert an Staffs + Konsole. Weitere Alerts mit demselben {@code key} innerhalb des
+     * Fensters werden nur gezählt und danach als {@code summary.apply(anzahl)} verschickt.
+     */
+    public void alert(String permission, String key, Component message, IntFunction<Component> summary) {
+        boolean[] opened = {false};
+        windows.compute(key, (k, w) -> {
+            if (w == null) {
+                opened[0] = true;
+                return new Window();
+            }
+            w.suppressed++;
+            return w;
+        });
+        if (!opened[0]) return;
+
+        send(permission, message);
+
+        proxy.getScheduler()
+                .buildTask(pluginInstance, () -> closeWindow(permission, key, summary))
+                .delay(coalesceWindow)
+                .schedule();
+    }
+
+    private void closeWindow(String permission, String key, IntFunction<Component> summary) {
+        Window w = windows.remove(key);
+        if (w == null || w.suppressed <= 0) return;
+
+        try {
+            send(permission, summary.apply(w.suppressed));
+        } catch (Exception ex) {
+            logger.warn("Sammel-Alert '{}' konnte nicht gesendet werden", key, ex);
+        }
+    }
+
+    private void send(String permission, Component message) {
+        broadcast(permission, message);
+        proxy.getConsoleCommandSource().sendMessage(message);
+    }
+
+    public Duration getCoalesceWindow() {
+        return coalesceWindow;
+    }
+}
@@ -0,0 +1,101 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.PunishmentService.PunishmentType;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Eskalationstabelle für Verwarnungen aus der config.yml ({@code punishments.warnEscalation}).
+ *
+ * <pre>
+ * warnEscalation:
+ *   3: "MUTE 1d"
+ *   5: "BAN 7d"
+ *   8: "BAN perm"
+ * </pre>
+ *
+ * Eine Stufe greift genau dann, wenn ein Spieler durch eine neue Verwarnung auf
+ * {@code warns} aktive Verwarnungen kommt.
+ */
+public final class WarnEscalation {
+
+    public static final WarnEscalation NONE = new WarnEscalation(List.of());
+
+    public record Step(int warns, PunishmentType type, Long durationMs) {}
+
+    private final List<Step> steps;
+
+    private WarnEscalation(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    public static WarnEscalation fromConfig(Object raw, Logger logger) {
+        if (!(raw instanceof Map<?, ?> map) || map.isEmpty()) {
+            return NONE;
+        }
+
+        List<Step> steps = new ArrayList<>();
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            String key = String.valueOf(e.getKey()).trim();
+            String value = String.valueOf(e.getValue()).trim();
+            try {
+                Step step = parseStep(Integer.parseInt(key), value);
+                if (step == null) {
+                    logger.warn("Ungültige Warn-Eskalation '{}: {}' wird ignoriert.", key, value);
+                    continue;
+                }
+                steps.add(step);
+            } catch (NumberFormatException ex) {
+                logger.warn("Ungültige Warn-Anzahl '{}' in punishments.warnEscalation wird ignoriert.", key);
+            }
+        }
+
+        steps.sort(Comparator.comparingInt(Step::warns));
+        return new WarnEscalation(List.copyOf(steps));
+    }
+
+    private static Step parseStep(int warns, String value) {
+        if (warns <= 0) return null;
+
+        String[] parts = value.split("\\s+");
+        PunishmentType type;
+        try {
+            type = PunishmentType.valueOf(parts[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        if (type != PunishmentType.MUTE && type != PunishmentType.BAN) {
+            return null;
+        }
+
+        Long durationMs = null; // permanent
+        if (parts.length > 1 && !parts[1].equalsIgnoreCase("perm") && !parts[1].equalsIgnoreCase("permanent")) {
+            durationMs = PunishmentService.parseDurationMillis(parts[1]);
+            if (durationMs == null) return null;
+        }
+        return new Step(warns, type, durationMs);
+    }
+
+    /**
+     * Stufe für genau diese Anzahl aktiver Verwarnungen oder {@code null}.
+     */
+    public Step stepFor(int activeWarns) {
+        for (Step s : steps) {
+            if (s.warns() == activeWarns) return s;
+        }
+        return null;
+    }
+
+    public List<Step> steps() {
+        return steps;
+    }
+
+    public boolean isEmpty() {
+        return steps.isEmpty();
+    }
+}
@@ -0,0 +1,211 @@
+package de.galacticfy.core.sync;
+
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import de.galacticfy.core.database.DatabaseManager;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Invalidierungen über die Tabelle gf_change_log.
+ *
+ *  - publish: INSERT auf dem DB-Executor
+ *  - Empfang: alle {@code pollInterval} die neuen Zeilen lesen (id > zuletzt gesehen)
+ *  - alte Zeilen werden nach {@code retention} gelöscht
+ *
+ * Bei MariaDB können Auto-Increment-IDs in anderer Reihenfolge committet werden, als sie
+ * vergeben wurden. Deshalb wird ein kleines Fenster unterhalb der letzten ID erneut gelesen
+ * und bereits verarbeitete IDs übersprungen.
+ */
+public class DatabaseChangeLogTransport implements InvalidationTransport {
+
+    private static final int POLL_LIMIT = 500;
+    private static final int LOOKBACK_IDS = 64;
+    private static final int SEEN_CAPACITY = 1024;
+    private static final long CLEANUP_EVERY_MS = 60_000L;
+
+    private final ProxyServer proxy;
+    private final Object pluginInstance;
+    private final DatabaseManager db;
+    private final Logger logger;
+    private final Duration pollInterval;
+    private final Duration retention;
+
+    private final AtomicBoolean polling = new AtomicBoolean(false);
+
+    // nur im Poll-Task verwendet (läuft nie parallel, siehe "polling")
+    private final ArrayDeque<Long> seenOrder = new ArrayDeque<>();
+    private final Set<Long> seen = new HashSet<>();
+    private long lastId = -1L;
+    private long lastCleanup = 0L;
+
+    private volatile Consumer<InvalidationEvent> receiver;
+    private ScheduledTask task;
+
+    public DatabaseChangeLogTransport(ProxyServer proxy,
+                                      Object pluginInstance,
+                                      DatabaseManager db,
+                                      Logger logger,
+                                      Duration pollInterval,
+                                      Duration retention) {
+        this.proxy = proxy;
+        this.pluginInstance = pluginInstance;
+        this.db = db;
+        this.logger = logger;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    @Override
+    public synchronized void start(Consumer<InvalidationEvent> receiver) {
+        if (task != null) return;
+        this.receiver = receiver;
+
+        task = proxy.getScheduler()
+                .buildTask(pluginInstance, this::schedulePoll)
+                .repeat(pollInterval)
+                .schedule();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        db.runAsync("sync.publish", () -> insert(event))
+                .exceptionally(ex -> {
+                    logger.error("Konnte Invalidierung {} nicht veröffentlichen", event, ex);
+                    return null;
+                });
+    }
+
+    // ============================================================
+    // INTERN
+    // ============================================================
+
+    private void insert(InvalidationEvent event) {
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "INSERT INTO gf_change_log (type, target, origin, created_at) VALUES (?, ?, ?, ?)"
+             )) {
+            ps.setString(1, event.type.name());
+            ps.setString(2, event.target);
+            ps.setString(3, event.origin);
+            ps.setLong(4, System.currentTimeMillis());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Fehler beim Schreiben in gf_change_log ({})", event, e);
+        }
+    }
+
+    private void schedulePoll() {
+        if (!polling.compareAndSet(false, true)) return; // letzter Poll läuft noch
+
+        db.runAsync("sync.poll", this::poll)
+                .whenComplete((v, ex) -> {
+                    polling.set(false);
+                    if (ex != null) {
+                        logger.warn("gf_change_log konnte nicht gelesen werden: {}", ex.toString());
+                    }
+                });
+    }
+
+    private void poll() {
+        try (Connection con = db.getConnection()) {
+            if (lastId < 0) {
+                seedFromLatest(con);
+                return;
+            }
+
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, type, target, origin FROM gf_change_log WHERE id > ? ORDER BY id LIMIT ?"
+            )) {
+                ps.setLong(1, Math.max(0L, lastId - LOOKBACK_IDS));
+                ps.setInt(2, POLL_LIMIT);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong("id");
+                        if (!markSeen(id)) continue;
+                        lastId = Math.max(lastId, id);
+
+                        InvalidationEvent.Type type;
+                        try {
+                            type = InvalidationEvent.Type.valueOf(rs.getString("type"));
+                        } catch (IllegalArgumentException ex) {
+                            continue; // unbekannter Typ (neuere Version auf einem anderen Proxy)
+                        }
+
+                        Consumer<InvalidationEvent> r = receiver;
+                        if (r != null) {
+                            r.accept(new InvalidationEvent(type, rs.getString("target"), rs.getString("origin")));
+                        }
+                    }
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastCleanup >= CLEANUP_EVERY_MS) {
+                lastCleanup = now;
+                try (PreparedStatement ps = con.prepareStatement(
+                        "DELETE FROM gf_change_log WHERE created_at < ?"
+                )) {
+                    ps.setLong(1, now - retention.toMillis());
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Fehler beim Pollen von gf_change_log", e);
+        }
+    }
+
+    /**
+     * Start: nur Änderungen ab jetzt interessieren. Die bereits vorhandenen IDs im
+     * Lookback-Fenster gelten als gesehen, sonst würde der nächste Poll sie erneut ausliefern.
+     * Lücken im Fenster (noch nicht committete IDs) bleiben offen und kommen regulär an.
+     */
+    private void seedFromLatest(Connection con) throws SQLException {
+        long max;
+        try (PreparedStatement ps = con.prepareStatement("SELECT MAX(id) FROM gf_change_log");
+             ResultSet rs = ps.executeQuery()) {
+            max = rs.next() ? rs.getLong(1) : 0L;
+        }
+
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT id FROM gf_change_log WHERE id > ? AND id <= ?"
+        )) {
+            ps.setLong(1, Math.max(0L, max - LOOKBACK_IDS));
+            ps.setLong(2, max);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    markSeen(rs.getLong(1));
+                }
+            }
+        }
+        lastId = max;
+    }
+
+    private boolean markSeen(long id) {
+        if (!seen.add(id)) return false;
+        seenOrder.addLast(id);
+        if (seenOrder.size() > SEEN_CAPACITY) {
+            seen.remove(seenOrder.removeFirst());
+        }
+        return true;
+    }
+}
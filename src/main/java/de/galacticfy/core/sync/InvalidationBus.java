@@ -0,0 +1,70 @@
+package de.galacticfy.core.sync;
+
+import de.galacticfy.core.sync.InvalidationEvent.Type;
+import org.slf4j.Logger;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Proxy-übergreifende Cache-Invalidierung.
+ *
+ *  - Services melden Änderungen per {@link #publish(Type, String)}
+ *  - Caches registrieren sich per {@link #subscribe(Type, Consumer)}
+ *  - Events des eigenen Proxys werden nicht erneut zugestellt (lokal ist schon write-through aktualisiert)
+ */
+public class InvalidationBus {
+
+    private final String proxyId;
+    private final InvalidationTransport transport;
+    private final Logger logger;
+
+    private final Map<Type, List<Consumer<InvalidationEvent>>> subscribers = new EnumMap<>(Type.class);
+
+    public InvalidationBus(String proxyId, InvalidationTransport transport, Logger logger) {
+        this.proxyId = proxyId;
+        this.transport = transport;
+        this.logger = logger;
+
+        for (Type type : Type.values()) {
+            subscribers.put(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    public String getProxyId() {
+        return proxyId;
+    }
+
+    public void start() {
+        transport.start(this::dispatch);
+        logger.info("InvalidationBus gestartet (Proxy-ID {}).", proxyId);
+    }
+
+    public void stop() {
+        transport.stop();
+    }
+
+    public void subscribe(Type type, Consumer<InvalidationEvent> handler) {
+        subscribers.get(type).add(handler);
+    }
+
+    public void publish(Type type, String target) {
+        transport.publish(new InvalidationEvent(type, target, proxyId));
+    }
+
+    private void dispatch(InvalidationEvent event) {
+        if (proxyId.equals(event.origin)) return;
+
+        logger.debug("Invalidierung empfangen: {}", event);
+        for (Consumer<InvalidationEvent> handler : subscribers.get(event.type)) {
+            try {
+                handler.accept(event);
+            } catch (Exception ex) {
+                logger.error("Fehler beim Verarbeiten der Invalidierung {}", event, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.galacticfy.core.sync;
+
+import java.util.Objects;
+
+/**
+ * Eine Cache-Invalidierung, die an alle Proxys verteilt wird.
+ *
+ * {@code target} ist je nach Typ eine UUID, eine IP oder {@code null} (alles neu laden).
+ */
+public final class InvalidationEvent {
+
+    public enum Type {
+        /** Ban/Mute/IP-Ban geändert – target: UUID, IP oder null */
+        PUNISHMENT_CHANGED,
+        /** Rolle eines Spielers geändert – target: UUID */
+        USER_ROLE_CHANGED,
+        /** Rollen, Rollen-Permissions oder Vererbung geändert – target: null */
+        ROLE_DEFINITION_CHANGED,
+        /** Wartungsmodus oder Whitelist geändert – target: null */
+        MAINTENANCE_CHANGED
+    }
+
+    public final Type type;
+    public final String target;
+    public final String origin;
+
+    public InvalidationEvent(Type type, String target, String origin) {
+        this.type = Objects.requireNonNull(type, "type");
+        this.target = target;
+        this.origin = origin;
+    }
+
+    @Override
+    public String toString() {
+        return type + (target != null ? "(" + target + ")" : "") + " von " + origin;
+    }
+}
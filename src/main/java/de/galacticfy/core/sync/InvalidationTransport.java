@@ -0,0 +1,24 @@
+package de.galacticfy.core.sync;
+
+import java.util.function.Consumer;
+
+/**
+ * Transportweg für Invalidierungen zwischen Proxys.
+ *
+ * Erste Implementierung: {@link DatabaseChangeLogTransport} (gf_change_log, gepollt).
+ * Ein Pub/Sub-Transport (z.B. Redis) muss nur diese drei Methoden umsetzen.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Startet den Empfang; jedes eingehende Event (auch eigene) wird an {@code receiver} gereicht.
+     */
+    void start(Consumer<InvalidationEvent> receiver);
+
+    /**
+     * Verteilt ein Event an alle Proxys. Darf nicht blockieren.
+     */
+    void publish(InvalidationEvent event);
+
+    void stop();
+}
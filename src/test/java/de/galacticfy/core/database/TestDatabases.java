@@ -0,0 +1,162 @@
+package de.galacticfy.core.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import de.galacticfy.core.config.ConfigManager;
+import de.galacticfy.core.service.KnownNameIndex;
+import de.galacticfy.core.service.PunishmentService;
+import de.galacticfy.core.service.WarnEscalation;
+import de.galacticfy.core.sync.InvalidationBus;
+import de.galacticfy.core.sync.InvalidationEvent;
+import de.galacticfy.core.sync.InvalidationTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Datenbanken für Tests: SQLite-Datei (echte Migrationen) und H2 im MariaDB-Modus
+ * als Stand-in für MariaDB (gleiche SQL-Zweige wie {@code !db.isSQLite()}).
+ */
+public final class TestDatabases {
+
+    public enum Backend {
+        SQLITE,
+        MARIADB_STAND_IN
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("GalacticfyTest");
+    private static final AtomicInteger H2_COUNTER = new AtomicInteger();
+
+    private TestDatabases() {
+    }
+
+    public static Logger logger() {
+        return LOGGER;
+    }
+
+    public static DatabaseManager open(Backend backend, Path dir, int poolSize) {
+        return backend == Backend.SQLITE ? sqlite(dir, poolSize) : mariaDbStandIn(dir, poolSize);
+    }
+
+    /**
+     * SQLite-Datei in {@code dir}, Schema über {@link DatabaseMigrationService}.
+     */
+    public static DatabaseManager sqlite(Path dir, int poolSize) {
+        ConfigManager cfg = config(dir, """
+                database:
+                  mode: SQLITE
+                  sqlite:
+                    file: test.db
+                    poolSize: %d
+                  executor:
+                    virtualThreads: false
+                """.formatted(poolSize));
+
+        DatabaseManager db = new DatabaseManager(LOGGER, dir);
+        db.init(cfg);
+        new DatabaseMigrationService(db, LOGGER).runMigrations();
+        return db;
+    }
+
+    /**
+     * H2 im MariaDB-Modus. Enthält nur die Economy-Tabellen (das MariaDB-DDL der
+     * Migrationen nutzt Syntax, die H2 nicht versteht).
+     */
+    public static DatabaseManager mariaDbStandIn(Path dir, int poolSize) {
+        ConfigManager cfg = config(dir, """
+                database:
+                  pool:
+                    maxSize: %d
+                  executor:
+                    virtualThreads: false
+                """.formatted(poolSize));
+
+        HikariConfig hc = new HikariConfig();
+        hc.setPoolName("GalacticfyTestH2");
+        hc.setJdbcUrl("jdbc:h2:mem:gf" + H2_COUNTER.incrementAndGet() +
+                ";MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        hc.setMaximumPoolSize(poolSize);
+
+        DatabaseManager db = new DatabaseManager(LOGGER, dir);
+        db.init(cfg, new HikariDataSource(hc), DatabaseManager.Mode.EXTERNAL, DatabaseManager.Vendor.MARIADB);
+
+        try (Connection con = db.getConnection();
+             Statement st = con.createStatement()) {
+            st.executeUpdate("""
+                    CREATE TABLE gf_economy (
+                        uuid CHAR(36) NOT NULL PRIMARY KEY,
+                        name VARCHAR(16) NOT NULL,
+                        balance BIGINT NOT NULL DEFAULT 0,
+                        stardust BIGINT NOT NULL DEFAULT 0,
+                        updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """);
+            st.executeUpdate("""
+                    CREATE TABLE gf_economy_ledger (
+                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        uuid CHAR(36) NOT NULL,
+                        currency VARCHAR(16) NOT NULL,
+                        op VARCHAR(8) NOT NULL,
+                        amount BIGINT NOT NULL,
+                        reason VARCHAR(32) NOT NULL,
+                        counterparty CHAR(36) NULL,
+                        note VARCHAR(64) NULL,
+                        created_at BIGINT NOT NULL
+                    )
+                    """);
+        } catch (SQLException e) {
+            db.shutdown();
+            throw new IllegalStateException("H2-Schema konnte nicht angelegt werden", e);
+        }
+        return db;
+    }
+
+    /**
+     * Bus ohne Transport: Events gehen nirgendwohin, es kommt nichts an.
+     */
+    public static InvalidationBus noopBus(String proxyId) {
+        InvalidationTransport transport = new InvalidationTransport() {
+            @Override
+            public void start(Consumer<InvalidationEvent> receiver) {
+            }
+
+            @Override
+            public void publish(InvalidationEvent event) {
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+        return new InvalidationBus(proxyId, transport, LOGGER);
+    }
+
+    /**
+     * PunishmentService als "Proxy" {@code proxyId} auf {@code db}, mit {@link #noopBus}.
+     */
+    public static PunishmentService punishmentService(DatabaseManager db, String proxyId, WarnEscalation escalation) {
+        return new PunishmentService(db, LOGGER, noopBus(proxyId), new KnownNameIndex(db, LOGGER), escalation);
+    }
+
+    private static ConfigManager config(Path dir, String yaml) {
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("config.yml"), yaml, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ConfigManager cfg = new ConfigManager(LOGGER, dir);
+        cfg.loadOrCreate();
+        return cfg;
+    }
+}
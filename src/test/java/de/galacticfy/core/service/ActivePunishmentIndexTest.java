@@ -0,0 +1,133 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.PunishmentService.Punishment;
+import de.galacticfy.core.service.PunishmentService.PunishmentType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ActivePunishmentIndexTest {
+
+    private static Punishment ban(int id, UUID uuid, String name) {
+        return new Punishment(id, uuid, name, "10.0.0." + id, PunishmentType.BAN,
+                "test", "Staff", Instant.now(), null, true);
+    }
+
+    private static Punishment findBan(ActivePunishmentIndex index, UUID uuid) {
+        return index.find(PunishmentType.BAN, uuid, null, null, System.currentTimeMillis(), p -> { });
+    }
+
+    @Test
+    void banAddedDuringResyncSurvivesOlderSnapshot() {
+        ActivePunishmentIndex index = new ActivePunishmentIndex();
+        UUID uuid = UUID.randomUUID();
+
+        index.beginResync();
+        index.add(ban(1, uuid, "Alpha"));   // INSERT nach dem SELECT
+        index.replaceAll(List.of());         // Snapshot kennt den Ban noch nicht
+
+        assertNotNull(findBan(index, uuid));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void unbanDuringResyncIsNotRevivedBySnapshot() {
+        ActivePunishmentIndex index = new ActivePunishmentIndex();
+        UUID uuid = UUID.randomUUID();
+        Punishment ban = ban(1, uuid, "Alpha");
+        index.add(ban);
+
+        index.beginResync();
+        index.removeByUuid(PunishmentType.BAN, uuid); // UPDATE nach dem SELECT
+        index.replaceAll(List.of(ban));               // Snapshot hat den Ban noch aktiv
+
+        assertNull(findBan(index, uuid));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void unbanOfRowUnknownToIndexIsNotRevivedBySnapshot() {
+        ActivePunishmentIndex index = new ActivePunishmentIndex();
+        UUID uuid = UUID.randomUUID();
+
+        index.beginResync();
+        index.removeByName(PunishmentType.BAN, "ALPHA"); // Ban eines anderen Proxys, hier noch nicht geladen
+        index.replaceAll(List.of(ban(7, uuid, "Alpha")));
+
+        assertNull(findBan(index, uuid));
+    }
+
+    @Test
+    void changesAfterReplaceAreNotTrackedAnymore() {
+        ActivePunishmentIndex index = new ActivePunishmentIndex();
+        UUID uuid = UUID.randomUUID();
+
+        index.beginResync();
+        index.removeByUuid(PunishmentType.BAN, uuid);
+        index.replaceAll(List.of());
+
+        // nächster Reload ohne lokale Änderung: DB-Stand gilt
+        index.beginResync();
+        index.replaceAll(List.of(ban(2, uuid, "Alpha")));
+        assertNotNull(findBan(index, uuid));
+
+        // ohne Reload fällt ein weggefallener Eintrag beim nächsten Abgleich raus
+        index.beginResync();
+        index.replaceAll(List.of());
+        assertNull(findBan(index, uuid));
+    }
+
+    @Test
+    void abortedResyncKeepsIndexAndStopsTracking() {
+        ActivePunishmentIndex index = new ActivePunishmentIndex();
+        UUID uuid = UUID.randomUUID();
+        index.add(ban(1, uuid, "Alpha"));
+
+        index.beginResync();
+        index.removeByUuid(PunishmentType.BAN, uuid);
+        index.abortResync();
+
+        index.beginResync();
+        index.replaceAll(List.of(ban(1, uuid, "Alpha")));
+        assertNotNull(findBan(index, uuid));
+    }
+
+    @Test
+    void replaceTargetOnlyTouchesThatPlayer() {
+        ActivePunishmentIndex index = new ActivePunishmentIndex();
+        UUID alpha = UUID.randomUUID();
+        UUID beta = UUID.randomUUID();
+        index.add(ban(1, alpha, "Alpha"));
+        index.add(ban(2, beta, "Beta"));
+
+        // anderer Proxy: Alpha entbannt und neu gebannt, Beta unverändert
+        index.beginResync();
+        List<Punishment> changed = index.replaceTarget(alpha, null, null, List.of(ban(3, alpha, "Alpha")));
+
+        assertEquals(2, changed.size());
+        assertEquals(3, findBan(index, alpha).id);
+        assertEquals(2, findBan(index, beta).id);
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void replaceTargetKeepsLocalUnbanAfterSelect() {
+        ActivePunishmentIndex index = new ActivePunishmentIndex();
+        UUID uuid = UUID.randomUUID();
+        Punishment ban = ban(1, uuid, "Alpha");
+        index.add(ban);
+
+        index.beginResync();
+        index.removeByUuid(PunishmentType.BAN, uuid); // lokaler Unban nach dem SELECT
+        index.replaceTarget(null, "alpha", null, List.of(ban));
+
+        assertNull(findBan(index, uuid));
+        assertEquals(0, index.size());
+    }
+}
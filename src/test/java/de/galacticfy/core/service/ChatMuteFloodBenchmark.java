@@ -0,0 +1,129 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.database.TestDatabases;
+import de.galacticfy.core.service.PunishmentService.Punishment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Chat-Flood: viele Threads prüfen gleichzeitig Chat-Nachrichten von {@code players}
+ * Online-Spielern (5% gemutet). Verglichen werden der Chat-Check über den Mute-Cache
+ * ({@link PunishmentService#getChatMute}), der Lookup im Aktiv-Index
+ * ({@link PunishmentService#getActiveMute}) und die DB-Abfrage, die der Chat früher
+ * pro Nachricht gemacht hat.
+ *
+ * Start: {@code main()} aus der IDE bzw. mit dem Test-Classpath (mvn test-compile).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ChatMuteFloodBenchmark {
+
+    @Param({"200", "2000"})
+    public int players;
+
+    private Path dir;
+    private DatabaseManager db;
+    private PunishmentService punishments;
+    private UUID[] uuids;
+
+    /** Pro Thread eigener Cursor über die Spieler (jede Nachricht von einem anderen Spieler). */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        UUID nextOf(UUID[] uuids) {
+            int i = next;
+            next = i + 1 == uuids.length ? 0 : i + 1;
+            return uuids[i];
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("gf-chat-bench");
+        db = TestDatabases.sqlite(dir, 4);
+
+        punishments = TestDatabases.punishmentService(db, "bench", WarnEscalation.NONE);
+
+        uuids = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            uuids[i] = new UUID(0xC4A7L, i);
+            if (i % 20 == 0) {
+                punishments.mutePlayer(uuids[i], "Spammer" + i, "10.0.0.1", "Spam", "Bench",
+                        Duration.ofDays(1).toMillis());
+            }
+            punishments.trackMuteState(uuids[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        db.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Punishment chatMuteCache(Cursor cursor) {
+        return punishments.getChatMute(cursor.nextOf(uuids));
+    }
+
+    @Benchmark
+    public Punishment activeIndexLookup(Cursor cursor) {
+        return punishments.getActiveMute(cursor.nextOf(uuids));
+    }
+
+    /** Dieselbe Abfrage wie der frühere JDBC-Fallback im Chat. */
+    @Benchmark
+    public int databaseQuery(Cursor cursor) throws SQLException {
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT * FROM gf_punishments WHERE uuid = ? AND type = 'MUTE' AND active = 1 " +
+                             "ORDER BY id DESC LIMIT 1")) {
+            ps.setString(1, cursor.nextOf(uuids).toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt("id") : 0;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChatMuteFloodBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,130 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.EconomyLedger.Currency;
+import de.galacticfy.core.service.EconomyService.Account;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EconomyLeaderboardTest {
+
+    private static Account only(EconomyLeaderboard board, UUID uuid) {
+        for (Account acc : board.page(Currency.GALAS, 0, board.size())) {
+            if (acc.uuid().equals(uuid)) return acc;
+        }
+        throw new AssertionError("nicht in der Rangliste: " + uuid);
+    }
+
+    @Test
+    void firstResyncAppliesDeltasOnTopOfDatabase() {
+        EconomyLeaderboard board = new EconomyLeaderboard();
+        UUID uuid = UUID.randomUUID();
+
+        board.beginResync();
+        board.touch(uuid, "Alpha");             // Login während des DB-Reads
+        board.add(uuid, Currency.GALAS, 50L);   // nicht gecachte Einzahlung
+        board.add(uuid, Currency.STARDUST, -2L);
+        assertFalse(board.isReady());
+        board.replaceAll(List.of(new Account(uuid, "alpha", 1000L, 7L)));
+
+        assertTrue(board.isReady());
+        assertEquals(new Account(uuid, "Alpha", 1050L, 5L), only(board, uuid));
+    }
+
+    @Test
+    void absoluteValuesWinDuringFirstResync() {
+        EconomyLeaderboard board = new EconomyLeaderboard();
+        UUID uuid = UUID.randomUUID();
+
+        board.beginResync();
+        board.set(uuid, Currency.GALAS, 5L);
+        board.add(uuid, Currency.GALAS, 3L);    // auf den gesetzten Stand
+        board.add(uuid, Currency.STARDUST, 4L); // Stardust bleibt Differenz
+        board.replaceAll(List.of(new Account(uuid, "Beta", 1000L, 10L)));
+
+        assertEquals(new Account(uuid, "Beta", 8L, 14L), only(board, uuid));
+    }
+
+    @Test
+    void liveRowsWinOnceTheBoardIsReady() {
+        EconomyLeaderboard board = new EconomyLeaderboard();
+        UUID uuid = UUID.randomUUID();
+        board.beginResync();
+        board.replaceAll(List.of(new Account(uuid, "Gamma", 1000L, 0L)));
+
+        board.beginResync();
+        board.add(uuid, Currency.GALAS, 10L);
+        // DB-Read lief vor der Änderung
+        board.replaceAll(List.of(new Account(uuid, "Gamma", 1000L, 0L)));
+
+        assertEquals(1010L, only(board, uuid).balance());
+    }
+
+    @Test
+    void accountsCreatedAfterTheReadAreKept() {
+        EconomyLeaderboard board = new EconomyLeaderboard();
+        UUID old = UUID.randomUUID();
+        UUID fresh = UUID.randomUUID();
+
+        board.beginResync();
+        board.touch(fresh, "Delta");
+        board.add(fresh, Currency.GALAS, 3L);
+        board.replaceAll(List.of(new Account(old, "Old", 1L, 0L)));
+
+        assertEquals(2, board.size());
+        assertEquals(new Account(fresh, "Delta", 3L, 0L), only(board, fresh));
+    }
+
+    @Test
+    void abortedResyncKeepsIncrementalState() {
+        EconomyLeaderboard board = new EconomyLeaderboard();
+        UUID uuid = UUID.randomUUID();
+        board.beginResync();
+        board.replaceAll(List.of(new Account(uuid, "Eps", 10L, 0L)));
+
+        board.beginResync();
+        board.add(uuid, Currency.GALAS, 5L);
+        board.abortResync();
+        board.add(uuid, Currency.GALAS, 5L);
+
+        assertEquals(20L, only(board, uuid).balance());
+    }
+
+    @Test
+    void pagesAndRanksMatchASortedList() {
+        EconomyLeaderboard board = new EconomyLeaderboard();
+        Random random = new Random(7);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            accounts.add(new Account(new UUID(random.nextLong(), random.nextLong()), "p" + i,
+                    random.nextInt(50), random.nextInt(1000)));
+        }
+        board.beginResync();
+        board.replaceAll(accounts);
+
+        // Änderungen nach dem Aufbau
+        for (int i = 0; i < 200; i++) {
+            int idx = random.nextInt(accounts.size());
+            Account a = accounts.get(idx);
+            long galas = random.nextInt(50);
+            board.set(a.uuid(), Currency.GALAS, galas);
+            accounts.set(idx, new Account(a.uuid(), a.name(), galas, a.stardust()));
+        }
+
+        List<Account> expected = new ArrayList<>(accounts);
+        expected.sort(Comparator.comparingLong(Account::balance).reversed().thenComparing(Account::uuid));
+
+        assertEquals(expected.subList(100, 150), board.page(Currency.GALAS, 100, 50));
+        for (int i = 0; i < expected.size(); i += 37) {
+            assertEquals(i + 1, board.rank(expected.get(i).uuid(), Currency.GALAS).getAsInt());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.database.TestDatabases;
+import de.galacticfy.core.database.TestDatabases.Backend;
+import de.galacticfy.core.service.EconomyLedger.Currency;
+import de.galacticfy.core.service.EconomyLedger.Reason;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Eine unschreibbare Zeile darf den Ledger nicht dauerhaft blockieren, und die Queue bleibt begrenzt.
+ */
+class EconomyLedgerTest {
+
+    private static final long POISON = 666L;
+
+    @TempDir
+    Path dir;
+
+    private DatabaseManager db;
+
+    @AfterEach
+    void closeDatabase() {
+        if (db != null) db.shutdown();
+    }
+
+    /** Zeilen mit amount = 666 scheitern an der DB (Trigger bzw. CHECK). */
+    private void rejectPoison(Backend backend) throws SQLException {
+        try (Connection con = db.getConnection();
+             Statement st = con.createStatement()) {
+            if (backend == Backend.SQLITE) {
+                st.executeUpdate("""
+                        CREATE TRIGGER gf_ledger_poison BEFORE INSERT ON gf_economy_ledger
+                        WHEN NEW.amount = 666
+                        BEGIN SELECT RAISE(ABORT, 'poison'); END
+                        """);
+            } else {
+                st.executeUpdate("ALTER TABLE gf_economy_ledger ADD CONSTRAINT gf_ledger_poison CHECK (amount <> 666)");
+            }
+        }
+    }
+
+    private long rowCount() throws SQLException {
+        try (Connection con = db.getConnection();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM gf_economy_ledger")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void poisonRowIsDeadLetteredAndDoesNotBlockLaterEntries(Backend backend) throws Exception {
+        db = TestDatabases.open(backend, dir, 2);
+        rejectPoison(backend);
+        EconomyLedger ledger = new EconomyLedger(db, TestDatabases.logger());
+        UUID uuid = UUID.randomUUID();
+
+        for (int i = 1; i <= 10; i++) {
+            ledger.add(uuid, Currency.GALAS, i == 5 ? POISON : i, Reason.DEPOSIT, null, null);
+        }
+
+        // die ersten Versuche behalten den Batch, danach wird er aufgeteilt
+        assertEquals(0, ledger.flush());
+        assertEquals(0, ledger.flush());
+        assertEquals(9, ledger.flush());
+        assertEquals(1L, ledger.getDroppedCount());
+        assertEquals(9L, rowCount());
+
+        ledger.add(uuid, Currency.GALAS, 42L, Reason.DEPOSIT, null, null);
+        assertEquals(1, ledger.flush());
+        assertEquals(10L, rowCount());
+        assertEquals(0, ledger.getQueuedCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void fullQueueDropsNewEntries(Backend backend) throws Exception {
+        db = TestDatabases.open(backend, dir, 2);
+        int max = 500;
+        EconomyLedger ledger = new EconomyLedger(db, TestDatabases.logger(), max);
+        UUID uuid = UUID.randomUUID();
+
+        for (int i = 0; i < max + 25; i++) {
+            ledger.add(uuid, Currency.STARDUST, 1L, Reason.ADMIN, null, null);
+        }
+
+        assertEquals(max, ledger.getQueuedCount());
+        assertEquals(25L, ledger.getDroppedCount());
+        assertEquals(max, ledger.flush());
+        assertEquals(max, rowCount());
+
+        ledger.add(uuid, Currency.STARDUST, 1L, Reason.ADMIN, null, null);
+        assertEquals(1, ledger.getQueuedCount());
+    }
+}
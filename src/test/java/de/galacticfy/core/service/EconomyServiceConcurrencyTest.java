@@ -0,0 +1,261 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.database.TestDatabases;
+import de.galacticfy.core.database.TestDatabases.Backend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * deposit / withdraw / set laufen als je ein atomares Statement – auch unter vielen
+ * parallelen Threads darf kein Update verloren gehen und kein Konto negativ werden.
+ * Überwiegend DB-Pfad; zusätzlich WRITE_BEHIND mit Disconnect/Reconnect während der Änderungen.
+ */
+class EconomyServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 100;
+
+    @TempDir
+    Path dir;
+
+    private DatabaseManager db;
+
+    @AfterEach
+    void closeDatabase() {
+        if (db != null) db.shutdown();
+    }
+
+    private EconomyService open(Backend backend) {
+        return open(backend, EconomyService.Durability.WRITE_THROUGH);
+    }
+
+    private EconomyService open(Backend backend, EconomyService.Durability durability) {
+        db = TestDatabases.open(backend, dir, 8);
+        return new EconomyService(db, TestDatabases.logger(), durability, new EconomyLedger(db, TestDatabases.logger()));
+    }
+
+    /** Startet alle Tasks gleichzeitig und wartet auf ihr Ende. */
+    private static <T> List<T> race(int threads, Callable<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> f : futures) {
+                results.add(f.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void concurrentDepositsAreNotLost(Backend backend) throws Exception {
+        EconomyService economy = open(backend);
+        UUID uuid = UUID.randomUUID();
+        economy.ensureAccount(uuid, "Depositor");
+
+        List<Integer> ok = race(THREADS, () -> {
+            int n = 0;
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                if (economy.deposit(uuid, 3)) n++;
+            }
+            return n;
+        });
+
+        assertEquals(THREADS * OPS_PER_THREAD, ok.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(3L * THREADS * OPS_PER_THREAD, economy.getBalance(uuid));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void concurrentFirstDepositsCreateOneRow(Backend backend) throws Exception {
+        EconomyService economy = open(backend);
+        UUID uuid = UUID.randomUUID(); // Zeile existiert noch nicht → Upsert
+
+        race(THREADS, () -> economy.addStardust(uuid, 1));
+
+        assertEquals(THREADS, economy.getStardust(uuid));
+        assertEquals(0L, economy.getBalance(uuid));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void concurrentWithdrawsNeverOverdraw(Backend backend) throws Exception {
+        EconomyService economy = open(backend);
+        UUID uuid = UUID.randomUUID();
+        long start = 500;
+        economy.ensureAccount(uuid, "Spender");
+        economy.setBalance(uuid, start);
+
+        // 1600 Versuche à 1 auf 500 Guthaben
+        List<Integer> ok = race(THREADS, () -> {
+            int n = 0;
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                if (economy.withdraw(uuid, 1)) n++;
+            }
+            return n;
+        });
+
+        assertEquals(start, ok.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0L, economy.getBalance(uuid));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void mixedDepositsAndWithdrawsBalanceOut(Backend backend) throws Exception {
+        EconomyService economy = open(backend);
+        UUID uuid = UUID.randomUUID();
+        long start = 50;
+        economy.ensureAccount(uuid, "Mixed");
+        economy.setStardust(uuid, start);
+
+        AtomicInteger deposited = new AtomicInteger();
+        AtomicInteger withdrawn = new AtomicInteger();
+        AtomicInteger turn = new AtomicInteger();
+        race(THREADS, () -> {
+            boolean depositor = turn.getAndIncrement() % 2 == 0;
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                if (depositor) {
+                    if (economy.addStardust(uuid, 2)) deposited.addAndGet(2);
+                } else {
+                    if (economy.removeStardust(uuid, 3)) withdrawn.addAndGet(3);
+                }
+            }
+            return null;
+        });
+
+        long balance = economy.getStardust(uuid);
+        assertTrue(balance >= 0, "Stardust negativ: " + balance);
+        assertEquals(start + deposited.get() - withdrawn.get(), balance);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void concurrentSetsLeaveOneOfTheWrittenValues(Backend backend) throws Exception {
+        EconomyService economy = open(backend);
+        UUID uuid = UUID.randomUUID();
+        economy.ensureAccount(uuid, "Setter");
+
+        AtomicInteger next = new AtomicInteger();
+        Set<Long> written = new HashSet<>(race(THREADS, () -> {
+            long value = 1000L + next.getAndIncrement();
+            assertTrue(economy.setBalance(uuid, value));
+            return value;
+        }));
+
+        assertTrue(written.contains(economy.getBalance(uuid)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void ledgerReplaysSetsMixedWithDepositsInDatabaseOrder(Backend backend) throws Exception {
+        EconomyService economy = open(backend);
+        UUID uuid = UUID.randomUUID();
+        economy.ensureAccount(uuid, "Replay");
+
+        // SET und ADD auf demselben Account: nur in DB-Reihenfolge ergibt das Replay den Stand
+        AtomicInteger turn = new AtomicInteger();
+        race(THREADS, () -> {
+            boolean setter = turn.getAndIncrement() % 4 == 0;
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                if (setter) {
+                    economy.setBalance(uuid, 100L + i);
+                } else {
+                    economy.deposit(uuid, 1);
+                }
+            }
+            return null;
+        });
+
+        assertTrue(economy.getLedger().verify(uuid).isEmpty(), "Ledger-Replay weicht von gf_economy ab");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void depositsAreCappedAtLongMax(Backend backend) throws Exception {
+        EconomyService economy = open(backend);
+        UUID uuid = UUID.randomUUID();
+        economy.ensureAccount(uuid, "Rich");
+        economy.setBalance(uuid, Long.MAX_VALUE - 10);
+
+        race(4, () -> economy.deposit(uuid, 5));
+
+        assertEquals(Long.MAX_VALUE, economy.getBalance(uuid));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void writeBehindChangesSurviveEvictAndReload(Backend backend) throws Exception {
+        EconomyService economy = open(backend, EconomyService.Durability.WRITE_BEHIND);
+        UUID uuid = UUID.randomUUID();
+        long start = 2000;
+        economy.ensureAccount(uuid, "Hopper");
+        economy.setBalance(uuid, start);
+        economy.loadAccountAsync(uuid, "Hopper").join();
+
+        // ein Thread loggt ständig aus und wieder ein, die anderen buchen
+        AtomicInteger turn = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger(THREADS - 1);
+        AtomicLong deposited = new AtomicLong();
+        AtomicLong withdrawn = new AtomicLong();
+        race(THREADS, () -> {
+            int me = turn.getAndIncrement();
+            if (me == 0) {
+                while (running.get() > 0) {
+                    economy.evict(uuid);
+                    economy.loadAccountAsync(uuid, "Hopper").join();
+                }
+                return null;
+            }
+            for (int i = 0; i < 20 * OPS_PER_THREAD; i++) {
+                if (me % 2 == 0) {
+                    if (economy.deposit(uuid, 2)) deposited.addAndGet(2);
+                } else {
+                    if (economy.withdraw(uuid, 3)) withdrawn.addAndGet(3);
+                }
+            }
+            running.decrementAndGet();
+            return null;
+        });
+
+        economy.evict(uuid);
+        economy.flushPending();
+
+        long expected = start + deposited.get() - withdrawn.get();
+        assertTrue(expected >= 0, "überzogen: " + expected);
+        assertEquals(expected, economy.getBalance(uuid));
+        assertEquals(0, economy.getCachedAccountCount());
+    }
+}
@@ -0,0 +1,258 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.database.TestDatabases;
+import de.galacticfy.core.database.TestDatabases.Backend;
+import de.galacticfy.core.service.EconomyLedger.Reason;
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Viele gegenläufige Transfers zwischen wenigen Accounts: es darf kein Geld entstehen oder
+ * verschwinden, kein Konto negativ werden und kein Transfer an einem Deadlock hängen bleiben.
+ * Zwei {@link EconomyService}-Instanzen auf derselben DB spielen zwei Proxies (getrennte
+ * Account-Locks, die DB muss die Reihenfolge allein halten).
+ */
+class EconomyTransferStressTest {
+
+    private static final int ACCOUNTS = 6;
+    private static final long START = 1_000;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 250;
+
+    @TempDir
+    Path dir;
+
+    private DatabaseManager db;
+
+    @AfterEach
+    void closeDatabase() {
+        if (db != null) db.shutdown();
+    }
+
+    private EconomyService service() {
+        return new EconomyService(db, TestDatabases.logger(), EconomyService.Durability.WRITE_THROUGH,
+                new EconomyLedger(db, TestDatabases.logger()));
+    }
+
+    private static List<UUID> accounts(EconomyService economy, int count) throws SQLException {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID uuid = UUID.randomUUID();
+            economy.ensureAccount(uuid, "Stress" + i);
+            assertTrue(economy.setBalance(uuid, START, Reason.OPENING, null));
+            uuids.add(uuid);
+        }
+        economy.getLedger().flush(); // Startstände vor allen Transfers im Ledger
+        return uuids;
+    }
+
+    /**
+     * Jeder Thread bucht zufällig zwischen den Accounts hin und her (also ständig gegenläufig).
+     *
+     * @return Anzahl erfolgreicher Transfers
+     */
+    private static int hammer(List<EconomyService> proxies, List<UUID> uuids) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                EconomyService economy = proxies.get(t % proxies.size());
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        int a = random.nextInt(uuids.size());
+                        int b = (a + 1 + random.nextInt(uuids.size() - 1)) % uuids.size();
+                        if (economy.transfer(uuids.get(a), uuids.get(b), 1 + random.nextInt(50))) {
+                            succeeded.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return succeeded.get();
+    }
+
+    private static void assertConserved(EconomyService economy, List<UUID> uuids) {
+        long sum = 0;
+        for (UUID uuid : uuids) {
+            long balance = economy.getBalance(uuid);
+            assertTrue(balance >= 0, "negativer Kontostand: " + balance);
+            sum += balance;
+        }
+        assertEquals(ACCOUNTS * START, sum);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void opposingTransfersAcrossTwoProxiesConserveMoney(Backend backend) throws Exception {
+        db = TestDatabases.open(backend, dir, 8);
+        EconomyService first = service();
+        EconomyService second = service();
+        List<UUID> uuids = accounts(first, ACCOUNTS);
+
+        int ok = hammer(List.of(first, second), uuids);
+
+        assertTrue(ok > 0);
+        assertConserved(first, uuids);
+
+        // jeder erfolgreiche Transfer genau einmal im Ledger, kein fehlgeschlagener
+        second.getLedger().flush();
+        assertTrue(first.getLedger().verify(null).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Backend.class)
+    void opposingTransfersBetweenCachedAndUncachedAccountsConserveMoney(Backend backend) throws Exception {
+        db = TestDatabases.open(backend, dir, 8);
+        EconomyService economy = service();
+        List<UUID> uuids = accounts(economy, ACCOUNTS);
+        for (int i = 0; i < uuids.size(); i += 2) {
+            economy.loadAccountAsync(uuids.get(i), "Stress" + i).join(); // halb online
+        }
+
+        int ok = hammer(List.of(economy), uuids);
+
+        assertTrue(ok > 0);
+        assertConserved(economy, uuids);
+        for (int i = 0; i < uuids.size(); i += 2) {
+            economy.evict(uuids.get(i));
+        }
+        assertConserved(economy, uuids); // jetzt aus der DB
+        assertTrue(economy.getLedger().verify(null).isEmpty());
+    }
+
+    // ============================================================
+    // RETRY
+    // ============================================================
+
+    /** H2-Trigger: die nächsten {@link #failuresLeft} Updates auf gf_economy scheitern mit einem Deadlock. */
+    public static final class DeadlockTrigger implements Trigger {
+        static final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public void fire(Connection con, Object[] oldRow, Object[] newRow) throws SQLException {
+            if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new SQLException("Deadlock (simuliert)", "40001", 40001);
+            }
+        }
+    }
+
+    private EconomyService withDeadlocks() throws SQLException {
+        db = TestDatabases.mariaDbStandIn(dir, 4);
+        try (Connection con = db.getConnection();
+             Statement st = con.createStatement()) {
+            st.executeUpdate("CREATE TRIGGER gf_economy_deadlock BEFORE UPDATE ON gf_economy FOR EACH ROW CALL \"" +
+                    DeadlockTrigger.class.getName() + "\"");
+        }
+        return service();
+    }
+
+    @Test
+    void transferIsRetriedAfterDeadlock() throws Exception {
+        EconomyService economy = withDeadlocks();
+        List<UUID> uuids = accounts(economy, 2);
+
+        DeadlockTrigger.failuresLeft.set(2);
+        assertTrue(economy.transfer(uuids.get(0), uuids.get(1), 100));
+
+        assertEquals(0, DeadlockTrigger.failuresLeft.get());
+        assertEquals(START - 100, economy.getBalance(uuids.get(0)));
+        assertEquals(START + 100, economy.getBalance(uuids.get(1)));
+    }
+
+    @Test
+    void transferGivesUpAfterMaxAttemptsWithoutMovingMoney() throws Exception {
+        EconomyService economy = withDeadlocks();
+        List<UUID> uuids = accounts(economy, 2);
+
+        DeadlockTrigger.failuresLeft.set(1_000);
+        assertFalse(economy.transfer(uuids.get(0), uuids.get(1), 100));
+        DeadlockTrigger.failuresLeft.set(0);
+
+        assertEquals(START, economy.getBalance(uuids.get(0)));
+        assertEquals(START, economy.getBalance(uuids.get(1)));
+        assertTrue(economy.getLedger().verify(null).isEmpty());
+    }
+
+    @Test
+    void transferWaitsOutSqliteBusy() throws Exception {
+        db = TestDatabases.sqlite(dir, 2);
+        EconomyService economy = service();
+        List<UUID> uuids = accounts(economy, 2);
+
+        // fremder Schreiber hält die DB länger als busy_timeout (3 s) → erster Versuch SQLITE_BUSY
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("test.db").toAbsolutePath());
+             Statement st = other.createStatement()) {
+            st.execute("BEGIN IMMEDIATE");
+            Thread release = new Thread(() -> {
+                try {
+                    Thread.sleep(3_500);
+                    st.execute("COMMIT");
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            release.start();
+
+            assertTrue(economy.transfer(uuids.get(0), uuids.get(1), 100));
+            release.join();
+        }
+
+        assertEquals(START - 100, economy.getBalance(uuids.get(0)));
+        assertEquals(START + 100, economy.getBalance(uuids.get(1)));
+    }
+
+    @Test
+    void retryableErrorsAreRecognized() {
+        db = TestDatabases.mariaDbStandIn(dir, 1);
+        assertTrue(db.isRetryable(new SQLException("deadlock", "40001", 1213)));
+        assertTrue(db.isRetryable(new SQLException("lock wait", "HY000", 1205)));
+        assertTrue(db.isRetryable(new SQLException("pg deadlock", "40P01", 0)));
+        assertTrue(db.isRetryable(new SQLException("wrapped", "HY000", 0,
+                new SQLException("deadlock", "HY000", 1213))));
+        assertFalse(db.isRetryable(new SQLException("duplicate", "23000", 1062)));
+        db.shutdown();
+
+        db = TestDatabases.sqlite(dir, 1);
+        assertTrue(db.isRetryable(new SQLException("busy", null, 5)));
+        assertTrue(db.isRetryable(new SQLException("busy snapshot", null, 517)));
+        assertTrue(db.isRetryable(new SQLException("locked", null, 6)));
+        assertFalse(db.isRetryable(new SQLException("constraint", null, 19)));
+    }
+}
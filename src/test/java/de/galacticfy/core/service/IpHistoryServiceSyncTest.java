@@ -0,0 +1,83 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.database.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Zwei Proxys auf einer DB: Logins des einen kommen beim anderen über gf_ip_history_log an,
+ * jede neue Zeile genau einmal.
+ */
+class IpHistoryServiceSyncTest {
+
+    @TempDir
+    Path dir;
+
+    private DatabaseManager db;
+
+    @AfterEach
+    void closeDatabase() {
+        if (db != null) db.shutdown();
+    }
+
+    private IpHistoryService loaded() {
+        IpHistoryService service = new IpHistoryService(db, TestDatabases.logger(), 180);
+        service.loadAsync().join();
+        return service;
+    }
+
+    @Test
+    void loginsFromOtherProxyArriveIncrementally() {
+        db = TestDatabases.sqlite(dir, 2);
+        UUID alpha = UUID.randomUUID();
+        UUID beta = UUID.randomUUID();
+
+        IpHistoryService proxyA = loaded();
+        proxyA.recordLogin(alpha, "Alpha", "10.0.0.1");
+        assertEquals(1, proxyA.flush());
+
+        // Start-Load sieht den bereits geschriebenen Login; der erste Abgleich liefert
+        // ihn nicht erneut aus dem Lookback-Fenster
+        IpHistoryService proxyB = loaded();
+        assertEquals(1, proxyB.getAccountCount());
+        assertEquals(0, proxyB.syncFromDatabase());
+        assertEquals(1, proxyB.getAccountCount());
+        assertEquals(1, proxyB.getIpCount());
+
+        proxyA.recordLogin(beta, "Beta", "10.0.0.1");
+        proxyA.recordLogin(alpha, "Alpha", "10.0.0.2"); // bekannter Account, neue IP
+        assertEquals(2, proxyA.flush());
+
+        assertEquals(2, proxyB.syncFromDatabase());
+        assertEquals(0, proxyB.syncFromDatabase());
+
+        List<IpHistoryService.Alt> alts = proxyB.findAccountsByIp("10.0.0.1", alpha, 10);
+        assertEquals(1, alts.size());
+        assertEquals(beta, alts.get(0).uuid);
+        assertEquals(alpha, proxyB.findAccountsByIp("10.0.0.2", null, 10).get(0).uuid);
+    }
+
+    @Test
+    void syncBeforeInitialLoadDoesNothing() {
+        db = TestDatabases.sqlite(dir, 2);
+        IpHistoryService writer = loaded();
+        writer.recordLogin(UUID.randomUUID(), "Alpha", "10.0.0.1");
+        writer.flush();
+
+        IpHistoryService fresh = new IpHistoryService(db, TestDatabases.logger(), 180);
+        assertEquals(0, fresh.syncFromDatabase());
+        assertEquals(0, fresh.getAccountCount());
+
+        fresh.loadAsync().join();
+        assertTrue(fresh.getAccountCount() > 0);
+    }
+}
@@ -0,0 +1,95 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.database.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Gleichzeitige Warns auf zwei "Proxys" (zwei Services, eine DB) dürfen jede
+ * Eskalationsstufe genau einmal auslösen.
+ */
+class PunishmentWarnEscalationTest {
+
+    private static final int WARNS = 8;
+
+    @TempDir
+    Path dir;
+
+    private DatabaseManager db;
+
+    @AfterEach
+    void closeDatabase() {
+        if (db != null) db.shutdown();
+    }
+
+    private PunishmentService service(String proxyId, WarnEscalation escalation) {
+        return TestDatabases.punishmentService(db, proxyId, escalation);
+    }
+
+    private int count(UUID uuid, String type) throws SQLException {
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "SELECT COUNT(*) FROM gf_punishments WHERE uuid = ? AND type = ?")) {
+            ps.setString(1, uuid.toString());
+            ps.setString(2, type);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    @Test
+    void concurrentWarnsOnTwoProxiesEscalateOncePerStep() throws Exception {
+        db = TestDatabases.sqlite(dir, 4);
+        WarnEscalation escalation = WarnEscalation.fromConfig(
+                Map.of(3, "MUTE 1d", 5, "BAN 7d"), TestDatabases.logger());
+        PunishmentService[] proxies = {
+                service("proxy-a", escalation),
+                service("proxy-b", escalation)
+        };
+        UUID uuid = UUID.randomUUID();
+
+        ExecutorService pool = Executors.newFixedThreadPool(WARNS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PunishmentService.WarnResult>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < WARNS; i++) {
+                PunishmentService service = proxies[i % proxies.length];
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return service.warnWithEscalation(uuid, "Alpha", "10.0.0.1", "Spam", "Staff");
+                }));
+            }
+            start.countDown();
+            for (Future<PunishmentService.WarnResult> result : results) {
+                assertNotNull(result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(WARNS, count(uuid, "WARN"));
+        assertEquals(1, count(uuid, "MUTE"));
+        assertEquals(1, count(uuid, "BAN"));
+    }
+}
@@ -0,0 +1,175 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.database.DatabaseManager;
+import de.galacticfy.core.database.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 100k verschiedene Spieler joinen, erzeugen Progress und gehen wieder: der Cache muss bei
+ * der konfigurierten Obergrenze bleiben, auch wenn Disconnects fehlen – und jeder Progress
+ * muss über Write-Behind bzw. Flush-beim-Evict in gf_quest_progress ankommen.
+ */
+class QuestProgressCacheSoakTest {
+
+    private static final int JOINS = 100_000;
+    private static final int MAX_PLAYERS = 1_000;
+    // entspricht dem Write-Behind-Intervall bzw. dem 30s-Evict-Task
+    private static final int FLUSH_EVERY = 100;
+    private static final int EVICT_EVERY = 1_000;
+    // jeder 10. Spieler "verliert" seinen Disconnect und bleibt bis zur LRU-Eviction drin
+    private static final int LOST_QUIT_EVERY = 10;
+
+    private static final String LIFETIME_STONE = "lifetime_mine_100k_stone";
+
+    @TempDir
+    Path dir;
+
+    private DatabaseManager db;
+
+    @AfterEach
+    void closeDatabase() {
+        if (db != null) db.shutdown();
+    }
+
+    private QuestService service() {
+        EconomyService economy = new EconomyService(db, TestDatabases.logger(),
+                EconomyService.Durability.WRITE_THROUGH, new EconomyLedger(db, TestDatabases.logger()));
+        QuestService quests = new QuestService(TestDatabases.logger(), economy, db);
+        quests.configureCache(Duration.ZERO, MAX_PLAYERS);
+        return quests;
+    }
+
+    private long queryLong(String sql, Object... params) throws SQLException {
+        try (Connection con = db.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    @Test
+    void hundredThousandJoinsStayWithinCacheBound() throws SQLException {
+        db = TestDatabases.sqlite(dir, 4);
+        QuestService quests = service();
+        int maxSeen = 0;
+
+        for (int i = 1; i <= JOINS; i++) {
+            UUID uuid = new UUID(0x5EED_0000_0000_0000L, i);
+            String name = "Soak" + i;
+
+            quests.onPlayerJoin(uuid);
+            quests.handleStoneBroken(uuid, name, 1, (u, msg) -> { });
+            if (i % LOST_QUIT_EVERY != 0) {
+                quests.onPlayerQuit(uuid);
+            }
+
+            if (i % FLUSH_EVERY == 0) {
+                quests.flushDirtyProgress();
+            }
+            if (i % EVICT_EVERY == 0) {
+                quests.evictIdlePlayers();
+            }
+            maxSeen = Math.max(maxSeen, quests.getCachedPlayerCount());
+        }
+        quests.evictIdlePlayers();
+        quests.flushDirtyProgress();
+
+        assertTrue(maxSeen <= MAX_PLAYERS + 1,
+                "Cache wuchs auf " + maxSeen + " Spieler");
+        assertTrue(quests.getCachedPlayerCount() <= MAX_PLAYERS,
+                "nach dem Evict noch " + quests.getCachedPlayerCount() + " Spieler im Cache");
+        assertTrue(quests.getSizeEvictions() > 0, "LRU-Obergrenze hat nie gegriffen");
+        assertEquals(JOINS, quests.getCacheMisses());
+
+        assertEquals(0, quests.getDirtyQueueDepth());
+        assertEquals(JOINS, queryLong(
+                "SELECT COUNT(*) FROM gf_quest_progress WHERE quest_key = ? AND progress = 1", LIFETIME_STONE));
+    }
+
+    @Test
+    void evictionFlushesProgressWithoutIntervalTask() throws SQLException {
+        db = TestDatabases.sqlite(dir, 2);
+        QuestService quests = service();
+        UUID uuid = UUID.randomUUID();
+
+        quests.onPlayerJoin(uuid);
+        quests.handleStoneBroken(uuid, "Alpha", 7, (u, msg) -> { });
+        quests.onPlayerQuit(uuid);
+        quests.evictIdlePlayers();
+
+        assertEquals(0, quests.getCachedPlayerCount());
+        assertEquals(0, quests.getDirtyQueueDepth());
+        assertEquals(7, queryLong(
+                "SELECT progress FROM gf_quest_progress WHERE uuid = ? AND quest_key = ?",
+                uuid.toString(), LIFETIME_STONE));
+    }
+
+    @Test
+    void incrementsRacingEvictionAreNotLost() throws Exception {
+        int threads = 4;
+        int perThread = 2_000;
+
+        db = TestDatabases.sqlite(dir, 4);
+        QuestService quests = service();
+        UUID uuid = UUID.randomUUID();
+        quests.onPlayerJoin(uuid);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            // Spieler gilt dauernd als offline und wird evicted, während Stats reinkommen
+            Future<?> evictor = pool.submit(() -> {
+                while (!done.get()) {
+                    quests.onPlayerQuit(uuid);
+                    quests.evictIdlePlayers();
+                }
+            });
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        quests.handleStoneBroken(uuid, "Racer", 1, (u, msg) -> { });
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            done.set(true);
+            evictor.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        quests.flushDirtyProgress();
+
+        assertTrue(quests.getIdleEvictions() > 0, "Spieler wurde nie evicted");
+        assertEquals(0, quests.getDirtyQueueDepth());
+        assertEquals((long) threads * perThread, queryLong(
+                "SELECT progress FROM gf_quest_progress WHERE uuid = ? AND quest_key = ?",
+                uuid.toString(), LIFETIME_STONE));
+    }
+}
@@ -0,0 +1,102 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.QuestService.StatType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode-Durchsatz galacticfy:queststats: Binär-Frame gegen dieselben Einträge als
+ * Legacy-Textzeilen (split + UUID.fromString + parseLong + Typ-Lookup wie im Listener).
+ * Beide Varianten verarbeiten pro Aufruf {@code entries} Einträge; Ergebnis in Aufrufen
+ * pro Mikrosekunde.
+ *
+ * Start: {@code main()} aus der IDE bzw. mit dem Test-Classpath (mvn test-compile).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestStatCodecBenchmark {
+
+    // Einträge pro Frame: ein Stat, ein Tick eines Backends, ein voller Frame
+    @Param({"1", "64", "4096"})
+    public int entries;
+
+    private ByteBuffer frame;
+    private byte[][] legacyLines;
+
+    // Sink einmal anlegen, damit der Benchmark nur decode() misst
+    private long checksum;
+    private final QuestStatCodec.StatSink sink =
+            (type, most, least, amount) -> checksum += type.ordinal() + (most ^ least) + amount;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        StatType[] stats = StatType.values();
+        StatType[] types = new StatType[entries];
+        UUID[] uuids = new UUID[entries];
+        long[] amounts = new long[entries];
+        legacyLines = new byte[entries][];
+        for (int i = 0; i < entries; i++) {
+            // nur Typen, die das Text-Protokoll kennt
+            StatType type;
+            do {
+                type = stats[random.nextInt(stats.length)];
+            } while (QuestStatCodec.legacyType(type.name()) == null);
+            types[i] = type;
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+            amounts[i] = 1 + random.nextInt(64);
+            legacyLines[i] = (type.name() + "|" + uuids[i] + "|Player" + i + "|" + amounts[i])
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        frame = ByteBuffer.wrap(QuestStatCodec.encode(types, uuids, amounts, entries));
+    }
+
+    @Benchmark
+    public long binaryFrame() {
+        frame.rewind();
+        checksum = 0L;
+        QuestStatCodec.decode(frame, sink);
+        return checksum;
+    }
+
+    @Benchmark
+    public void legacyText(Blackhole bh) {
+        for (byte[] line : legacyLines) {
+            String[] parts = new String(line, StandardCharsets.UTF_8).split("\\|");
+            bh.consume(QuestStatCodec.legacyType(parts[0]));
+            UUID uuid = UUID.fromString(parts[1]);
+            bh.consume(uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits());
+            bh.consume(parts[2]);
+            bh.consume(Long.parseLong(parts[3]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QuestStatCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
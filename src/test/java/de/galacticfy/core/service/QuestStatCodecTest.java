@@ -0,0 +1,181 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.QuestService.StatType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestStatCodecTest {
+
+    private record Decoded(StatType type, UUID uuid, long amount) {}
+
+    private static List<Decoded> decodeAll(byte[] frame) {
+        List<Decoded> out = new ArrayList<>();
+        QuestStatCodec.decode(ByteBuffer.wrap(frame),
+                (type, most, least, amount) -> out.add(new Decoded(type, new UUID(most, least), amount)));
+        return out;
+    }
+
+    @Test
+    void roundTripKeepsEveryEntry() {
+        Random random = new Random(42);
+        StatType[] stats = StatType.values();
+        long[] edgeAmounts = {0L, 1L, 127L, 128L, 16_383L, 16_384L, Integer.MAX_VALUE, Long.MAX_VALUE};
+
+        int count = 1000;
+        StatType[] types = new StatType[count];
+        UUID[] uuids = new UUID[count];
+        long[] amounts = new long[count];
+        for (int i = 0; i < count; i++) {
+            types[i] = stats[random.nextInt(stats.length)];
+            uuids[i] = new UUID(random.nextLong(), random.nextLong());
+            amounts[i] = i < edgeAmounts.length ? edgeAmounts[i] : random.nextLong() & Long.MAX_VALUE;
+        }
+
+        byte[] frame = QuestStatCodec.encode(types, uuids, amounts, count);
+        assertTrue(QuestStatCodec.isBinary(frame));
+
+        List<Decoded> decoded = decodeAll(frame);
+        assertEquals(count, decoded.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(new Decoded(types[i], uuids[i], amounts[i]), decoded.get(i));
+        }
+    }
+
+    @Test
+    void emptyFrameRoundTrips() {
+        byte[] frame = QuestStatCodec.encode(new StatType[0], new UUID[0], new long[0], 0);
+        assertArrayEquals(new byte[]{QuestStatCodec.VERSION_1, 0}, frame);
+        assertTrue(decodeAll(frame).isEmpty());
+    }
+
+    @Test
+    void varIntAndVarLongRoundTripAtBoundaries() {
+        int[] ints = {0, 1, 127, 128, 255, 16_383, 16_384, 2_097_151, 2_097_152, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        for (int value : ints) {
+            ByteBuffer buf = ByteBuffer.allocate(5);
+            QuestStatCodec.writeVarInt(buf, value);
+            buf.flip();
+            assertEquals(value, QuestStatCodec.readVarInt(buf));
+            assertFalse(buf.hasRemaining());
+        }
+
+        long[] longs = {0L, 1L, 127L, 128L, 1L << 35, (1L << 56) - 1, Long.MAX_VALUE, -1L, Long.MIN_VALUE};
+        for (long value : longs) {
+            ByteBuffer buf = ByteBuffer.allocate(10);
+            QuestStatCodec.writeVarLong(buf, value);
+            buf.flip();
+            assertEquals(value, QuestStatCodec.readVarLong(buf));
+            assertFalse(buf.hasRemaining());
+        }
+    }
+
+    @Test
+    void truncatedFrameAppliesNothing() {
+        StatType[] types = {StatType.values()[0], StatType.values()[0], StatType.values()[0]};
+        UUID[] uuids = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+        long[] amounts = {5L, 6L, 7L};
+        byte[] frame = QuestStatCodec.encode(types, uuids, amounts, 3);
+
+        for (int length = 1; length < frame.length; length++) {
+            byte[] truncated = Arrays.copyOf(frame, length);
+            List<Decoded> applied = new ArrayList<>();
+            assertThrows(BufferUnderflowException.class, () -> QuestStatCodec.decode(ByteBuffer.wrap(truncated),
+                    (type, most, least, amount) -> applied.add(new Decoded(type, new UUID(most, least), amount))));
+            assertTrue(applied.isEmpty(), "Einträge aus abgeschnittenem Frame angewendet (Länge " + length + ")");
+        }
+    }
+
+    @Test
+    void trailingBytesRejectTheWholeFrame() {
+        byte[] frame = QuestStatCodec.encode(
+                new StatType[]{StatType.values()[0]}, new UUID[]{UUID.randomUUID()}, new long[]{3L}, 1);
+        byte[] padded = Arrays.copyOf(frame, frame.length + 1);
+
+        List<Decoded> applied = new ArrayList<>();
+        assertThrows(IllegalArgumentException.class, () -> QuestStatCodec.decode(ByteBuffer.wrap(padded),
+                (type, most, least, amount) -> applied.add(new Decoded(type, new UUID(most, least), amount))));
+        assertTrue(applied.isEmpty());
+    }
+
+    @Test
+    void unknownStatIdsAreSkipped() {
+        UUID uuid = UUID.randomUUID();
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        buf.put(QuestStatCodec.VERSION_1);
+        QuestStatCodec.writeVarInt(buf, 2);
+        // neuere Stat-ID, die dieser Proxy nicht kennt
+        QuestStatCodec.writeVarInt(buf, StatType.values().length + 3);
+        buf.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        QuestStatCodec.writeVarLong(buf, 9L);
+        QuestStatCodec.writeVarInt(buf, 0);
+        buf.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        QuestStatCodec.writeVarLong(buf, 4L);
+        byte[] frame = Arrays.copyOf(buf.array(), buf.position());
+
+        List<Decoded> decoded = decodeAll(frame);
+        assertEquals(List.of(new Decoded(StatType.values()[0], uuid, 4L)), decoded);
+    }
+
+    @Test
+    void invalidHeadersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> decodeAll(new byte[]{0x02, 0}));
+
+        ByteBuffer tooMany = ByteBuffer.allocate(8);
+        tooMany.put(QuestStatCodec.VERSION_1);
+        QuestStatCodec.writeVarInt(tooMany, QuestStatCodec.MAX_ENTRIES + 1);
+        assertThrows(IllegalArgumentException.class, () -> decodeAll(Arrays.copyOf(tooMany.array(), tooMany.position())));
+
+        assertThrows(IllegalArgumentException.class, () -> decodeAll(
+                new byte[]{QuestStatCodec.VERSION_1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80}));
+    }
+
+    @Test
+    void decodeDoesNotAllocate() {
+        int count = QuestStatCodec.MAX_ENTRIES;
+        StatType[] types = new StatType[count];
+        UUID[] uuids = new UUID[count];
+        long[] amounts = new long[count];
+        for (int i = 0; i < count; i++) {
+            types[i] = StatType.values()[i % StatType.values().length];
+            uuids[i] = UUID.randomUUID();
+            amounts[i] = i;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(QuestStatCodec.encode(types, uuids, amounts, count));
+        long[] sum = new long[1];
+        QuestStatCodec.StatSink sink = (type, most, least, amount) -> sum[0] += amount;
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        for (int round = 0; round < 100; round++) {
+            buf.rewind();
+            QuestStatCodec.decode(buf, sink);
+        }
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+
+        // 100 Frames à 4096 Einträge: mit Zwischen-Arrays wären das > 10 MB
+        assertTrue(allocated < 64 * 1024, "decode() hat " + allocated + " Bytes alloziert");
+        assertEquals(100L * (count - 1) * count / 2, sum[0]);
+    }
+
+    @Test
+    void legacyTextIsNotBinary() {
+        assertFalse(QuestStatCodec.isBinary("KILL|uuid|name|1".getBytes()));
+        assertFalse(QuestStatCodec.isBinary(new byte[0]));
+    }
+}
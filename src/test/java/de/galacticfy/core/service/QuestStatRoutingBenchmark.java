@@ -0,0 +1,133 @@
+package de.galacticfy.core.service;
+
+import de.galacticfy.core.service.QuestService.QuestDefinition;
+import de.galacticfy.core.service.QuestService.QuestType;
+import de.galacticfy.core.service.QuestService.StatType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quest-Routing pro Stat-Message: alter Weg (alle Definitionen durchlaufen, Key-Matching
+ * per lower-case/contains) gegen den EnumMap-Index aus {@link QuestService#buildStatIndex}.
+ * Ergebnis in Nanosekunden pro Stat.
+ *
+ * {@code definitions}: 38 ≈ ein normaler Tag (Daily/Weekly/Monthly/Lifetime/Event-Vorlagen),
+ * größere Werte für Server mit vielen eigenen Quests.
+ *
+ * Start: {@code main()} aus der IDE bzw. mit dem Test-Classpath (mvn test-compile).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestStatRoutingBenchmark {
+
+    private static final int STATS = 1024;
+
+    // Keys der eingebauten Vorlagen
+    private static final String[] TEMPLATE_KEYS = {
+            "daily_nodeath_playtime", "daily_break_stone", "daily_break_ores", "daily_break_gravel",
+            "daily_break_dirt", "daily_break_sand", "daily_break_wood", "daily_break_crops",
+            "daily_break_sugarcane", "daily_break_nether", "daily_kill_mobs", "daily_kill_zombies",
+            "daily_kill_creepers", "daily_fish", "daily_trades", "daily_walk", "daily_play_minutes",
+            "daily_login", "daily_craft_torches", "daily_craft_bread", "daily_craft_tools",
+            "daily_smelt_ores", "daily_smelt_food", "weekly_break_stone", "weekly_kill_mobs",
+            "weekly_crops", "weekly_trades", "weekly_play_minutes", "weekly_smelt_ores",
+            "monthly_break_stone", "monthly_smelt_materials", "lifetime_mine_100k_stone",
+            "lifetime_kill_50k_mobs", "lifetime_trades_500", "lifetime_walk_2m_blocks",
+            "lifetime_login_streak_7", "event_xmas_snowballs", "event_halloween_pumpkins"
+    };
+
+    @Param({"38", "256"})
+    public int definitions;
+
+    private QuestDefinition[] defs;
+    private Map<StatType, QuestDefinition[]> index;
+    private StatType[] stats;
+
+    @Setup
+    public void setup() {
+        List<QuestDefinition> list = new ArrayList<>(definitions);
+        for (int i = 0; i < definitions; i++) {
+            String base = TEMPLATE_KEYS[i % TEMPLATE_KEYS.length];
+            String key = i < TEMPLATE_KEYS.length ? base : base + "_" + i;
+            QuestType type = QuestType.valueOf(base.substring(0, base.indexOf('_')).toUpperCase(Locale.ROOT));
+            list.add(new QuestDefinition(key, key, "", type, 100, 10, 0, true));
+        }
+        defs = list.toArray(new QuestDefinition[0]);
+        index = QuestService.buildStatIndex(list);
+
+        // Verteilung grob wie im Betrieb: überwiegend Abbau, Laufen und Spielzeit
+        StatType[] hot = {StatType.BREAK, StatType.STONE, StatType.BREAK, StatType.WALK,
+                StatType.PLAYTIME, StatType.PLACE, StatType.MOB, StatType.ORE};
+        StatType[] all = StatType.values();
+        Random random = new Random(11);
+        stats = new StatType[STATS];
+        for (int i = 0; i < STATS; i++) {
+            stats[i] = random.nextInt(4) == 0 ? all[random.nextInt(all.length)] : hot[random.nextInt(hot.length)];
+        }
+
+        // beide Wege müssen dieselben Quests liefern
+        for (StatType stat : all) {
+            List<QuestDefinition> expected = new ArrayList<>();
+            for (QuestDefinition def : defs) {
+                if (def.active() && QuestService.matchesStat(def, stat)) expected.add(def);
+            }
+            if (!Arrays.equals(expected.toArray(), index.get(stat))) {
+                throw new IllegalStateException("Index weicht vom Matcher ab für " + stat);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATS)
+    public void stringMatcher(Blackhole bh) {
+        for (StatType stat : stats) {
+            for (QuestDefinition def : defs) {
+                if (!def.active()) continue;
+                if (!QuestService.matchesStat(def, stat)) continue;
+                bh.consume(def);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATS)
+    public void enumMapIndex(Blackhole bh) {
+        for (StatType stat : stats) {
+            for (QuestDefinition def : index.get(stat)) {
+                bh.consume(def);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QuestStatRoutingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}